@@ -0,0 +1,32 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.google.firebase;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Fake FirebaseApp, apps are created on first use.
+public class FirebaseApp {
+  private static final Map<String, FirebaseApp> instances = new HashMap<>();
+
+  private final String name;
+
+  private FirebaseApp(String name) {
+    this.name = name;
+  }
+
+  public static synchronized FirebaseApp getInstance(String name) {
+    FirebaseApp app = instances.get(name);
+    if (app == null) {
+      app = new FirebaseApp(name);
+      instances.put(name, app);
+    }
+    return app;
+  }
+
+  public String getName() {
+    return name;
+  }
+}
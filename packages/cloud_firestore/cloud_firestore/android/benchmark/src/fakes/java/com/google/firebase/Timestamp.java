@@ -0,0 +1,23 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.google.firebase;
+
+public final class Timestamp {
+  private final long seconds;
+  private final int nanoseconds;
+
+  public Timestamp(long seconds, int nanoseconds) {
+    this.seconds = seconds;
+    this.nanoseconds = nanoseconds;
+  }
+
+  public long getSeconds() {
+    return seconds;
+  }
+
+  public int getNanoseconds() {
+    return nanoseconds;
+  }
+}
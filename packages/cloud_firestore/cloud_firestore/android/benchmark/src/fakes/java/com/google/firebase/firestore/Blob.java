@@ -0,0 +1,21 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.google.firebase.firestore;
+
+public final class Blob {
+  private final byte[] bytes;
+
+  private Blob(byte[] bytes) {
+    this.bytes = bytes;
+  }
+
+  public static Blob fromBytes(byte[] bytes) {
+    return new Blob(bytes);
+  }
+
+  public byte[] toBytes() {
+    return bytes;
+  }
+}
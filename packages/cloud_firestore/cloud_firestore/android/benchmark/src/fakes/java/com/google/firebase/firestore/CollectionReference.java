@@ -0,0 +1,11 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.google.firebase.firestore;
+
+public class CollectionReference extends Query {
+  CollectionReference(FirebaseFirestore firestore) {
+    super(firestore);
+  }
+}
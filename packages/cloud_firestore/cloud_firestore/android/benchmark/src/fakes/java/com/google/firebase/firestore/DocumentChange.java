@@ -0,0 +1,41 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.google.firebase.firestore;
+
+public class DocumentChange {
+  public enum Type {
+    ADDED,
+    MODIFIED,
+    REMOVED
+  }
+
+  private final Type type;
+  private final QueryDocumentSnapshot document;
+  private final int oldIndex;
+  private final int newIndex;
+
+  public DocumentChange(QueryDocumentSnapshot document, Type type, int oldIndex, int newIndex) {
+    this.type = type;
+    this.document = document;
+    this.oldIndex = oldIndex;
+    this.newIndex = newIndex;
+  }
+
+  public Type getType() {
+    return type;
+  }
+
+  public QueryDocumentSnapshot getDocument() {
+    return document;
+  }
+
+  public int getOldIndex() {
+    return oldIndex;
+  }
+
+  public int getNewIndex() {
+    return newIndex;
+  }
+}
@@ -0,0 +1,23 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.google.firebase.firestore;
+
+public class DocumentReference {
+  private final FirebaseFirestore firestore;
+  private final String path;
+
+  DocumentReference(FirebaseFirestore firestore, String path) {
+    this.firestore = firestore;
+    this.path = path;
+  }
+
+  public FirebaseFirestore getFirestore() {
+    return firestore;
+  }
+
+  public String getPath() {
+    return path;
+  }
+}
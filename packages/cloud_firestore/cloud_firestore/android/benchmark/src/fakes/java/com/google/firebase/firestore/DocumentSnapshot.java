@@ -0,0 +1,36 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.google.firebase.firestore;
+
+import java.util.Map;
+
+public class DocumentSnapshot {
+  private final DocumentReference reference;
+  private final Map<String, Object> data;
+  private final SnapshotMetadata metadata;
+
+  public DocumentSnapshot(
+      DocumentReference reference, Map<String, Object> data, SnapshotMetadata metadata) {
+    this.reference = reference;
+    this.data = data;
+    this.metadata = metadata;
+  }
+
+  public DocumentReference getReference() {
+    return reference;
+  }
+
+  public boolean exists() {
+    return data != null;
+  }
+
+  public Map<String, Object> getData() {
+    return data;
+  }
+
+  public SnapshotMetadata getMetadata() {
+    return metadata;
+  }
+}
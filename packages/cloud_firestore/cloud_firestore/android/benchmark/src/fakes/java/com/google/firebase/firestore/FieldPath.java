@@ -0,0 +1,36 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.google.firebase.firestore;
+
+import java.util.Arrays;
+import java.util.List;
+
+public final class FieldPath {
+  private static final FieldPath DOCUMENT_ID = new FieldPath(Arrays.asList("__name__"));
+
+  private final List<String> segments;
+
+  private FieldPath(List<String> segments) {
+    this.segments = segments;
+  }
+
+  public static FieldPath of(String... fieldNames) {
+    return new FieldPath(Arrays.asList(fieldNames));
+  }
+
+  public static FieldPath documentId() {
+    return DOCUMENT_ID;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return o instanceof FieldPath && segments.equals(((FieldPath) o).segments);
+  }
+
+  @Override
+  public int hashCode() {
+    return segments.hashCode();
+  }
+}
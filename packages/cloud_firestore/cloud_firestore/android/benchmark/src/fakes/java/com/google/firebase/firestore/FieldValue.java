@@ -0,0 +1,40 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.google.firebase.firestore;
+
+// Fake FieldValue, the sentinels only need to be allocated the way the SDK would.
+public class FieldValue {
+  private final String methodName;
+  private final Object operand;
+
+  private FieldValue(String methodName, Object operand) {
+    this.methodName = methodName;
+    this.operand = operand;
+  }
+
+  public static FieldValue delete() {
+    return new FieldValue("FieldValue.delete", null);
+  }
+
+  public static FieldValue serverTimestamp() {
+    return new FieldValue("FieldValue.serverTimestamp", null);
+  }
+
+  public static FieldValue arrayUnion(Object... elements) {
+    return new FieldValue("FieldValue.arrayUnion", elements);
+  }
+
+  public static FieldValue arrayRemove(Object... elements) {
+    return new FieldValue("FieldValue.arrayRemove", elements);
+  }
+
+  public static FieldValue increment(long l) {
+    return new FieldValue("FieldValue.increment", l);
+  }
+
+  public static FieldValue increment(double l) {
+    return new FieldValue("FieldValue.increment", l);
+  }
+}
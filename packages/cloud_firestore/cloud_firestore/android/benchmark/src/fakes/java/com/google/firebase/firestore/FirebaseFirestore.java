@@ -0,0 +1,37 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.google.firebase.firestore;
+
+import com.google.firebase.FirebaseApp;
+
+public class FirebaseFirestore {
+  private final FirebaseApp app;
+
+  private FirebaseFirestore(FirebaseApp app) {
+    this.app = app;
+  }
+
+  public static FirebaseFirestore getInstance(FirebaseApp app) {
+    return new FirebaseFirestore(app);
+  }
+
+  public FirebaseApp getApp() {
+    return app;
+  }
+
+  public void setFirestoreSettings(FirebaseFirestoreSettings settings) {}
+
+  public DocumentReference document(String documentPath) {
+    return new DocumentReference(this, documentPath);
+  }
+
+  public CollectionReference collection(String collectionPath) {
+    return new CollectionReference(this);
+  }
+
+  public Query collectionGroup(String collectionId) {
+    return new Query(this);
+  }
+}
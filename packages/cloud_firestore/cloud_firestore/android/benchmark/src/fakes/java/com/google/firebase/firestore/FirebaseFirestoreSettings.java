@@ -0,0 +1,33 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.google.firebase.firestore;
+
+public final class FirebaseFirestoreSettings {
+  public static final long CACHE_SIZE_UNLIMITED = -1;
+
+  private FirebaseFirestoreSettings() {}
+
+  public static final class Builder {
+    public Builder setHost(String host) {
+      return this;
+    }
+
+    public Builder setSslEnabled(boolean sslEnabled) {
+      return this;
+    }
+
+    public Builder setPersistenceEnabled(boolean persistenceEnabled) {
+      return this;
+    }
+
+    public Builder setCacheSizeBytes(long cacheSizeBytes) {
+      return this;
+    }
+
+    public FirebaseFirestoreSettings build() {
+      return new FirebaseFirestoreSettings();
+    }
+  }
+}
@@ -0,0 +1,93 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.google.firebase.firestore;
+
+import java.util.List;
+
+// Fake Query, filters are ignored as no query is ever run.
+public class Query {
+  public enum Direction {
+    ASCENDING,
+    DESCENDING
+  }
+
+  private final FirebaseFirestore firestore;
+
+  Query(FirebaseFirestore firestore) {
+    this.firestore = firestore;
+  }
+
+  public FirebaseFirestore getFirestore() {
+    return firestore;
+  }
+
+  public Query whereEqualTo(FieldPath fieldPath, Object value) {
+    return this;
+  }
+
+  public Query whereNotEqualTo(FieldPath fieldPath, Object value) {
+    return this;
+  }
+
+  public Query whereLessThan(FieldPath fieldPath, Object value) {
+    return this;
+  }
+
+  public Query whereLessThanOrEqualTo(FieldPath fieldPath, Object value) {
+    return this;
+  }
+
+  public Query whereGreaterThan(FieldPath fieldPath, Object value) {
+    return this;
+  }
+
+  public Query whereGreaterThanOrEqualTo(FieldPath fieldPath, Object value) {
+    return this;
+  }
+
+  public Query whereArrayContains(FieldPath fieldPath, Object value) {
+    return this;
+  }
+
+  public Query whereArrayContainsAny(FieldPath fieldPath, List<?> values) {
+    return this;
+  }
+
+  public Query whereIn(FieldPath fieldPath, List<?> values) {
+    return this;
+  }
+
+  public Query whereNotIn(FieldPath fieldPath, List<?> values) {
+    return this;
+  }
+
+  public Query limit(long limit) {
+    return this;
+  }
+
+  public Query limitToLast(long limit) {
+    return this;
+  }
+
+  public Query orderBy(FieldPath fieldPath, Direction direction) {
+    return this;
+  }
+
+  public Query startAt(Object... fieldValues) {
+    return this;
+  }
+
+  public Query startAfter(Object... fieldValues) {
+    return this;
+  }
+
+  public Query endAt(Object... fieldValues) {
+    return this;
+  }
+
+  public Query endBefore(Object... fieldValues) {
+    return this;
+  }
+}
@@ -0,0 +1,14 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.google.firebase.firestore;
+
+import java.util.Map;
+
+public class QueryDocumentSnapshot extends DocumentSnapshot {
+  public QueryDocumentSnapshot(
+      DocumentReference reference, Map<String, Object> data, SnapshotMetadata metadata) {
+    super(reference, data, metadata);
+  }
+}
@@ -0,0 +1,43 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.google.firebase.firestore;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class QuerySnapshot {
+  private final List<QueryDocumentSnapshot> documents;
+  private final List<DocumentChange> documentChanges;
+  private final SnapshotMetadata metadata;
+
+  public QuerySnapshot(
+      List<QueryDocumentSnapshot> documents,
+      List<DocumentChange> documentChanges,
+      SnapshotMetadata metadata) {
+    this.documents = documents;
+    this.documentChanges = documentChanges;
+    this.metadata = metadata;
+  }
+
+  public List<DocumentSnapshot> getDocuments() {
+    return new ArrayList<>(documents);
+  }
+
+  public List<DocumentChange> getDocumentChanges() {
+    return documentChanges;
+  }
+
+  public List<DocumentChange> getDocumentChanges(MetadataChanges metadataChanges) {
+    return documentChanges;
+  }
+
+  public SnapshotMetadata getMetadata() {
+    return metadata;
+  }
+
+  public int size() {
+    return documents.size();
+  }
+}
@@ -0,0 +1,23 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package com.google.firebase.firestore;
+
+public class SnapshotMetadata {
+  private final boolean hasPendingWrites;
+  private final boolean isFromCache;
+
+  public SnapshotMetadata(boolean hasPendingWrites, boolean isFromCache) {
+    this.hasPendingWrites = hasPendingWrites;
+    this.isFromCache = isFromCache;
+  }
+
+  public boolean hasPendingWrites() {
+    return hasPendingWrites;
+  }
+
+  public boolean isFromCache() {
+    return isFromCache;
+  }
+}
@@ -0,0 +1,29 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.firebase.firestore;
+
+import com.google.firebase.firestore.FirebaseFirestore;
+import java.lang.ref.WeakReference;
+import java.util.WeakHashMap;
+
+// Stands in for the plugin, of which the codec only uses the Firestore instance cache.
+public class FlutterFirebaseFirestorePlugin {
+  protected static final WeakHashMap<String, WeakReference<FirebaseFirestore>>
+      firestoreInstanceCache = new WeakHashMap<>();
+
+  protected static FirebaseFirestore getCachedFirebaseFirestoreInstanceForKey(String key) {
+    synchronized (firestoreInstanceCache) {
+      WeakReference<FirebaseFirestore> existingInstance = firestoreInstanceCache.get(key);
+      return existingInstance != null ? existingInstance.get() : null;
+    }
+  }
+
+  protected static void setCachedFirebaseFirestoreInstanceForKey(
+      FirebaseFirestore firestore, String key) {
+    synchronized (firestoreInstanceCache) {
+      firestoreInstanceCache.put(key, new WeakReference<>(firestore));
+    }
+  }
+}
@@ -0,0 +1,157 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.firebase.firestore;
+
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.Blob;
+import com.google.firebase.firestore.GeoPoint;
+import io.flutter.plugin.common.StandardMessageCodec;
+import java.io.ByteArrayOutputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Encodes values the way the Dart FirestoreMessageCodec does, to produce the messages the
+// Android codec reads.
+class DartMessageWriter extends StandardMessageCodec {
+  static final DartMessageWriter INSTANCE = new DartMessageWriter();
+
+  private static final byte DATA_TYPE_GEO_POINT = (byte) 129;
+  private static final byte DATA_TYPE_DOCUMENT_REFERENCE = (byte) 130;
+  private static final byte DATA_TYPE_BLOB = (byte) 131;
+  private static final byte DATA_TYPE_ARRAY_UNION = (byte) 132;
+  private static final byte DATA_TYPE_ARRAY_REMOVE = (byte) 133;
+  private static final byte DATA_TYPE_DELETE = (byte) 134;
+  private static final byte DATA_TYPE_SERVER_TIMESTAMP = (byte) 135;
+  private static final byte DATA_TYPE_TIMESTAMP = (byte) 136;
+  private static final byte DATA_TYPE_INCREMENT_DOUBLE = (byte) 137;
+  private static final byte DATA_TYPE_INCREMENT_INTEGER = (byte) 138;
+  private static final byte DATA_TYPE_FIELD_PATH = (byte) 140;
+  private static final byte DATA_TYPE_FIRESTORE_INSTANCE = (byte) 144;
+  private static final byte DATA_TYPE_FIRESTORE_QUERY = (byte) 145;
+  private static final byte DATA_TYPE_FIRESTORE_SETTINGS = (byte) 146;
+
+  static class Sentinel {
+    final byte type;
+    final Object operand;
+
+    private Sentinel(byte type, Object operand) {
+      this.type = type;
+      this.operand = operand;
+    }
+
+    static Sentinel delete() {
+      return new Sentinel(DATA_TYPE_DELETE, null);
+    }
+
+    static Sentinel serverTimestamp() {
+      return new Sentinel(DATA_TYPE_SERVER_TIMESTAMP, null);
+    }
+
+    static Sentinel increment(int value) {
+      return new Sentinel(DATA_TYPE_INCREMENT_INTEGER, value);
+    }
+
+    static Sentinel increment(double value) {
+      return new Sentinel(DATA_TYPE_INCREMENT_DOUBLE, value);
+    }
+
+    static Sentinel arrayUnion(List<Object> elements) {
+      return new Sentinel(DATA_TYPE_ARRAY_UNION, elements);
+    }
+
+    static Sentinel arrayRemove(List<Object> elements) {
+      return new Sentinel(DATA_TYPE_ARRAY_REMOVE, elements);
+    }
+  }
+
+  static class Firestore {
+    final String appName;
+
+    Firestore(String appName) {
+      this.appName = appName;
+    }
+  }
+
+  static class Reference {
+    final Firestore firestore;
+    final String path;
+
+    Reference(Firestore firestore, String path) {
+      this.firestore = firestore;
+      this.path = path;
+    }
+  }
+
+  static class FieldPath {
+    final List<String> segments;
+
+    FieldPath(List<String> segments) {
+      this.segments = segments;
+    }
+  }
+
+  static class Query {
+    final Firestore firestore;
+    final String path;
+    final Map<String, Object> parameters;
+
+    Query(Firestore firestore, String path, Map<String, Object> parameters) {
+      this.firestore = firestore;
+      this.path = path;
+      this.parameters = parameters;
+    }
+  }
+
+  @Override
+  protected void writeValue(ByteArrayOutputStream stream, Object value) {
+    if (value instanceof Timestamp) {
+      stream.write(DATA_TYPE_TIMESTAMP);
+      writeLong(stream, ((Timestamp) value).getSeconds());
+      writeInt(stream, ((Timestamp) value).getNanoseconds());
+    } else if (value instanceof GeoPoint) {
+      stream.write(DATA_TYPE_GEO_POINT);
+      writeAlignment(stream, 8);
+      writeDouble(stream, ((GeoPoint) value).getLatitude());
+      writeDouble(stream, ((GeoPoint) value).getLongitude());
+    } else if (value instanceof Blob) {
+      stream.write(DATA_TYPE_BLOB);
+      writeBytes(stream, ((Blob) value).toBytes());
+    } else if (value instanceof Sentinel) {
+      Sentinel sentinel = (Sentinel) value;
+      stream.write(sentinel.type);
+      if (sentinel.operand != null) {
+        writeValue(stream, sentinel.operand);
+      }
+    } else if (value instanceof Firestore) {
+      stream.write(DATA_TYPE_FIRESTORE_INSTANCE);
+      writeValue(stream, ((Firestore) value).appName);
+      stream.write(DATA_TYPE_FIRESTORE_SETTINGS);
+      writeValue(stream, new HashMap<String, Object>());
+    } else if (value instanceof Reference) {
+      stream.write(DATA_TYPE_DOCUMENT_REFERENCE);
+      writeValue(stream, ((Reference) value).firestore);
+      writeValue(stream, ((Reference) value).path);
+    } else if (value instanceof FieldPath) {
+      List<String> segments = ((FieldPath) value).segments;
+      stream.write(DATA_TYPE_FIELD_PATH);
+      writeSize(stream, segments.size());
+      for (String segment : segments) {
+        writeValue(stream, segment);
+      }
+    } else if (value instanceof Query) {
+      Query query = (Query) value;
+      Map<String, Object> queryMap = new HashMap<>();
+      queryMap.put("firestore", query.firestore);
+      queryMap.put("path", query.path);
+      queryMap.put("isCollectionGroup", false);
+      queryMap.put("parameters", query.parameters);
+      stream.write(DATA_TYPE_FIRESTORE_QUERY);
+      writeValue(stream, queryMap);
+    } else {
+      super.writeValue(stream, value);
+    }
+  }
+}
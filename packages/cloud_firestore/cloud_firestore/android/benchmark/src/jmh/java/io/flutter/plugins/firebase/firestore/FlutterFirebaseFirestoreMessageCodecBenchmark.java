@@ -0,0 +1,293 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.firebase.firestore;
+
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.Blob;
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.GeoPoint;
+import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.SnapshotMetadata;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Measures encoding of the snapshots sent to Dart and decoding of the arguments Dart sends.
+// Throughput and sampled latency percentiles come from the benchmark modes, allocation rates from
+// the gc profiler enabled in build.gradle.
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FlutterFirebaseFirestoreMessageCodecBenchmark {
+  private static final String APP_NAME = "[DEFAULT]";
+  // The number of documents that changed between the two snapshots of the delta benchmark.
+  private static final int MODIFIED_DOCUMENT_COUNT = 10;
+  private static final int BATCH_WRITE_COUNT = 500;
+
+  private final FlutterFirebaseFirestoreMessageCodec codec =
+      FlutterFirebaseFirestoreMessageCodec.INSTANCE;
+
+  private DocumentSnapshot documentSnapshot;
+  private ByteBuffer batchWriteMessage;
+  private ByteBuffer queryMessage;
+
+  // Snapshots are kept in a separate state so only the benchmarks using them run for every
+  // document count.
+  @State(Scope.Thread)
+  public static class Snapshots {
+    @Param({"1000", "10000"})
+    public int documentCount;
+
+    QuerySnapshot querySnapshot;
+    QuerySnapshot modifiedQuerySnapshot;
+
+    @Setup
+    public void setUp() {
+      FirebaseFirestore firestore =
+          FirebaseFirestore.getInstance(FirebaseApp.getInstance(APP_NAME));
+      Random random = new Random(42);
+      SnapshotMetadata metadata = new SnapshotMetadata(false, false);
+
+      List<QueryDocumentSnapshot> documents = new ArrayList<>(documentCount);
+      List<DocumentChange> addedChanges = new ArrayList<>(documentCount);
+
+      for (int i = 0; i < documentCount; i++) {
+        QueryDocumentSnapshot document =
+            new QueryDocumentSnapshot(
+                firestore.document("users/user-" + i),
+                createDocumentData(firestore, random, i),
+                metadata);
+        documents.add(document);
+        addedChanges.add(new DocumentChange(document, DocumentChange.Type.ADDED, -1, i));
+      }
+
+      List<QueryDocumentSnapshot> modifiedDocuments = new ArrayList<>(documents);
+      List<DocumentChange> modifiedChanges = new ArrayList<>(MODIFIED_DOCUMENT_COUNT);
+
+      for (int i = 0; i < MODIFIED_DOCUMENT_COUNT; i++) {
+        int index = random.nextInt(documentCount);
+        QueryDocumentSnapshot document =
+            new QueryDocumentSnapshot(
+                firestore.document("users/user-" + index),
+                createDocumentData(firestore, random, index),
+                metadata);
+        modifiedDocuments.set(index, document);
+        modifiedChanges.add(
+            new DocumentChange(document, DocumentChange.Type.MODIFIED, index, index));
+      }
+
+      querySnapshot = new QuerySnapshot(documents, addedChanges, metadata);
+      modifiedQuerySnapshot = new QuerySnapshot(modifiedDocuments, modifiedChanges, metadata);
+    }
+  }
+
+  // Drops the queries and references cached by the codec before every invocation, so queries are
+  // built from scratch as they are the first time a listener is added.
+  @State(Scope.Thread)
+  public static class ColdCaches {
+    @Setup(Level.Invocation)
+    public void clear() {
+      FlutterFirebaseFirestoreMessageCodec.INSTANCE.clearCachedReferences(APP_NAME);
+    }
+  }
+
+  @Setup
+  public void setUp() {
+    FirebaseFirestore firestore = FirebaseFirestore.getInstance(FirebaseApp.getInstance(APP_NAME));
+    Random random = new Random(42);
+
+    documentSnapshot =
+        new DocumentSnapshot(
+            firestore.document("users/user-0"),
+            createDocumentData(firestore, random, 0),
+            new SnapshotMetadata(false, false));
+
+    DartMessageWriter.Firestore dartFirestore = new DartMessageWriter.Firestore(APP_NAME);
+    batchWriteMessage =
+        DartMessageWriter.INSTANCE.encodeMessage(createBatchWriteArguments(dartFirestore, random));
+    queryMessage = DartMessageWriter.INSTANCE.encodeMessage(createQueryArguments(dartFirestore));
+  }
+
+  @Benchmark
+  public ByteBuffer writeDocumentSnapshot() {
+    return codec.encodeMessage(documentSnapshot);
+  }
+
+  @Benchmark
+  public ByteBuffer writeQuerySnapshot(Snapshots snapshots) {
+    return codec.encodeMessage(snapshots.querySnapshot);
+  }
+
+  // Baseline for writeQuerySnapshot: the same snapshot in the map per document layout used before
+  // the columnar encoding. Building the maps is part of encoding, as it was then.
+  @Benchmark
+  public ByteBuffer writeQuerySnapshotAsMaps(Snapshots snapshots) {
+    return codec.encodeMessage(createQuerySnapshotMap(snapshots.querySnapshot));
+  }
+
+  @Benchmark
+  public ByteBuffer writeQuerySnapshotDelta(Snapshots snapshots) {
+    return codec.encodeMessage(
+        new FlutterFirebaseFirestoreQuerySnapshotDelta(snapshots.modifiedQuerySnapshot));
+  }
+
+  @Benchmark
+  public Object readBatchWrite() {
+    batchWriteMessage.rewind();
+    return codec.decodeMessage(batchWriteMessage);
+  }
+
+  // Reads a query already in the codec's query cache, as when a listener is added again.
+  @Benchmark
+  public Object readQueryWarm() {
+    queryMessage.rewind();
+    return codec.decodeMessage(queryMessage);
+  }
+
+  // Reads and builds a query the codec hasn't cached yet.
+  @Benchmark
+  public Object readQueryCold(ColdCaches coldCaches) {
+    queryMessage.rewind();
+    return codec.decodeMessage(queryMessage);
+  }
+
+  private static Map<String, Object> createDocumentData(
+      FirebaseFirestore firestore, Random random, int index) {
+    Map<String, Object> address = new HashMap<>();
+    address.put("street", random.nextInt(1000) + " Main Street");
+    address.put("city", "City " + random.nextInt(50));
+    address.put("location", new GeoPoint(random.nextDouble() * 90, random.nextDouble() * 180));
+
+    byte[] avatar = new byte[64];
+    random.nextBytes(avatar);
+
+    Map<String, Object> data = new HashMap<>();
+    data.put("name", "User " + index);
+    data.put("age", 18 + random.nextInt(60));
+    data.put("score", random.nextDouble() * 100);
+    data.put("active", random.nextBoolean());
+    data.put("createdAt", new Timestamp(1600000000L + random.nextInt(10000000), 0));
+    data.put("avatar", Blob.fromBytes(avatar));
+    data.put("tags", Arrays.asList("tag-" + random.nextInt(10), "tag-" + random.nextInt(10)));
+    data.put("address", address);
+    data.put("team", firestore.document("teams/team-" + random.nextInt(20)));
+
+    // Sparse fields leave gaps in the columns of a query snapshot.
+    if (index % 3 == 0) {
+      data.put("nickname", "Nick " + index);
+    }
+
+    return data;
+  }
+
+  // Lays out a snapshot the way the codec did before the columnar encoding, with the paths, data
+  // and metadata of each document in parallel lists.
+  private static Map<String, Object> createQuerySnapshotMap(QuerySnapshot querySnapshot) {
+    List<String> paths = new ArrayList<>();
+    List<Map<String, Object>> documents = new ArrayList<>();
+    List<SnapshotMetadata> metadatas = new ArrayList<>();
+
+    for (DocumentSnapshot document : querySnapshot.getDocuments()) {
+      paths.add(document.getReference().getPath());
+      documents.add(document.getData());
+      metadatas.add(document.getMetadata());
+    }
+
+    Map<String, Object> querySnapshotMap = new HashMap<>();
+    querySnapshotMap.put("paths", paths);
+    querySnapshotMap.put("documents", documents);
+    querySnapshotMap.put("metadatas", metadatas);
+    querySnapshotMap.put("documentChanges", querySnapshot.getDocumentChanges());
+    querySnapshotMap.put("metadata", querySnapshot.getMetadata());
+    return querySnapshotMap;
+  }
+
+  private static Map<String, Object> createBatchWriteArguments(
+      DartMessageWriter.Firestore firestore, Random random) {
+    List<Object> writes = new ArrayList<>(BATCH_WRITE_COUNT);
+
+    for (int i = 0; i < BATCH_WRITE_COUNT; i++) {
+      Map<String, Object> data = new HashMap<>();
+      data.put("visits", DartMessageWriter.Sentinel.increment(1));
+      data.put("balance", DartMessageWriter.Sentinel.increment(random.nextDouble()));
+      data.put("updatedAt", DartMessageWriter.Sentinel.serverTimestamp());
+      data.put(
+          "tags",
+          DartMessageWriter.Sentinel.arrayUnion(Arrays.<Object>asList("tag-" + i % 10, "new")));
+      data.put(
+          "obsoleteTags", DartMessageWriter.Sentinel.arrayRemove(Arrays.<Object>asList("old")));
+      data.put("legacy", DartMessageWriter.Sentinel.delete());
+      data.put("lastSeen", new Timestamp(1600000000L + i, 0));
+      data.put("location", new GeoPoint(random.nextDouble() * 90, random.nextDouble() * 180));
+      data.put("team", new DartMessageWriter.Reference(firestore, "teams/team-" + i % 20));
+
+      Map<String, Object> profile = new HashMap<>();
+      profile.put("bio", "Bio of user " + i);
+      profile.put("avatar", Blob.fromBytes(new byte[32]));
+      data.put("profile", profile);
+
+      Map<String, Object> options = new HashMap<>();
+      options.put("merge", true);
+
+      Map<String, Object> write = new HashMap<>();
+      write.put("type", "SET");
+      write.put("path", "users/user-" + i);
+      write.put("data", data);
+      write.put("options", options);
+      writes.add(write);
+    }
+
+    Map<String, Object> arguments = new HashMap<>();
+    arguments.put("firestore", firestore);
+    arguments.put("writes", writes);
+    return arguments;
+  }
+
+  private static Map<String, Object> createQueryArguments(DartMessageWriter.Firestore firestore) {
+    List<Object> where = new ArrayList<>();
+    where.add(
+        Arrays.asList(
+            new DartMessageWriter.FieldPath(Arrays.asList("address", "city")), "==", "City 1"));
+    where.add(Arrays.asList(new DartMessageWriter.FieldPath(Arrays.asList("age")), ">=", 21));
+
+    List<Object> orderBy = new ArrayList<>();
+    orderBy.add(Arrays.asList(new DartMessageWriter.FieldPath(Arrays.asList("age")), false));
+
+    Map<String, Object> parameters = new HashMap<>();
+    parameters.put("where", where);
+    parameters.put("orderBy", orderBy);
+    parameters.put("limit", 50);
+
+    Map<String, Object> arguments = new HashMap<>();
+    arguments.put("handle", 1);
+    arguments.put("includeMetadataChanges", false);
+    arguments.put("query", new DartMessageWriter.Query(firestore, "users", parameters));
+    return arguments;
+  }
+}
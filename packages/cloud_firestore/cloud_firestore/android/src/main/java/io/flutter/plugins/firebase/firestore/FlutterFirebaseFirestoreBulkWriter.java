@@ -0,0 +1,204 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.firebase.firestore;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.WriteBatch;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+// Commits a stream of write chunks sent from Dart under a single bulk write handle. Each chunk
+// is split into batches no larger than the server limit, and at most maxConcurrentBatches
+// batches are committed at once. A failed batch does not stop the remaining batches.
+class FlutterFirebaseFirestoreBulkWriter {
+  // The maximum number of operations the server accepts in a single batch.
+  static final int MAX_BATCH_SIZE = 500;
+  static final int DEFAULT_MAX_CONCURRENT_BATCHES = 4;
+
+  private final FirebaseFirestore firestore;
+  private final Executor executor;
+  private final int maxConcurrentBatches;
+
+  private final Queue<PendingBatch> pendingBatches = new ArrayDeque<>();
+  private int inFlightBatches = 0;
+  private int committedWrites = 0;
+  private int failedWrites = 0;
+  private TaskCompletionSource<Map<String, Object>> closeCompletionSource;
+
+  private static class Chunk {
+    final TaskCompletionSource<Map<String, Object>> completionSource =
+        new TaskCompletionSource<>();
+    final List<Map<String, Object>> errors = new ArrayList<>();
+    int remainingBatches;
+    int committed = 0;
+    int failed = 0;
+  }
+
+  private static class PendingBatch {
+    final Chunk chunk;
+    final WriteBatch batch;
+    final int startIndex;
+    final int size;
+
+    PendingBatch(Chunk chunk, WriteBatch batch, int startIndex, int size) {
+      this.chunk = chunk;
+      this.batch = batch;
+      this.startIndex = startIndex;
+      this.size = size;
+    }
+  }
+
+  FlutterFirebaseFirestoreBulkWriter(
+      FirebaseFirestore firestore, Executor executor, int maxConcurrentBatches) {
+    this.firestore = firestore;
+    this.executor = executor;
+    this.maxConcurrentBatches = Math.max(1, maxConcurrentBatches);
+  }
+
+  FirebaseFirestore getFirestore() {
+    return firestore;
+  }
+
+  // Queues the writes of a chunk. The returned task completes once every batch of the chunk has
+  // been committed or has failed, with the number of committed and failed writes and the errors
+  // of failed batches.
+  Task<Map<String, Object>> addChunk(List<Map<String, Object>> writes) {
+    Chunk chunk = new Chunk();
+    List<PendingBatch> batches = new ArrayList<>();
+
+    for (int start = 0; start < writes.size(); start += MAX_BATCH_SIZE) {
+      int end = Math.min(start + MAX_BATCH_SIZE, writes.size());
+      WriteBatch batch = firestore.batch();
+
+      for (Map<String, Object> write : writes.subList(start, end)) {
+        batch = FlutterFirebaseFirestorePlugin.applyWrite(firestore, batch, write);
+      }
+
+      batches.add(new PendingBatch(chunk, batch, start, end - start));
+    }
+
+    if (batches.isEmpty()) {
+      chunk.completionSource.setResult(chunkResult(chunk));
+      return chunk.completionSource.getTask();
+    }
+
+    synchronized (this) {
+      if (closeCompletionSource != null) {
+        throw new IllegalStateException("Writes cannot be added to a closed bulk writer.");
+      }
+      chunk.remainingBatches = batches.size();
+      pendingBatches.addAll(batches);
+    }
+
+    commitPendingBatches();
+    return chunk.completionSource.getTask();
+  }
+
+  // Completes once every queued batch has been committed or has failed, with the total number of
+  // committed and failed writes. No chunks can be added afterwards.
+  Task<Map<String, Object>> close() {
+    synchronized (this) {
+      if (closeCompletionSource == null) {
+        closeCompletionSource = new TaskCompletionSource<>();
+      }
+      completeCloseIfIdle();
+      return closeCompletionSource.getTask();
+    }
+  }
+
+  private void commitPendingBatches() {
+    List<PendingBatch> batchesToCommit = new ArrayList<>();
+
+    synchronized (this) {
+      while (inFlightBatches < maxConcurrentBatches && !pendingBatches.isEmpty()) {
+        batchesToCommit.add(pendingBatches.poll());
+        inFlightBatches++;
+      }
+    }
+
+    for (PendingBatch pendingBatch : batchesToCommit) {
+      pendingBatch
+          .batch
+          .commit()
+          .addOnCompleteListener(executor, task -> onBatchComplete(pendingBatch, task));
+    }
+  }
+
+  private void onBatchComplete(PendingBatch pendingBatch, Task<Void> task) {
+    Chunk chunk = pendingBatch.chunk;
+    boolean chunkComplete;
+
+    synchronized (this) {
+      inFlightBatches--;
+
+      if (task.isSuccessful()) {
+        chunk.committed += pendingBatch.size;
+        committedWrites += pendingBatch.size;
+      } else {
+        chunk.failed += pendingBatch.size;
+        failedWrites += pendingBatch.size;
+        chunk.errors.add(batchError(pendingBatch, task.getException()));
+      }
+
+      chunkComplete = --chunk.remainingBatches == 0;
+    }
+
+    if (chunkComplete) {
+      chunk.completionSource.setResult(chunkResult(chunk));
+    }
+
+    commitPendingBatches();
+
+    synchronized (this) {
+      completeCloseIfIdle();
+    }
+  }
+
+  private void completeCloseIfIdle() {
+    if (closeCompletionSource == null || inFlightBatches > 0 || !pendingBatches.isEmpty()) {
+      return;
+    }
+
+    Map<String, Object> result = new HashMap<>();
+    result.put("committed", committedWrites);
+    result.put("failed", failedWrites);
+    closeCompletionSource.trySetResult(result);
+  }
+
+  private static Map<String, Object> chunkResult(Chunk chunk) {
+    Map<String, Object> result = new HashMap<>();
+    result.put("committed", chunk.committed);
+    result.put("failed", chunk.failed);
+    result.put("errors", chunk.errors);
+    return result;
+  }
+
+  private static Map<String, Object> batchError(PendingBatch pendingBatch, Exception exception) {
+    Map<String, Object> error = new HashMap<>();
+    error.put("index", pendingBatch.startIndex);
+    error.put("count", pendingBatch.size);
+
+    if (exception instanceof FirebaseFirestoreException) {
+      FlutterFirebaseFirestoreException firestoreException =
+          new FlutterFirebaseFirestoreException(
+              (FirebaseFirestoreException) exception, exception.getCause());
+      error.put("code", firestoreException.getCode());
+      error.put("message", firestoreException.getMessage());
+    } else {
+      error.put("code", "unknown");
+      error.put("message", exception != null ? exception.getMessage() : null);
+    }
+
+    return error;
+  }
+}
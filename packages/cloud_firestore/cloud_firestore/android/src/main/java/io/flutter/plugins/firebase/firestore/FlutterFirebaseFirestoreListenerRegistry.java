@@ -0,0 +1,214 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.firebase.firestore;
+
+import android.os.SystemClock;
+import androidx.annotation.Nullable;
+import com.google.firebase.firestore.ListenerRegistration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Keeps track of the native listeners created from Dart, keyed by their Dart handle, along with
+// statistics about the events each of them delivered. Listeners are added from pool threads and
+// removed from the platform thread, so every operation is safe to call from any thread.
+class FlutterFirebaseFirestoreListenerRegistry {
+  static final String TYPE_QUERY = "query";
+  static final String TYPE_DOCUMENT = "document";
+  static final String TYPE_SNAPSHOTS_IN_SYNC = "snapshotsInSync";
+
+  private final ConcurrentHashMap<Integer, Listener> listeners = new ConcurrentHashMap<>();
+
+  // Handles of the listeners created but not registered yet, and those of them removed from Dart
+  // in the meantime. Without the latter the listener would be added after its removal and never be
+  // removed. Both are guarded by pendingHandles, which also guards changes to listeners.
+  private final Set<Integer> pendingHandles = new HashSet<>();
+  private final Set<Integer> removedHandles = new HashSet<>();
+
+  static class Listener {
+    final int handle;
+    final String type;
+    final String appName;
+    final long createdAt = System.currentTimeMillis();
+    final long createdAtElapsed = SystemClock.elapsedRealtime();
+
+    private final AtomicLong eventsDelivered = new AtomicLong();
+    private final AtomicLong bytesEncoded = new AtomicLong();
+    private volatile long lastEventLatencyNanos = -1;
+
+    private ListenerRegistration registration;
+    private boolean removed = false;
+
+    @Nullable private FlutterFirebaseFirestoreSnapshotCoalescer<?> coalescer;
+    @Nullable private FlutterFirebaseFirestoreSnapshotSequence sequence;
+
+    private Listener(int handle, String type, String appName) {
+      this.handle = handle;
+      this.type = type;
+      this.appName = appName;
+    }
+
+    void setCoalescer(@Nullable FlutterFirebaseFirestoreSnapshotCoalescer<?> coalescer) {
+      this.coalescer = coalescer;
+    }
+
+    void setSequence(@Nullable FlutterFirebaseFirestoreSnapshotSequence sequence) {
+      this.sequence = sequence;
+    }
+
+    @Nullable
+    FlutterFirebaseFirestoreSnapshotSequence getSequence() {
+      return sequence;
+    }
+
+    synchronized boolean isRemoved() {
+      return removed;
+    }
+
+    // Records an event handed to the messenger. The latency is the time from the start of
+    // encoding the event until it was sent on the main thread.
+    void recordEvent(int bytes, long latencyNanos) {
+      eventsDelivered.incrementAndGet();
+      bytesEncoded.addAndGet(bytes);
+      lastEventLatencyNanos = latencyNanos;
+    }
+
+    private synchronized boolean attach(ListenerRegistration registration) {
+      if (removed) {
+        registration.remove();
+        return false;
+      }
+
+      this.registration = registration;
+      return true;
+    }
+
+    private synchronized void remove() {
+      removed = true;
+
+      if (coalescer != null) {
+        coalescer.cancel();
+      }
+
+      if (registration != null) {
+        registration.remove();
+        registration = null;
+      }
+    }
+
+    Map<String, Object> getStats() {
+      Map<String, Object> stats = new HashMap<>();
+      stats.put("handle", handle);
+      stats.put("type", type);
+      stats.put("appName", appName);
+      stats.put("createdAt", createdAt);
+      stats.put("ageMillis", SystemClock.elapsedRealtime() - createdAtElapsed);
+      stats.put("eventsDelivered", eventsDelivered.get());
+      stats.put("bytesEncoded", bytesEncoded.get());
+
+      long latencyNanos = lastEventLatencyNanos;
+      if (latencyNanos >= 0) {
+        stats.put("lastEventLatencyMicros", latencyNanos / 1000);
+      }
+
+      if (coalescer != null) {
+        stats.put("coalesced", coalescer.getCoalescedCount());
+      }
+
+      if (sequence != null) {
+        stats.put("lastAcknowledgedSequence", sequence.getLastAcknowledgedSequence());
+      }
+
+      return stats;
+    }
+  }
+
+  // Creates the bookkeeping for a listener. This should happen before the native listener is
+  // added so its first event can already be recorded.
+  Listener create(int handle, String type, String appName) {
+    synchronized (pendingHandles) {
+      pendingHandles.add(handle);
+    }
+
+    return new Listener(handle, type, appName);
+  }
+
+  // Registers a listener once its native registration exists. If Dart already removed the
+  // handle, the registration is removed straight away.
+  void register(Listener listener, ListenerRegistration registration) {
+    Listener previous;
+
+    synchronized (pendingHandles) {
+      pendingHandles.remove(listener.handle);
+      if (removedHandles.remove(listener.handle)) {
+        previous = null;
+        listener.remove();
+      } else {
+        previous = listeners.put(listener.handle, listener);
+      }
+    }
+
+    if (!listener.attach(registration)) {
+      return;
+    }
+
+    if (previous != null && previous != listener) {
+      previous.remove();
+    }
+  }
+
+  @Nullable
+  Listener get(int handle) {
+    return listeners.get(handle);
+  }
+
+  void remove(int handle) {
+    Listener listener;
+
+    synchronized (pendingHandles) {
+      listener = listeners.remove(handle);
+      if (listener == null && pendingHandles.contains(handle)) {
+        removedHandles.add(handle);
+      }
+    }
+
+    if (listener != null) {
+      listener.remove();
+    }
+  }
+
+  void clear() {
+    List<Listener> removedListeners;
+
+    synchronized (pendingHandles) {
+      removedListeners = new ArrayList<>(listeners.values());
+      listeners.clear();
+      // Listeners pending registration are removed as they are registered.
+      removedHandles.addAll(pendingHandles);
+    }
+
+    for (Listener listener : removedListeners) {
+      listener.remove();
+    }
+  }
+
+  // Returns the statistics of every listener, or only of those belonging to the given app.
+  List<Map<String, Object>> getStats(@Nullable String appName) {
+    List<Map<String, Object>> stats = new ArrayList<>();
+
+    for (Listener listener : listeners.values()) {
+      if (appName == null || appName.equals(listener.appName)) {
+        stats.add(listener.getStats());
+      }
+    }
+
+    return stats;
+  }
+}
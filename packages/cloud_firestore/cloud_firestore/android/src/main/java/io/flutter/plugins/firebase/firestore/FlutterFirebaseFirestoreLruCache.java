@@ -0,0 +1,51 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.firebase.firestore;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// A bounded, thread-safe cache that evicts its least recently used entry once full.
+class FlutterFirebaseFirestoreLruCache<K, V> {
+  private final LinkedHashMap<K, V> entries;
+  private long hitCount = 0;
+  private long missCount = 0;
+
+  FlutterFirebaseFirestoreLruCache(final int maxSize) {
+    entries =
+        new LinkedHashMap<K, V>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            return size() > maxSize;
+          }
+        };
+  }
+
+  synchronized V get(K key) {
+    V value = entries.get(key);
+    if (value != null) {
+      hitCount++;
+    } else {
+      missCount++;
+    }
+    return value;
+  }
+
+  synchronized void put(K key, V value) {
+    entries.put(key, value);
+  }
+
+  synchronized void clear() {
+    entries.clear();
+  }
+
+  synchronized long getHitCount() {
+    return hitCount;
+  }
+
+  synchronized long getMissCount() {
+    return missCount;
+  }
+}
@@ -5,6 +5,7 @@
 package io.flutter.plugins.firebase.firestore;
 
 import android.util.Log;
+import androidx.annotation.Nullable;
 import com.google.firebase.FirebaseApp;
 import com.google.firebase.Timestamp;
 import com.google.firebase.firestore.Blob;
@@ -21,10 +22,14 @@ import com.google.firebase.firestore.QuerySnapshot;
 import com.google.firebase.firestore.SnapshotMetadata;
 import io.flutter.plugin.common.StandardMessageCodec;
 import java.io.ByteArrayOutputStream;
+import java.lang.ref.WeakReference;
 import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -51,6 +56,62 @@ class FlutterFirebaseFirestoreMessageCodec extends StandardMessageCodec {
   private static final byte DATA_TYPE_FIRESTORE_INSTANCE = (byte) 144;
   private static final byte DATA_TYPE_FIRESTORE_QUERY = (byte) 145;
   private static final byte DATA_TYPE_FIRESTORE_SETTINGS = (byte) 146;
+  private static final byte DATA_TYPE_QUERY_SNAPSHOT = (byte) 147;
+  private static final byte DATA_TYPE_QUERY_SNAPSHOT_DELTA = (byte) 148;
+  private static final byte DATA_TYPE_STRING_REFERENCE = (byte) 149;
+
+  // Column layouts used by the columnar QuerySnapshot encoding.
+  private static final byte COLUMN_TYPE_GENERIC = 0;
+  private static final byte COLUMN_TYPE_BOOLEAN = 1;
+  private static final byte COLUMN_TYPE_INT64 = 2;
+  private static final byte COLUMN_TYPE_DOUBLE = 3;
+  private static final byte COLUMN_TYPE_STRING = 4;
+
+  private static final byte DOCUMENT_CHANGE_ADDED = 0;
+  private static final byte DOCUMENT_CHANGE_MODIFIED = 1;
+  private static final byte DOCUMENT_CHANGE_REMOVED = 2;
+
+  private static final Charset UTF8 = Charset.forName("UTF8");
+
+  // Strings shorter than this are written as-is, as a back-reference would not be any smaller.
+  private static final int MIN_STRING_REFERENCE_LENGTH = 3;
+  // Bounds the per-message string table, and keeps back-reference indexes to two varint bytes.
+  private static final int MAX_STRING_REFERENCES = 1 << 14;
+
+  private static final int MAX_CACHED_DOCUMENT_REFERENCES = 512;
+  private static final int MAX_CACHED_FIELD_PATHS = 256;
+  private static final int MAX_CACHED_QUERIES = 64;
+
+  // Strings already written in the message currently being encoded on this thread.
+  private final ThreadLocal<StringTable> stringTables =
+      new ThreadLocal<StringTable>() {
+        @Override
+        protected StringTable initialValue() {
+          return new StringTable();
+        }
+      };
+
+  private final Map<String, FlutterFirebaseFirestoreLruCache<String, DocumentReference>>
+      documentReferenceCaches = new HashMap<>();
+  private final Map<String, FlutterFirebaseFirestoreLruCache<List<Object>, Query>> queryCaches =
+      new HashMap<>();
+  private final FlutterFirebaseFirestoreLruCache<List<Object>, FieldPath> fieldPathCache =
+      new FlutterFirebaseFirestoreLruCache<>(MAX_CACHED_FIELD_PATHS);
+
+  private static class StringTable {
+    private WeakReference<ByteArrayOutputStream> stream = new WeakReference<>(null);
+    private final Map<String, Integer> indexes = new HashMap<>();
+
+    // Returns the table for the given message stream, resetting it if the stream belongs to a
+    // new message.
+    StringTable forStream(ByteArrayOutputStream messageStream) {
+      if (stream.get() != messageStream) {
+        stream = new WeakReference<>(messageStream);
+        indexes.clear();
+      }
+      return this;
+    }
+  }
 
   @Override
   protected void writeValue(ByteArrayOutputStream stream, Object value) {
@@ -74,6 +135,8 @@ class FlutterFirebaseFirestoreMessageCodec extends StandardMessageCodec {
       writeDocumentSnapshot(stream, (DocumentSnapshot) value);
     } else if (value instanceof QuerySnapshot) {
       writeQuerySnapshot(stream, (QuerySnapshot) value);
+    } else if (value instanceof FlutterFirebaseFirestoreQuerySnapshotDelta) {
+      writeQuerySnapshotDelta(stream, (FlutterFirebaseFirestoreQuerySnapshotDelta) value);
     } else if (value instanceof DocumentChange) {
       writeDocumentChange(stream, (DocumentChange) value);
     } else if (value instanceof SnapshotMetadata) {
@@ -81,6 +144,8 @@ class FlutterFirebaseFirestoreMessageCodec extends StandardMessageCodec {
     } else if (value instanceof Blob) {
       stream.write(DATA_TYPE_BLOB);
       writeBytes(stream, ((Blob) value).toBytes());
+    } else if (value instanceof String) {
+      writeString(stream, (String) value);
     } else if (value instanceof Double) {
       Double doubleValue = (Double) value;
       if (Double.isNaN(doubleValue)) {
@@ -97,6 +162,38 @@ class FlutterFirebaseFirestoreMessageCodec extends StandardMessageCodec {
     }
   }
 
+  // Writes a string, or a back-reference to an identical string already written in the same
+  // message. Dart registers decoded strings in the same order to resolve the references.
+  private void writeString(ByteArrayOutputStream stream, String value) {
+    if (value.length() < MIN_STRING_REFERENCE_LENGTH) {
+      super.writeValue(stream, value);
+      return;
+    }
+
+    StringTable table = stringTables.get().forStream(stream);
+    Integer index = table.indexes.get(value);
+
+    if (index != null) {
+      stream.write(DATA_TYPE_STRING_REFERENCE);
+      writeVarint(stream, index);
+      return;
+    }
+
+    if (table.indexes.size() < MAX_STRING_REFERENCES) {
+      table.indexes.put(value, table.indexes.size());
+    }
+
+    super.writeValue(stream, value);
+  }
+
+  private static void writeVarint(ByteArrayOutputStream stream, int value) {
+    while ((value & ~0x7F) != 0) {
+      stream.write((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    stream.write(value);
+  }
+
   private void writeSnapshotMetadata(ByteArrayOutputStream stream, SnapshotMetadata value) {
     Map<String, Boolean> metadataMap = new HashMap<>();
     metadataMap.put("hasPendingWrites", value.hasPendingWrites());
@@ -130,25 +227,178 @@ class FlutterFirebaseFirestoreMessageCodec extends StandardMessageCodec {
     writeValue(stream, changeMap);
   }
 
+  // Writes a QuerySnapshot in a columnar layout: document paths and metadata are written
+  // once, followed by a dictionary of every top-level field name in the snapshot and a
+  // column block per field. Columns holding a single primitive type are written without
+  // per-value type bytes. Document changes reference documents by index rather than
+  // repeating their data, except for removed documents which are no longer in the snapshot.
   private void writeQuerySnapshot(ByteArrayOutputStream stream, QuerySnapshot value) {
-    List<String> paths = new ArrayList<>();
-    Map<String, Object> querySnapshotMap = new HashMap<>();
-    List<Map<String, Object>> documents = new ArrayList<>();
-    List<SnapshotMetadata> metadatas = new ArrayList<>();
+    List<DocumentSnapshot> documents = value.getDocuments();
+    int documentCount = documents.size();
+    List<Map<String, Object>> documentData = new ArrayList<>(documentCount);
+    Map<String, Integer> fieldIndexes = new LinkedHashMap<>();
+
+    for (int i = 0; i < documentCount; i++) {
+      Map<String, Object> data = documents.get(i).getData();
+      documentData.add(data);
+      if (data == null) continue;
+      for (String field : data.keySet()) {
+        if (!fieldIndexes.containsKey(field)) {
+          fieldIndexes.put(field, fieldIndexes.size());
+        }
+      }
+    }
 
-    for (DocumentSnapshot document : value.getDocuments()) {
-      paths.add(document.getReference().getPath());
-      documents.add(document.getData());
-      metadatas.add(document.getMetadata());
+    stream.write(DATA_TYPE_QUERY_SNAPSHOT);
+    writeSnapshotMetadataFlags(stream, value.getMetadata());
+
+    writeSize(stream, documentCount);
+    for (DocumentSnapshot document : documents) {
+      writeValue(stream, document.getReference().getPath());
+    }
+    for (DocumentSnapshot document : documents) {
+      writeSnapshotMetadataFlags(stream, document.getMetadata());
     }
 
-    querySnapshotMap.put("paths", paths);
-    querySnapshotMap.put("documents", documents);
-    querySnapshotMap.put("metadatas", metadatas);
-    querySnapshotMap.put("documentChanges", value.getDocumentChanges());
-    querySnapshotMap.put("metadata", value.getMetadata());
+    writeSize(stream, fieldIndexes.size());
+    for (String field : fieldIndexes.keySet()) {
+      writeValue(stream, field);
+    }
+    for (String field : fieldIndexes.keySet()) {
+      writeColumn(stream, field, documentData);
+    }
 
-    writeValue(stream, querySnapshotMap);
+    List<DocumentChange> documentChanges = value.getDocumentChanges();
+    writeSize(stream, documentChanges.size());
+    for (DocumentChange documentChange : documentChanges) {
+      writeColumnarDocumentChange(stream, documentChange);
+    }
+  }
+
+  // Writes only the changes of a QuerySnapshot since the previous snapshot of the same listener.
+  // Metadata-only changes are included so Dart can keep per-document metadata up to date, with a
+  // flag marking whether the change is visible through QuerySnapshot#docChanges.
+  private void writeQuerySnapshotDelta(
+      ByteArrayOutputStream stream, FlutterFirebaseFirestoreQuerySnapshotDelta value) {
+    stream.write(DATA_TYPE_QUERY_SNAPSHOT_DELTA);
+    writeSnapshotMetadataFlags(stream, value.snapshot.getMetadata());
+    writeSize(stream, value.snapshot.size());
+
+    List<FlutterFirebaseFirestoreQuerySnapshotDelta.Change> changes = value.getChanges();
+    writeSize(stream, changes.size());
+    for (FlutterFirebaseFirestoreQuerySnapshotDelta.Change change : changes) {
+      DocumentSnapshot document = change.document;
+
+      writeDocumentChangeType(stream, change.type);
+      stream.write(change.visible ? 1 : 0);
+      writeInt(stream, change.oldIndex);
+      writeInt(stream, change.newIndex);
+      writeValue(stream, document.getReference().getPath());
+      writeValue(stream, document.getData());
+      writeSnapshotMetadataFlags(stream, document.getMetadata());
+    }
+  }
+
+  private void writeColumn(
+      ByteArrayOutputStream stream, String field, List<Map<String, Object>> documentData) {
+    int documentCount = documentData.size();
+    byte[] presence = new byte[(documentCount + 7) / 8];
+    byte columnType = -1;
+
+    for (int i = 0; i < documentCount; i++) {
+      Map<String, Object> data = documentData.get(i);
+      if (data == null || !data.containsKey(field)) continue;
+
+      presence[i >> 3] |= (byte) (1 << (i & 7));
+      byte valueType = getColumnType(data.get(field));
+      if (columnType == -1) {
+        columnType = valueType;
+      } else if (columnType != valueType) {
+        columnType = COLUMN_TYPE_GENERIC;
+      }
+    }
+
+    if (columnType == -1) columnType = COLUMN_TYPE_GENERIC;
+
+    stream.write(presence, 0, presence.length);
+    stream.write(columnType);
+
+    if (columnType == COLUMN_TYPE_DOUBLE) {
+      writeAlignment(stream, 8);
+    }
+
+    for (int i = 0; i < documentCount; i++) {
+      if ((presence[i >> 3] & (1 << (i & 7))) == 0) continue;
+      Object fieldValue = documentData.get(i).get(field);
+
+      switch (columnType) {
+        case COLUMN_TYPE_BOOLEAN:
+          stream.write((Boolean) fieldValue ? 1 : 0);
+          break;
+        case COLUMN_TYPE_INT64:
+          writeLong(stream, ((Number) fieldValue).longValue());
+          break;
+        case COLUMN_TYPE_DOUBLE:
+          writeDouble(stream, (Double) fieldValue);
+          break;
+        case COLUMN_TYPE_STRING:
+          writeBytes(stream, ((String) fieldValue).getBytes(UTF8));
+          break;
+        default:
+          writeValue(stream, fieldValue);
+      }
+    }
+  }
+
+  private static byte getColumnType(Object value) {
+    if (value instanceof Boolean) {
+      return COLUMN_TYPE_BOOLEAN;
+    } else if (value instanceof Long || value instanceof Integer) {
+      return COLUMN_TYPE_INT64;
+    } else if (value instanceof Double) {
+      return COLUMN_TYPE_DOUBLE;
+    } else if (value instanceof String) {
+      return COLUMN_TYPE_STRING;
+    }
+    return COLUMN_TYPE_GENERIC;
+  }
+
+  private void writeColumnarDocumentChange(
+      ByteArrayOutputStream stream, DocumentChange documentChange) {
+    writeDocumentChangeType(stream, documentChange.getType());
+    writeInt(stream, documentChange.getOldIndex());
+    writeInt(stream, documentChange.getNewIndex());
+
+    // Added and modified documents are present in the snapshot at their new index.
+    if (documentChange.getType() == DocumentChange.Type.REMOVED) {
+      DocumentSnapshot document = documentChange.getDocument();
+      writeValue(stream, document.getReference().getPath());
+      writeValue(stream, document.getData());
+      writeSnapshotMetadataFlags(stream, document.getMetadata());
+    }
+  }
+
+  private static void writeDocumentChangeType(
+      ByteArrayOutputStream stream, DocumentChange.Type type) {
+    switch (type) {
+      case ADDED:
+        stream.write(DOCUMENT_CHANGE_ADDED);
+        break;
+      case MODIFIED:
+        stream.write(DOCUMENT_CHANGE_MODIFIED);
+        break;
+      case REMOVED:
+        stream.write(DOCUMENT_CHANGE_REMOVED);
+        break;
+    }
+  }
+
+  private static void writeSnapshotMetadataFlags(
+      ByteArrayOutputStream stream, SnapshotMetadata metadata) {
+    int flags = 0;
+    if (metadata.hasPendingWrites()) flags |= 1;
+    if (metadata.isFromCache()) flags |= 1 << 1;
+    stream.write(flags);
   }
 
   @SuppressWarnings("ConstantConditions")
@@ -181,7 +431,7 @@ class FlutterFirebaseFirestoreMessageCodec extends StandardMessageCodec {
       case DATA_TYPE_DOCUMENT_REFERENCE:
         FirebaseFirestore firestore = (FirebaseFirestore) readValue(buffer);
         final String path = (String) readValue(buffer);
-        return firestore.document(path);
+        return readDocumentReference(firestore, path);
       case DATA_TYPE_BLOB:
         final byte[] bytes = readBytes(buffer);
         return Blob.fromBytes(bytes);
@@ -219,12 +469,73 @@ class FlutterFirebaseFirestoreMessageCodec extends StandardMessageCodec {
         for (int i = 0; i < size; i++) {
           list.add(readValue(buffer));
         }
-        return FieldPath.of((String[]) list.toArray(new String[0]));
+        return readFieldPath(list);
       default:
         return super.readValueOfType(type, buffer);
     }
   }
 
+  private DocumentReference readDocumentReference(FirebaseFirestore firestore, String path) {
+    String appName = firestore.getApp().getName();
+    FlutterFirebaseFirestoreLruCache<String, DocumentReference> cache;
+
+    synchronized (documentReferenceCaches) {
+      cache = documentReferenceCaches.get(appName);
+      if (cache == null) {
+        cache = new FlutterFirebaseFirestoreLruCache<>(MAX_CACHED_DOCUMENT_REFERENCES);
+        documentReferenceCaches.put(appName, cache);
+      }
+    }
+
+    DocumentReference documentReference = cache.get(path);
+    if (documentReference == null || documentReference.getFirestore() != firestore) {
+      documentReference = firestore.document(path);
+      cache.put(path, documentReference);
+    }
+
+    return documentReference;
+  }
+
+  private FieldPath readFieldPath(List<Object> segments) {
+    FieldPath fieldPath = fieldPathCache.get(segments);
+    if (fieldPath == null) {
+      fieldPath = FieldPath.of((String[]) segments.toArray(new String[0]));
+      fieldPathCache.put(segments, fieldPath);
+    }
+
+    return fieldPath;
+  }
+
+  // Drops cached references and queries belonging to the Firestore instance of the given app.
+  void clearCachedReferences(String appName) {
+    synchronized (documentReferenceCaches) {
+      documentReferenceCaches.remove(appName);
+    }
+    synchronized (queryCaches) {
+      queryCaches.remove(appName);
+    }
+  }
+
+  // Returns the cache of built queries for the given app, if any query has been read for it.
+  @Nullable
+  FlutterFirebaseFirestoreLruCache<List<Object>, Query> getQueryCache(String appName) {
+    synchronized (queryCaches) {
+      return queryCaches.get(appName);
+    }
+  }
+
+  private FlutterFirebaseFirestoreLruCache<List<Object>, Query> getOrCreateQueryCache(
+      String appName) {
+    synchronized (queryCaches) {
+      FlutterFirebaseFirestoreLruCache<List<Object>, Query> cache = queryCaches.get(appName);
+      if (cache == null) {
+        cache = new FlutterFirebaseFirestoreLruCache<>(MAX_CACHED_QUERIES);
+        queryCaches.put(appName, cache);
+      }
+      return cache;
+    }
+  }
+
   private FirebaseFirestore readFirestoreInstance(ByteBuffer buffer) {
     String appName = (String) readValue(buffer);
     FirebaseFirestoreSettings settings = (FirebaseFirestoreSettings) readValue(buffer);
@@ -297,105 +608,123 @@ class FlutterFirebaseFirestoreMessageCodec extends StandardMessageCodec {
       @SuppressWarnings("unchecked")
       Map<String, Object> parameters = (Map<String, Object>) values.get("parameters");
 
-      Query query;
-      if (isCollectionGroup) {
-        query = firestore.collectionGroup(path);
-      } else {
-        query = firestore.collection(path);
+      // Decoded parameters compare and hash structurally, so identical queries share a key.
+      List<Object> cacheKey = Arrays.asList(path, isCollectionGroup, parameters);
+      FlutterFirebaseFirestoreLruCache<List<Object>, Query> cache =
+          getOrCreateQueryCache(firestore.getApp().getName());
+
+      Query query = cache.get(cacheKey);
+      if (query == null || query.getFirestore() != firestore) {
+        query = buildFirestoreQuery(firestore, path, isCollectionGroup, parameters);
+        cache.put(cacheKey, query);
       }
 
-      if (parameters == null) return query;
+      return query;
+    } catch (Exception exception) {
+      Log.e(
+          "FLTFirestoreMsgCodec",
+          "An error occurred while parsing query arguments, this is most likely an error with this SDK.",
+          exception);
+      return null;
+    }
+  }
 
-      // "where" filters
-      @SuppressWarnings("unchecked")
-      List<List<Object>> filters =
-          (List<List<Object>>) Objects.requireNonNull(parameters.get("where"));
-      for (List<Object> condition : filters) {
-        FieldPath fieldPath = (FieldPath) condition.get(0);
-        String operator = (String) condition.get(1);
-        Object value = condition.get(2);
-
-        if ("==".equals(operator)) {
-          query = query.whereEqualTo(fieldPath, value);
-        } else if ("!=".equals(operator)) {
-          query = query.whereNotEqualTo(fieldPath, value);
-        } else if ("<".equals(operator)) {
-          query = query.whereLessThan(fieldPath, value);
-        } else if ("<=".equals(operator)) {
-          query = query.whereLessThanOrEqualTo(fieldPath, value);
-        } else if (">".equals(operator)) {
-          query = query.whereGreaterThan(fieldPath, value);
-        } else if (">=".equals(operator)) {
-          query = query.whereGreaterThanOrEqualTo(fieldPath, value);
-        } else if ("array-contains".equals(operator)) {
-          query = query.whereArrayContains(fieldPath, value);
-        } else if ("array-contains-any".equals(operator)) {
-          @SuppressWarnings("unchecked")
-          List<Object> listValues = (List<Object>) value;
-          query = query.whereArrayContainsAny(fieldPath, listValues);
-        } else if ("in".equals(operator)) {
-          @SuppressWarnings("unchecked")
-          List<Object> listValues = (List<Object>) value;
-          query = query.whereIn(fieldPath, listValues);
-        } else if ("not-in".equals(operator)) {
-          @SuppressWarnings("unchecked")
-          List<Object> listValues = (List<Object>) value;
-          query = query.whereNotIn(fieldPath, listValues);
-        } else {
-          Log.w(
-              "FLTFirestoreMsgCodec",
-              "An invalid query operator " + operator + " was received but not handled.");
-        }
+  private Query buildFirestoreQuery(
+      FirebaseFirestore firestore,
+      String path,
+      boolean isCollectionGroup,
+      @Nullable Map<String, Object> parameters) {
+    Query query;
+    if (isCollectionGroup) {
+      query = firestore.collectionGroup(path);
+    } else {
+      query = firestore.collection(path);
+    }
+
+    if (parameters == null) return query;
+
+    // "where" filters
+    @SuppressWarnings("unchecked")
+    List<List<Object>> filters =
+        (List<List<Object>>) Objects.requireNonNull(parameters.get("where"));
+    for (List<Object> condition : filters) {
+      FieldPath fieldPath = (FieldPath) condition.get(0);
+      String operator = (String) condition.get(1);
+      Object value = condition.get(2);
+
+      if ("==".equals(operator)) {
+        query = query.whereEqualTo(fieldPath, value);
+      } else if ("!=".equals(operator)) {
+        query = query.whereNotEqualTo(fieldPath, value);
+      } else if ("<".equals(operator)) {
+        query = query.whereLessThan(fieldPath, value);
+      } else if ("<=".equals(operator)) {
+        query = query.whereLessThanOrEqualTo(fieldPath, value);
+      } else if (">".equals(operator)) {
+        query = query.whereGreaterThan(fieldPath, value);
+      } else if (">=".equals(operator)) {
+        query = query.whereGreaterThanOrEqualTo(fieldPath, value);
+      } else if ("array-contains".equals(operator)) {
+        query = query.whereArrayContains(fieldPath, value);
+      } else if ("array-contains-any".equals(operator)) {
+        @SuppressWarnings("unchecked")
+        List<Object> listValues = (List<Object>) value;
+        query = query.whereArrayContainsAny(fieldPath, listValues);
+      } else if ("in".equals(operator)) {
+        @SuppressWarnings("unchecked")
+        List<Object> listValues = (List<Object>) value;
+        query = query.whereIn(fieldPath, listValues);
+      } else if ("not-in".equals(operator)) {
+        @SuppressWarnings("unchecked")
+        List<Object> listValues = (List<Object>) value;
+        query = query.whereNotIn(fieldPath, listValues);
+      } else {
+        Log.w(
+            "FLTFirestoreMsgCodec",
+            "An invalid query operator " + operator + " was received but not handled.");
       }
+    }
 
-      // "limit" filters
-      Number limit = (Number) parameters.get("limit");
-      if (limit != null) query = query.limit(limit.longValue());
+    // "limit" filters
+    Number limit = (Number) parameters.get("limit");
+    if (limit != null) query = query.limit(limit.longValue());
 
-      Number limitToLast = (Number) parameters.get("limitToLast");
-      if (limitToLast != null) query = query.limitToLast(limitToLast.longValue());
+    Number limitToLast = (Number) parameters.get("limitToLast");
+    if (limitToLast != null) query = query.limitToLast(limitToLast.longValue());
 
-      // "orderBy" filters
-      @SuppressWarnings("unchecked")
-      List<List<Object>> orderBy = (List<List<Object>>) parameters.get("orderBy");
-      if (orderBy == null) return query;
+    // "orderBy" filters
+    @SuppressWarnings("unchecked")
+    List<List<Object>> orderBy = (List<List<Object>>) parameters.get("orderBy");
+    if (orderBy == null) return query;
 
-      for (List<Object> order : orderBy) {
-        FieldPath fieldPath = (FieldPath) order.get(0);
-        boolean descending = (boolean) order.get(1);
+    for (List<Object> order : orderBy) {
+      FieldPath fieldPath = (FieldPath) order.get(0);
+      boolean descending = (boolean) order.get(1);
 
-        Query.Direction direction =
-            descending ? Query.Direction.DESCENDING : Query.Direction.ASCENDING;
+      Query.Direction direction =
+          descending ? Query.Direction.DESCENDING : Query.Direction.ASCENDING;
 
-        query = query.orderBy(fieldPath, direction);
-      }
+      query = query.orderBy(fieldPath, direction);
+    }
 
-      // cursor queries
-      @SuppressWarnings("unchecked")
-      List<Object> startAt = (List<Object>) parameters.get("startAt");
-      if (startAt != null) query = query.startAt(Objects.requireNonNull(startAt.toArray()));
+    // cursor queries
+    @SuppressWarnings("unchecked")
+    List<Object> startAt = (List<Object>) parameters.get("startAt");
+    if (startAt != null) query = query.startAt(Objects.requireNonNull(startAt.toArray()));
 
-      @SuppressWarnings("unchecked")
-      List<Object> startAfter = (List<Object>) parameters.get("startAfter");
-      if (startAfter != null)
-        query = query.startAfter(Objects.requireNonNull(startAfter.toArray()));
+    @SuppressWarnings("unchecked")
+    List<Object> startAfter = (List<Object>) parameters.get("startAfter");
+    if (startAfter != null) query = query.startAfter(Objects.requireNonNull(startAfter.toArray()));
 
-      @SuppressWarnings("unchecked")
-      List<Object> endAt = (List<Object>) parameters.get("endAt");
-      if (endAt != null) query = query.endAt(Objects.requireNonNull(endAt.toArray()));
+    @SuppressWarnings("unchecked")
+    List<Object> endAt = (List<Object>) parameters.get("endAt");
+    if (endAt != null) query = query.endAt(Objects.requireNonNull(endAt.toArray()));
 
-      @SuppressWarnings("unchecked")
-      List<Object> endBefore = (List<Object>) parameters.get("endBefore");
-      if (endBefore != null) query = query.endBefore(Objects.requireNonNull(endBefore.toArray()));
+    @SuppressWarnings("unchecked")
+    List<Object> endBefore = (List<Object>) parameters.get("endBefore");
+    if (endBefore != null) query = query.endBefore(Objects.requireNonNull(endBefore.toArray()));
 
-      return query;
-    } catch (Exception exception) {
-      Log.e(
-          "FLTFirestoreMsgCodec",
-          "An error occurred while parsing query arguments, this is most likely an error with this SDK.",
-          exception);
-      return null;
-    }
+    return query;
   }
 
   private Object[] toArray(Object source) {
@@ -5,9 +5,12 @@
 package io.flutter.plugins.firebase.firestore;
 
 import android.app.Activity;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 import android.util.SparseArray;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import com.google.android.gms.tasks.Task;
 import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.FirebaseApp;
@@ -22,33 +25,57 @@ import com.google.firebase.firestore.Query;
 import com.google.firebase.firestore.QuerySnapshot;
 import com.google.firebase.firestore.SetOptions;
 import com.google.firebase.firestore.Source;
+import com.google.firebase.firestore.Transaction;
 import com.google.firebase.firestore.WriteBatch;
 import io.flutter.embedding.engine.plugins.FlutterPlugin;
 import io.flutter.embedding.engine.plugins.activity.ActivityAware;
 import io.flutter.embedding.engine.plugins.activity.ActivityPluginBinding;
 import io.flutter.plugin.common.BinaryMessenger;
+import io.flutter.plugin.common.FlutterException;
 import io.flutter.plugin.common.MethodCall;
 import io.flutter.plugin.common.MethodChannel;
 import io.flutter.plugin.common.MethodChannel.MethodCallHandler;
+import io.flutter.plugin.common.MethodCodec;
 import io.flutter.plugin.common.PluginRegistry;
 import io.flutter.plugin.common.StandardMethodCodec;
 import io.flutter.plugins.firebase.core.FlutterFirebasePlugin;
 import io.flutter.plugins.firebase.core.FlutterFirebasePluginRegistry;
+import io.flutter.plugins.firebase.core.FlutterFirebaseTasks;
 import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.WeakHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class FlutterFirebaseFirestorePlugin
     implements FlutterFirebasePlugin, MethodCallHandler, FlutterPlugin, ActivityAware {
+  private static final String METHOD_CHANNEL_NAME = "plugins.flutter.io/firebase_firestore";
+  private static final MethodCodec METHOD_CODEC =
+      new StandardMethodCodec(FlutterFirebaseFirestoreMessageCodec.INSTANCE);
+
+  // Snapshot listener events are delivered and encoded on this thread, keeping the encoding of
+  // large snapshots off the main thread. A single thread preserves the order of events.
+  private static final ScheduledExecutorService serializationExecutor =
+      Executors.newSingleThreadScheduledExecutor();
+
+  // Firestore instances are shared by every engine, listeners, bulk writers and transactions
+  // belong to the engine that created them.
   protected static final WeakHashMap<String, WeakReference<FirebaseFirestore>>
       firestoreInstanceCache = new WeakHashMap<>();
-  private static final SparseArray<ListenerRegistration> listenerRegistrations =
-      new SparseArray<>();
+  private final FlutterFirebaseFirestoreListenerRegistry listenerRegistry =
+      new FlutterFirebaseFirestoreListenerRegistry();
+  private final SparseArray<FlutterFirebaseFirestoreBulkWriter> bulkWriters = new SparseArray<>();
+  private final SparseArray<Transaction> transactions = new SparseArray<>();
 
+  private final Handler mainThreadHandler = new Handler(Looper.getMainLooper());
   private MethodChannel channel;
+  private BinaryMessenger messenger;
   private Activity activity;
 
   protected static FirebaseFirestore getCachedFirebaseFirestoreInstanceForKey(String key) {
@@ -80,6 +107,8 @@ public class FlutterFirebaseFirestorePlugin
         firestoreInstanceCache.remove(key);
       }
     }
+
+    FlutterFirebaseFirestoreMessageCodec.INSTANCE.clearCachedReferences(key);
   }
 
   public static void registerWith(PluginRegistry.Registrar registrar) {
@@ -95,9 +124,11 @@ public class FlutterFirebaseFirestorePlugin
 
   @Override
   public void onDetachedFromEngine(@NonNull FlutterPluginBinding binding) {
+    FlutterFirebasePluginRegistry.unregisterPlugin(METHOD_CHANNEL_NAME, messenger);
     removeEventListeners();
     channel.setMethodCallHandler(null);
     channel = null;
+    messenger = null;
   }
 
   @Override
@@ -130,36 +161,63 @@ public class FlutterFirebaseFirestorePlugin
   }
 
   // Ensure any Firestore listeners are removed when the app
-  // is detached from the FlutterEngine
+  // is detached from the FlutterEngine. Listeners of other engines are left untouched.
   private void removeEventListeners() {
-    for (int i = 0; i < listenerRegistrations.size(); i++) {
-      int key = listenerRegistrations.keyAt(i);
-      ListenerRegistration listenerRegistration = listenerRegistrations.get(key);
+    listenerRegistry.clear();
 
-      if (listenerRegistration != null) {
-        listenerRegistration.remove();
-      }
+    // Writes already queued on a bulk writer are still committed, there is just nobody left to
+    // report the results to.
+    synchronized (bulkWriters) {
+      bulkWriters.clear();
     }
-    listenerRegistrations.clear();
   }
 
-  private Task<Void> disableNetwork(Map<String, Object> arguments) {
+  private Task<Map<String, Object>> listenerStats(Map<String, Object> arguments) {
     return Tasks.call(
+        cachedThreadPool,
+        () -> {
+          Map<String, Object> stats = new HashMap<>();
+          FirebaseFirestore firestore = (FirebaseFirestore) arguments.get("firestore");
+
+          if (firestore == null) {
+            stats.put("listeners", listenerRegistry.getStats(null));
+            return stats;
+          }
+
+          String appName = firestore.getApp().getName();
+          stats.put("listeners", listenerRegistry.getStats(appName));
+
+          FlutterFirebaseFirestoreLruCache<List<Object>, Query> queryCache =
+              FlutterFirebaseFirestoreMessageCodec.INSTANCE.getQueryCache(appName);
+
+          if (queryCache != null) {
+            Map<String, Object> queryCacheStats = new HashMap<>();
+            queryCacheStats.put("hits", queryCache.getHitCount());
+            queryCacheStats.put("misses", queryCache.getMissCount());
+            stats.put("queryCache", queryCacheStats);
+          }
+
+          return stats;
+        });
+  }
+
+  private Task<Void> disableNetwork(Map<String, Object> arguments) {
+    return FlutterFirebaseTasks.callAsync(
         cachedThreadPool,
         () -> {
           FirebaseFirestore firestore =
               (FirebaseFirestore) Objects.requireNonNull(arguments.get("firestore"));
-          return Tasks.await(firestore.disableNetwork());
+          return firestore.disableNetwork();
         });
   }
 
   private Task<Void> enableNetwork(Map<String, Object> arguments) {
-    return Tasks.call(
+    return FlutterFirebaseTasks.callAsync(
         cachedThreadPool,
         () -> {
           FirebaseFirestore firestore =
               (FirebaseFirestore) Objects.requireNonNull(arguments.get("firestore"));
-          return Tasks.await(firestore.enableNetwork());
+          return firestore.enableNetwork();
         });
   }
 
@@ -171,23 +229,28 @@ public class FlutterFirebaseFirestorePlugin
           FirebaseFirestore firestore =
               (FirebaseFirestore) Objects.requireNonNull(arguments.get("firestore"));
 
+          FlutterFirebaseFirestoreListenerRegistry.Listener listener =
+              listenerRegistry.create(
+                  handle,
+                  FlutterFirebaseFirestoreListenerRegistry.TYPE_SNAPSHOTS_IN_SYNC,
+                  firestore.getApp().getName());
+
           Runnable snapshotsInSyncRunnable =
               () -> {
-                Map<String, Integer> data = new HashMap<>();
+                Map<String, Object> data = new HashMap<>();
                 data.put("handle", handle);
-                activity.runOnUiThread(
-                    () -> channel.invokeMethod("Firestore#snapshotsInSync", data));
+                sendEvent("Firestore#snapshotsInSync", data, null, listener);
               };
 
-          listenerRegistrations.put(
-              handle, firestore.addSnapshotsInSyncListener(snapshotsInSyncRunnable));
+          listenerRegistry.register(
+              listener, firestore.addSnapshotsInSyncListener(snapshotsInSyncRunnable));
 
           return handle;
         });
   }
 
   private Task<Object> transactionCreate(Map<String, Object> arguments) {
-    return Tasks.call(
+    return FlutterFirebaseTasks.callAsync(
         cachedThreadPool,
         () -> {
           FirebaseFirestore firestore =
@@ -205,18 +268,22 @@ public class FlutterFirebaseFirestorePlugin
             timeout = 5000L;
           }
 
-          FlutterFirebaseFirestoreTransactionResult transactionResult =
-              Tasks.await(
-                  new FlutterFirebaseFirestoreTransactionHandler(channel, activity, transactionId)
-                      .create(firestore, timeout));
+          @SuppressWarnings("unchecked")
+          List<DocumentReference> readSet = (List<DocumentReference>) arguments.get("reads");
 
-          FlutterFirebaseFirestoreTransactionHandler.dispose(transactionId);
+          return FlutterFirebaseTasks.map(
+              new FlutterFirebaseFirestoreTransactionHandler(
+                      transactions, channel, activity, transactionId, readSet)
+                  .create(firestore, timeout),
+              transactionResult -> {
+                FlutterFirebaseFirestoreTransactionHandler.dispose(transactions, transactionId);
 
-          if (transactionResult.exception != null) {
-            throw transactionResult.exception;
-          } else {
-            return null;
-          }
+                if (transactionResult.exception != null) {
+                  throw transactionResult.exception;
+                } else {
+                  return null;
+                }
+              });
         });
   }
 
@@ -226,12 +293,69 @@ public class FlutterFirebaseFirestorePlugin
         () -> {
           DocumentReference documentReference = (DocumentReference) arguments.get("reference");
           return FlutterFirebaseFirestoreTransactionHandler.getDocument(
-              (int) Objects.requireNonNull(arguments.get("transactionId")), documentReference);
+              transactions,
+              (int) Objects.requireNonNull(arguments.get("transactionId")),
+              documentReference);
         });
   }
 
-  private Task<Void> batchCommit(Map<String, Object> arguments) {
+  private Task<List<DocumentSnapshot>> transactionGetAll(Map<String, Object> arguments) {
     return Tasks.call(
+        cachedThreadPool,
+        () -> {
+          @SuppressWarnings("unchecked")
+          List<DocumentReference> documentReferences =
+              (List<DocumentReference>) Objects.requireNonNull(arguments.get("references"));
+          return FlutterFirebaseFirestoreTransactionHandler.getDocuments(
+              transactions,
+              (int) Objects.requireNonNull(arguments.get("transactionId")),
+              documentReferences);
+        });
+  }
+
+  static WriteBatch applyWrite(
+      FirebaseFirestore firestore, WriteBatch batch, Map<String, Object> write) {
+    String type = (String) Objects.requireNonNull(write.get("type"));
+    String path = (String) Objects.requireNonNull(write.get("path"));
+    @SuppressWarnings("unchecked")
+    Map<String, Object> data = (Map<String, Object>) write.get("data");
+
+    DocumentReference documentReference = firestore.document(path);
+
+    switch (type) {
+      case "DELETE":
+        batch = batch.delete(documentReference);
+        break;
+      case "UPDATE":
+        batch = batch.update(documentReference, Objects.requireNonNull(data));
+        break;
+      case "SET":
+        @SuppressWarnings("unchecked")
+        Map<String, Object> options =
+            (Map<String, Object>) Objects.requireNonNull(write.get("options"));
+
+        if (options.get("merge") != null && (boolean) options.get("merge")) {
+          batch = batch.set(documentReference, Objects.requireNonNull(data), SetOptions.merge());
+        } else if (options.get("mergeFields") != null) {
+          @SuppressWarnings("unchecked")
+          List<FieldPath> fieldPathList =
+              (List<FieldPath>) Objects.requireNonNull(options.get("mergeFields"));
+          batch =
+              batch.set(
+                  documentReference,
+                  Objects.requireNonNull(data),
+                  SetOptions.mergeFieldPaths(fieldPathList));
+        } else {
+          batch = batch.set(documentReference, Objects.requireNonNull(data));
+        }
+        break;
+    }
+
+    return batch;
+  }
+
+  private Task<Void> batchCommit(Map<String, Object> arguments) {
+    return FlutterFirebaseTasks.callAsync(
         cachedThreadPool,
         () -> {
           @SuppressWarnings("unchecked")
@@ -242,46 +366,66 @@ public class FlutterFirebaseFirestorePlugin
           WriteBatch batch = firestore.batch();
 
           for (Map<String, Object> write : writes) {
-            String type = (String) Objects.requireNonNull(write.get("type"));
-            String path = (String) Objects.requireNonNull(write.get("path"));
-            @SuppressWarnings("unchecked")
-            Map<String, Object> data = (Map<String, Object>) write.get("data");
-
-            DocumentReference documentReference = firestore.document(path);
-
-            switch (type) {
-              case "DELETE":
-                batch = batch.delete(documentReference);
-                break;
-              case "UPDATE":
-                batch = batch.update(documentReference, Objects.requireNonNull(data));
-                break;
-              case "SET":
-                @SuppressWarnings("unchecked")
-                Map<String, Object> options =
-                    (Map<String, Object>) Objects.requireNonNull(write.get("options"));
-
-                if (options.get("merge") != null && (boolean) options.get("merge")) {
-                  batch =
-                      batch.set(
-                          documentReference, Objects.requireNonNull(data), SetOptions.merge());
-                } else if (options.get("mergeFields") != null) {
-                  @SuppressWarnings("unchecked")
-                  List<FieldPath> fieldPathList =
-                      (List<FieldPath>) Objects.requireNonNull(options.get("mergeFields"));
-                  batch =
-                      batch.set(
-                          documentReference,
-                          Objects.requireNonNull(data),
-                          SetOptions.mergeFieldPaths(fieldPathList));
-                } else {
-                  batch = batch.set(documentReference, Objects.requireNonNull(data));
-                }
-                break;
+            batch = applyWrite(firestore, batch, write);
+          }
+
+          return batch.commit();
+        });
+  }
+
+  private Task<Map<String, Object>> bulkWriteAddChunk(Map<String, Object> arguments) {
+    return FlutterFirebaseTasks.callAsync(
+        cachedThreadPool,
+        () -> {
+          int handle = (int) Objects.requireNonNull(arguments.get("handle"));
+          @SuppressWarnings("unchecked")
+          List<Map<String, Object>> writes =
+              (List<Map<String, Object>>) Objects.requireNonNull(arguments.get("writes"));
+          FirebaseFirestore firestore =
+              (FirebaseFirestore) Objects.requireNonNull(arguments.get("firestore"));
+          Integer maxConcurrentBatches = (Integer) arguments.get("maxConcurrentBatches");
+
+          FlutterFirebaseFirestoreBulkWriter bulkWriter;
+
+          synchronized (bulkWriters) {
+            bulkWriter = bulkWriters.get(handle);
+
+            if (bulkWriter == null) {
+              bulkWriter =
+                  new FlutterFirebaseFirestoreBulkWriter(
+                      firestore,
+                      cachedThreadPool,
+                      maxConcurrentBatches != null
+                          ? maxConcurrentBatches
+                          : FlutterFirebaseFirestoreBulkWriter.DEFAULT_MAX_CONCURRENT_BATCHES);
+              bulkWriters.put(handle, bulkWriter);
             }
           }
 
-          return Tasks.await(batch.commit());
+          return bulkWriter.addChunk(writes);
+        });
+  }
+
+  private Task<Map<String, Object>> bulkWriteClose(Map<String, Object> arguments) {
+    return FlutterFirebaseTasks.callAsync(
+        cachedThreadPool,
+        () -> {
+          int handle = (int) Objects.requireNonNull(arguments.get("handle"));
+          FlutterFirebaseFirestoreBulkWriter bulkWriter;
+
+          synchronized (bulkWriters) {
+            bulkWriter = bulkWriters.get(handle);
+            bulkWriters.remove(handle);
+          }
+
+          if (bulkWriter == null) {
+            Map<String, Object> result = new HashMap<>();
+            result.put("committed", 0);
+            result.put("failed", 0);
+            return Tasks.forResult(result);
+          }
+
+          return bulkWriter.close();
         });
   }
 
@@ -303,37 +447,86 @@ public class FlutterFirebaseFirestorePlugin
                 "An error occurred while parsing query arguments, see native logs for more information. Please report this issue.");
           }
 
+          final FlutterFirebaseFirestoreListenerRegistry.Listener listener =
+              listenerRegistry.create(
+                  handle,
+                  FlutterFirebaseFirestoreListenerRegistry.TYPE_QUERY,
+                  query.getFirestore().getApp().getName());
+
+          // In delta mode only the first event (or the snapshot resent after a failed delta)
+          // carries the full snapshot, later events only carry the changed documents.
+          final AtomicReference<QuerySnapshot> latestSnapshot = new AtomicReference<>();
+          final FlutterFirebaseFirestoreSnapshotSequence sequence =
+              Boolean.TRUE.equals(arguments.get("delta"))
+                  ? new FlutterFirebaseFirestoreSnapshotSequence(
+                      () -> resendQuerySnapshot(listener, latestSnapshot))
+                  : null;
+
+          final FlutterFirebaseFirestoreSnapshotCoalescer<QuerySnapshot> coalescer =
+              FlutterFirebaseFirestoreSnapshotCoalescer.fromArguments(
+                  arguments,
+                  serializationExecutor,
+                  (querySnapshot, coalesced, onReply) -> {
+                    if (listener.isRemoved()) return;
+                    // Firestore's changes are relative to the previous snapshot, which Dart
+                    // never received if it was coalesced, so the delta is computed against
+                    // the last snapshot sent instead.
+                    QuerySnapshot previousSnapshot = latestSnapshot.getAndSet(querySnapshot);
+                    sendQuerySnapshot(
+                        listener,
+                        querySnapshot,
+                        coalesced > 0 ? previousSnapshot : null,
+                        sequence,
+                        coalesced,
+                        onReply);
+                  });
+
+          listener.setSequence(sequence);
+          listener.setCoalescer(coalescer);
+
           ListenerRegistration listenerRegistration =
               query.addSnapshotListener(
+                  serializationExecutor,
                   metadataChanges,
                   (querySnapshot, exception) -> {
-                    Map<String, Object> querySnapshotMap = new HashMap<>();
-
-                    querySnapshotMap.put("handle", handle);
-
                     if (exception != null) {
-                      Map<String, Object> exceptionMap = new HashMap<>();
-                      FlutterFirebaseFirestoreException firestoreException =
-                          new FlutterFirebaseFirestoreException(exception, exception.getCause());
-                      exceptionMap.put("code", firestoreException.getCode());
-                      exceptionMap.put("message", firestoreException.getMessage());
-                      querySnapshotMap.put("error", exceptionMap);
-
-                      channel.invokeMethod("QuerySnapshot#error", querySnapshotMap);
+                      sendSnapshotError("QuerySnapshot#error", listener, exception);
+                    } else if (coalescer != null) {
+                      coalescer.offer(querySnapshot);
                     } else {
-                      //noinspection ConstantConditions
-                      querySnapshotMap.put("snapshot", querySnapshot);
-                      channel.invokeMethod("QuerySnapshot#event", querySnapshotMap);
+                      latestSnapshot.set(querySnapshot);
+                      sendQuerySnapshot(listener, querySnapshot, null, sequence, 0, null);
                     }
                   });
 
-          listenerRegistrations.put(handle, listenerRegistration);
+          listenerRegistry.register(listener, listenerRegistration);
           return null;
         });
   }
 
+  // Sends the latest snapshot again after Dart rejected a delta, as a full snapshot that restarts
+  // the sequence, rather than leaving Dart without a snapshot until the next event.
+  private void resendQuerySnapshot(
+      FlutterFirebaseFirestoreListenerRegistry.Listener listener,
+      AtomicReference<QuerySnapshot> latestSnapshot) {
+    serializationExecutor.execute(
+        () -> {
+          FlutterFirebaseFirestoreSnapshotSequence sequence = listener.getSequence();
+          QuerySnapshot querySnapshot = latestSnapshot.get();
+          // An event sent in the meantime already carried the full snapshot.
+          if (listener.isRemoved()
+              || querySnapshot == null
+              || sequence == null
+              || !sequence.isFullSnapshotRequired()) {
+            return;
+          }
+
+          sendQuerySnapshot(listener, querySnapshot, null, sequence, 0, null);
+        });
+  }
+
   private Task<QuerySnapshot> queryGet(Map<String, Object> arguments) {
-    return Tasks.call(
+    return FlutterFirebaseTasks.callAsync(
         cachedThreadPool,
         () -> {
           Source source = getSource(arguments);
@@ -344,7 +537,7 @@ public class FlutterFirebaseFirestorePlugin
                 "An error occurred while parsing query arguments, see native logs for more information. Please report this issue.");
           }
 
-          return Tasks.await(query.get(source));
+          return query.get(source);
         });
   }
 
@@ -363,48 +556,136 @@ public class FlutterFirebaseFirestorePlugin
           DocumentReference documentReference =
               (DocumentReference) Objects.requireNonNull(arguments.get("reference"));
 
+          final FlutterFirebaseFirestoreListenerRegistry.Listener listener =
+              listenerRegistry.create(
+                  handle,
+                  FlutterFirebaseFirestoreListenerRegistry.TYPE_DOCUMENT,
+                  documentReference.getFirestore().getApp().getName());
+
+          final FlutterFirebaseFirestoreSnapshotCoalescer<DocumentSnapshot> coalescer =
+              FlutterFirebaseFirestoreSnapshotCoalescer.fromArguments(
+                  arguments,
+                  serializationExecutor,
+                  (documentSnapshot, coalesced, onReply) -> {
+                    if (listener.isRemoved()) return;
+                    sendDocumentSnapshot(listener, documentSnapshot, coalesced, onReply);
+                  });
+
+          listener.setCoalescer(coalescer);
+
           ListenerRegistration listenerRegistration =
               documentReference.addSnapshotListener(
+                  serializationExecutor,
                   metadataChanges,
                   (documentSnapshot, exception) -> {
-                    Map<String, Object> eventMap = new HashMap<>();
-
-                    eventMap.put("handle", handle);
-
                     if (exception != null) {
-                      Map<String, Object> exceptionMap = new HashMap<>();
-                      FlutterFirebaseFirestoreException firestoreException =
-                          new FlutterFirebaseFirestoreException(exception, exception.getCause());
-
-                      exceptionMap.put("code", firestoreException.getCode());
-                      exceptionMap.put("message", firestoreException.getMessage());
-                      eventMap.put("error", exceptionMap);
-                      channel.invokeMethod("DocumentSnapshot#error", eventMap);
+                      sendSnapshotError("DocumentSnapshot#error", listener, exception);
+                    } else if (coalescer != null) {
+                      coalescer.offer(documentSnapshot);
                     } else {
-                      eventMap.put("snapshot", documentSnapshot);
-                      channel.invokeMethod("DocumentSnapshot#event", eventMap);
+                      sendDocumentSnapshot(listener, documentSnapshot, 0, null);
                     }
                   });
 
-          listenerRegistrations.put(handle, listenerRegistration);
+          listenerRegistry.register(listener, listenerRegistration);
 
           return null;
         });
   }
 
+  private void sendQuerySnapshot(
+      FlutterFirebaseFirestoreListenerRegistry.Listener listener,
+      QuerySnapshot querySnapshot,
+      @Nullable QuerySnapshot previousSnapshot,
+      @Nullable FlutterFirebaseFirestoreSnapshotSequence sequence,
+      int coalesced,
+      @Nullable Runnable onReply) {
+    Map<String, Object> querySnapshotMap = new HashMap<>();
+    MethodChannel.Result result = null;
+
+    querySnapshotMap.put("handle", listener.handle);
+
+    if (sequence != null) {
+      int eventSequence = sequence.next();
+      querySnapshotMap.put("sequence", eventSequence);
+
+      if (sequence.requiresFullSnapshot(eventSequence)) {
+        querySnapshotMap.put("snapshot", querySnapshot);
+      } else {
+        querySnapshotMap.put(
+            "delta",
+            new FlutterFirebaseFirestoreQuerySnapshotDelta(querySnapshot, previousSnapshot));
+      }
+
+      result = sequence.acknowledgement(eventSequence);
+    } else {
+      querySnapshotMap.put("snapshot", querySnapshot);
+    }
+
+    if (coalesced > 0) {
+      querySnapshotMap.put("coalesced", coalesced);
+    }
+
+    if (onReply != null) {
+      result = FlutterFirebaseFirestoreSnapshotCoalescer.notifyingResult(result, onReply);
+    }
+
+    sendEvent("QuerySnapshot#event", querySnapshotMap, result, listener);
+  }
+
+  private void sendDocumentSnapshot(
+      FlutterFirebaseFirestoreListenerRegistry.Listener listener,
+      DocumentSnapshot documentSnapshot,
+      int coalesced,
+      @Nullable Runnable onReply) {
+    Map<String, Object> eventMap = new HashMap<>();
+
+    eventMap.put("handle", listener.handle);
+    eventMap.put("snapshot", documentSnapshot);
+
+    if (coalesced > 0) {
+      eventMap.put("coalesced", coalesced);
+    }
+
+    sendEvent(
+        "DocumentSnapshot#event",
+        eventMap,
+        onReply != null
+            ? FlutterFirebaseFirestoreSnapshotCoalescer.notifyingResult(null, onReply)
+            : null,
+        listener);
+  }
+
+  private void sendSnapshotError(
+      String method,
+      FlutterFirebaseFirestoreListenerRegistry.Listener listener,
+      FirebaseFirestoreException exception) {
+    Map<String, Object> eventMap = new HashMap<>();
+    Map<String, Object> exceptionMap = new HashMap<>();
+    FlutterFirebaseFirestoreException firestoreException =
+        new FlutterFirebaseFirestoreException(exception, exception.getCause());
+
+    eventMap.put("handle", listener.handle);
+    exceptionMap.put("code", firestoreException.getCode());
+    exceptionMap.put("message", firestoreException.getMessage());
+    eventMap.put("error", exceptionMap);
+
+    sendEvent(method, eventMap, null, listener);
+  }
+
   private Task<DocumentSnapshot> documentGet(Map<String, Object> arguments) {
-    return Tasks.call(
+    return FlutterFirebaseTasks.callAsync(
         cachedThreadPool,
         () -> {
           Source source = getSource(arguments);
           DocumentReference documentReference =
               (DocumentReference) Objects.requireNonNull(arguments.get("reference"));
-          return Tasks.await(documentReference.get(source));
+          return documentReference.get(source);
         });
   }
 
   private Task<Void> documentSet(Map<String, Object> arguments) {
-    return Tasks.call(
+    return FlutterFirebaseTasks.callAsync(
         cachedThreadPool,
         () -> {
           DocumentReference documentReference =
@@ -430,12 +711,12 @@ public class FlutterFirebaseFirestorePlugin
             setTask = documentReference.set(data);
           }
 
-          return Tasks.await(setTask);
+          return setTask;
         });
   }
 
   private Task<Void> documentUpdate(Map<String, Object> arguments) {
-    return Tasks.call(
+    return FlutterFirebaseTasks.callAsync(
         cachedThreadPool,
         () -> {
           DocumentReference documentReference =
@@ -444,49 +725,52 @@ public class FlutterFirebaseFirestorePlugin
           Map<String, Object> data =
               (Map<String, Object>) Objects.requireNonNull(arguments.get("data"));
 
-          return Tasks.await(documentReference.update(data));
+          return documentReference.update(data);
         });
   }
 
   private Task<Void> documentDelete(Map<String, Object> arguments) {
-    return Tasks.call(
+    return FlutterFirebaseTasks.callAsync(
         cachedThreadPool,
         () -> {
           DocumentReference documentReference =
               (DocumentReference) Objects.requireNonNull(arguments.get("reference"));
-          return Tasks.await(documentReference.delete());
+          return documentReference.delete();
         });
   }
 
   private Task<Void> clearPersistence(Map<String, Object> arguments) {
-    return Tasks.call(
+    return FlutterFirebaseTasks.callAsync(
         cachedThreadPool,
         () -> {
           FirebaseFirestore firestore =
               (FirebaseFirestore) Objects.requireNonNull(arguments.get("firestore"));
-          return Tasks.await(firestore.clearPersistence());
+          return firestore.clearPersistence();
         });
   }
 
   private Task<Void> terminate(Map<String, Object> arguments) {
-    return Tasks.call(
+    return FlutterFirebaseTasks.callAsync(
         cachedThreadPool,
         () -> {
           FirebaseFirestore firestore =
               (FirebaseFirestore) Objects.requireNonNull(arguments.get("firestore"));
-          Tasks.await(firestore.terminate());
-          destroyCachedFirebaseFirestoreInstanceForKey(firestore.getApp().getName());
-          return null;
+          return FlutterFirebaseTasks.map(
+              firestore.terminate(),
+              result -> {
+                destroyCachedFirebaseFirestoreInstanceForKey(firestore.getApp().getName());
+                return null;
+              });
         });
   }
 
   private Task<Void> waitForPendingWrites(Map<String, Object> arguments) {
-    return Tasks.call(
+    return FlutterFirebaseTasks.callAsync(
         cachedThreadPool,
         () -> {
           FirebaseFirestore firestore =
               (FirebaseFirestore) Objects.requireNonNull(arguments.get("firestore"));
-          return Tasks.await(firestore.waitForPendingWrites());
+          return firestore.waitForPendingWrites();
         });
   }
 
@@ -497,12 +781,12 @@ public class FlutterFirebaseFirestorePlugin
     switch (call.method) {
       case "Firestore#removeListener":
         int handle = Objects.requireNonNull(call.argument("handle"));
-        if (listenerRegistrations.get(handle) != null) {
-          listenerRegistrations.get(handle).remove();
-          listenerRegistrations.remove(handle);
-        }
+        listenerRegistry.remove(handle);
         result.success(null);
         return;
+      case "Firestore#listenerStats":
+        methodCallTask = listenerStats(call.arguments());
+        break;
       case "Firestore#disableNetwork":
         methodCallTask = disableNetwork(call.arguments());
         break;
@@ -518,6 +802,15 @@ public class FlutterFirebaseFirestorePlugin
       case "Transaction#get":
         methodCallTask = transactionGet(call.arguments());
         break;
+      case "Transaction#getAll":
+        methodCallTask = transactionGetAll(call.arguments());
+        break;
+      case "BulkWrite#addChunk":
+        methodCallTask = bulkWriteAddChunk(call.arguments());
+        break;
+      case "BulkWrite#close":
+        methodCallTask = bulkWriteClose(call.arguments());
+        break;
       case "WriteBatch#commit":
         methodCallTask = batchCommit(call.arguments());
         break;
@@ -579,15 +872,53 @@ public class FlutterFirebaseFirestorePlugin
   }
 
   private void initInstance(BinaryMessenger messenger) {
-    String channelName = "plugins.flutter.io/firebase_firestore";
-    channel =
-        new MethodChannel(
-            messenger,
-            "plugins.flutter.io/firebase_firestore",
-            new StandardMethodCodec(FlutterFirebaseFirestoreMessageCodec.INSTANCE));
+    this.messenger = messenger;
+    channel = new MethodChannel(messenger, METHOD_CHANNEL_NAME, METHOD_CODEC);
 
     channel.setMethodCallHandler(this);
-    FlutterFirebasePluginRegistry.registerPlugin(channelName, this);
+    FlutterFirebasePluginRegistry.registerPlugin(METHOD_CHANNEL_NAME, this, messenger);
+  }
+
+  // Equivalent to MethodChannel#invokeMethod, but encodes the method call on the calling thread
+  // and only hands the encoded message to the BinaryMessenger on the main thread.
+  private void sendEvent(
+      String method,
+      Map<String, Object> arguments,
+      @Nullable MethodChannel.Result result,
+      @Nullable FlutterFirebaseFirestoreListenerRegistry.Listener listener) {
+    final long startedAt = System.nanoTime();
+    final ByteBuffer message = METHOD_CODEC.encodeMethodCall(new MethodCall(method, arguments));
+
+    mainThreadHandler.post(
+        () -> {
+          BinaryMessenger binaryMessenger = messenger;
+          if (binaryMessenger == null) return;
+
+          if (listener != null) {
+            listener.recordEvent(message.capacity(), System.nanoTime() - startedAt);
+          }
+
+          if (result == null) {
+            binaryMessenger.send(METHOD_CHANNEL_NAME, message);
+            return;
+          }
+
+          binaryMessenger.send(
+              METHOD_CHANNEL_NAME,
+              message,
+              reply -> {
+                if (reply == null) {
+                  result.notImplemented();
+                  return;
+                }
+
+                try {
+                  result.success(METHOD_CODEC.decodeEnvelope(reply));
+                } catch (FlutterException e) {
+                  result.error(e.code, e.getMessage(), e.details);
+                }
+              });
+        });
   }
 
   private Map<String, String> getExceptionDetails(Exception exception) {
@@ -641,19 +972,33 @@ public class FlutterFirebaseFirestorePlugin
 
   @Override
   public Task<Void> didReinitializeFirebaseCore() {
-    return Tasks.call(
+    return FlutterFirebaseTasks.callAsync(
         cachedThreadPool,
         () -> {
           removeEventListeners();
-          // Context is ignored by API so we don't send it over even though annotated non-null.
+          List<Task<Void>> terminateTasks = new ArrayList<>();
+
+          // Firestore instances are shared, they are only terminated once no other engine uses
+          // them.
+          if (FlutterFirebasePluginRegistry.isPluginRegisteredWithOtherEngines(
+              METHOD_CHANNEL_NAME, messenger)) {
+            return Tasks.forResult(null);
+          }
 
+          // Context is ignored by API so we don't send it over even though annotated non-null.
           for (FirebaseApp app : FirebaseApp.getApps(null)) {
             FirebaseFirestore firestore = FirebaseFirestore.getInstance(app);
-            Tasks.await(firestore.terminate());
-            FlutterFirebaseFirestorePlugin.destroyCachedFirebaseFirestoreInstanceForKey(
-                app.getName());
+            terminateTasks.add(
+                FlutterFirebaseTasks.map(
+                    firestore.terminate(),
+                    result -> {
+                      FlutterFirebaseFirestorePlugin.destroyCachedFirebaseFirestoreInstanceForKey(
+                          app.getName());
+                      return null;
+                    }));
           }
-          return null;
+
+          return Tasks.whenAll(terminateTasks);
         });
   }
 }
@@ -0,0 +1,150 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.firebase.firestore;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.MetadataChanges;
+import com.google.firebase.firestore.QuerySnapshot;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+// Wraps a QuerySnapshot that should be sent to Dart as the changes since the previously
+// delivered snapshot of the same listener, rather than as a full snapshot.
+//
+// Without a base, the changes are the ones Firestore reports since its previous snapshot. When
+// snapshots were coalesced, Dart never received that previous snapshot, so the changes are
+// computed against the last snapshot that was actually sent instead.
+class FlutterFirebaseFirestoreQuerySnapshotDelta {
+  static class Change {
+    final DocumentChange.Type type;
+    // Whether the change is visible through QuerySnapshot#docChanges, as opposed to a change
+    // of the document metadata only.
+    final boolean visible;
+    final int oldIndex;
+    final int newIndex;
+    final DocumentSnapshot document;
+
+    Change(
+        DocumentChange.Type type,
+        boolean visible,
+        int oldIndex,
+        int newIndex,
+        DocumentSnapshot document) {
+      this.type = type;
+      this.visible = visible;
+      this.oldIndex = oldIndex;
+      this.newIndex = newIndex;
+      this.document = document;
+    }
+  }
+
+  final QuerySnapshot snapshot;
+  @Nullable private final QuerySnapshot base;
+
+  FlutterFirebaseFirestoreQuerySnapshotDelta(@NonNull QuerySnapshot snapshot) {
+    this(snapshot, null);
+  }
+
+  FlutterFirebaseFirestoreQuerySnapshotDelta(
+      @NonNull QuerySnapshot snapshot, @Nullable QuerySnapshot base) {
+    this.snapshot = snapshot;
+    this.base = base;
+  }
+
+  // Returns the changes in the order Dart applies them: each one removes the document at
+  // oldIndex (if any) and then inserts it at newIndex (if any).
+  List<Change> getChanges() {
+    if (base == null) {
+      return getDocumentChanges(snapshot);
+    }
+
+    return diff(base.getDocuments(), snapshot.getDocuments());
+  }
+
+  private static List<Change> getDocumentChanges(QuerySnapshot snapshot) {
+    Set<String> visibleChangePaths = new HashSet<>();
+    for (DocumentChange documentChange : snapshot.getDocumentChanges()) {
+      visibleChangePaths.add(documentChange.getDocument().getReference().getPath());
+    }
+
+    List<DocumentChange> documentChanges = snapshot.getDocumentChanges(MetadataChanges.INCLUDE);
+    List<Change> changes = new ArrayList<>(documentChanges.size());
+    for (DocumentChange documentChange : documentChanges) {
+      DocumentSnapshot document = documentChange.getDocument();
+      changes.add(
+          new Change(
+              documentChange.getType(),
+              visibleChangePaths.contains(document.getReference().getPath()),
+              documentChange.getOldIndex(),
+              documentChange.getNewIndex(),
+              document));
+    }
+
+    return changes;
+  }
+
+  private static List<Change> diff(
+      List<DocumentSnapshot> previous, List<DocumentSnapshot> current) {
+    List<Change> changes = new ArrayList<>();
+    Map<String, DocumentSnapshot> currentByPath = new HashMap<>();
+    for (DocumentSnapshot document : current) {
+      currentByPath.put(document.getReference().getPath(), document);
+    }
+
+    // The documents as Dart holds them while the changes are applied one by one.
+    List<DocumentSnapshot> documents = new ArrayList<>(previous.size());
+    for (DocumentSnapshot document : previous) {
+      if (currentByPath.containsKey(document.getReference().getPath())) {
+        documents.add(document);
+      } else {
+        changes.add(new Change(DocumentChange.Type.REMOVED, true, documents.size(), -1, document));
+      }
+    }
+
+    for (int i = 0; i < current.size(); i++) {
+      DocumentSnapshot document = current.get(i);
+      int oldIndex = indexOf(documents, document.getReference().getPath(), i);
+
+      if (oldIndex < 0) {
+        documents.add(i, document);
+        changes.add(new Change(DocumentChange.Type.ADDED, true, -1, i, document));
+        continue;
+      }
+
+      DocumentSnapshot previousDocument = documents.get(oldIndex);
+      boolean dataChanged = !Objects.equals(previousDocument.getData(), document.getData());
+      if (oldIndex == i
+          && !dataChanged
+          && previousDocument.getMetadata().equals(document.getMetadata())) {
+        continue;
+      }
+
+      documents.remove(oldIndex);
+      documents.add(i, document);
+      changes.add(
+          new Change(
+              DocumentChange.Type.MODIFIED, dataChanged || oldIndex != i, oldIndex, i, document));
+    }
+
+    return changes;
+  }
+
+  // Documents before fromIndex are already in their final position, and in the common case the
+  // document has not moved.
+  private static int indexOf(List<DocumentSnapshot> documents, String path, int fromIndex) {
+    for (int i = fromIndex; i < documents.size(); i++) {
+      if (documents.get(i).getReference().getPath().equals(path)) return i;
+    }
+    return -1;
+  }
+}
@@ -0,0 +1,164 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.firebase.firestore;
+
+import android.os.SystemClock;
+import androidx.annotation.Nullable;
+import io.flutter.plugin.common.MethodChannel;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Limits how often snapshots of a single listener are sent to Dart. Only the latest snapshot is
+// kept while waiting, older ones are dropped before they are encoded.
+//
+// Two policies are supported, and may be combined:
+//  - "intervalMillis": at most one snapshot is sent per interval, the latest one wins.
+//  - "maxInFlight": at most this many snapshots are sent without Dart having replied to them.
+//
+// All snapshots are offered and sent on the given executor.
+class FlutterFirebaseFirestoreSnapshotCoalescer<T> {
+  interface Sink<T> {
+    // Sends a snapshot, along with the number of snapshots dropped since the previous one.
+    // onReply must be run once Dart has replied to the event.
+    void send(T snapshot, int coalesced, Runnable onReply);
+  }
+
+  private final ScheduledExecutorService executor;
+  private final Sink<T> sink;
+  private final long intervalMillis;
+  private final int maxInFlight;
+
+  private T pendingSnapshot;
+  private boolean drainScheduled = false;
+  private long lastSentTime = 0;
+  private int inFlight = 0;
+  private int coalescedSinceLastSent = 0;
+  private long coalescedTotal = 0;
+  private boolean cancelled = false;
+
+  private FlutterFirebaseFirestoreSnapshotCoalescer(
+      ScheduledExecutorService executor, Sink<T> sink, long intervalMillis, int maxInFlight) {
+    this.executor = executor;
+    this.sink = sink;
+    this.intervalMillis = intervalMillis;
+    this.maxInFlight = maxInFlight;
+  }
+
+  // Creates a coalescer from the "coalescing" listener argument, or returns null if the listener
+  // did not request coalescing.
+  @Nullable
+  static <T> FlutterFirebaseFirestoreSnapshotCoalescer<T> fromArguments(
+      Map<String, Object> arguments, ScheduledExecutorService executor, Sink<T> sink) {
+    @SuppressWarnings("unchecked")
+    Map<String, Object> coalescing = (Map<String, Object>) arguments.get("coalescing");
+    if (coalescing == null) return null;
+
+    Number intervalMillis = (Number) coalescing.get("intervalMillis");
+    Number maxInFlight = (Number) coalescing.get("maxInFlight");
+
+    long interval = intervalMillis != null ? intervalMillis.longValue() : 0;
+    int inFlight = maxInFlight != null ? maxInFlight.intValue() : 0;
+    if (interval <= 0 && inFlight <= 0) return null;
+
+    return new FlutterFirebaseFirestoreSnapshotCoalescer<>(executor, sink, interval, inFlight);
+  }
+
+  // Wraps the result of an event so the given callback also runs once Dart replies.
+  static MethodChannel.Result notifyingResult(
+      @Nullable final MethodChannel.Result delegate, final Runnable onReply) {
+    return new MethodChannel.Result() {
+      @Override
+      public void success(@Nullable Object result) {
+        if (delegate != null) delegate.success(result);
+        onReply.run();
+      }
+
+      @Override
+      public void error(
+          String errorCode, @Nullable String errorMessage, @Nullable Object errorDetails) {
+        if (delegate != null) delegate.error(errorCode, errorMessage, errorDetails);
+        onReply.run();
+      }
+
+      @Override
+      public void notImplemented() {
+        if (delegate != null) delegate.notImplemented();
+        onReply.run();
+      }
+    };
+  }
+
+  synchronized long getCoalescedCount() {
+    return coalescedTotal;
+  }
+
+  void offer(T snapshot) {
+    synchronized (this) {
+      if (cancelled) return;
+      if (pendingSnapshot != null) {
+        coalescedSinceLastSent++;
+        coalescedTotal++;
+      }
+      pendingSnapshot = snapshot;
+    }
+
+    drain();
+  }
+
+  private void drain() {
+    T snapshot;
+    int coalesced;
+
+    synchronized (this) {
+      if (cancelled || pendingSnapshot == null) return;
+      if (maxInFlight > 0 && inFlight >= maxInFlight) return;
+
+      long now = SystemClock.elapsedRealtime();
+      long delay = lastSentTime + intervalMillis - now;
+      if (intervalMillis > 0 && delay > 0) {
+        if (!drainScheduled) {
+          drainScheduled = true;
+          executor.schedule(this::scheduledDrain, delay, TimeUnit.MILLISECONDS);
+        }
+        return;
+      }
+
+      snapshot = pendingSnapshot;
+      coalesced = coalescedSinceLastSent;
+      pendingSnapshot = null;
+      coalescedSinceLastSent = 0;
+      lastSentTime = now;
+      inFlight++;
+    }
+
+    sink.send(snapshot, coalesced, this::onReply);
+  }
+
+  // Drops the pending snapshot and stops sending, once the listener is removed. Replies to events
+  // already sent may never arrive (e.g. once the engine is detached), so inFlight is reset rather
+  // than waiting for them.
+  synchronized void cancel() {
+    cancelled = true;
+    pendingSnapshot = null;
+    coalescedSinceLastSent = 0;
+    inFlight = 0;
+  }
+
+  private void scheduledDrain() {
+    synchronized (this) {
+      drainScheduled = false;
+    }
+    drain();
+  }
+
+  private void onReply() {
+    synchronized (this) {
+      if (cancelled) return;
+      inFlight--;
+    }
+    executor.execute(this::drain);
+  }
+}
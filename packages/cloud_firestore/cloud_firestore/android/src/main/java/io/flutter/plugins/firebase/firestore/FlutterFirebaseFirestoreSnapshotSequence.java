@@ -0,0 +1,94 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.firebase.firestore;
+
+import androidx.annotation.Nullable;
+import io.flutter.plugin.common.MethodChannel;
+
+// Tracks the snapshot events sent for a single delta-mode query listener. Events are numbered
+// sequentially, and Dart acknowledges each one once it has been applied. If Dart fails to apply
+// a delta (e.g. it no longer holds the snapshot the delta is based on) the latest snapshot is sent
+// again in full right away, and the sequence continues from it. Waiting for the next Firestore
+// event instead would leave Dart without the change until the query changes again.
+class FlutterFirebaseFirestoreSnapshotSequence {
+  // Sends the latest snapshot again, as a full snapshot if isFullSnapshotRequired still holds.
+  interface Resender {
+    void resendFullSnapshot();
+  }
+
+  private final Resender resender;
+  private int nextSequence = 0;
+  private int lastAcknowledgedSequence = -1;
+  private int lastFullSnapshotSequence = -1;
+  private boolean fullSnapshotRequired = true;
+
+  FlutterFirebaseFirestoreSnapshotSequence(Resender resender) {
+    this.resender = resender;
+  }
+
+  // Returns the sequence number for the next event.
+  synchronized int next() {
+    return nextSequence++;
+  }
+
+  // Returns whether the event with the given sequence number must carry a full snapshot.
+  synchronized boolean requiresFullSnapshot(int sequence) {
+    if (!fullSnapshotRequired) return false;
+
+    fullSnapshotRequired = false;
+    lastFullSnapshotSequence = sequence;
+    return true;
+  }
+
+  // Whether the next event must carry a full snapshot, without claiming it.
+  synchronized boolean isFullSnapshotRequired() {
+    return fullSnapshotRequired;
+  }
+
+  synchronized int getLastAcknowledgedSequence() {
+    return lastAcknowledgedSequence;
+  }
+
+  private synchronized void acknowledged(int sequence) {
+    if (sequence > lastAcknowledgedSequence) {
+      lastAcknowledgedSequence = sequence;
+    }
+  }
+
+  private void rejected(int sequence) {
+    synchronized (this) {
+      // Events sent before the latest full snapshot are superseded by it, and the deltas in flight
+      // after a rejected one are covered by the full snapshot it already triggered.
+      if (sequence < lastFullSnapshotSequence || fullSnapshotRequired) return;
+
+      fullSnapshotRequired = true;
+
+      // A rejected full snapshot is not sent again, Dart could not handle it either way.
+      if (sequence == lastFullSnapshotSequence) return;
+    }
+
+    resender.resendFullSnapshot();
+  }
+
+  MethodChannel.Result acknowledgement(final int sequence) {
+    return new MethodChannel.Result() {
+      @Override
+      public void success(@Nullable Object result) {
+        acknowledged(sequence);
+      }
+
+      @Override
+      public void error(
+          String errorCode, @Nullable String errorMessage, @Nullable Object errorDetails) {
+        rejected(sequence);
+      }
+
+      @Override
+      public void notImplemented() {
+        rejected(sequence);
+      }
+    };
+  }
+}
@@ -20,6 +20,7 @@ import com.google.firebase.firestore.SetOptions;
 import com.google.firebase.firestore.Transaction;
 import io.flutter.plugin.common.MethodChannel;
 import java.lang.ref.WeakReference;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -28,27 +29,57 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 class FlutterFirebaseFirestoreTransactionHandler {
-  static final SparseArray<Transaction> transactions = new SparseArray<>();
+  // Transactions of a single engine keyed by their Dart id. Ids are only unique per engine, so
+  // every plugin instance provides its own array. Access is guarded by the array itself.
+  private final SparseArray<Transaction> transactions;
   private MethodChannel channel;
   private WeakReference<Activity> activityRef;
   private int transactionId;
+  private List<DocumentReference> readSet;
 
   FlutterFirebaseFirestoreTransactionHandler(
-      MethodChannel channel, Activity activity, int transactionId) {
+      SparseArray<Transaction> transactions,
+      MethodChannel channel,
+      Activity activity,
+      int transactionId) {
+    this(transactions, channel, activity, transactionId, null);
+  }
+
+  // The read set, when provided, is read at the start of every attempt and the snapshots are sent
+  // along with Transaction#attempt, saving a Transaction#get round-trip per document.
+  FlutterFirebaseFirestoreTransactionHandler(
+      SparseArray<Transaction> transactions,
+      MethodChannel channel,
+      Activity activity,
+      int transactionId,
+      @Nullable List<DocumentReference> readSet) {
+    this.transactions = transactions;
     this.channel = channel;
     this.activityRef = new WeakReference<>(activity);
     this.transactionId = transactionId;
+    this.readSet = readSet;
+  }
+
+  static void dispose(SparseArray<Transaction> transactions, int transactionId) {
+    synchronized (transactions) {
+      transactions.delete(transactionId);
+    }
   }
 
-  static void dispose(int transactionId) {
-    transactions.delete(transactionId);
+  @Nullable
+  private static Transaction getTransaction(
+      SparseArray<Transaction> transactions, int transactionId) {
+    synchronized (transactions) {
+      return transactions.get(transactionId);
+    }
   }
 
   // Gets a transaction document
   // Throws an exception if the handler does not exist
-  static DocumentSnapshot getDocument(int transactionId, DocumentReference documentReference)
+  static DocumentSnapshot getDocument(
+      SparseArray<Transaction> transactions, int transactionId, DocumentReference documentReference)
       throws Exception {
-    Transaction transaction = transactions.get(transactionId);
+    Transaction transaction = getTransaction(transactions, transactionId);
 
     if (transaction == null) {
       throw new Exception(
@@ -58,6 +89,35 @@ class FlutterFirebaseFirestoreTransactionHandler {
     return transaction.get(documentReference);
   }
 
+  // Gets several transaction documents in a single call, in the order they were requested
+  // Throws an exception if the handler does not exist
+  static List<DocumentSnapshot> getDocuments(
+      SparseArray<Transaction> transactions,
+      int transactionId,
+      List<DocumentReference> documentReferences)
+      throws Exception {
+    Transaction transaction = getTransaction(transactions, transactionId);
+
+    if (transaction == null) {
+      throw new Exception(
+          "Transaction.getDocuments(): No transaction handler exists for ID: " + transactionId);
+    }
+
+    return getDocuments(transaction, documentReferences);
+  }
+
+  private static List<DocumentSnapshot> getDocuments(
+      Transaction transaction, List<DocumentReference> documentReferences)
+      throws FirebaseFirestoreException {
+    List<DocumentSnapshot> documents = new ArrayList<>(documentReferences.size());
+
+    for (DocumentReference documentReference : documentReferences) {
+      documents.add(transaction.get(documentReference));
+    }
+
+    return documents;
+  }
+
   Task<FlutterFirebaseFirestoreTransactionResult> create(
       FirebaseFirestore firestore, Long timeout) {
     Map<String, Object> arguments = new HashMap<>();
@@ -66,7 +126,9 @@ class FlutterFirebaseFirestoreTransactionHandler {
 
     return firestore.runTransaction(
         transaction -> {
-          transactions.append(transactionId, transaction);
+          synchronized (transactions) {
+            transactions.append(transactionId, transaction);
+          }
 
           final TaskCompletionSource<Map<String, Object>> completionSource =
               new TaskCompletionSource<>();
@@ -77,11 +139,18 @@ class FlutterFirebaseFirestoreTransactionHandler {
                 new ActivityNotFoundException("Activity context no longer exists."));
           }
 
+          // Reads made here fail the attempt the same way a failing Transaction#get would,
+          // letting the SDK decide whether to retry.
+          final Map<String, Object> attemptArguments = new HashMap<>(arguments);
+          if (readSet != null) {
+            attemptArguments.put("documents", getDocuments(transaction, readSet));
+          }
+
           Runnable runnable =
               () ->
                   channel.invokeMethod(
                       "Transaction#attempt",
-                      arguments,
+                      attemptArguments,
                       new MethodChannel.Result() {
                         @Override
                         @SuppressWarnings("unchecked")
@@ -0,0 +1,93 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.firebase.firestore;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class FlutterFirebaseFirestoreSnapshotSequenceTest {
+  private int resends = 0;
+
+  private final FlutterFirebaseFirestoreSnapshotSequence sequence =
+      new FlutterFirebaseFirestoreSnapshotSequence(() -> resends++);
+
+  // Sends an event the way the plugin does, returns whether it carried a full snapshot.
+  private boolean send(int eventSequence) {
+    assertEquals(eventSequence, sequence.next());
+    return sequence.requiresFullSnapshot(eventSequence);
+  }
+
+  @Test
+  public void resendsFullSnapshotWhenDeltaIsRejectedWithoutFurtherEvents() {
+    assertTrue(send(0));
+    sequence.acknowledgement(0).success(null);
+    assertFalse(send(1));
+
+    sequence.acknowledgement(1).error("cloud_firestore", "out of sync", null);
+
+    // No further Firestore event arrives, the snapshot is sent again straight away.
+    assertEquals(1, resends);
+    assertTrue(sequence.isFullSnapshotRequired());
+    assertTrue(send(2));
+    assertFalse(sequence.isFullSnapshotRequired());
+    assertEquals(0, sequence.getLastAcknowledgedSequence());
+  }
+
+  @Test
+  public void resendsOnceForDeltasRejectedInFlight() {
+    assertTrue(send(0));
+    assertFalse(send(1));
+    assertFalse(send(2));
+    assertFalse(send(3));
+
+    sequence.acknowledgement(0).success(null);
+    sequence.acknowledgement(1).error("cloud_firestore", "out of sync", null);
+    sequence.acknowledgement(2).error("cloud_firestore", "out of sync", null);
+    sequence.acknowledgement(3).notImplemented();
+
+    assertEquals(1, resends);
+  }
+
+  @Test
+  public void resendsAgainWhenDeltaAfterResentSnapshotIsRejected() {
+    assertTrue(send(0));
+    assertFalse(send(1));
+    sequence.acknowledgement(1).error("cloud_firestore", "out of sync", null);
+    assertTrue(send(2));
+    assertFalse(send(3));
+
+    sequence.acknowledgement(3).error("cloud_firestore", "out of sync", null);
+
+    assertEquals(2, resends);
+  }
+
+  @Test
+  public void ignoresRejectionsSupersededByFullSnapshot() {
+    assertTrue(send(0));
+    assertFalse(send(1));
+    assertFalse(send(2));
+    sequence.acknowledgement(1).error("cloud_firestore", "out of sync", null);
+    assertTrue(send(3));
+
+    // Delta 2 was sent before the resent snapshot, which already replaced it.
+    sequence.acknowledgement(2).error("cloud_firestore", "out of sync", null);
+
+    assertEquals(1, resends);
+    assertFalse(sequence.isFullSnapshotRequired());
+  }
+
+  @Test
+  public void doesNotResendRejectedFullSnapshot() {
+    assertTrue(send(0));
+
+    sequence.acknowledgement(0).error("cloud_firestore", "failed", null);
+
+    assertEquals(0, resends);
+    assertTrue(sequence.isFullSnapshotRequired());
+  }
+}
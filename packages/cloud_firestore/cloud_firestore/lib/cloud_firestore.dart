@@ -15,16 +15,22 @@ export 'package:cloud_firestore_platform_interface/cloud_firestore_platform_inte
         ListEquality,
         FieldPath,
         Blob,
+        BulkWriteError,
+        BulkWriteResult,
         GeoPoint,
+        ListenerStats,
+        SnapshotListenerStats,
         Timestamp,
         Source,
         GetOptions,
         SetOptions,
+        SnapshotCoalescing,
         DocumentChangeType,
         Settings;
 export 'package:firebase_core_platform_interface/firebase_core_platform_interface.dart'
     show FirebaseException;
 
+part 'src/bulk_writer.dart';
 part 'src/collection_reference.dart';
 part 'src/document_change.dart';
 part 'src/document_reference.dart';
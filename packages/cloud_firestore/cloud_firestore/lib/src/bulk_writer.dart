@@ -0,0 +1,73 @@
+// Copyright 2020, the Chromium project authors.  Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+
+part of cloud_firestore;
+
+/// A [BulkWriter] performs a large number of independent write operations.
+///
+/// Writes are sent as they are added and committed in batches. Unlike a
+/// [WriteBatch], they are not applied as a single atomic unit, and a failed
+/// batch does not stop the others. Failures are reported by [close].
+///
+/// Adding a write returns a future which completes once the write can be sent.
+/// When writes are added in a loop, awaiting each one keeps the writes held in
+/// memory bounded, rather than queueing all of them up front.
+///
+/// Once closed, no further operations can be performed on the [BulkWriter].
+class BulkWriter {
+  final FirebaseFirestore _firestore;
+  final BulkWriterPlatform _delegate;
+
+  BulkWriter._(this._firestore, this._delegate) {
+    BulkWriterPlatform.verifyExtends(_delegate);
+  }
+
+  /// Deletes the document referred to by [document].
+  Future<void> delete(DocumentReference document) {
+    assert(document != null);
+    assert(document.firestore == _firestore,
+        "the document provided is from a different Firestore instance");
+    return _delegate.delete(document.path);
+  }
+
+  /// Writes to the document referred to by [document].
+  ///
+  /// If the document does not yet exist, it will be created.
+  ///
+  /// If [SetOptions] are provided, the data will be merged into an existing
+  /// document instead of overwriting.
+  Future<void> set(DocumentReference document, Map<String, dynamic> data,
+      [SetOptions options]) {
+    assert(document != null);
+    assert(data != null);
+    assert(document.firestore == _firestore,
+        "the document provided is from a different Firestore instance");
+    return _delegate.set(document.path,
+        _CodecUtility.replaceValueWithDelegatesInMap(data), options);
+  }
+
+  /// Updates a given [document].
+  ///
+  /// If the document does not yet exist, the write will fail.
+  Future<void> update(DocumentReference document, Map<String, dynamic> data) {
+    assert(document != null);
+    assert(data != null);
+    assert(document.firestore == _firestore,
+        "the document provided is from a different Firestore instance");
+    return _delegate.update(
+        document.path, _CodecUtility.replaceValueWithDelegatesInMap(data));
+  }
+
+  /// Sends the writes added so far, and completes once all of them have been
+  /// committed or have failed.
+  ///
+  /// Awaiting [flush] regularly bounds the number of writes held in memory.
+  Future<void> flush() => _delegate.flush();
+
+  /// Sends the remaining writes, and completes once every write has been
+  /// committed or has failed, with the number of committed and failed writes.
+  ///
+  /// Calling this method prevents any future operations from being added.
+  Future<BulkWriteResult> close() => _delegate.close();
+}
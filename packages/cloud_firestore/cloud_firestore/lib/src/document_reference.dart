@@ -67,9 +67,18 @@ class DocumentReference {
   ///
   /// An initial event is immediately sent, and further events will be
   /// sent whenever the document is modified.
-  Stream<DocumentSnapshot> snapshots({bool includeMetadataChanges = false}) =>
-      _delegate.snapshots(includeMetadataChanges: includeMetadataChanges).map(
-          (delegateSnapshot) =>
+  ///
+  /// For documents changing frequently, [coalescing] limits how often
+  /// snapshots are delivered. Snapshots exceeding its limits are dropped and
+  /// only the latest one is delivered.
+  Stream<DocumentSnapshot> snapshots(
+          {bool includeMetadataChanges = false,
+          SnapshotCoalescing coalescing}) =>
+      _delegate
+          .snapshots(
+              includeMetadataChanges: includeMetadataChanges,
+              coalescing: coalescing)
+          .map((delegateSnapshot) =>
               DocumentSnapshot._(firestore, delegateSnapshot));
 
   /// Sets data on the document, overwriting any existing data. If the document
@@ -86,6 +86,27 @@ class FirebaseFirestore extends FirebasePluginPlatform {
     return WriteBatch._(this, _delegate.batch());
   }
 
+  /// Returns a [BulkWriter], used for performing a large number of independent
+  /// writes, such as imports or migrations.
+  ///
+  /// Unlike [WriteBatch]es, the writes of a [BulkWriter] are not atomic. They
+  /// are sent in chunks of [chunkSize] writes as they are added, and at most
+  /// [maxConcurrentBatches] batches are committed at once. At most
+  /// [maxPendingChunks] chunks are sent without having completed, further
+  /// chunks are held back until one completes.
+  BulkWriter bulkWriter(
+      {int chunkSize, int maxConcurrentBatches, int maxPendingChunks}) {
+    assert(chunkSize == null || chunkSize > 0);
+    assert(maxConcurrentBatches == null || maxConcurrentBatches > 0);
+    assert(maxPendingChunks == null || maxPendingChunks > 0);
+    return BulkWriter._(
+        this,
+        _delegate.bulkWriter(
+            chunkSize: chunkSize,
+            maxConcurrentBatches: maxConcurrentBatches,
+            maxPendingChunks: maxPendingChunks));
+  }
+
   /// Clears any persisted data for the current instance.
   Future<void> clearPersistence() {
     return _delegate.clearPersistence();
@@ -169,14 +190,29 @@ class FirebaseFirestore extends FirebasePluginPlatform {
   ///
   /// By default transactions are limited to 5 seconds of execution time. This
   /// timeout can be adjusted by setting the timeout parameter.
+  ///
+  /// Documents known to be read by the [TransactionHandler] can be declared
+  /// with [reads]. They are read at the start of every attempt, and reading
+  /// them with [Transaction.get] or [Transaction.getAll] doesn't make a further
+  /// round trip.
   Future<T> runTransaction<T>(TransactionHandler<T> transactionHandler,
-      {Duration timeout = const Duration(seconds: 30)}) async {
+      {Duration timeout = const Duration(seconds: 30),
+      List<DocumentReference> reads}) async {
     assert(transactionHandler != null, "transactionHandler cannot be null");
+    assert(
+        reads == null ||
+            reads.every((DocumentReference reference) =>
+                reference.firestore == this),
+        "the documents provided must be from this Firestore instance");
+
+    final List<String> readPaths = reads
+        ?.map((DocumentReference reference) => reference.path)
+        ?.toList();
 
     T output;
     await _delegate.runTransaction((transaction) async {
       output = await transactionHandler(Transaction._(this, transaction));
-    }, timeout: timeout);
+    }, timeout: timeout, reads: readPaths);
 
     return output;
   }
@@ -225,6 +261,15 @@ class FirebaseFirestore extends FirebasePluginPlatform {
     return _delegate.waitForPendingWrites();
   }
 
+  /// Returns the statistics of the snapshot listeners of this instance, such
+  /// as the number of events each of them sent and how long the last one took
+  /// to reach Dart, along with the hits and misses of the native query cache.
+  ///
+  /// Only supported on Android.
+  Future<ListenerStats> getListenerStats() {
+    return _delegate.getListenerStats();
+  }
+
   @override
   bool operator ==(dynamic o) =>
       o is FirebaseFirestore && o.app.name == app.name;
@@ -204,9 +204,17 @@ class Query {
   }
 
   /// Notifies of query results at this location.
-  Stream<QuerySnapshot> snapshots({bool includeMetadataChanges = false}) =>
+  ///
+  /// For queries on frequently changing data, [coalescing] limits how often
+  /// snapshots are delivered. Snapshots exceeding its limits are dropped and
+  /// only the latest one is delivered.
+  Stream<QuerySnapshot> snapshots(
+          {bool includeMetadataChanges = false,
+          SnapshotCoalescing coalescing}) =>
       _delegate
-          .snapshots(includeMetadataChanges: includeMetadataChanges)
+          .snapshots(
+              includeMetadataChanges: includeMetadataChanges,
+              coalescing: coalescing)
           .map((item) {
         return QuerySnapshot._(firestore, item);
       });
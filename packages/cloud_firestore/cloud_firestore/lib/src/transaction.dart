@@ -28,6 +28,31 @@ class Transaction {
     return DocumentSnapshot._(_firestore, documentSnapshotPlatform);
   }
 
+  /// Reads the documents referenced by the provided [documentReferences] in a
+  /// single call, in the order they were provided.
+  ///
+  /// If any of the documents changes whilst the transaction is in progress,
+  /// it will be re-tried up to five times.
+  Future<List<DocumentSnapshot>> getAll(
+      List<DocumentReference> documentReferences) async {
+    assert(documentReferences != null);
+    assert(
+        documentReferences.every((DocumentReference documentReference) =>
+            documentReference.firestore == _firestore),
+        "the documents provided must be from this Firestore instance");
+
+    List<DocumentSnapshotPlatform> documentSnapshotPlatforms =
+        await _delegate.getAll(documentReferences
+            .map((DocumentReference documentReference) =>
+                documentReference.path)
+            .toList());
+
+    return documentSnapshotPlatforms
+        .map((DocumentSnapshotPlatform documentSnapshotPlatform) =>
+            DocumentSnapshot._(_firestore, documentSnapshotPlatform))
+        .toList();
+  }
+
   /// Deletes the document referred to by the provided [documentReference].
   Transaction delete(DocumentReference documentReference) {
     assert(documentReference != null);
@@ -17,5 +17,23 @@ void main() {
     test('throws if invalid transactionHandler passed', () async {
       expect(() => firestore.runTransaction(null), throwsAssertionError);
     });
+
+    test('throws if reads are from a different Firestore instance', () async {
+      FirebaseApp secondaryApp = await Firebase.initializeApp(
+          name: 'foo',
+          options: FirebaseOptions(
+            apiKey: '123',
+            appId: '123',
+            messagingSenderId: '123',
+            projectId: '123',
+          ));
+      DocumentReference badRef =
+          FirebaseFirestore.instanceFor(app: secondaryApp).doc('doc/exists');
+
+      expect(
+          () => firestore.runTransaction((Transaction transaction) async {},
+              reads: <DocumentReference>[badRef]),
+          throwsAssertionError);
+    });
   });
 }
@@ -63,4 +63,16 @@ void main() {
       expect(() => batch.delete(badRef), throwsAssertionError);
     });
   });
+
+  group("$BulkWriter", () {
+    test('requires document reference from same Firestore instance', () {
+      DocumentReference badRef = firestoreSecondary.doc('doc/exists');
+
+      const data = {'foo': 1};
+      var bulkWriter = firestore.bulkWriter();
+      expect(() => bulkWriter.set(badRef, data), throwsAssertionError);
+      expect(() => bulkWriter.update(badRef, data), throwsAssertionError);
+      expect(() => bulkWriter.delete(badRef), throwsAssertionError);
+    });
+  });
 }
@@ -8,9 +8,12 @@ import 'src/internal/pointer.dart';
 
 export 'package:collection/collection.dart' show ListEquality;
 export 'src/blob.dart';
+export 'src/bulk_write_result.dart';
 export 'src/field_path.dart';
 export 'src/geo_point.dart';
+export 'src/listener_stats.dart';
 export 'src/platform_interface/platform_interface_firestore.dart';
+export 'src/platform_interface/platform_interface_bulk_writer.dart';
 export 'src/platform_interface/platform_interface_collection_reference.dart';
 export 'src/platform_interface/platform_interface_document_change.dart';
 export 'src/platform_interface/platform_interface_document_reference.dart';
@@ -21,6 +24,7 @@ export 'src/platform_interface/platform_interface_query.dart';
 export 'src/platform_interface/platform_interface_query_snapshot.dart';
 export 'src/platform_interface/platform_interface_transaction.dart';
 export 'src/platform_interface/platform_interface_write_batch.dart';
+export 'src/snapshot_coalescing.dart';
 export 'src/snapshot_metadata.dart';
 export 'src/source.dart';
 export 'src/timestamp.dart';
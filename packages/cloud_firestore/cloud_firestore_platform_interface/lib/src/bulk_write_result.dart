@@ -0,0 +1,37 @@
+// Copyright 2020, the Chromium project authors.  Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+
+/// A batch of writes of a bulk writer which failed to commit.
+class BulkWriteError {
+  /// Creates a [BulkWriteError] instance.
+  const BulkWriteError({this.index, this.count, this.code, this.message});
+
+  /// The index of the first write of the batch, in the order the writes were
+  /// added to the bulk writer.
+  final int index;
+
+  /// The number of writes of the batch, none of which were committed.
+  final int count;
+
+  /// The error code of the failure.
+  final String code;
+
+  /// The error message of the failure.
+  final String message;
+}
+
+/// The outcome of a bulk writer, once it has been closed.
+class BulkWriteResult {
+  /// Creates a [BulkWriteResult] instance.
+  const BulkWriteResult({this.committed, this.failed, this.errors});
+
+  /// The number of writes which were committed.
+  final int committed;
+
+  /// The number of writes which failed to commit.
+  final int failed;
+
+  /// The batches which failed to commit.
+  final List<BulkWriteError> errors;
+}
@@ -0,0 +1,98 @@
+// Copyright 2020, the Chromium project authors.  Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+
+/// The statistics of a snapshot listener on Android.
+class SnapshotListenerStats {
+  /// Creates a [SnapshotListenerStats] instance.
+  const SnapshotListenerStats(
+      {this.handle,
+      this.type,
+      this.createdAt,
+      this.age,
+      this.eventsDelivered,
+      this.bytesEncoded,
+      this.lastEventLatency,
+      this.coalesced,
+      this.lastAcknowledgedSequence});
+
+  /// Constructs a [SnapshotListenerStats] from a raw Map.
+  factory SnapshotListenerStats.fromMap(Map<dynamic, dynamic> map) {
+    return SnapshotListenerStats(
+      handle: map['handle'],
+      type: map['type'],
+      createdAt: DateTime.fromMillisecondsSinceEpoch(map['createdAt']),
+      age: Duration(milliseconds: map['ageMillis']),
+      eventsDelivered: map['eventsDelivered'] ?? 0,
+      bytesEncoded: map['bytesEncoded'] ?? 0,
+      lastEventLatency: map['lastEventLatencyMicros'] == null
+          ? null
+          : Duration(microseconds: map['lastEventLatencyMicros']),
+      coalesced: map['coalesced'],
+      lastAcknowledgedSequence: map['lastAcknowledgedSequence'],
+    );
+  }
+
+  /// The handle of the listener, unique to this app session.
+  final int handle;
+
+  /// What the listener listens to, either `query`, `document` or
+  /// `snapshotsInSync`.
+  final String type;
+
+  /// When the listener was added.
+  final DateTime createdAt;
+
+  /// How long the listener has been added for.
+  final Duration age;
+
+  /// The number of events sent to Dart.
+  final int eventsDelivered;
+
+  /// The number of bytes encoded for the events sent to Dart.
+  final int bytesEncoded;
+
+  /// The time from encoding the last event until it was sent, or `null` if no
+  /// event was sent yet.
+  final Duration lastEventLatency;
+
+  /// The number of snapshots merged into later ones, or `null` if the
+  /// listener doesn't coalesce its snapshots.
+  final int coalesced;
+
+  /// The sequence number of the last delta acknowledged by Dart, or `null` if
+  /// the listener doesn't send deltas.
+  final int lastAcknowledgedSequence;
+}
+
+/// The statistics of the snapshot listeners of a Firestore instance on
+/// Android.
+class ListenerStats {
+  /// Creates a [ListenerStats] instance.
+  const ListenerStats(
+      {this.listeners, this.queryCacheHits, this.queryCacheMisses});
+
+  /// Constructs a [ListenerStats] from a raw Map.
+  factory ListenerStats.fromMap(Map<dynamic, dynamic> map) {
+    List<dynamic> listeners = map['listeners'] ?? <dynamic>[];
+    Map<dynamic, dynamic> queryCache =
+        map['queryCache'] ?? <dynamic, dynamic>{};
+
+    return ListenerStats(
+      listeners: listeners
+          .map((listener) => SnapshotListenerStats.fromMap(listener))
+          .toList(),
+      queryCacheHits: queryCache['hits'] ?? 0,
+      queryCacheMisses: queryCache['misses'] ?? 0,
+    );
+  }
+
+  /// The statistics of every listener currently added.
+  final List<SnapshotListenerStats> listeners;
+
+  /// The number of queries found in the native query cache.
+  final int queryCacheHits;
+
+  /// The number of queries which had to be built natively.
+  final int queryCacheMisses;
+}
@@ -0,0 +1,257 @@
+// Copyright 2020, the Chromium project authors.  Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+
+import 'dart:async';
+import 'dart:collection';
+
+import 'package:cloud_firestore_platform_interface/cloud_firestore_platform_interface.dart';
+
+import 'method_channel_firestore.dart';
+import 'utils/exception.dart';
+
+/// An implementation of [BulkWriterPlatform] that uses [MethodChannel] to
+/// communicate with Firebase plugins.
+///
+/// Writes are buffered until [chunkSize] of them have been added, and then
+/// sent as a single chunk to the bulk writer of the same handle on the native
+/// side, which commits them in batches.
+///
+/// At most [maxPendingChunks] chunks are sent without having completed. Further
+/// chunks are held back until one completes, and the futures returned when
+/// adding writes only complete once no chunk is held back.
+class MethodChannelBulkWriter extends BulkWriterPlatform {
+  /// Create an instance of [MethodChannelBulkWriter]
+  MethodChannelBulkWriter(this._firestore,
+      {int chunkSize, this.maxConcurrentBatches, int maxPendingChunks})
+      : assert(chunkSize == null || chunkSize > 0),
+        assert(maxConcurrentBatches == null || maxConcurrentBatches > 0),
+        assert(maxPendingChunks == null || maxPendingChunks > 0),
+        chunkSize = chunkSize ?? defaultChunkSize,
+        maxPendingChunks = maxPendingChunks ?? defaultMaxPendingChunks,
+        super();
+
+  /// The number of writes sent by default in a single chunk, matching the
+  /// maximum size of a batch.
+  static const int defaultChunkSize = 500;
+
+  /// The number of chunks sent by default without having completed.
+  static const int defaultMaxPendingChunks = 8;
+
+  /// The [FirebaseFirestorePlatform] instance of this bulk writer.
+  final FirebaseFirestorePlatform _firestore;
+
+  /// The number of writes sent in a single chunk.
+  final int chunkSize;
+
+  /// The maximum number of batches committed at once, or `null` to use the
+  /// native default.
+  final int maxConcurrentBatches;
+
+  /// The maximum number of chunks sent without having completed.
+  final int maxPendingChunks;
+
+  /// The handle of the bulk writer on the native side.
+  final int _handle = MethodChannelFirebaseFirestore.nextMethodChannelHandleId;
+
+  /// The writes which have not been sent yet.
+  List<Map<String, dynamic>> _writes = [];
+
+  /// The number of writes chunked so far, used to index the writes of a
+  /// chunk.
+  int _chunkedWrites = 0;
+
+  /// The chunks which have not been awaited yet, whether sent or held back.
+  final List<Future<void>> _pendingChunks = [];
+
+  /// The chunks held back until fewer than [maxPendingChunks] are in flight.
+  final Queue<_Chunk> _queuedChunks = Queue<_Chunk>();
+
+  /// The number of chunks sent which have not completed yet.
+  int _inFlightChunks = 0;
+
+  /// Completes once no chunk is held back anymore.
+  Completer<void> _queueDrained;
+
+  /// The batches which failed to commit, in the order they completed.
+  final List<BulkWriteError> _errors = [];
+
+  /// Once closed, a [StateError] will be thrown if the bulk writer is
+  /// modified.
+  bool _closed = false;
+
+  @override
+  Future<void> delete(String documentPath) {
+    return _add(<String, dynamic>{
+      'path': documentPath,
+      'type': 'DELETE',
+    });
+  }
+
+  @override
+  Future<void> set(String documentPath, Map<String, dynamic> data,
+      [SetOptions options]) {
+    return _add(<String, dynamic>{
+      'path': documentPath,
+      'type': 'SET',
+      'data': data,
+      'options': <String, dynamic>{
+        'merge': options?.merge,
+        'mergeFields': options?.mergeFields,
+      },
+    });
+  }
+
+  @override
+  Future<void> update(String documentPath, Map<String, dynamic> data) {
+    return _add(<String, dynamic>{
+      'path': documentPath,
+      'type': 'UPDATE',
+      'data': data,
+    });
+  }
+
+  @override
+  Future<void> flush() async {
+    _assertNotClosed();
+    _sendChunk();
+
+    final List<Future<void>> chunks = List<Future<void>>.from(_pendingChunks);
+    _pendingChunks.clear();
+
+    try {
+      await Future.wait(chunks);
+    } catch (e) {
+      throw convertPlatformException(e);
+    }
+  }
+
+  @override
+  Future<BulkWriteResult> close() async {
+    _assertNotClosed();
+    _sendChunk();
+    _closed = true;
+
+    Object error;
+    Map<String, dynamic> result;
+
+    try {
+      await Future.wait(_pendingChunks);
+    } catch (e) {
+      error = e;
+    }
+    _pendingChunks.clear();
+
+    // The native bulk writer is released even if a chunk failed.
+    try {
+      result = await MethodChannelFirebaseFirestore.channel
+          .invokeMapMethod<String, dynamic>(
+              'BulkWrite#close', <String, dynamic>{
+        'firestore': _firestore,
+        'handle': _handle,
+      });
+    } catch (e) {
+      error ??= e;
+    }
+
+    if (error != null) {
+      throw convertPlatformException(error);
+    }
+
+    return BulkWriteResult(
+      committed: result['committed'],
+      failed: result['failed'],
+      errors: List<BulkWriteError>.unmodifiable(_errors),
+    );
+  }
+
+  Future<void> _add(Map<String, dynamic> write) {
+    _assertNotClosed();
+    _writes.add(write);
+
+    if (_writes.length >= chunkSize) {
+      _sendChunk();
+    }
+
+    if (_queuedChunks.isEmpty) {
+      return Future<void>.value();
+    }
+
+    _queueDrained ??= Completer<void>();
+    return _queueDrained.future;
+  }
+
+  void _sendChunk() {
+    if (_writes.isEmpty) {
+      return;
+    }
+
+    final _Chunk chunk = _Chunk(_writes, _chunkedWrites);
+    _writes = [];
+    _chunkedWrites += chunk.writes.length;
+
+    // Failures are reported by the next flush or close, rather than as
+    // uncaught errors.
+    chunk.completer.future.catchError((_) {});
+    _pendingChunks.add(chunk.completer.future);
+    _queuedChunks.add(chunk);
+    _sendQueuedChunks();
+  }
+
+  void _sendQueuedChunks() {
+    while (_inFlightChunks < maxPendingChunks && _queuedChunks.isNotEmpty) {
+      final _Chunk chunk = _queuedChunks.removeFirst();
+      _inFlightChunks++;
+      chunk.completer.complete(_invokeAddChunk(chunk).whenComplete(() {
+        _inFlightChunks--;
+        _sendQueuedChunks();
+      }));
+    }
+
+    if (_queuedChunks.isEmpty && _queueDrained != null) {
+      _queueDrained.complete();
+      _queueDrained = null;
+    }
+  }
+
+  Future<void> _invokeAddChunk(_Chunk chunk) {
+    return MethodChannelFirebaseFirestore.channel
+        .invokeMapMethod<String, dynamic>(
+            'BulkWrite#addChunk', <String, dynamic>{
+      'firestore': _firestore,
+      'handle': _handle,
+      'writes': chunk.writes,
+      'maxConcurrentBatches': maxConcurrentBatches,
+    }).then((Map<String, dynamic> result) {
+      for (Map<dynamic, dynamic> error in result['errors']) {
+        _errors.add(BulkWriteError(
+          index: chunk.offset + error['index'],
+          count: error['count'],
+          code: error['code'],
+          message: error['message'],
+        ));
+      }
+    });
+  }
+
+  /// Ensures that once a bulk writer has been closed, it can not be modified
+  /// again.
+  void _assertNotClosed() {
+    if (_closed) {
+      throw StateError(
+          'This bulk writer has already been closed and can no longer be changed.');
+    }
+  }
+}
+
+/// The writes of a chunk, and the index of its first write among all the
+/// writes of the bulk writer.
+class _Chunk {
+  _Chunk(this.writes, this.offset);
+
+  final List<Map<String, dynamic>> writes;
+  final int offset;
+
+  /// Completes once the chunk has been sent and committed.
+  final Completer<void> completer = Completer<void>();
+}
@@ -95,7 +95,7 @@ class MethodChannelDocumentReference extends DocumentReferencePlatform {
 
   @override
   Stream<DocumentSnapshotPlatform> snapshots(
-      {bool includeMetadataChanges = false}) {
+      {bool includeMetadataChanges = false, SnapshotCoalescing coalescing}) {
     assert(includeMetadataChanges != null);
     int handle = MethodChannelFirebaseFirestore.nextMethodChannelHandleId;
     Completer<void> onListenComplete = Completer<void>();
@@ -114,6 +114,7 @@ class MethodChannelDocumentReference extends DocumentReferencePlatform {
             'firestore': firestore,
             'reference': this,
             'includeMetadataChanges': includeMetadataChanges,
+            'coalescing': coalescing?.asMap(),
           },
         );
 
@@ -13,6 +13,7 @@ import 'method_channel_query.dart';
 import 'method_channel_query_snapshot.dart';
 import 'method_channel_transaction.dart';
 import 'method_channel_write_batch.dart';
+import 'method_channel_bulk_writer.dart';
 import 'utils/firestore_message_codec.dart';
 import 'utils/exception.dart';
 
@@ -75,9 +76,27 @@ class MethodChannelFirebaseFirestore extends FirebaseFirestorePlatform {
       return;
     }
 
+    Map<dynamic, dynamic> snapshot;
+
+    if (arguments['delta'] != null) {
+      // Throwing signals native that the delta could not be applied, in which
+      // case native sends the latest snapshot again in full.
+      snapshot = _applyQuerySnapshotDelta(arguments);
+    } else {
+      snapshot = arguments['snapshot'];
+      if (arguments['sequence'] != null) {
+        querySnapshotDeltaBases[arguments['handle']] = <String, dynamic>{
+          'sequence': arguments['sequence'],
+          'paths': snapshot['paths'],
+          'documents': snapshot['documents'],
+          'metadatas': snapshot['metadatas'],
+        };
+      }
+    }
+
     try {
       queryObservers[arguments['handle']]
-          .add(MethodChannelQuerySnapshot(this, arguments['snapshot']));
+          .add(MethodChannelQuerySnapshot(this, snapshot));
     } catch (error) {
       _handleQuerySnapshotError(<dynamic, dynamic>{
         'handle': arguments['handle'],
@@ -86,6 +105,75 @@ class MethodChannelFirebaseFirestore extends FirebaseFirestorePlatform {
     }
   }
 
+  /// Applies the changes of a delta [QuerySnapshot] event to the last snapshot
+  /// delivered for the same listener, and returns the resulting snapshot data.
+  Map<String, dynamic> _applyQuerySnapshotDelta(
+      Map<dynamic, dynamic> arguments) {
+    final int handle = arguments['handle'];
+    final int sequence = arguments['sequence'];
+    final Map<String, dynamic> base = querySnapshotDeltaBases.remove(handle);
+
+    if (base == null || base['sequence'] != sequence - 1) {
+      throw StateError(
+          'Unable to apply QuerySnapshot delta $sequence for listener $handle.');
+    }
+
+    final Map<dynamic, dynamic> delta = arguments['delta'];
+    final List<dynamic> paths = List<dynamic>.from(base['paths']);
+    final List<dynamic> documents = List<dynamic>.from(base['documents']);
+    final List<dynamic> metadatas = List<dynamic>.from(base['metadatas']);
+    final List<Map<String, dynamic>> documentChanges =
+        <Map<String, dynamic>>[];
+
+    for (final Map<dynamic, dynamic> change in delta['changes']) {
+      final int oldIndex = change['oldIndex'];
+      final int newIndex = change['newIndex'];
+
+      if (oldIndex >= 0) {
+        paths.removeAt(oldIndex);
+        documents.removeAt(oldIndex);
+        metadatas.removeAt(oldIndex);
+      }
+
+      if (newIndex >= 0) {
+        paths.insert(newIndex, change['path']);
+        documents.insert(newIndex, change['data']);
+        metadatas.insert(newIndex, change['metadata']);
+      }
+
+      if (change['visible']) {
+        documentChanges.add(<String, dynamic>{
+          'type': change['type'],
+          'data': change['data'],
+          'path': change['path'],
+          'oldIndex': oldIndex,
+          'newIndex': newIndex,
+          'metadata': change['metadata'],
+        });
+      }
+    }
+
+    if (paths.length != delta['size']) {
+      throw StateError(
+          'QuerySnapshot delta $sequence for listener $handle is out of sync.');
+    }
+
+    querySnapshotDeltaBases[handle] = <String, dynamic>{
+      'sequence': sequence,
+      'paths': paths,
+      'documents': documents,
+      'metadatas': metadatas,
+    };
+
+    return <String, dynamic>{
+      'paths': paths,
+      'documents': documents,
+      'metadatas': metadatas,
+      'documentChanges': documentChanges,
+      'metadata': delta['metadata'],
+    };
+  }
+
   /// When a [QuerySnapshot] error event is fired on the [MethodChannel],
   /// send the [StreamController] the arguments to throw a [FirebaseException].
   void _handleQuerySnapshotError(Map<dynamic, dynamic> arguments) {
@@ -132,8 +220,8 @@ class MethodChannelFirebaseFirestore extends FirebaseFirestorePlatform {
   Future<Map<String, dynamic>> _handleTransactionAttempt(
       Map<dynamic, dynamic> arguments) async {
     final int transactionId = arguments['transactionId'];
-    final TransactionPlatform transaction =
-        MethodChannelTransaction(transactionId, arguments["appName"]);
+    final TransactionPlatform transaction = MethodChannelTransaction(
+        transactionId, arguments["appName"], arguments["documents"]);
     final StreamController controller =
         _transactionStreamControllerHandlers[transactionId];
 
@@ -209,6 +297,12 @@ class MethodChannelFirebaseFirestore extends FirebaseFirestorePlatform {
   static final Map<int, StreamController<QuerySnapshotPlatform>>
       queryObservers = <int, StreamController<QuerySnapshotPlatform>>{};
 
+  /// A map containing the last snapshot delivered to each Query Observer
+  /// listening in delta mode, keyed by their id. Delta events are applied on
+  /// top of these snapshots.
+  static final Map<int, Map<String, dynamic>> querySnapshotDeltaBases =
+      <int, Map<String, dynamic>>{};
+
   /// A map containing all the pending Document Observers, keyed by their id.
   /// This is shared amongst all [MethodChannelDocumentReference] objects, and the
   /// `DocumentSnapshot` `MethodCall` handler initialized in the constructor of this class.
@@ -242,6 +336,15 @@ class MethodChannelFirebaseFirestore extends FirebaseFirestorePlatform {
   @override
   WriteBatchPlatform batch() => MethodChannelWriteBatch(this);
 
+  @override
+  BulkWriterPlatform bulkWriter(
+      {int chunkSize, int maxConcurrentBatches, int maxPendingChunks}) {
+    return MethodChannelBulkWriter(this,
+        chunkSize: chunkSize,
+        maxConcurrentBatches: maxConcurrentBatches,
+        maxPendingChunks: maxPendingChunks);
+  }
+
   @override
   Future<void> clearPersistence() async {
     try {
@@ -332,6 +435,7 @@ class MethodChannelFirebaseFirestore extends FirebaseFirestorePlatform {
   Future<T> runTransaction<T>(
     TransactionHandler<T> transactionHandler, {
     Duration timeout = const Duration(seconds: 30),
+    List<String> reads,
   }) async {
     assert(timeout.inMilliseconds > 0,
         'Transaction timeout must be more than 0 milliseconds');
@@ -359,7 +463,8 @@ class MethodChannelFirebaseFirestore extends FirebaseFirestorePlatform {
     await channel.invokeMethod<T>('Transaction#create', <String, dynamic>{
       'firestore': this,
       'transactionId': transactionId,
-      'timeout': timeout.inMilliseconds
+      'timeout': timeout.inMilliseconds,
+      'reads': reads?.map((String path) => doc(path))?.toList(),
     }).catchError((Object e) {
       exception = e;
     });
@@ -411,4 +516,18 @@ class MethodChannelFirebaseFirestore extends FirebaseFirestorePlatform {
       throw convertPlatformException(e);
     }
   }
+
+  @override
+  Future<ListenerStats> getListenerStats() async {
+    try {
+      Map<dynamic, dynamic> data = await channel
+          .invokeMapMethod('Firestore#listenerStats', <String, dynamic>{
+        'firestore': this,
+      });
+
+      return ListenerStats.fromMap(data);
+    } catch (e) {
+      throw convertPlatformException(e);
+    }
+  }
 }
@@ -125,6 +125,7 @@ class MethodChannelQuery extends QueryPlatform {
   @override
   Stream<QuerySnapshotPlatform> snapshots({
     bool includeMetadataChanges = false,
+    SnapshotCoalescing coalescing,
   }) {
     assert(includeMetadataChanges != null);
     int handle = MethodChannelFirebaseFirestore.nextMethodChannelHandleId;
@@ -143,6 +144,8 @@ class MethodChannelQuery extends QueryPlatform {
             'handle': handle,
             'firestore': firestore,
             'includeMetadataChanges': includeMetadataChanges,
+            'delta': true,
+            'coalescing': coalescing?.asMap(),
           },
         );
 
@@ -157,6 +160,7 @@ class MethodChannelQuery extends QueryPlatform {
           <String, dynamic>{'handle': handle},
         );
         MethodChannelFirebaseFirestore.queryObservers.remove(handle);
+        MethodChannelFirebaseFirestore.querySnapshotDeltaBases.remove(handle);
       },
     );
     return controller.stream;
@@ -19,13 +19,26 @@ class MethodChannelTransaction extends TransactionPlatform {
   FirebaseFirestorePlatform _firestore;
 
   /// Constructor.
-  MethodChannelTransaction(int transactionId, this.appName)
+  ///
+  /// The [documents] read by native at the start of the attempt, if any, are
+  /// served without a further round trip.
+  MethodChannelTransaction(int transactionId, this.appName,
+      [List<dynamic> documents])
       : _transactionId = transactionId,
         super() {
     _firestore =
         FirebaseFirestorePlatform.instanceFor(app: Firebase.app(appName));
+
+    if (documents != null) {
+      for (Map<dynamic, dynamic> document in documents) {
+        _documents[document['path']] = Map<String, dynamic>.from(document);
+      }
+    }
   }
 
+  /// The documents read at the start of the attempt, keyed by their path.
+  final Map<String, Map<String, dynamic>> _documents = {};
+
   List<Map<String, dynamic>> _commands = [];
 
   /// Returns all transaction commands for the current instance.
@@ -42,6 +55,11 @@ class MethodChannelTransaction extends TransactionPlatform {
     assert(_commands.isEmpty,
         "Transactions require all reads to be executed before all writes.");
 
+    if (_documents.containsKey(documentPath)) {
+      return DocumentSnapshotPlatform(
+          _firestore, documentPath, _documents[documentPath]);
+    }
+
     final Map<String, dynamic> result = await MethodChannelFirebaseFirestore
         .channel
         .invokeMapMethod<String, dynamic>('Transaction#get', <String, dynamic>{
@@ -57,6 +75,42 @@ class MethodChannelTransaction extends TransactionPlatform {
     );
   }
 
+  /// Reads the documents referenced by the provided [documentPaths] in a
+  /// single call.
+  ///
+  /// Requires all reads to be executed before all writes, otherwise an [AssertionError] will be thrown
+  @override
+  Future<List<DocumentSnapshotPlatform>> getAll(
+      List<String> documentPaths) async {
+    assert(_commands.isEmpty,
+        "Transactions require all reads to be executed before all writes.");
+
+    final List<String> missingPaths = documentPaths
+        .where((String path) => !_documents.containsKey(path))
+        .toSet()
+        .toList();
+
+    if (missingPaths.isNotEmpty) {
+      final List<dynamic> results = await MethodChannelFirebaseFirestore
+          .channel
+          .invokeListMethod<dynamic>('Transaction#getAll', <String, dynamic>{
+        'firestore': _firestore,
+        'transactionId': _transactionId,
+        'references':
+            missingPaths.map((String path) => _firestore.doc(path)).toList(),
+      });
+
+      for (int i = 0; i < missingPaths.length; i++) {
+        _documents[missingPaths[i]] = Map<String, dynamic>.from(results[i]);
+      }
+    }
+
+    return documentPaths
+        .map((String path) =>
+            DocumentSnapshotPlatform(_firestore, path, _documents[path]))
+        .toList();
+  }
+
   @override
   MethodChannelTransaction delete(String documentPath) {
     _commands.add(<String, String>{
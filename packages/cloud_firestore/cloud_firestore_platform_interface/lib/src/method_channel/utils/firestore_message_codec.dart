@@ -2,6 +2,9 @@
 // for details. All rights reserved. Use of this source code is governed by a
 // BSD-style license that can be found in the LICENSE file.
 
+import 'dart:convert';
+import 'dart:typed_data';
+
 import 'package:cloud_firestore_platform_interface/cloud_firestore_platform_interface.dart';
 import 'package:firebase_core/firebase_core.dart';
 import 'package:flutter/foundation.dart';
@@ -37,6 +40,32 @@ class FirestoreMessageCodec extends StandardMessageCodec {
   static const int _kFirestoreInstance = 144;
   static const int _kFirestoreQuery = 145;
   static const int _kFirestoreSettings = 146;
+  static const int _kQuerySnapshot = 147;
+  static const int _kQuerySnapshotDelta = 148;
+  static const int _kStringReference = 149;
+
+  // The [StandardMessageCodec] type of UTF-8 encoded strings.
+  static const int _kString = 7;
+
+  // Must match the limits used by the native encoder.
+  static const int _kMinStringReferenceLength = 3;
+  static const int _kMaxStringReferences = 1 << 14;
+
+  // Strings decoded so far in each message, which may be referenced by
+  // [_kStringReference] values later in the same message.
+  static final Expando<List<String>> _stringTables =
+      Expando<List<String>>('FirestoreMessageCodec string table');
+
+  static const int _kColumnBoolean = 1;
+  static const int _kColumnInt64 = 2;
+  static const int _kColumnDouble = 3;
+  static const int _kColumnString = 4;
+
+  static const List<String> _kDocumentChangeTypes = <String>[
+    'DocumentChangeType.added',
+    'DocumentChangeType.modified',
+    'DocumentChangeType.removed',
+  ];
 
   static const Map<FieldValueType, int> _kFieldValueCodes =
       <FieldValueType, int>{
@@ -143,6 +172,19 @@ class FirestoreMessageCodec extends StandardMessageCodec {
         return double.infinity;
       case _kNegativeInfinity:
         return double.negativeInfinity;
+      case _kString:
+        final String value = super.readValueOfType(type, buffer);
+        if (value.length >= _kMinStringReferenceLength) {
+          final List<String> table = _stringTables[buffer] ??= <String>[];
+          if (table.length < _kMaxStringReferences) table.add(value);
+        }
+        return value;
+      case _kStringReference:
+        return _stringTables[buffer][_readVarint(buffer)];
+      case _kQuerySnapshot:
+        return _readQuerySnapshot(buffer);
+      case _kQuerySnapshotDelta:
+        return _readQuerySnapshotDelta(buffer);
       // These cases are only needed on tests, and therefore handled
       // by [TestFirestoreMessageCodec], a subclass of this codec.
       case _kFirestoreInstance:
@@ -158,4 +200,154 @@ class FirestoreMessageCodec extends StandardMessageCodec {
         return super.readValueOfType(type, buffer);
     }
   }
+
+  /// Reads a columnar encoded query snapshot into the same map structure
+  /// consumed by [MethodChannelQuerySnapshot].
+  Map<String, dynamic> _readQuerySnapshot(ReadBuffer buffer) {
+    final Map<String, dynamic> metadata = _readMetadataFlags(buffer);
+
+    final int documentCount = readSize(buffer);
+    final List<String> paths = List<String>(documentCount);
+    for (int i = 0; i < documentCount; i++) {
+      paths[i] = readValue(buffer);
+    }
+
+    final List<Map<String, dynamic>> metadatas =
+        List<Map<String, dynamic>>(documentCount);
+    for (int i = 0; i < documentCount; i++) {
+      metadatas[i] = _readMetadataFlags(buffer);
+    }
+
+    final List<Map<String, dynamic>> documents =
+        List<Map<String, dynamic>>.generate(
+            documentCount, (int index) => <String, dynamic>{});
+
+    final int fieldCount = readSize(buffer);
+    final List<String> fields = List<String>(fieldCount);
+    for (int i = 0; i < fieldCount; i++) {
+      fields[i] = readValue(buffer);
+    }
+
+    for (final String field in fields) {
+      final Uint8List presence = buffer.getUint8List((documentCount + 7) ~/ 8);
+      final int columnType = buffer.getUint8();
+
+      for (int i = 0; i < documentCount; i++) {
+        if ((presence[i >> 3] & (1 << (i & 7))) == 0) continue;
+
+        switch (columnType) {
+          case _kColumnBoolean:
+            documents[i][field] = buffer.getUint8() != 0;
+            break;
+          case _kColumnInt64:
+            documents[i][field] = buffer.getInt64();
+            break;
+          case _kColumnDouble:
+            documents[i][field] = buffer.getFloat64();
+            break;
+          case _kColumnString:
+            final int length = readSize(buffer);
+            documents[i][field] =
+                utf8.decoder.convert(buffer.getUint8List(length));
+            break;
+          default:
+            documents[i][field] = readValue(buffer);
+        }
+      }
+    }
+
+    final int changeCount = readSize(buffer);
+    final List<Map<String, dynamic>> documentChanges =
+        List<Map<String, dynamic>>(changeCount);
+    for (int i = 0; i < changeCount; i++) {
+      final String type = _kDocumentChangeTypes[buffer.getUint8()];
+      final int oldIndex = buffer.getInt32();
+      final int newIndex = buffer.getInt32();
+
+      if (type == 'DocumentChangeType.removed') {
+        final String path = readValue(buffer);
+        final Map<dynamic, dynamic> data = readValue(buffer);
+        documentChanges[i] = <String, dynamic>{
+          'type': type,
+          'data': data,
+          'path': path,
+          'oldIndex': oldIndex,
+          'newIndex': newIndex,
+          'metadata': _readMetadataFlags(buffer),
+        };
+      } else {
+        documentChanges[i] = <String, dynamic>{
+          'type': type,
+          'data': documents[newIndex],
+          'path': paths[newIndex],
+          'oldIndex': oldIndex,
+          'newIndex': newIndex,
+          'metadata': metadatas[newIndex],
+        };
+      }
+    }
+
+    return <String, dynamic>{
+      'paths': paths,
+      'documents': documents,
+      'metadatas': metadatas,
+      'documentChanges': documentChanges,
+      'metadata': metadata,
+    };
+  }
+
+  /// Reads the changes of a query snapshot since the previous snapshot sent
+  /// for the same listener.
+  Map<String, dynamic> _readQuerySnapshotDelta(ReadBuffer buffer) {
+    final Map<String, dynamic> metadata = _readMetadataFlags(buffer);
+    final int size = readSize(buffer);
+
+    final int changeCount = readSize(buffer);
+    final List<Map<String, dynamic>> changes =
+        List<Map<String, dynamic>>(changeCount);
+    for (int i = 0; i < changeCount; i++) {
+      final String type = _kDocumentChangeTypes[buffer.getUint8()];
+      final bool visible = buffer.getUint8() != 0;
+      final int oldIndex = buffer.getInt32();
+      final int newIndex = buffer.getInt32();
+      final String path = readValue(buffer);
+      final Map<dynamic, dynamic> data = readValue(buffer);
+
+      changes[i] = <String, dynamic>{
+        'type': type,
+        'visible': visible,
+        'data': data,
+        'path': path,
+        'oldIndex': oldIndex,
+        'newIndex': newIndex,
+        'metadata': _readMetadataFlags(buffer),
+      };
+    }
+
+    return <String, dynamic>{
+      'metadata': metadata,
+      'size': size,
+      'changes': changes,
+    };
+  }
+
+  int _readVarint(ReadBuffer buffer) {
+    int value = 0;
+    int shift = 0;
+    int byte;
+    do {
+      byte = buffer.getUint8();
+      value |= (byte & 0x7F) << shift;
+      shift += 7;
+    } while ((byte & 0x80) != 0);
+    return value;
+  }
+
+  Map<String, dynamic> _readMetadataFlags(ReadBuffer buffer) {
+    final int flags = buffer.getUint8();
+    return <String, dynamic>{
+      'hasPendingWrites': (flags & 1) != 0,
+      'isFromCache': (flags & 2) != 0,
+    };
+  }
 }
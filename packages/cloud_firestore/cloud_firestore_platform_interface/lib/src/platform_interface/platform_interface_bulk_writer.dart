@@ -0,0 +1,74 @@
+// Copyright 2020, the Chromium project authors.  Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+
+import 'dart:async';
+
+import 'package:cloud_firestore_platform_interface/cloud_firestore_platform_interface.dart';
+import 'package:plugin_platform_interface/plugin_platform_interface.dart';
+
+/// A bulk writer, used to perform a large number of independent writes.
+///
+/// Unlike a [WriteBatchPlatform], writes are not applied as a single atomic
+/// unit. They are sent in chunks as they are added, and committed in batches
+/// no larger than the server limit. A failed batch does not stop the others.
+///
+/// Adding a write returns a future which completes once the write can be sent.
+/// Awaiting it keeps the writes waiting to be sent bounded when writes are
+/// added faster than they are committed.
+///
+/// Once closed, no further operations can be performed on the bulk writer.
+abstract class BulkWriterPlatform extends PlatformInterface {
+  /// Overridable constructor
+  BulkWriterPlatform() : super(token: _token);
+
+  static final Object _token = Object();
+
+  /// Throws an [AssertionError] if [instance] does not extend
+  /// [BulkWriterPlatform].
+  /// This is used by the app-facing [BulkWriter] to ensure that
+  /// the object in which it's going to delegate calls has been
+  /// constructed properly.
+  static verifyExtends(BulkWriterPlatform instance) {
+    PlatformInterface.verifyToken(instance, _token);
+  }
+
+  /// Deletes the document referred to by a [documentPath].
+  Future<void> delete(String documentPath) {
+    throw UnimplementedError("delete() is not implemented");
+  }
+
+  /// Writes to the document referred to by [documentPath].
+  ///
+  /// If the document does not yet exist, it will be created.
+  ///
+  /// If [SetOptions] are provided, the [data] will be merged into an existing
+  /// document instead of overwriting.
+  Future<void> set(String documentPath, Map<String, dynamic> data,
+      [SetOptions options]) {
+    throw UnimplementedError("set() is not implemented");
+  }
+
+  /// Updates fields in the document referred to by [documentPath].
+  ///
+  /// If the document does not exist, the write will fail.
+  Future<void> update(String documentPath, Map<String, dynamic> data) {
+    throw UnimplementedError("update() is not implemented");
+  }
+
+  /// Sends the writes added so far, and completes once all of them have been
+  /// committed or have failed.
+  ///
+  /// Awaiting [flush] regularly bounds the number of writes held in memory.
+  Future<void> flush() async {
+    throw UnimplementedError("flush() is not implemented");
+  }
+
+  /// Sends the remaining writes, and completes once every write has been
+  /// committed or has failed.
+  ///
+  /// Calling this method prevents any future operations from being added.
+  Future<BulkWriteResult> close() async {
+    throw UnimplementedError("close() is not implemented");
+  }
+}
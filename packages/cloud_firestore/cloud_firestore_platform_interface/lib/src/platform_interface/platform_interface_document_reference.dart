@@ -69,8 +69,11 @@ abstract class DocumentReferencePlatform extends PlatformInterface {
   }
 
   /// Notifies of documents at this location
+  ///
+  /// If [coalescing] is provided, snapshots exceeding its limits are dropped
+  /// and only the latest one is delivered.
   Stream<DocumentSnapshotPlatform> snapshots(
-      {bool includeMetadataChanges = false}) {
+      {bool includeMetadataChanges = false, SnapshotCoalescing coalescing}) {
     throw UnimplementedError("snapshots() is not implemented");
   }
 
@@ -72,6 +72,18 @@ abstract class FirebaseFirestorePlatform extends PlatformInterface {
     throw UnimplementedError('batch() is not implemented');
   }
 
+  /// Creates a bulk writer, used for performing a large number of independent
+  /// writes.
+  ///
+  /// Writes are sent in chunks of [chunkSize] writes, and at most
+  /// [maxConcurrentBatches] batches are committed at once. At most
+  /// [maxPendingChunks] chunks are sent without having completed, further
+  /// chunks are held back until one completes.
+  BulkWriterPlatform bulkWriter(
+      {int chunkSize, int maxConcurrentBatches, int maxPendingChunks}) {
+    throw UnimplementedError('bulkWriter() is not implemented');
+  }
+
   /// Clears any persisted data for the current instance.
   Future<void> clearPersistence() {
     throw UnimplementedError('clearPersistence() is not implemented');
@@ -139,8 +151,13 @@ abstract class FirebaseFirestorePlatform extends PlatformInterface {
   ///
   /// By default transactions are limited to 5 seconds of execution time. This
   /// timeout can be adjusted by setting the [timeout] parameter.
+  ///
+  /// The documents of [reads], if provided, are read at the start of every
+  /// attempt, and served to the [TransactionHandler] without a further round
+  /// trip.
   Future<T> runTransaction<T>(TransactionHandler<T> transactionHandler,
-      {Duration timeout = const Duration(seconds: 30)}) {
+      {Duration timeout = const Duration(seconds: 30),
+      List<String> reads}) {
     throw UnimplementedError('runTransaction() is not implemented');
   }
 
@@ -188,6 +205,15 @@ abstract class FirebaseFirestorePlatform extends PlatformInterface {
     throw UnimplementedError('waitForPendingWrites() is not implemented');
   }
 
+  /// Returns the statistics of the snapshot listeners of this instance, such
+  /// as the number of events each of them sent, along with the hits and
+  /// misses of the native query cache.
+  ///
+  /// Only supported on Android.
+  Future<ListenerStats> getListenerStats() {
+    throw UnimplementedError('getListenerStats() is not implemented');
+  }
+
   @override
   bool operator ==(dynamic o) =>
       o is FirebaseFirestorePlatform && o.app.name == app.name;
@@ -131,8 +131,12 @@ abstract class QueryPlatform extends PlatformInterface {
   }
 
   /// Notifies of query results at this location
+  ///
+  /// If [coalescing] is provided, snapshots exceeding its limits are dropped
+  /// and only the latest one is delivered.
   Stream<QuerySnapshotPlatform> snapshots({
     bool includeMetadataChanges = false,
+    SnapshotCoalescing coalescing,
   }) {
     throw UnimplementedError("snapshots() is not implemented");
   }
@@ -42,6 +42,15 @@ abstract class TransactionPlatform extends PlatformInterface {
     throw UnimplementedError("get() is not implemented");
   }
 
+  /// Reads the documents referenced by the provided [documentPaths], in the
+  /// order they were provided.
+  ///
+  /// If any of the documents changes whilst the transaction is in progress, it
+  /// will be re-tried up to five times.
+  Future<List<DocumentSnapshotPlatform>> getAll(List<String> documentPaths) {
+    throw UnimplementedError("getAll() is not implemented");
+  }
+
   /// Deletes the document referred to by the provided [documentPath].
   TransactionPlatform delete(String documentPath) {
     throw UnimplementedError("delete() is not implemented");
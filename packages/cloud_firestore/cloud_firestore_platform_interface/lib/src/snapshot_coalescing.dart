@@ -0,0 +1,33 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+/// An options class that limits how often snapshots are delivered to a
+/// listener on frequently changing data.
+///
+/// Snapshots exceeding the limits are dropped before they are sent to Dart,
+/// only the latest one is kept and delivered once allowed. Platforms which
+/// don't support coalescing deliver every snapshot.
+class SnapshotCoalescing {
+  /// Creates a [SnapshotCoalescing] instance.
+  const SnapshotCoalescing({
+    this.interval,
+    this.maxInFlight,
+  })  : assert(interval != null || maxInFlight != null),
+        assert(maxInFlight == null || maxInFlight > 0);
+
+  /// At most one snapshot is delivered per [interval].
+  final Duration interval;
+
+  /// At most [maxInFlight] snapshots are sent before the previous ones have
+  /// been handled in Dart.
+  final int maxInFlight;
+
+  /// Returns the options as a [Map].
+  Map<String, dynamic> asMap() {
+    return <String, dynamic>{
+      'intervalMillis': interval?.inMilliseconds,
+      'maxInFlight': maxInFlight,
+    };
+  }
+}
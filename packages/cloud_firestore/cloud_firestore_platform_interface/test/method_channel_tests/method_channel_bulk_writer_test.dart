@@ -0,0 +1,196 @@
+// Copyright 2020, the Chromium project authors.  Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+
+import 'dart:async';
+
+import 'package:flutter_test/flutter_test.dart';
+import 'package:flutter/services.dart';
+
+import 'package:cloud_firestore_platform_interface/cloud_firestore_platform_interface.dart';
+import 'package:cloud_firestore_platform_interface/src/method_channel/method_channel_firestore.dart';
+import 'package:cloud_firestore_platform_interface/src/method_channel/method_channel_bulk_writer.dart';
+
+import 'package:firebase_core/firebase_core.dart';
+
+import '../utils/test_common.dart';
+
+void main() {
+  initializeMethodChannel();
+  bool mockPlatformExceptionThrown = false;
+  // When set, BulkWrite#addChunk only replies once it completes.
+  Completer<void> addChunkReply;
+  MethodChannelFirebaseFirestore firestore;
+
+  final List<MethodCall> log = <MethodCall>[];
+
+  setUpAll(() async {
+    firestore = MethodChannelFirebaseFirestore();
+    await Firebase.initializeApp();
+
+    handleMethodCall((MethodCall call) {
+      log.add(call);
+      switch (call.method) {
+        case 'BulkWrite#addChunk':
+          if (mockPlatformExceptionThrown) {
+            throw PlatformException(code: 'UNKNOWN');
+          }
+
+          final List<dynamic> writes = call.arguments['writes'];
+          // The second write of every chunk fails.
+          final Map<String, dynamic> result = <String, dynamic>{
+            'committed': writes.length - 1,
+            'failed': 1,
+            'errors': <Map<String, dynamic>>[
+              <String, dynamic>{
+                'index': 1,
+                'count': 1,
+                'code': 'not-found',
+                'message': 'No document to update',
+              },
+            ],
+          };
+
+          if (addChunkReply != null) {
+            return addChunkReply.future.then((_) => result);
+          }
+
+          return result;
+        case 'BulkWrite#close':
+          return <String, dynamic>{'committed': 3, 'failed': 2};
+        default:
+          return null;
+      }
+    });
+  });
+
+  setUp(() {
+    mockPlatformExceptionThrown = false;
+    addChunkReply = null;
+    log.clear();
+  });
+
+  group('$MethodChannelBulkWriter', () {
+    test('buffers writes until a chunk is full', () async {
+      final MethodChannelBulkWriter bulkWriter =
+          firestore.bulkWriter(chunkSize: 2, maxConcurrentBatches: 3);
+      bulkWriter.set('foo/1', <String, dynamic>{'value': 1});
+      expect(log, isEmpty);
+
+      bulkWriter.delete('foo/2');
+      await bulkWriter.flush();
+
+      expect(log, <Matcher>[
+        isMethodCall('BulkWrite#addChunk', arguments: <String, dynamic>{
+          'firestore': firestore,
+          'handle': isA<int>(),
+          'writes': <Map<String, dynamic>>[
+            <String, dynamic>{
+              'path': 'foo/1',
+              'type': 'SET',
+              'data': <String, dynamic>{'value': 1},
+              'options': <String, dynamic>{'merge': null, 'mergeFields': null},
+            },
+            <String, dynamic>{'path': 'foo/2', 'type': 'DELETE'},
+          ],
+          'maxConcurrentBatches': 3,
+        }),
+      ]);
+    });
+
+    test('flush() sends a partial chunk', () async {
+      final MethodChannelBulkWriter bulkWriter =
+          firestore.bulkWriter(chunkSize: 10);
+      bulkWriter.update('foo/1', <String, dynamic>{'value': 1});
+      await bulkWriter.flush();
+
+      expect(log.length, 1);
+      expect(log[0].method, 'BulkWrite#addChunk');
+      expect(log[0].arguments['writes'].length, 1);
+    });
+
+    test('close() sends the remaining writes and closes the handle', () async {
+      final MethodChannelBulkWriter bulkWriter =
+          firestore.bulkWriter(chunkSize: 3);
+      for (int i = 0; i < 5; i++) {
+        bulkWriter.update('foo/$i', <String, dynamic>{'value': i});
+      }
+
+      final BulkWriteResult result = await bulkWriter.close();
+
+      expect(log.map((MethodCall call) => call.method), <String>[
+        'BulkWrite#addChunk',
+        'BulkWrite#addChunk',
+        'BulkWrite#close',
+      ]);
+      expect(log[0].arguments['writes'].length, 3);
+      expect(log[1].arguments['writes'].length, 2);
+      expect(log[2].arguments['handle'], log[0].arguments['handle']);
+      expect(log[1].arguments['handle'], log[0].arguments['handle']);
+
+      expect(result.committed, 3);
+      expect(result.failed, 2);
+      // Errors are indexed by the order the writes were added in.
+      expect(result.errors.map((BulkWriteError error) => error.index),
+          <int>[1, 4]);
+      expect(result.errors[0].count, 1);
+      expect(result.errors[0].code, 'not-found');
+      expect(result.errors[0].message, 'No document to update');
+    });
+
+    test('holds back chunks once maxPendingChunks are in flight', () async {
+      addChunkReply = Completer<void>();
+      final MethodChannelBulkWriter bulkWriter =
+          firestore.bulkWriter(chunkSize: 1, maxPendingChunks: 2);
+
+      await bulkWriter.delete('foo/1');
+      await bulkWriter.delete('foo/2');
+      bool drained = false;
+      final Future<void> held =
+          bulkWriter.delete('foo/3').then((_) => drained = true);
+      await pumpEventQueue();
+
+      expect(log.length, 2);
+      expect(drained, isFalse);
+
+      addChunkReply.complete();
+      await held;
+      await pumpEventQueue();
+
+      expect(log.length, 3);
+      expect(log[2].arguments['writes'][0]['path'], 'foo/3');
+
+      await bulkWriter.close();
+      expect(log.last.method, 'BulkWrite#close');
+    });
+
+    test('each bulk writer has its own handle', () async {
+      await (firestore.bulkWriter()..delete('foo/1')).close();
+      await (firestore.bulkWriter()..delete('foo/1')).close();
+
+      expect(log[0].arguments['handle'], isNot(log[2].arguments['handle']));
+    });
+
+    test('throws a [StateError] once closed', () async {
+      final MethodChannelBulkWriter bulkWriter = firestore.bulkWriter();
+      await bulkWriter.close();
+
+      expect(() => bulkWriter.delete('foo/1'), throwsStateError);
+      expect(() => bulkWriter.flush(), throwsStateError);
+      expect(() => bulkWriter.close(), throwsStateError);
+    });
+
+    test(
+        'catches [PlatformException] from BulkWrite#addChunk and throws a [FirebaseException]',
+        () async {
+      mockPlatformExceptionThrown = true;
+      final MethodChannelBulkWriter bulkWriter =
+          firestore.bulkWriter(chunkSize: 1);
+      bulkWriter.delete('foo/1');
+
+      await expectLater(bulkWriter.close(), throwsA(isA<FirebaseException>()));
+      // The native bulk writer is still released.
+      expect(log.last.method, 'BulkWrite#close');
+    });
+  });
+}
@@ -56,6 +56,26 @@ void main() {
           }
           mockTransactionHandleId++;
           return Future.delayed(Duration.zero);
+        case 'Firestore#listenerStats':
+          if (mockPlatformExceptionThrown) {
+            throw PlatformException(code: 'UNKNOWN');
+          }
+          return <String, dynamic>{
+            'listeners': [
+              <String, dynamic>{
+                'handle': 1,
+                'type': 'query',
+                'appName': '[DEFAULT]',
+                'createdAt': 1000,
+                'ageMillis': 2000,
+                'eventsDelivered': 3,
+                'bytesEncoded': 400,
+                'lastEventLatencyMicros': 500,
+                'coalesced': 2,
+              },
+            ],
+            'queryCache': <String, dynamic>{'hits': 5, 'misses': 1},
+          };
         case 'Firestore#addSnapshotsInSyncListener':
         case 'Firestore#removeListener':
         case 'Firestore#waitForPendingWrites':
@@ -312,11 +332,27 @@ void main() {
           isMethodCall('Transaction#create', arguments: <String, dynamic>{
             'firestore': firestore,
             'transactionId': handleId,
-            'timeout': 3000
+            'timeout': 3000,
+            'reads': null,
           }),
         ]);
       });
 
+      test('sends the documents to read at the start of every attempt',
+          () async {
+        await firestore.runTransaction((TransactionPlatform tx) async {},
+            reads: <String>['foo/1', 'foo/2']);
+
+        expect(log.length, 1);
+        expect(log[0].method, 'Transaction#create');
+        expect(
+            log[0]
+                .arguments['reads']
+                .map((dynamic reference) => reference.path)
+                .toList(),
+            <String>['foo/1', 'foo/2']);
+      });
+
       test(
           'catches [PlatformException] from Transaction#create and throws a [FirebaseException]',
           () async {
@@ -401,5 +437,41 @@ void main() {
             throwsA(isInstanceOf<FirebaseException>()));
       });
     });
+
+    group('getListenerStats()', () {
+      test('invoke Firestore#listenerStats with correct args', () async {
+        final stats = await firestore.getListenerStats();
+
+        expect(
+          log,
+          equals(<Matcher>[
+            isMethodCall(
+              'Firestore#listenerStats',
+              arguments: <String, dynamic>{
+                'firestore': firestore,
+              },
+            ),
+          ]),
+        );
+        expect(stats.queryCacheHits, 5);
+        expect(stats.queryCacheMisses, 1);
+        expect(stats.listeners.length, 1);
+        expect(stats.listeners.single.handle, 1);
+        expect(stats.listeners.single.type, 'query');
+        expect(stats.listeners.single.age, Duration(seconds: 2));
+        expect(stats.listeners.single.eventsDelivered, 3);
+        expect(stats.listeners.single.lastEventLatency,
+            Duration(microseconds: 500));
+        expect(stats.listeners.single.coalesced, 2);
+        expect(stats.listeners.single.lastAcknowledgedSequence, isNull);
+      });
+
+      test('catch [PlatformException] error', () {
+        mockPlatformExceptionThrown = true;
+
+        expect(() => firestore.getListenerStats(),
+            throwsA(isInstanceOf<FirebaseException>()));
+      });
+    });
   });
 }
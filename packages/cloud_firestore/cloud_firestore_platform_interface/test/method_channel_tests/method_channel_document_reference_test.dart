@@ -91,6 +91,26 @@ void main() {
       expect(isMethodCalled, isTrue,
           reason: "DocumentReference.addSnapshotListener was not called");
     });
+
+    test("snapshots sends the coalescing option", () async {
+      Map<dynamic, dynamic> arguments;
+      handleMethodCall((call) {
+        if (call.method == "DocumentReference#addSnapshotListener") {
+          arguments = call.arguments;
+        }
+        return 0;
+      });
+      _documentReference
+          .snapshots(
+              coalescing:
+                  const SnapshotCoalescing(interval: Duration(seconds: 1)))
+          .listen((_) {});
+      expect(arguments['includeMetadataChanges'], isFalse);
+      expect(arguments['coalescing'], <String, dynamic>{
+        'intervalMillis': 1000,
+        'maxInFlight': null,
+      });
+    });
   });
 }
 
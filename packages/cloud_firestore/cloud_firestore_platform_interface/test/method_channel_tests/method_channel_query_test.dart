@@ -237,9 +237,183 @@ void main() {
           'handle': handleId,
           'firestore': isInstanceOf<FirebaseFirestorePlatform>(),
           'includeMetadataChanges': false,
+          'delta': true,
+          'coalescing': null,
         });
         expect(log[1].arguments, <String, dynamic>{'handle': handleId});
       });
+
+      test('sends the coalescing option', () async {
+        final StreamSubscription<QuerySnapshotPlatform> subscription = query
+            .snapshots(
+                coalescing: const SnapshotCoalescing(
+                    interval: Duration(milliseconds: 250), maxInFlight: 2))
+            .listen((QuerySnapshotPlatform snapshot) {});
+        await Future<void>.delayed(Duration.zero);
+        await subscription.cancel();
+
+        expect(log[0].method, 'Query#addSnapshotListener');
+        expect(log[0].arguments['coalescing'], <String, dynamic>{
+          'intervalMillis': 250,
+          'maxInFlight': 2,
+        });
+      });
+
+      test('applies delta events to the previous snapshot', () async {
+        final List<QuerySnapshotPlatform> snapshots = <QuerySnapshotPlatform>[];
+        final StreamSubscription<QuerySnapshotPlatform> subscription =
+            query.snapshots().listen(snapshots.add);
+        await Future<void>.delayed(Duration.zero);
+
+        await _sendQuerySnapshotEvent(<String, dynamic>{
+          'handle': handleId,
+          'sequence': 0,
+          'snapshot': <String, dynamic>{
+            'paths': <String>['foo/1', 'foo/2'],
+            'documents': <Map<String, dynamic>>[
+              <String, dynamic>{'value': 1},
+              <String, dynamic>{'value': 2},
+            ],
+            'metadatas': <Map<String, dynamic>>[
+              kMockSnapshotMetadata,
+              kMockSnapshotMetadata,
+            ],
+            'documentChanges': <Map<String, dynamic>>[],
+            'metadata': kMockSnapshotMetadata,
+          },
+        });
+        await _sendQuerySnapshotEvent(<String, dynamic>{
+          'handle': handleId,
+          'sequence': 1,
+          'delta': <String, dynamic>{
+            'metadata': kMockSnapshotMetadata,
+            'size': 2,
+            'changes': <Map<String, dynamic>>[
+              <String, dynamic>{
+                'type': 'DocumentChangeType.removed',
+                'visible': true,
+                'data': <String, dynamic>{'value': 1},
+                'path': 'foo/1',
+                'oldIndex': 0,
+                'newIndex': -1,
+                'metadata': kMockSnapshotMetadata,
+              },
+              <String, dynamic>{
+                'type': 'DocumentChangeType.added',
+                'visible': true,
+                'data': <String, dynamic>{'value': 3},
+                'path': 'foo/3',
+                'oldIndex': -1,
+                'newIndex': 1,
+                'metadata': kMockSnapshotMetadata,
+              },
+            ],
+          },
+        });
+
+        expect(snapshots.length, equals(2));
+        expect(snapshots[1].docs.map((doc) => doc.reference.path),
+            equals(<String>['foo/2', 'foo/3']));
+        expect(snapshots[1].docs[1].data(), equals({'value': 3}));
+        expect(snapshots[1].docChanges.length, equals(2));
+
+        await subscription.cancel();
+      });
+
+      test('rejects delta events without a previous snapshot', () async {
+        final StreamSubscription<QuerySnapshotPlatform> subscription =
+            query.snapshots().listen((QuerySnapshotPlatform snapshot) {});
+        await Future<void>.delayed(Duration.zero);
+
+        final ByteData reply = await _sendQuerySnapshotEvent(<String, dynamic>{
+          'handle': handleId,
+          'sequence': 3,
+          'delta': <String, dynamic>{
+            'metadata': kMockSnapshotMetadata,
+            'size': 0,
+            'changes': <Map<String, dynamic>>[],
+          },
+        });
+
+        expect(
+            () => MethodChannelFirebaseFirestore.channel.codec
+                .decodeEnvelope(reply),
+            throwsA(isA<PlatformException>()));
+
+        await subscription.cancel();
+      });
+
+      test('recovers from a rejected delta without a further event', () async {
+        final List<QuerySnapshotPlatform> snapshots = <QuerySnapshotPlatform>[];
+        final StreamSubscription<QuerySnapshotPlatform> subscription =
+            query.snapshots().listen(snapshots.add);
+        await Future<void>.delayed(Duration.zero);
+
+        final Map<String, dynamic> fullSnapshot = <String, dynamic>{
+          'paths': <String>['foo/1'],
+          'documents': <Map<String, dynamic>>[
+            <String, dynamic>{'value': 1},
+          ],
+          'metadatas': <Map<String, dynamic>>[kMockSnapshotMetadata],
+          'documentChanges': <Map<String, dynamic>>[],
+          'metadata': kMockSnapshotMetadata,
+        };
+        final Map<String, dynamic> delta = <String, dynamic>{
+          'metadata': kMockSnapshotMetadata,
+          'size': 2,
+          'changes': <Map<String, dynamic>>[
+            <String, dynamic>{
+              'type': 'DocumentChangeType.added',
+              'visible': true,
+              'data': <String, dynamic>{'value': 2},
+              'path': 'foo/2',
+              'oldIndex': -1,
+              'newIndex': 1,
+              'metadata': kMockSnapshotMetadata,
+            },
+          ],
+        };
+
+        await _sendQuerySnapshotEvent(<String, dynamic>{
+          'handle': handleId,
+          'sequence': 0,
+          'snapshot': fullSnapshot,
+        });
+
+        // Sequence 1 was lost, so the delta of sequence 2 is out of sync.
+        final ByteData reply = await _sendQuerySnapshotEvent(<String, dynamic>{
+          'handle': handleId,
+          'sequence': 2,
+          'delta': delta,
+        });
+        expect(
+            () => MethodChannelFirebaseFirestore.channel.codec
+                .decodeEnvelope(reply),
+            throwsA(isA<PlatformException>()));
+        expect(snapshots.length, equals(1));
+
+        // Native sends the latest snapshot again in full straight away, rather
+        // than waiting for the query to change, and continues from it.
+        await _sendQuerySnapshotEvent(<String, dynamic>{
+          'handle': handleId,
+          'sequence': 3,
+          'snapshot': fullSnapshot,
+        });
+        expect(snapshots.length, equals(2));
+        expect(snapshots[1].docs.map((doc) => doc.reference.path),
+            equals(<String>['foo/1']));
+
+        await _sendQuerySnapshotEvent(<String, dynamic>{
+          'handle': handleId,
+          'sequence': 4,
+          'delta': delta,
+        });
+        expect(snapshots.length, equals(3));
+        expect(snapshots[2].docs.map((doc) => doc.reference.path),
+            equals(<String>['foo/1', 'foo/2']));
+
+        await subscription.cancel();
+      });
     });
 
     test('sets a default value for includeMetadataChanges', () {
@@ -319,3 +493,14 @@ void main() {
     });
   });
 }
+
+Future<ByteData> _sendQuerySnapshotEvent(Map<String, dynamic> arguments) {
+  final Completer<ByteData> reply = Completer<ByteData>();
+  ServicesBinding.instance.defaultBinaryMessenger.handlePlatformMessage(
+    MethodChannelFirebaseFirestore.channel.name,
+    MethodChannelFirebaseFirestore.channel.codec
+        .encodeMethodCall(MethodCall('QuerySnapshot#event', arguments)),
+    reply.complete,
+  );
+  return reply.future;
+}
@@ -4,6 +4,7 @@
 
 import 'package:cloud_firestore_platform_interface/cloud_firestore_platform_interface.dart';
 import 'package:firebase_core/firebase_core.dart';
+import 'package:flutter/services.dart';
 import 'package:flutter_test/flutter_test.dart';
 import 'package:mockito/mockito.dart';
 
@@ -26,6 +27,7 @@ void main() {
       FieldValuePlatform(MethodChannelFieldValueFactory().increment(2.0));
 
   bool isMethodCalled = false;
+  final List<MethodCall> log = <MethodCall>[];
 
   group('$MethodChannelTransaction', () {
     setUpAll(() async {
@@ -39,6 +41,7 @@ void main() {
         ),
       );
       handleMethodCall((call) {
+        log.add(call);
         switch (call.method) {
           case 'Transaction#get':
             isMethodCalled = true;
@@ -48,6 +51,14 @@ void main() {
               'metadata': kMockSnapshotMetadata,
             };
             break;
+          case 'Transaction#getAll':
+            return call.arguments['references']
+                .map((dynamic reference) => <String, dynamic>{
+                      'path': reference.path,
+                      'data': <String, dynamic>{'path': reference.path},
+                      'metadata': kMockSnapshotMetadata,
+                    })
+                .toList();
           default:
             return null;
         }
@@ -61,6 +72,7 @@ void main() {
       transaction = MethodChannelTransaction(
           _kTransactionId, FirebaseFirestorePlatform.instance.app.name);
       isMethodCalled = false;
+      log.clear();
     });
 
     group('commands', () {
@@ -89,6 +101,63 @@ void main() {
       });
     });
 
+    group('getAll()', () {
+      test('should throw if getAll is called after a command', () async {
+        transaction.set(mockDocumentReference.path, {'foo': 'bar'});
+        expect(() => transaction.getAll(<String>['foo/1']),
+            throwsAssertionError);
+      });
+
+      test('reads the documents in a single call', () async {
+        List<DocumentSnapshotPlatform> results =
+            await transaction.getAll(<String>['foo/1', 'foo/2']);
+
+        expect(log.length, 1);
+        expect(log[0].method, 'Transaction#getAll');
+        expect(log[0].arguments['transactionId'], _kTransactionId);
+        expect(results.map((DocumentSnapshotPlatform result) => result.id),
+            <String>['1', '2']);
+        expect(results[1].data(), <String, dynamic>{'path': 'foo/2'});
+      });
+    });
+
+    group('documents read at the start of the attempt', () {
+      setUp(() {
+        transaction = MethodChannelTransaction(
+            _kTransactionId,
+            FirebaseFirestorePlatform.instance.app.name,
+            <Map<String, dynamic>>[
+              <String, dynamic>{
+                'path': 'foo/1',
+                'data': <String, dynamic>{'value': 1},
+                'metadata': kMockSnapshotMetadata,
+              },
+            ]);
+      });
+
+      test('get() does not call native', () async {
+        DocumentSnapshotPlatform result = await transaction.get('foo/1');
+
+        expect(log, isEmpty);
+        expect(result.data(), <String, dynamic>{'value': 1});
+      });
+
+      test('getAll() only reads the other documents', () async {
+        List<DocumentSnapshotPlatform> results =
+            await transaction.getAll(<String>['foo/1', 'foo/2']);
+
+        expect(log.length, 1);
+        expect(
+            log[0]
+                .arguments['references']
+                .map((dynamic reference) => reference.path)
+                .toList(),
+            <String>['foo/2']);
+        expect(results[0].data(), <String, dynamic>{'value': 1});
+        expect(results[1].data(), <String, dynamic>{'path': 'foo/2'});
+      });
+    });
+
     test("delete()", () {
       transaction.delete(mockDocumentReference.path);
 
@@ -1,4 +1,5 @@
 // import 'dart:async';
+import 'dart:convert';
 import 'dart:typed_data';
 
 import 'package:flutter/services.dart';
@@ -98,6 +99,104 @@ void main() {
     test('encode and decode FieldPath', () {
       _checkEncodeDecode<dynamic>(codec, FieldPath.documentId);
     });
+
+    test('decode string back-references', () {
+      const FirestoreMessageCodec referenceCodec = FirestoreMessageCodec();
+      final WriteBuffer buffer = WriteBuffer();
+      // A list of four strings, the last two referencing earlier values.
+      buffer.putUint8(12);
+      referenceCodec.writeSize(buffer, 4);
+      referenceCodec.writeValue(buffer, 'foo/bar');
+      referenceCodec.writeValue(buffer, 'baz');
+      buffer.putUint8(149);
+      buffer.putUint8(1);
+      buffer.putUint8(149);
+      buffer.putUint8(0);
+
+      expect(referenceCodec.decodeMessage(buffer.done()),
+          equals(<String>['foo/bar', 'baz', 'baz', 'foo/bar']));
+    });
+
+    test('decode columnar QuerySnapshot', () {
+      const FirestoreMessageCodec columnarCodec = FirestoreMessageCodec();
+      final WriteBuffer buffer = WriteBuffer();
+      buffer.putUint8(147);
+      // snapshot metadata: isFromCache
+      buffer.putUint8(2);
+      // paths & per-document metadata
+      columnarCodec.writeSize(buffer, 2);
+      columnarCodec.writeValue(buffer, 'foo/1');
+      columnarCodec.writeValue(buffer, 'foo/2');
+      buffer.putUint8(0);
+      buffer.putUint8(1);
+      // field dictionary
+      columnarCodec.writeSize(buffer, 3);
+      columnarCodec.writeValue(buffer, 'name');
+      columnarCodec.writeValue(buffer, 'count');
+      columnarCodec.writeValue(buffer, 'mixed');
+      // "name" string column, present in both documents
+      buffer.putUint8(3);
+      buffer.putUint8(4);
+      final List<int> name1 = utf8.encode('one');
+      columnarCodec.writeSize(buffer, name1.length);
+      buffer.putUint8List(Uint8List.fromList(name1));
+      final List<int> name2 = utf8.encode('two');
+      columnarCodec.writeSize(buffer, name2.length);
+      buffer.putUint8List(Uint8List.fromList(name2));
+      // "count" int64 column, present in the second document only
+      buffer.putUint8(2);
+      buffer.putUint8(2);
+      buffer.putInt64(42);
+      // "mixed" generic column
+      buffer.putUint8(3);
+      buffer.putUint8(0);
+      columnarCodec.writeValue(buffer, 1.5);
+      columnarCodec.writeValue(buffer, testTime);
+      // document changes
+      columnarCodec.writeSize(buffer, 2);
+      buffer.putUint8(0);
+      buffer.putInt32(-1);
+      buffer.putInt32(1);
+      buffer.putUint8(2);
+      buffer.putInt32(0);
+      buffer.putInt32(-1);
+      columnarCodec.writeValue(buffer, 'foo/3');
+      columnarCodec.writeValue(buffer, <String, dynamic>{'name': 'three'});
+      buffer.putUint8(0);
+
+      final Map<String, dynamic> snapshot =
+          columnarCodec.decodeMessage(buffer.done());
+
+      expect(snapshot['paths'], equals(<String>['foo/1', 'foo/2']));
+      expect(
+          snapshot['metadata'],
+          equals(<String, dynamic>{
+            'hasPendingWrites': false,
+            'isFromCache': true,
+          }));
+      expect(snapshot['metadatas'][1]['hasPendingWrites'], isTrue);
+      expect(
+          snapshot['documents'][0],
+          equals(<String, dynamic>{
+            'name': 'one',
+            'mixed': 1.5,
+          }));
+      expect(
+          snapshot['documents'][1],
+          equals(<String, dynamic>{
+            'name': 'two',
+            'count': 42,
+            'mixed': testTime,
+          }));
+      expect(snapshot['documentChanges'][0]['type'],
+          equals('DocumentChangeType.added'));
+      expect(snapshot['documentChanges'][0]['path'], equals('foo/2'));
+      expect(snapshot['documentChanges'][0]['data']['count'], equals(42));
+      expect(snapshot['documentChanges'][1]['type'],
+          equals('DocumentChangeType.removed'));
+      expect(snapshot['documentChanges'][1]['path'], equals('foo/3'));
+      expect(snapshot['documentChanges'][1]['data']['name'], equals('three'));
+    });
   });
 }
 
@@ -0,0 +1,50 @@
+// Copyright 2020, the Chromium project authors.  Please see the AUTHORS file
+// for details. All rights reserved. Use of this source code is governed by a
+// BSD-style license that can be found in the LICENSE file.
+
+import 'package:cloud_firestore_platform_interface/cloud_firestore_platform_interface.dart';
+import 'package:flutter_test/flutter_test.dart';
+
+class TestBulkWriter extends BulkWriterPlatform {
+  TestBulkWriter._() : super();
+}
+
+void main() {
+  group("$BulkWriterPlatform()", () {
+    test("constructor", () {
+      final bulkWriter = TestBulkWriter._();
+      expect(bulkWriter, isInstanceOf<BulkWriterPlatform>());
+    });
+
+    test("verifyExtends()", () {
+      final bulkWriter = TestBulkWriter._();
+      BulkWriterPlatform.verifyExtends(bulkWriter);
+      expect(bulkWriter, isInstanceOf<BulkWriterPlatform>());
+    });
+
+    test("throws if .set", () {
+      final bulkWriter = TestBulkWriter._();
+      expect(() => bulkWriter.set('foo', {}), throwsUnimplementedError);
+    });
+
+    test("throws if .update", () {
+      final bulkWriter = TestBulkWriter._();
+      expect(() => bulkWriter.update('foo', {}), throwsUnimplementedError);
+    });
+
+    test("throws if .delete", () {
+      final bulkWriter = TestBulkWriter._();
+      expect(() => bulkWriter.delete('foo'), throwsUnimplementedError);
+    });
+
+    test("throws if .flush", () {
+      final bulkWriter = TestBulkWriter._();
+      expect(bulkWriter.flush(), throwsUnimplementedError);
+    });
+
+    test("throws if .close", () {
+      final bulkWriter = TestBulkWriter._();
+      expect(bulkWriter.close(), throwsUnimplementedError);
+    });
+  });
+}
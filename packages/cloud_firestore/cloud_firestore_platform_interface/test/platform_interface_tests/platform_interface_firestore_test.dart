@@ -173,5 +173,16 @@ void main() {
       }
       fail('Should have thrown an [UnimplementedError]');
     });
+
+    test("throws if .getListenerStats", () async {
+      final firestore = TestFirestore._();
+      try {
+        await firestore.getListenerStats();
+      } on UnimplementedError catch (e) {
+        expect(e.message, equals("getListenerStats() is not implemented"));
+        return;
+      }
+      fail('Should have thrown an [UnimplementedError]');
+    });
   });
 }
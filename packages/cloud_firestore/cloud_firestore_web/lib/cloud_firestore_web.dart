@@ -95,7 +95,8 @@ class FirebaseFirestoreWeb extends FirebaseFirestorePlatform {
 
   @override
   Future<T> runTransaction<T>(TransactionHandler<T> transactionHandler,
-      {Duration timeout = const Duration(seconds: 30)}) async {
+      {Duration timeout = const Duration(seconds: 30),
+      List<String> reads}) async {
     try {
       await _webFirestore.runTransaction((transaction) async {
         return transactionHandler(
@@ -69,6 +69,7 @@ class DocumentReferenceWeb extends DocumentReferencePlatform {
   @override
   Stream<DocumentSnapshotPlatform> snapshots({
     bool includeMetadataChanges = false,
+    SnapshotCoalescing coalescing,
   }) {
     Stream<firestore_interop.DocumentSnapshot> querySnapshots =
         _delegate.onSnapshot;
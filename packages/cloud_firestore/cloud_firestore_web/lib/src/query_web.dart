@@ -147,6 +147,7 @@ class QueryWeb extends QueryPlatform {
   @override
   Stream<QuerySnapshotPlatform> snapshots({
     bool includeMetadataChanges = false,
+    SnapshotCoalescing coalescing,
   }) {
     Stream<firestore_interop.QuerySnapshot> querySnapshots;
     if (includeMetadataChanges) {
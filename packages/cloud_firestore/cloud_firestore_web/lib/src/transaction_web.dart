@@ -39,6 +39,11 @@ class TransactionWeb extends TransactionPlatform {
     }
   }
 
+  @override
+  Future<List<DocumentSnapshotPlatform>> getAll(List<String> documentPaths) {
+    return Future.wait(documentPaths.map(get));
+  }
+
   @override
   TransactionWeb set(String documentPath, Map<String, dynamic> data,
       [SetOptions options]) {
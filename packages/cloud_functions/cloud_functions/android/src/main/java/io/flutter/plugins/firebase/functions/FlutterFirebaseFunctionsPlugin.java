@@ -19,6 +19,7 @@ import io.flutter.plugin.common.MethodChannel.MethodCallHandler;
 import io.flutter.plugin.common.MethodChannel.Result;
 import io.flutter.plugin.common.PluginRegistry.Registrar;
 import io.flutter.plugins.firebase.core.FlutterFirebasePlugin;
+import io.flutter.plugins.firebase.core.FlutterFirebaseTasks;
 import java.io.IOException;
 import java.io.InterruptedIOException;
 import java.util.HashMap;
@@ -43,7 +44,7 @@ public class FlutterFirebaseFunctionsPlugin implements FlutterFirebasePlugin, Me
   }
 
   private Task<Object> httpsFunctionCall(Map<String, Object> arguments) {
-    return Tasks.call(
+    return FlutterFirebaseTasks.callAsync(
         cachedThreadPool,
         () -> {
           FirebaseFunctions firebaseFunctions = getFunctions(arguments);
@@ -68,8 +69,8 @@ public class FlutterFirebaseFunctionsPlugin implements FlutterFirebasePlugin, Me
             httpsCallableReference.setTimeout(timeout.longValue(), TimeUnit.MILLISECONDS);
           }
 
-          HttpsCallableResult result = Tasks.await(httpsCallableReference.call(parameters));
-          return result.getData();
+          return FlutterFirebaseTasks.map(
+              httpsCallableReference.call(parameters), HttpsCallableResult::getData);
         });
   }
 
@@ -80,19 +81,11 @@ public class FlutterFirebaseFunctionsPlugin implements FlutterFirebasePlugin, Me
       return;
     }
 
-    httpsFunctionCall(call.arguments())
-        .addOnCompleteListener(
-            task -> {
-              if (task.isSuccessful()) {
-                result.success(task.getResult());
-              } else {
-                Exception exception = task.getException();
-                result.error(
-                    "firebase_functions",
-                    exception != null ? exception.getMessage() : null,
-                    getExceptionDetails(exception));
-              }
-            });
+    FlutterFirebaseTasks.sendResult(
+        httpsFunctionCall(call.arguments()),
+        result,
+        "firebase_functions",
+        this::getExceptionDetails);
   }
 
   private Map<String, Object> getExceptionDetails(@Nullable Exception exception) {
@@ -106,9 +99,12 @@ public class FlutterFirebaseFunctionsPlugin implements FlutterFirebasePlugin, Me
     String message = exception.getMessage();
     Object additionalData = null;
 
-    if (exception.getCause() instanceof FirebaseFunctionsException) {
-      FirebaseFunctionsException functionsException =
-          (FirebaseFunctionsException) exception.getCause();
+    // Calls are no longer awaited on a pool thread, so the exception is usually not wrapped.
+    Throwable cause =
+        exception instanceof FirebaseFunctionsException ? exception : exception.getCause();
+
+    if (cause instanceof FirebaseFunctionsException) {
+      FirebaseFunctionsException functionsException = (FirebaseFunctionsException) cause;
       code = functionsException.getCode().name();
       message = functionsException.getMessage();
       additionalData = functionsException.getDetails();
@@ -5,6 +5,7 @@
 package io.flutter.plugins.firebase.auth;
 
 import static io.flutter.plugins.firebase.core.FlutterFirebasePluginRegistry.registerPlugin;
+import static io.flutter.plugins.firebase.core.FlutterFirebasePluginRegistry.unregisterPlugin;
 
 import android.app.Activity;
 import android.net.Uri;
@@ -38,7 +39,6 @@ import com.google.firebase.auth.OAuthProvider;
 import com.google.firebase.auth.PhoneAuthCredential;
 import com.google.firebase.auth.PhoneAuthOptions;
 import com.google.firebase.auth.PhoneAuthProvider;
-import com.google.firebase.auth.SignInMethodQueryResult;
 import com.google.firebase.auth.TwitterAuthProvider;
 import com.google.firebase.auth.UserInfo;
 import com.google.firebase.auth.UserProfileChangeRequest;
@@ -52,30 +52,34 @@ import io.flutter.plugin.common.MethodChannel.MethodCallHandler;
 import io.flutter.plugin.common.MethodChannel.Result;
 import io.flutter.plugin.common.PluginRegistry;
 import io.flutter.plugins.firebase.core.FlutterFirebasePlugin;
+import io.flutter.plugins.firebase.core.FlutterFirebasePluginRegistry;
+import io.flutter.plugins.firebase.core.FlutterFirebaseTasks;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 /** Flutter plugin for Firebase Auth. */
 public class FlutterFirebaseAuthPlugin
     implements FlutterFirebasePlugin, MethodCallHandler, FlutterPlugin, ActivityAware {
 
-  // Stores the instances of native AuthCredentials by their hashCode
-  static final HashMap<Integer, AuthCredential> authCredentials = new HashMap<>();
+  private static final String CHANNEL_NAME = "plugins.flutter.io/firebase_auth";
 
-  private static final HashMap<String, FirebaseAuth.AuthStateListener> authListeners =
-      new HashMap<>();
-  private static final HashMap<String, FirebaseAuth.IdTokenListener> idTokenListeners =
-      new HashMap<>();
-  private static final HashMap<Integer, PhoneAuthProvider.ForceResendingToken>
-      forceResendingTokens = new HashMap<>();
+  // Stores the instances of native AuthCredentials by their hashCode. Credentials and tokens are
+  // shared by every engine, listeners belong to the engine that registered them.
+  static final Map<Integer, AuthCredential> authCredentials = new ConcurrentHashMap<>();
+
+  private static final Map<Integer, PhoneAuthProvider.ForceResendingToken> forceResendingTokens =
+      new ConcurrentHashMap<>();
+  private final HashMap<String, FirebaseAuth.AuthStateListener> authListeners = new HashMap<>();
+  private final HashMap<String, FirebaseAuth.IdTokenListener> idTokenListeners = new HashMap<>();
   private PluginRegistry.Registrar registrar;
   private MethodChannel channel;
+  private BinaryMessenger messenger;
   private Activity activity;
 
   @SuppressWarnings("unused")
@@ -103,9 +107,9 @@ public class FlutterFirebaseAuthPlugin
   }
 
   private void initInstance(BinaryMessenger messenger) {
-    String channelName = "plugins.flutter.io/firebase_auth";
-    registerPlugin(channelName, this);
-    channel = new MethodChannel(messenger, channelName);
+    this.messenger = messenger;
+    registerPlugin(CHANNEL_NAME, this, messenger);
+    channel = new MethodChannel(messenger, CHANNEL_NAME);
     channel.setMethodCallHandler(this);
   }
 
@@ -116,6 +120,7 @@ public class FlutterFirebaseAuthPlugin
 
   @Override
   public void onDetachedFromEngine(@NonNull FlutterPluginBinding binding) {
+    unregisterPlugin(CHANNEL_NAME, messenger);
     removeEventListeners();
     channel.setMethodCallHandler(null);
     channel = null;
@@ -142,7 +147,7 @@ public class FlutterFirebaseAuthPlugin
   }
 
   // Ensure any listeners are removed when the app
-  // is detached from the FlutterEngine
+  // is detached from the FlutterEngine. Listeners of other engines are left untouched.
   private void removeEventListeners() {
     Iterator<?> authListenerIterator = authListeners.entrySet().iterator();
 
@@ -546,30 +551,30 @@ public class FlutterFirebaseAuthPlugin
   }
 
   private Task<Void> applyActionCode(Map<String, Object> arguments) {
-    return Tasks.call(
+    return FlutterFirebaseTasks.callAsync(
         cachedThreadPool,
         () -> {
           FirebaseAuth firebaseAuth = getAuth(arguments);
           String code = (String) Objects.requireNonNull(arguments.get(Constants.CODE));
 
-          return Tasks.await(firebaseAuth.applyActionCode(code));
+          return firebaseAuth.applyActionCode(code);
         });
   }
 
   private Task<Map<String, Object>> checkActionCode(Map<String, Object> arguments) {
-    return Tasks.call(
+    return FlutterFirebaseTasks.callAsync(
         cachedThreadPool,
         () -> {
           FirebaseAuth firebaseAuth = getAuth(arguments);
           String code = (String) Objects.requireNonNull(arguments.get(Constants.CODE));
 
-          ActionCodeResult actionCodeResult = Tasks.await(firebaseAuth.checkActionCode(code));
-          return parseActionCodeResult(actionCodeResult);
+          return FlutterFirebaseTasks.map(
+              firebaseAuth.checkActionCode(code), this::parseActionCodeResult);
         });
   }
 
   private Task<Void> confirmPasswordReset(Map<String, Object> arguments) {
-    return Tasks.call(
+    return FlutterFirebaseTasks.callAsync(
         cachedThreadPool,
         () -> {
           FirebaseAuth firebaseAuth = getAuth(arguments);
@@ -577,45 +582,44 @@ public class FlutterFirebaseAuthPlugin
           String newPassword =
               (String) Objects.requireNonNull(arguments.get(Constants.NEW_PASSWORD));
 
-          return Tasks.await(firebaseAuth.confirmPasswordReset(code, newPassword));
+          return firebaseAuth.confirmPasswordReset(code, newPassword);
         });
   }
 
   private Task<Map<String, Object>> createUserWithEmailAndPassword(Map<String, Object> arguments) {
-    return Tasks.call(
+    return FlutterFirebaseTasks.callAsync(
         cachedThreadPool,
         () -> {
           FirebaseAuth firebaseAuth = getAuth(arguments);
           String email = (String) Objects.requireNonNull(arguments.get(Constants.EMAIL));
           String password = (String) Objects.requireNonNull(arguments.get(Constants.PASSWORD));
 
-          AuthResult authResult =
-              Tasks.await(firebaseAuth.createUserWithEmailAndPassword(email, password));
-
-          return parseAuthResult(authResult);
+          return FlutterFirebaseTasks.map(
+              firebaseAuth.createUserWithEmailAndPassword(email, password), this::parseAuthResult);
         });
   }
 
   @SuppressWarnings("ConstantConditions")
   private Task<Map<String, Object>> fetchSignInMethodsForEmail(Map<String, Object> arguments) {
-    return Tasks.call(
+    return FlutterFirebaseTasks.callAsync(
         cachedThreadPool,
         () -> {
           FirebaseAuth firebaseAuth = getAuth(arguments);
           String email = (String) Objects.requireNonNull(arguments.get(Constants.EMAIL));
 
-          SignInMethodQueryResult result =
-              Tasks.await(firebaseAuth.fetchSignInMethodsForEmail(email));
-
-          Map<String, Object> output = new HashMap<>();
-          output.put(Constants.PROVIDERS, result.getSignInMethods());
+          return FlutterFirebaseTasks.map(
+              firebaseAuth.fetchSignInMethodsForEmail(email),
+              result -> {
+                Map<String, Object> output = new HashMap<>();
+                output.put(Constants.PROVIDERS, result.getSignInMethods());
 
-          return output;
+                return output;
+              });
         });
   }
 
   private Task<Void> sendPasswordResetEmail(Map<String, Object> arguments) {
-    return Tasks.call(
+    return FlutterFirebaseTasks.callAsync(
         cachedThreadPool,
         () -> {
           FirebaseAuth firebaseAuth = getAuth(arguments);
@@ -623,20 +627,19 @@ public class FlutterFirebaseAuthPlugin
           Object rawActionCodeSettings = arguments.get(Constants.ACTION_CODE_SETTINGS);
 
           if (rawActionCodeSettings == null) {
-            return Tasks.await(firebaseAuth.sendPasswordResetEmail(email));
+            return firebaseAuth.sendPasswordResetEmail(email);
           }
 
           @SuppressWarnings("unchecked")
           Map<String, Object> actionCodeSettings = (Map<String, Object>) rawActionCodeSettings;
 
-          return Tasks.await(
-              firebaseAuth.sendPasswordResetEmail(
-                  email, getActionCodeSettings(actionCodeSettings)));
+          return firebaseAuth.sendPasswordResetEmail(
+              email, getActionCodeSettings(actionCodeSettings));
         });
   }
 
   private Task<Void> sendSignInLinkToEmail(Map<String, Object> arguments) {
-    return Tasks.call(
+    return FlutterFirebaseTasks.callAsync(
         cachedThreadPool,
         () -> {
           FirebaseAuth firebaseAuth = getAuth(arguments);
@@ -647,8 +650,8 @@ public class FlutterFirebaseAuthPlugin
               (Map<String, Object>)
                   Objects.requireNonNull(arguments.get(Constants.ACTION_CODE_SETTINGS));
 
-          return Tasks.await(
-              firebaseAuth.sendSignInLinkToEmail(email, getActionCodeSettings(actionCodeSettings)));
+          return firebaseAuth.sendSignInLinkToEmail(
+              email, getActionCodeSettings(actionCodeSettings));
         });
   }
 
@@ -679,17 +682,16 @@ public class FlutterFirebaseAuthPlugin
   }
 
   private Task<Map<String, Object>> signInAnonymously(Map<String, Object> arguments) {
-    return Tasks.call(
+    return FlutterFirebaseTasks.callAsync(
         cachedThreadPool,
         () -> {
           FirebaseAuth firebaseAuth = getAuth(arguments);
-          AuthResult authResult = Tasks.await(firebaseAuth.signInAnonymously());
-          return parseAuthResult(authResult);
+          return FlutterFirebaseTasks.map(firebaseAuth.signInAnonymously(), this::parseAuthResult);
         });
   }
 
   private Task<Map<String, Object>> signInWithCredential(Map<String, Object> arguments) {
-    return Tasks.call(
+    return FlutterFirebaseTasks.callAsync(
         cachedThreadPool,
         () -> {
           FirebaseAuth firebaseAuth = getAuth(arguments);
@@ -698,47 +700,46 @@ public class FlutterFirebaseAuthPlugin
           if (credential == null) {
             throw FlutterFirebaseAuthPluginException.invalidCredential();
           }
-          AuthResult authResult = Tasks.await(firebaseAuth.signInWithCredential(credential));
-          return parseAuthResult(authResult);
+          return FlutterFirebaseTasks.map(
+              firebaseAuth.signInWithCredential(credential), this::parseAuthResult);
         });
   }
 
   private Task<Map<String, Object>> signInWithCustomToken(Map<String, Object> arguments) {
-    return Tasks.call(
+    return FlutterFirebaseTasks.callAsync(
         cachedThreadPool,
         () -> {
           FirebaseAuth firebaseAuth = getAuth(arguments);
           String token = (String) Objects.requireNonNull(arguments.get(Constants.TOKEN));
 
-          AuthResult authResult = Tasks.await(firebaseAuth.signInWithCustomToken(token));
-          return parseAuthResult(authResult);
+          return FlutterFirebaseTasks.map(
+              firebaseAuth.signInWithCustomToken(token), this::parseAuthResult);
         });
   }
 
   private Task<Map<String, Object>> signInWithEmailAndPassword(Map<String, Object> arguments) {
-    return Tasks.call(
+    return FlutterFirebaseTasks.callAsync(
         cachedThreadPool,
         () -> {
           FirebaseAuth firebaseAuth = getAuth(arguments);
           String email = (String) Objects.requireNonNull(arguments.get(Constants.EMAIL));
           String password = (String) Objects.requireNonNull(arguments.get(Constants.PASSWORD));
 
-          AuthResult authResult =
-              Tasks.await(firebaseAuth.signInWithEmailAndPassword(email, password));
-          return parseAuthResult(authResult);
+          return FlutterFirebaseTasks.map(
+              firebaseAuth.signInWithEmailAndPassword(email, password), this::parseAuthResult);
         });
   }
 
   private Task<Map<String, Object>> signInWithEmailLink(Map<String, Object> arguments) {
-    return Tasks.call(
+    return FlutterFirebaseTasks.callAsync(
         cachedThreadPool,
         () -> {
           FirebaseAuth firebaseAuth = getAuth(arguments);
           String email = (String) Objects.requireNonNull(arguments.get(Constants.EMAIL));
           String emailLink = (String) Objects.requireNonNull(arguments.get(Constants.EMAIL_LINK));
 
-          AuthResult authResult = Tasks.await(firebaseAuth.signInWithEmailLink(email, emailLink));
-          return parseAuthResult(authResult);
+          return FlutterFirebaseTasks.map(
+              firebaseAuth.signInWithEmailLink(email, emailLink), this::parseAuthResult);
         });
   }
 
@@ -753,15 +754,19 @@ public class FlutterFirebaseAuthPlugin
   }
 
   private Task<Map<String, Object>> verifyPasswordResetCode(Map<String, Object> arguments) {
-    return Tasks.call(
+    return FlutterFirebaseTasks.callAsync(
         cachedThreadPool,
         () -> {
           FirebaseAuth firebaseAuth = getAuth(arguments);
           String code = (String) Objects.requireNonNull(arguments.get(Constants.CODE));
 
-          Map<String, Object> output = new HashMap<>();
-          output.put(Constants.EMAIL, Tasks.await(firebaseAuth.verifyPasswordResetCode(code)));
-          return output;
+          return FlutterFirebaseTasks.map(
+              firebaseAuth.verifyPasswordResetCode(code),
+              email -> {
+                Map<String, Object> output = new HashMap<>();
+                output.put(Constants.EMAIL, email);
+                return output;
+              });
         });
   }
 
@@ -873,8 +878,15 @@ public class FlutterFirebaseAuthPlugin
         });
   }
 
+  // Reloads the user once the update succeeds, and sends back the updated user
+  private Task<Map<String, Object>> reloadAfter(FirebaseUser firebaseUser, Task<Void> update) {
+    return FlutterFirebaseTasks.map(
+        update.onSuccessTask(FlutterFirebaseTasks.DIRECT_EXECUTOR, unused -> firebaseUser.reload()),
+        unused -> parseFirebaseUser(firebaseUser));
+  }
+
   private Task<Void> deleteUser(Map<String, Object> arguments) {
-    return Tasks.call(
+    return FlutterFirebaseTasks.callAsync(
         cachedThreadPool,
         () -> {
           FirebaseUser firebaseUser = getCurrentUser(arguments);
@@ -883,13 +895,13 @@ public class FlutterFirebaseAuthPlugin
             throw FlutterFirebaseAuthPluginException.noUser();
           }
 
-          return Tasks.await(firebaseUser.delete());
+          return firebaseUser.delete();
         });
   }
 
   @SuppressWarnings("ConstantConditions")
   private Task<Map<String, Object>> getIdToken(Map<String, Object> arguments) {
-    return Tasks.call(
+    return FlutterFirebaseTasks.callAsync(
         cachedThreadPool,
         () -> {
           FirebaseUser firebaseUser = getCurrentUser(arguments);
@@ -901,20 +913,22 @@ public class FlutterFirebaseAuthPlugin
             throw FlutterFirebaseAuthPluginException.noUser();
           }
 
-          GetTokenResult tokenResult = Tasks.await(firebaseUser.getIdToken(forceRefresh));
-
-          if (tokenOnly) {
-            Map<String, Object> output = new HashMap<>();
-            output.put("token", tokenResult.getToken());
-            return output;
-          } else {
-            return parseTokenResult(tokenResult);
-          }
+          return FlutterFirebaseTasks.map(
+              firebaseUser.getIdToken(forceRefresh),
+              tokenResult -> {
+                if (tokenOnly) {
+                  Map<String, Object> output = new HashMap<>();
+                  output.put("token", tokenResult.getToken());
+                  return output;
+                } else {
+                  return parseTokenResult(tokenResult);
+                }
+              });
         });
   }
 
   private Task<Map<String, Object>> linkUserWithCredential(Map<String, Object> arguments) {
-    return Tasks.call(
+    return FlutterFirebaseTasks.callAsync(
         cachedThreadPool,
         () -> {
           FirebaseUser firebaseUser = getCurrentUser(arguments);
@@ -928,14 +942,14 @@ public class FlutterFirebaseAuthPlugin
             throw FlutterFirebaseAuthPluginException.invalidCredential();
           }
 
-          AuthResult authResult = Tasks.await(firebaseUser.linkWithCredential(credential));
-          return parseAuthResult(authResult);
+          return FlutterFirebaseTasks.map(
+              firebaseUser.linkWithCredential(credential), this::parseAuthResult);
         });
   }
 
   private Task<Map<String, Object>> reauthenticateUserWithCredential(
       Map<String, Object> arguments) {
-    return Tasks.call(
+    return FlutterFirebaseTasks.callAsync(
         cachedThreadPool,
         () -> {
           FirebaseUser firebaseUser = getCurrentUser(arguments);
@@ -949,14 +963,13 @@ public class FlutterFirebaseAuthPlugin
             throw FlutterFirebaseAuthPluginException.invalidCredential();
           }
 
-          AuthResult authResult =
-              Tasks.await(firebaseUser.reauthenticateAndRetrieveData(credential));
-          return parseAuthResult(authResult);
+          return FlutterFirebaseTasks.map(
+              firebaseUser.reauthenticateAndRetrieveData(credential), this::parseAuthResult);
         });
   }
 
   private Task<Map<String, Object>> reloadUser(Map<String, Object> arguments) {
-    return Tasks.call(
+    return FlutterFirebaseTasks.callAsync(
         cachedThreadPool,
         () -> {
           FirebaseUser firebaseUser = getCurrentUser(arguments);
@@ -966,14 +979,13 @@ public class FlutterFirebaseAuthPlugin
           }
 
           // Wait for the user to reload, and send back the updated user
-          Tasks.await(firebaseUser.reload());
-
-          return parseFirebaseUser(getCurrentUser(arguments));
+          return FlutterFirebaseTasks.map(
+              firebaseUser.reload(), unused -> parseFirebaseUser(getCurrentUser(arguments)));
         });
   }
 
   private Task<Void> sendEmailVerification(Map<String, Object> arguments) {
-    return Tasks.call(
+    return FlutterFirebaseTasks.callAsync(
         cachedThreadPool,
         () -> {
           FirebaseUser firebaseUser = getCurrentUser(arguments);
@@ -984,19 +996,18 @@ public class FlutterFirebaseAuthPlugin
 
           Object rawActionCodeSettings = arguments.get(Constants.ACTION_CODE_SETTINGS);
           if (rawActionCodeSettings == null) {
-            return Tasks.await(firebaseUser.sendEmailVerification());
+            return firebaseUser.sendEmailVerification();
           }
 
           @SuppressWarnings("unchecked")
           Map<String, Object> actionCodeSettings = (Map<String, Object>) rawActionCodeSettings;
 
-          return Tasks.await(
-              firebaseUser.sendEmailVerification(getActionCodeSettings(actionCodeSettings)));
+          return firebaseUser.sendEmailVerification(getActionCodeSettings(actionCodeSettings));
         });
   }
 
   private Task<Map<String, Object>> unlinkUserProvider(Map<String, Object> arguments) {
-    return Tasks.call(
+    return FlutterFirebaseTasks.callAsync(
         cachedThreadPool,
         () -> {
           FirebaseUser firebaseUser = getCurrentUser(arguments);
@@ -1007,20 +1018,25 @@ public class FlutterFirebaseAuthPlugin
 
           String providerId = (String) Objects.requireNonNull(arguments.get(Constants.PROVIDER_ID));
 
-          try {
-            AuthResult result = Tasks.await(firebaseUser.unlink(providerId));
-            return parseAuthResult(result);
-          } catch (ExecutionException e) {
-            // If the provider ID was not found an ExecutionException is thrown.
-            // On web, this is automatically handled, so we catch the specific exception here
-            // to ensure consistency.
-            throw FlutterFirebaseAuthPluginException.noSuchProvider();
-          }
+          return firebaseUser
+              .unlink(providerId)
+              .continueWith(
+                  FlutterFirebaseTasks.DIRECT_EXECUTOR,
+                  task -> {
+                    // If the provider ID was not found the task fails.
+                    // On web, this is automatically handled, so we catch the specific exception
+                    // here to ensure consistency.
+                    if (!task.isSuccessful()) {
+                      throw FlutterFirebaseAuthPluginException.noSuchProvider();
+                    }
+
+                    return parseAuthResult(task.getResult());
+                  });
         });
   }
 
   private Task<Map<String, Object>> updateEmail(Map<String, Object> arguments) {
-    return Tasks.call(
+    return FlutterFirebaseTasks.callAsync(
         cachedThreadPool,
         () -> {
           FirebaseUser firebaseUser = getCurrentUser(arguments);
@@ -1030,14 +1046,12 @@ public class FlutterFirebaseAuthPlugin
           }
 
           String newEmail = (String) Objects.requireNonNull(arguments.get(Constants.NEW_EMAIL));
-          Tasks.await(firebaseUser.updateEmail(newEmail));
-          Tasks.await(firebaseUser.reload());
-          return parseFirebaseUser(firebaseUser);
+          return reloadAfter(firebaseUser, firebaseUser.updateEmail(newEmail));
         });
   }
 
   private Task<Map<String, Object>> updatePassword(Map<String, Object> arguments) {
-    return Tasks.call(
+    return FlutterFirebaseTasks.callAsync(
         cachedThreadPool,
         () -> {
           FirebaseUser firebaseUser = getCurrentUser(arguments);
@@ -1048,14 +1062,12 @@ public class FlutterFirebaseAuthPlugin
 
           String newPassword =
               (String) Objects.requireNonNull(arguments.get(Constants.NEW_PASSWORD));
-          Tasks.await(firebaseUser.updatePassword(newPassword));
-          Tasks.await(firebaseUser.reload());
-          return parseFirebaseUser(firebaseUser);
+          return reloadAfter(firebaseUser, firebaseUser.updatePassword(newPassword));
         });
   }
 
   private Task<Map<String, Object>> updatePhoneNumber(Map<String, Object> arguments) {
-    return Tasks.call(
+    return FlutterFirebaseTasks.callAsync(
         cachedThreadPool,
         () -> {
           FirebaseUser firebaseUser = getCurrentUser(arguments);
@@ -1070,14 +1082,12 @@ public class FlutterFirebaseAuthPlugin
             throw FlutterFirebaseAuthPluginException.invalidCredential();
           }
 
-          Tasks.await(firebaseUser.updatePhoneNumber(phoneAuthCredential));
-          Tasks.await(firebaseUser.reload());
-          return parseFirebaseUser(firebaseUser);
+          return reloadAfter(firebaseUser, firebaseUser.updatePhoneNumber(phoneAuthCredential));
         });
   }
 
   private Task<Map<String, Object>> updateProfile(Map<String, Object> arguments) {
-    return Tasks.call(
+    return FlutterFirebaseTasks.callAsync(
         cachedThreadPool,
         () -> {
           FirebaseUser firebaseUser = getCurrentUser(arguments);
@@ -1099,14 +1109,12 @@ public class FlutterFirebaseAuthPlugin
             builder.setPhotoUri(Uri.parse(profile.get(Constants.PHOTO_URL)));
           }
 
-          Tasks.await(firebaseUser.updateProfile(builder.build()));
-          Tasks.await(firebaseUser.reload());
-          return parseFirebaseUser(firebaseUser);
+          return reloadAfter(firebaseUser, firebaseUser.updateProfile(builder.build()));
         });
   }
 
   private Task<Void> verifyBeforeUpdateEmail(Map<String, Object> arguments) {
-    return Tasks.call(
+    return FlutterFirebaseTasks.callAsync(
         cachedThreadPool,
         () -> {
           FirebaseUser firebaseUser = getCurrentUser(arguments);
@@ -1119,15 +1127,14 @@ public class FlutterFirebaseAuthPlugin
           Object rawActionCodeSettings = arguments.get(Constants.ACTION_CODE_SETTINGS);
 
           if (rawActionCodeSettings == null) {
-            return Tasks.await(firebaseUser.verifyBeforeUpdateEmail(newEmail));
+            return firebaseUser.verifyBeforeUpdateEmail(newEmail);
           }
 
           @SuppressWarnings("unchecked")
           Map<String, Object> actionCodeSettings = (Map<String, Object>) rawActionCodeSettings;
 
-          return Tasks.await(
-              firebaseUser.verifyBeforeUpdateEmail(
-                  newEmail, getActionCodeSettings(actionCodeSettings)));
+          return firebaseUser.verifyBeforeUpdateEmail(
+              newEmail, getActionCodeSettings(actionCodeSettings));
         });
   }
 
@@ -1231,18 +1238,8 @@ public class FlutterFirebaseAuthPlugin
         return;
     }
 
-    methodCallTask.addOnCompleteListener(
-        task -> {
-          if (task.isSuccessful()) {
-            result.success(task.getResult());
-          } else {
-            Exception exception = task.getException();
-            result.error(
-                "firebase_auth",
-                exception != null ? exception.getMessage() : null,
-                getExceptionDetails(exception));
-          }
-        });
+    FlutterFirebaseTasks.sendResult(
+        methodCallTask, result, "firebase_auth", this::getExceptionDetails);
   }
 
   @Override
@@ -1351,8 +1348,13 @@ public class FlutterFirebaseAuthPlugin
         cachedThreadPool,
         () -> {
           removeEventListeners();
-          authCredentials.clear();
-          forceResendingTokens.clear();
+
+          // Other engines may still hold on to credentials and tokens.
+          if (!FlutterFirebasePluginRegistry.isPluginRegisteredWithOtherEngines(
+              CHANNEL_NAME, messenger)) {
+            authCredentials.clear();
+            forceResendingTokens.clear();
+          }
           return null;
         });
   }
@@ -12,6 +12,7 @@ import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.FirebaseApp;
 import com.google.firebase.FirebaseOptions;
 import io.flutter.embedding.engine.plugins.FlutterPlugin;
+import io.flutter.plugin.common.BinaryMessenger;
 import io.flutter.plugin.common.MethodCall;
 import io.flutter.plugin.common.MethodChannel;
 import io.flutter.plugin.common.PluginRegistry;
@@ -44,10 +45,27 @@ public class FlutterFirebaseCorePlugin implements FlutterPlugin, MethodChannel.M
 
   private static final String CHANNEL_NAME = "plugins.flutter.io/firebase_core";
 
+  // Serialized app options, keyed by app name. Shared by every engine, as apps are.
+  private static final Map<String, CachedOptions> cachedOptions = new HashMap<>();
+
   private MethodChannel channel;
+  private BinaryMessenger messenger;
   private Context applicationContext;
   private boolean coreInitialized = false;
 
+  // The profilers of the latest Firebase#initializeCore and Firebase#initializeApp calls.
+  private final Map<String, FlutterFirebaseStartupProfiler> startupProfilers = new HashMap<>();
+
+  private static class CachedOptions {
+    final FirebaseApp firebaseApp;
+    final Map<String, String> optionsMap;
+
+    CachedOptions(FirebaseApp firebaseApp, Map<String, String> optionsMap) {
+      this.firebaseApp = firebaseApp;
+      this.optionsMap = optionsMap;
+    }
+  }
+
   /**
    * Default Constructor.
    *
@@ -56,8 +74,9 @@ public class FlutterFirebaseCorePlugin implements FlutterPlugin, MethodChannel.M
    */
   public FlutterFirebaseCorePlugin() {}
 
-  private FlutterFirebaseCorePlugin(Context applicationContext) {
+  private FlutterFirebaseCorePlugin(Context applicationContext, BinaryMessenger messenger) {
     this.applicationContext = applicationContext;
+    this.messenger = messenger;
   }
 
   /**
@@ -70,13 +89,15 @@ public class FlutterFirebaseCorePlugin implements FlutterPlugin, MethodChannel.M
   @SuppressWarnings("unused")
   public static void registerWith(PluginRegistry.Registrar registrar) {
     final MethodChannel channel = new MethodChannel(registrar.messenger(), CHANNEL_NAME);
-    channel.setMethodCallHandler(new FlutterFirebaseCorePlugin(registrar.context()));
+    channel.setMethodCallHandler(
+        new FlutterFirebaseCorePlugin(registrar.context(), registrar.messenger()));
   }
 
   @Override
   public void onAttachedToEngine(FlutterPluginBinding binding) {
     applicationContext = binding.getApplicationContext();
-    channel = new MethodChannel(binding.getBinaryMessenger(), CHANNEL_NAME);
+    messenger = binding.getBinaryMessenger();
+    channel = new MethodChannel(messenger, CHANNEL_NAME);
     channel.setMethodCallHandler(this);
   }
 
@@ -86,97 +107,180 @@ public class FlutterFirebaseCorePlugin implements FlutterPlugin, MethodChannel.M
     applicationContext = null;
   }
 
-  private Task<Map<String, Object>> firebaseAppToMap(FirebaseApp firebaseApp) {
-    return Tasks.call(
+  private Task<Map<String, Object>> firebaseAppToMap(
+      FirebaseApp firebaseApp, FlutterFirebaseStartupProfiler profiler) {
+    return FlutterFirebaseTasks.callAsync(
         cachedThreadPool,
         () -> {
+          FlutterFirebaseStartupProfiler.Section optionsSection =
+              profiler.begin(firebaseApp.getName() + "/options");
           Map<String, Object> appMap = new HashMap<>();
-          Map<String, String> optionsMap = new HashMap<>();
-          FirebaseOptions options = firebaseApp.getOptions();
 
-          optionsMap.put(KEY_API_KEY, options.getApiKey());
-          optionsMap.put(KEY_APP_ID, options.getApplicationId());
+          appMap.put(KEY_NAME, firebaseApp.getName());
+          appMap.put(KEY_OPTIONS, getOptionsMap(firebaseApp));
 
-          if (options.getGcmSenderId() != null) {
-            optionsMap.put(KEY_MESSAGING_SENDER_ID, options.getGcmSenderId());
-          }
+          appMap.put(
+              KEY_IS_AUTOMATIC_DATA_COLLECTION_ENABLED,
+              firebaseApp.isDataCollectionDefaultEnabled());
+          optionsSection.end();
+
+          FlutterFirebaseStartupProfiler.Section constantsSection =
+              profiler.begin(firebaseApp.getName() + "/pluginConstants");
+          return FlutterFirebaseTasks.map(
+              FlutterFirebasePluginRegistry.getPluginConstantsForFirebaseApp(
+                  firebaseApp, profiler, messenger),
+              pluginConstants -> {
+                constantsSection.end();
+                appMap.put(KEY_PLUGIN_CONSTANTS, pluginConstants);
+                return appMap;
+              });
+        });
+  }
 
-          if (options.getProjectId() != null) {
-            optionsMap.put(KEY_PROJECT_ID, options.getProjectId());
-          }
+  // Returns the serialized options of the app. Options can't change once an app is initialized, so
+  // they are cached until the app is deleted or initialized again.
+  private static Map<String, String> getOptionsMap(FirebaseApp firebaseApp) {
+    synchronized (cachedOptions) {
+      CachedOptions cached = cachedOptions.get(firebaseApp.getName());
 
-          if (options.getDatabaseUrl() != null) {
-            optionsMap.put(KEY_DATABASE_URL, options.getDatabaseUrl());
-          }
+      // An app deleted and initialized again under the same name is a different instance.
+      if (cached != null && cached.firebaseApp == firebaseApp) {
+        return cached.optionsMap;
+      }
+    }
 
-          if (options.getStorageBucket() != null) {
-            optionsMap.put(KEY_STORAGE_BUCKET, options.getStorageBucket());
-          }
+    Map<String, String> optionsMap = new HashMap<>();
+    FirebaseOptions options = firebaseApp.getOptions();
 
-          if (options.getGaTrackingId() != null) {
-            optionsMap.put(KEY_TRACKING_ID, options.getGaTrackingId());
-          }
+    optionsMap.put(KEY_API_KEY, options.getApiKey());
+    optionsMap.put(KEY_APP_ID, options.getApplicationId());
 
-          appMap.put(KEY_NAME, firebaseApp.getName());
-          appMap.put(KEY_OPTIONS, optionsMap);
+    if (options.getGcmSenderId() != null) {
+      optionsMap.put(KEY_MESSAGING_SENDER_ID, options.getGcmSenderId());
+    }
 
-          appMap.put(
-              KEY_IS_AUTOMATIC_DATA_COLLECTION_ENABLED,
-              firebaseApp.isDataCollectionDefaultEnabled());
-          appMap.put(
-              KEY_PLUGIN_CONSTANTS,
-              Tasks.await(
-                  FlutterFirebasePluginRegistry.getPluginConstantsForFirebaseApp(firebaseApp)));
+    if (options.getProjectId() != null) {
+      optionsMap.put(KEY_PROJECT_ID, options.getProjectId());
+    }
 
-          return appMap;
-        });
+    if (options.getDatabaseUrl() != null) {
+      optionsMap.put(KEY_DATABASE_URL, options.getDatabaseUrl());
+    }
+
+    if (options.getStorageBucket() != null) {
+      optionsMap.put(KEY_STORAGE_BUCKET, options.getStorageBucket());
+    }
+
+    if (options.getGaTrackingId() != null) {
+      optionsMap.put(KEY_TRACKING_ID, options.getGaTrackingId());
+    }
+
+    synchronized (cachedOptions) {
+      cachedOptions.put(firebaseApp.getName(), new CachedOptions(firebaseApp, optionsMap));
+    }
+
+    return optionsMap;
+  }
+
+  // Drops everything cached for the app, once it is deleted or initialized again.
+  private static void invalidateApp(String appName) {
+    synchronized (cachedOptions) {
+      cachedOptions.remove(appName);
+    }
+
+    FlutterFirebasePluginRegistry.invalidatePluginConstants(appName);
   }
 
   private Task<Map<String, Object>> initializeApp(Map<String, Object> arguments) {
-    return Tasks.call(
-        cachedThreadPool,
-        () -> {
-          String name = (String) Objects.requireNonNull(arguments.get(KEY_APP_NAME));
-
-          @SuppressWarnings("unchecked")
-          Map<String, String> optionsMap =
-              (Map<String, String>) Objects.requireNonNull(arguments.get(KEY_OPTIONS));
-
-          FirebaseOptions options =
-              new FirebaseOptions.Builder()
-                  .setApiKey(Objects.requireNonNull(optionsMap.get(KEY_API_KEY)))
-                  .setApplicationId(Objects.requireNonNull(optionsMap.get(KEY_APP_ID)))
-                  .setDatabaseUrl(optionsMap.get(KEY_DATABASE_URL))
-                  .setGcmSenderId(optionsMap.get(KEY_MESSAGING_SENDER_ID))
-                  .setProjectId(optionsMap.get(KEY_PROJECT_ID))
-                  .setStorageBucket(optionsMap.get(KEY_STORAGE_BUCKET))
-                  .setGaTrackingId(optionsMap.get(KEY_TRACKING_ID))
-                  .build();
-
-          FirebaseApp firebaseApp = FirebaseApp.initializeApp(applicationContext, options, name);
-          return Tasks.await(firebaseAppToMap(firebaseApp));
-        });
+    FlutterFirebaseStartupProfiler profiler = startProfiler("initializeApp");
+
+    return endProfiler(
+        profiler,
+        FlutterFirebaseTasks.callAsync(
+            cachedThreadPool,
+            () -> {
+              String name = (String) Objects.requireNonNull(arguments.get(KEY_APP_NAME));
+
+              @SuppressWarnings("unchecked")
+              Map<String, String> optionsMap =
+                  (Map<String, String>) Objects.requireNonNull(arguments.get(KEY_OPTIONS));
+
+              FlutterFirebaseStartupProfiler.Section section =
+                  profiler.begin(name + "/initializeApp");
+              FirebaseOptions options =
+                  new FirebaseOptions.Builder()
+                      .setApiKey(Objects.requireNonNull(optionsMap.get(KEY_API_KEY)))
+                      .setApplicationId(Objects.requireNonNull(optionsMap.get(KEY_APP_ID)))
+                      .setDatabaseUrl(optionsMap.get(KEY_DATABASE_URL))
+                      .setGcmSenderId(optionsMap.get(KEY_MESSAGING_SENDER_ID))
+                      .setProjectId(optionsMap.get(KEY_PROJECT_ID))
+                      .setStorageBucket(optionsMap.get(KEY_STORAGE_BUCKET))
+                      .setGaTrackingId(optionsMap.get(KEY_TRACKING_ID))
+                      .build();
+
+              invalidateApp(name);
+              FirebaseApp firebaseApp =
+                  FirebaseApp.initializeApp(applicationContext, options, name);
+              section.end();
+
+              return firebaseAppToMap(firebaseApp, profiler);
+            }));
   }
 
   private Task<List<Map<String, Object>>> initializeCore() {
-    return Tasks.call(
-        cachedThreadPool,
-        () -> {
-          if (!coreInitialized) {
-            coreInitialized = true;
-          } else {
-            Tasks.await(FlutterFirebasePluginRegistry.didReinitializeFirebaseCore());
-          }
+    FlutterFirebaseStartupProfiler profiler = startProfiler("initializeCore");
+
+    return endProfiler(
+        profiler,
+        FlutterFirebaseTasks.callAsync(
+            cachedThreadPool,
+            () -> {
+              Task<Void> reinitializeTask;
+              if (!coreInitialized) {
+                coreInitialized = true;
+                reinitializeTask = Tasks.forResult(null);
+              } else {
+                FlutterFirebaseStartupProfiler.Section section =
+                    profiler.begin("didReinitializeFirebaseCore");
+                reinitializeTask =
+                    FlutterFirebasePluginRegistry.didReinitializeFirebaseCore(messenger)
+                        .addOnCompleteListener(
+                            FlutterFirebaseTasks.DIRECT_EXECUTOR, task -> section.end());
+              }
+
+              return reinitializeTask.onSuccessTask(
+                  cachedThreadPool,
+                  ignored -> {
+                    FlutterFirebaseStartupProfiler.Section section = profiler.begin("getApps");
+                    List<FirebaseApp> firebaseApps = FirebaseApp.getApps(applicationContext);
+                    section.end();
+
+                    List<Task<Map<String, Object>>> firebaseAppTasks =
+                        new ArrayList<>(firebaseApps.size());
+
+                    // Apps are serialized concurrently, the results keep the order of the apps.
+                    for (FirebaseApp firebaseApp : firebaseApps) {
+                      firebaseAppTasks.add(firebaseAppToMap(firebaseApp, profiler));
+                    }
+
+                    return Tasks.whenAllSuccess(firebaseAppTasks);
+                  });
+            }));
+  }
 
-          List<FirebaseApp> firebaseApps = FirebaseApp.getApps(applicationContext);
-          List<Map<String, Object>> firebaseAppsList = new ArrayList<>(firebaseApps.size());
+  // Starts profiling a call, replacing the profile of the previous call with the same name.
+  private FlutterFirebaseStartupProfiler startProfiler(String name) {
+    FlutterFirebaseStartupProfiler profiler = new FlutterFirebaseStartupProfiler(name);
 
-          for (FirebaseApp firebaseApp : firebaseApps) {
-            firebaseAppsList.add(Tasks.await(firebaseAppToMap(firebaseApp)));
-          }
+    synchronized (startupProfilers) {
+      startupProfilers.put(name, profiler);
+    }
 
-          return firebaseAppsList;
-        });
+    return profiler;
+  }
+
+  private static <T> Task<T> endProfiler(FlutterFirebaseStartupProfiler profiler, Task<T> task) {
+    return task.addOnCompleteListener(FlutterFirebaseTasks.DIRECT_EXECUTOR, t -> profiler.end());
   }
 
   private Task<Void> setAutomaticDataCollectionEnabled(Map<String, Object> arguments) {
@@ -187,6 +291,9 @@ public class FlutterFirebaseCorePlugin implements FlutterPlugin, MethodChannel.M
           boolean enabled = (boolean) Objects.requireNonNull(arguments.get(KEY_ENABLED));
           FirebaseApp firebaseApp = FirebaseApp.getInstance(appName);
           firebaseApp.setDataCollectionDefaultEnabled(enabled);
+
+          // Plugin constants may depend on it, e.g. Crashlytics collection.
+          FlutterFirebasePluginRegistry.invalidatePluginConstants(appName);
           return null;
         });
   }
@@ -215,10 +322,36 @@ public class FlutterFirebaseCorePlugin implements FlutterPlugin, MethodChannel.M
             // Ignore app not found exceptions.
           }
 
+          invalidateApp(appName);
+
           return null;
         });
   }
 
+  private Task<Map<String, Map<String, Object>>> schedulerMetrics() {
+    return Tasks.call(cachedThreadPool, FlutterFirebaseScheduler::getMetrics);
+  }
+
+  // Returns the timings of the latest Firebase#initializeCore and Firebase#initializeApp calls,
+  // keyed by method. Each maps the recorded phases to their start offset and duration in
+  // microseconds.
+  private Task<Map<String, Object>> startupTimings() {
+    return Tasks.call(
+        cachedThreadPool,
+        () -> {
+          Map<String, Object> startupTimings = new HashMap<>();
+
+          synchronized (startupProfilers) {
+            for (Map.Entry<String, FlutterFirebaseStartupProfiler> entry :
+                startupProfilers.entrySet()) {
+              startupTimings.put(entry.getKey(), entry.getValue().getTimings());
+            }
+          }
+
+          return startupTimings;
+        });
+  }
+
   @Override
   public void onMethodCall(MethodCall call, @NonNull final MethodChannel.Result result) {
     Task<?> methodCallTask;
@@ -239,6 +372,12 @@ public class FlutterFirebaseCorePlugin implements FlutterPlugin, MethodChannel.M
       case "FirebaseApp#delete":
         methodCallTask = deleteApp(call.arguments());
         break;
+      case "Firebase#schedulerMetrics":
+        methodCallTask = schedulerMetrics();
+        break;
+      case "Firebase#startupTimings":
+        methodCallTask = startupTimings();
+        break;
       default:
         result.notImplemented();
         return;
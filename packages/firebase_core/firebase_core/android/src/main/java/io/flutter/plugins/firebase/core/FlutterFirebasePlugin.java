@@ -32,4 +32,26 @@ public interface FlutterFirebasePlugin {
    * between Hot Restarts as `initializeCore` can only be called once in Dart.
    */
   Task<Void> didReinitializeFirebaseCore();
+
+  /**
+   * FlutterFire plugins whose constants only change in ways they are aware of can return true to
+   * have their constants cached per Firebase App, making repeated initializations cheaper.
+   *
+   * <p>Such plugins must call {@link FlutterFirebasePluginRegistry#pluginConstantsChanged(String,
+   * String)} whenever their constants change.
+   *
+   * @return Whether the constants of this plugin can be cached, false by default.
+   */
+  default boolean isPluginConstantsCacheable() {
+    return false;
+  }
+
+  /**
+   * Called when the cached plugin constants of a Firebase App were invalidated, because the app was
+   * initialized again or deleted, or a plugin reported its constants changed.
+   *
+   * @param appName The name of the Firebase App whose constants changed.
+   * @param version The new version of the constants of that app. Versions only increase.
+   */
+  default void didChangePluginConstants(String appName, long version) {}
 }
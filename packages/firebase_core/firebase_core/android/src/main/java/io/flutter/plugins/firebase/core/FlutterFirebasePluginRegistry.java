@@ -3,57 +3,420 @@
 // found in the LICENSE file.
 package io.flutter.plugins.firebase.core;
 
-import static io.flutter.plugins.firebase.core.FlutterFirebasePlugin.cachedThreadPool;
-
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
 import androidx.annotation.Keep;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
 import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
 import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.FirebaseApp;
+import io.flutter.plugin.common.BinaryMessenger;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.WeakHashMap;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeoutException;
 
 @Keep
 public class FlutterFirebasePluginRegistry {
 
-  private static final Map<String, FlutterFirebasePlugin> registeredPlugins = new WeakHashMap<>();
+  private static final String TAG = "FLTFirebasePlugins";
+  private static final long DEFAULT_PLUGIN_CONSTANTS_TIMEOUT_MILLIS = 10000;
+
+  // Plugins keyed by the BinaryMessenger of the engine they are attached to, then by channel name.
+  // Plugins reference their engine's messenger through their channels, so the engine is kept until
+  // its plugins are unregistered, which they do once detached from it. Plugins registered without
+  // an engine are kept under the null key and apply to every engine.
+  private static final Map<BinaryMessenger, Map<String, FlutterFirebasePlugin>> registeredPlugins =
+      new HashMap<>();
+  private static volatile long pluginConstantsTimeoutMillis =
+      DEFAULT_PLUGIN_CONSTANTS_TIMEOUT_MILLIS;
+  private static Handler timeoutHandler;
+
+  // Constants of plugins opting into caching, keyed by app name and then by channel name. Access
+  // is guarded by the map itself, which also guards pluginConstantsVersions.
+  private static final Map<String, Map<String, CachedPluginConstants>> cachedPluginConstants =
+      new HashMap<>();
+  private static final Map<String, Long> pluginConstantsVersions = new HashMap<>();
+
+  private static class CachedPluginConstants {
+    final FirebaseApp firebaseApp;
+    final long version;
+    final Task<Map<String, Object>> task;
+
+    CachedPluginConstants(FirebaseApp firebaseApp, long version, Task<Map<String, Object>> task) {
+      this.firebaseApp = firebaseApp;
+      this.version = version;
+      this.task = task;
+    }
+  }
 
   /**
    * Register a Flutter Firebase plugin with the Firebase plugin registry.
    *
+   * <p>The plugin is not tied to an engine and is used by every engine, replacing any plugin
+   * previously registered this way with the same channel name. Plugins attached to an engine should
+   * use {@link #registerPlugin(String, FlutterFirebasePlugin, BinaryMessenger)} instead.
+   *
    * @param channelName The MethodChannel name for the plugin to be registered, for example:
    *     `plugins.flutter.io/firebase_core`
    * @param flutterFirebasePlugin A FlutterPlugin that implements FlutterFirebasePlugin.
    */
   public static void registerPlugin(
       String channelName, FlutterFirebasePlugin flutterFirebasePlugin) {
-    registeredPlugins.put(channelName, flutterFirebasePlugin);
+    registerPlugin(channelName, flutterFirebasePlugin, null);
+  }
+
+  /**
+   * Register a Flutter Firebase plugin attached to an engine with the Firebase plugin registry.
+   *
+   * <p>Every engine has its own plugin instances, so registering a plugin for one engine leaves the
+   * plugins of other engines untouched. Only the plugins of the engine calling
+   * Firebase#initializeCore and Firebase#initializeApp are asked for their constants and notified
+   * of reinitialization.
+   *
+   * @param channelName The MethodChannel name for the plugin to be registered, for example:
+   *     `plugins.flutter.io/firebase_core`
+   * @param flutterFirebasePlugin A FlutterPlugin that implements FlutterFirebasePlugin.
+   * @param messenger The BinaryMessenger of the engine the plugin is attached to.
+   */
+  public static void registerPlugin(
+      String channelName,
+      FlutterFirebasePlugin flutterFirebasePlugin,
+      @Nullable BinaryMessenger messenger) {
+    synchronized (registeredPlugins) {
+      Map<String, FlutterFirebasePlugin> enginePlugins = registeredPlugins.get(messenger);
+      if (enginePlugins == null) {
+        enginePlugins = new HashMap<>();
+        registeredPlugins.put(messenger, enginePlugins);
+      }
+
+      enginePlugins.put(channelName, flutterFirebasePlugin);
+    }
+  }
+
+  /**
+   * Unregister the plugin attached to an engine. Plugins must call it once detached from the
+   * engine, the registry otherwise keeps the engine alive. Plugins of other engines are left
+   * untouched.
+   *
+   * @param channelName The MethodChannel name the plugin was registered with.
+   * @param messenger The BinaryMessenger of the engine the plugin was attached to.
+   */
+  public static void unregisterPlugin(String channelName, @Nullable BinaryMessenger messenger) {
+    synchronized (registeredPlugins) {
+      Map<String, FlutterFirebasePlugin> enginePlugins = registeredPlugins.get(messenger);
+      if (enginePlugins == null) return;
+
+      enginePlugins.remove(channelName);
+      if (enginePlugins.isEmpty()) {
+        registeredPlugins.remove(messenger);
+      }
+    }
+  }
+
+  /**
+   * Returns whether a plugin with the given channel name is registered with an engine other than
+   * the given one. Plugins use it to decide whether native SDK instances they share with other
+   * engines can be torn down.
+   *
+   * @param channelName The MethodChannel name of the plugin.
+   * @param messenger The BinaryMessenger of the engine asking.
+   * @return Whether another engine has the plugin registered.
+   */
+  public static boolean isPluginRegisteredWithOtherEngines(
+      String channelName, @Nullable BinaryMessenger messenger) {
+    synchronized (registeredPlugins) {
+      for (Map.Entry<BinaryMessenger, Map<String, FlutterFirebasePlugin>> entry :
+          registeredPlugins.entrySet()) {
+        if (entry.getKey() != null
+            && entry.getKey() != messenger
+            && entry.getValue().containsKey(channelName)) {
+          return true;
+        }
+      }
+
+      return false;
+    }
+  }
+
+  /**
+   * Sets how long each plugin may take to provide its constants for a Firebase App. A plugin
+   * exceeding it is left out of the constants sent to Dart, and a warning is logged.
+   *
+   * @param timeoutMillis The timeout in milliseconds, 10 seconds by default.
+   */
+  public static void setPluginConstantsTimeout(long timeoutMillis) {
+    pluginConstantsTimeoutMillis = timeoutMillis;
+  }
+
+  /**
+   * Notifies the registry that the constants of a plugin changed, dropping them from the cache. A
+   * plugin returning true from {@link FlutterFirebasePlugin#isPluginConstantsCacheable()} must call
+   * this whenever its constants change.
+   *
+   * <p>Every registered plugin is then notified through {@link
+   * FlutterFirebasePlugin#didChangePluginConstants(String, long)}.
+   *
+   * @param channelName The MethodChannel name of the plugin whose constants changed.
+   * @param appName The name of the Firebase App the constants changed for, or null if they changed
+   *     for every app.
+   */
+  public static void pluginConstantsChanged(String channelName, @Nullable String appName) {
+    invalidatePluginConstants(channelName, appName);
+  }
+
+  /**
+   * Drops the cached constants of every plugin for the given Firebase App, for example once it is
+   * deleted or initialized again.
+   *
+   * @param appName The name of the Firebase App, or null for every app.
+   */
+  static void invalidatePluginConstants(@Nullable String appName) {
+    invalidatePluginConstants(null, appName);
+  }
+
+  private static void invalidatePluginConstants(
+      @Nullable String channelName, @Nullable String appName) {
+    Map<String, Long> changedVersions = new HashMap<>();
+
+    synchronized (cachedPluginConstants) {
+      // Apps with cached constants may never have been invalidated before, such as the default
+      // app initialized natively, so they have no version yet.
+      Set<String> appNames = new HashSet<>();
+      if (appName != null) {
+        appNames.add(appName);
+      } else {
+        appNames.addAll(cachedPluginConstants.keySet());
+        appNames.addAll(pluginConstantsVersions.keySet());
+      }
+
+      for (String name : appNames) {
+        Map<String, CachedPluginConstants> appConstants = cachedPluginConstants.get(name);
+        if (appConstants != null) {
+          if (channelName == null) {
+            appConstants.clear();
+          } else {
+            appConstants.remove(channelName);
+          }
+        }
+
+        long version = getPluginConstantsVersion(name) + 1;
+        pluginConstantsVersions.put(name, version);
+        changedVersions.put(name, version);
+      }
+    }
+
+    // Plugins of every engine are notified outside of the lock, they may gather constants again
+    // straight away.
+    for (FlutterFirebasePlugin plugin : getAllRegisteredPlugins()) {
+      for (Map.Entry<String, Long> entry : changedVersions.entrySet()) {
+        plugin.didChangePluginConstants(entry.getKey(), entry.getValue());
+      }
+    }
+  }
+
+  private static long getPluginConstantsVersion(String appName) {
+    Long version = pluginConstantsVersions.get(appName);
+    return version == null ? 0 : version;
+  }
+
+  // Returns the plugins used by the engine: those registered without an engine, overridden by
+  // those the engine registered itself.
+  private static Map<String, FlutterFirebasePlugin> getRegisteredPlugins(
+      @Nullable BinaryMessenger messenger) {
+    synchronized (registeredPlugins) {
+      Map<String, FlutterFirebasePlugin> plugins = new HashMap<>();
+
+      Map<String, FlutterFirebasePlugin> sharedPlugins = registeredPlugins.get(null);
+      if (sharedPlugins != null) {
+        plugins.putAll(sharedPlugins);
+      }
+
+      Map<String, FlutterFirebasePlugin> enginePlugins =
+          messenger != null ? registeredPlugins.get(messenger) : null;
+      if (enginePlugins != null) {
+        plugins.putAll(enginePlugins);
+      }
+
+      return plugins;
+    }
+  }
+
+  // Returns the plugins of every engine, each plugin instance once.
+  private static List<FlutterFirebasePlugin> getAllRegisteredPlugins() {
+    Map<FlutterFirebasePlugin, Boolean> plugins = new IdentityHashMap<>();
+
+    synchronized (registeredPlugins) {
+      for (Map<String, FlutterFirebasePlugin> enginePlugins : registeredPlugins.values()) {
+        for (FlutterFirebasePlugin plugin : enginePlugins.values()) {
+          plugins.put(plugin, true);
+        }
+      }
+    }
+
+    return new ArrayList<>(plugins.keySet());
   }
 
   /**
    * Each FlutterFire plugin implementing FlutterFirebasePlugin provides this method allowing it's
    * constants to be initialized during FirebaseCore.initializeApp in Dart. Here we call this method
-   * on each of the registered plugins and gather their constants for use in Dart.
+   * on each of the registered plugins concurrently and gather their constants for use in Dart.
+   *
+   * <p>A plugin failing to provide its constants fails the returned task. A plugin exceeding the
+   * timeout set with {@link #setPluginConstantsTimeout(long)} is left out instead.
    *
    * @param firebaseApp The Firebase App that the plugin should return constants for.
+   * @param profiler Records how long each plugin took to provide its constants.
+   * @param messenger The BinaryMessenger of the engine whose plugins provide their constants.
    * @return A task returning the discovered constants for each plugin (using channelName as the Map
    *     key) for the provided Firebase App.
    */
-  static Task<Map<String, Object>> getPluginConstantsForFirebaseApp(FirebaseApp firebaseApp) {
-    return Tasks.call(
-        cachedThreadPool,
-        () -> {
-          Map<String, Object> pluginConstants = new HashMap<>(registeredPlugins.size());
-
-          for (Map.Entry<String, FlutterFirebasePlugin> entry : registeredPlugins.entrySet()) {
-            String channelName = entry.getKey();
-            FlutterFirebasePlugin plugin = entry.getValue();
-            pluginConstants.put(
-                channelName, Tasks.await(plugin.getPluginConstantsForFirebaseApp(firebaseApp)));
+  static Task<Map<String, Object>> getPluginConstantsForFirebaseApp(
+      FirebaseApp firebaseApp,
+      FlutterFirebaseStartupProfiler profiler,
+      @Nullable BinaryMessenger messenger) {
+    Map<String, FlutterFirebasePlugin> plugins = getRegisteredPlugins(messenger);
+    List<String> channelNames = new ArrayList<>(plugins.size());
+    List<Task<Map<String, Object>>> tasks = new ArrayList<>(plugins.size());
+
+    for (Map.Entry<String, FlutterFirebasePlugin> entry : plugins.entrySet()) {
+      channelNames.add(entry.getKey());
+      tasks.add(getPluginConstants(entry.getKey(), entry.getValue(), firebaseApp, profiler));
+    }
+
+    return Tasks.whenAllComplete(tasks)
+        .continueWith(
+            FlutterFirebaseTasks.DIRECT_EXECUTOR,
+            completedTasks -> {
+              Map<String, Object> pluginConstants = new HashMap<>(tasks.size());
+
+              for (int i = 0; i < tasks.size(); i++) {
+                String channelName = channelNames.get(i);
+                Task<Map<String, Object>> task = tasks.get(i);
+
+                if (task.isSuccessful()) {
+                  pluginConstants.put(channelName, task.getResult());
+                } else if (task.getException() instanceof TimeoutException) {
+                  Log.w(TAG, channelName + " did not provide its constants in time, skipping.");
+                } else {
+                  throw task.getException();
+                }
+              }
+
+              return pluginConstants;
+            });
+  }
+
+  private static Task<Map<String, Object>> getPluginConstants(
+      String channelName,
+      FlutterFirebasePlugin plugin,
+      FirebaseApp firebaseApp,
+      FlutterFirebaseStartupProfiler profiler) {
+    final FlutterFirebaseStartupProfiler.Section section =
+        profiler.begin(firebaseApp.getName() + "/pluginConstants/" + channelName);
+    final TaskCompletionSource<Map<String, Object>> completionSource = new TaskCompletionSource<>();
+
+    Runnable timeout =
+        () ->
+            completionSource.trySetException(
+                new TimeoutException(
+                    channelName + " timed out after " + pluginConstantsTimeoutMillis + "ms."));
+    Handler handler = getTimeoutHandler();
+    handler.postDelayed(timeout, pluginConstantsTimeoutMillis);
+
+    Task<Map<String, Object>> pluginTask =
+        plugin.isPluginConstantsCacheable()
+            ? getCachedPluginConstants(channelName, plugin, firebaseApp)
+            : callPluginConstants(plugin, firebaseApp);
+
+    pluginTask.addOnCompleteListener(
+        FlutterFirebaseTasks.DIRECT_EXECUTOR,
+        task -> {
+          handler.removeCallbacks(timeout);
+
+          section.end();
+
+          if (task.isSuccessful()) {
+            completionSource.trySetResult(task.getResult());
+          } else if (task.getException() != null) {
+            completionSource.trySetException(task.getException());
+          } else {
+            completionSource.trySetException(
+                new CancellationException(channelName + " cancelled providing its constants."));
           }
+        });
+
+    return completionSource.getTask();
+  }
+
+  // Returns the cached constants of the plugin for the app, gathering them if needed. Pending
+  // constants are shared too, so concurrent initializations only ask the plugin once.
+  @VisibleForTesting
+  static Task<Map<String, Object>> getCachedPluginConstants(
+      String channelName, FlutterFirebasePlugin plugin, FirebaseApp firebaseApp) {
+    String appName = firebaseApp.getName();
+    CachedPluginConstants cached;
+
+    synchronized (cachedPluginConstants) {
+      Map<String, CachedPluginConstants> appConstants = cachedPluginConstants.get(appName);
+      if (appConstants == null) {
+        appConstants = new HashMap<>();
+        cachedPluginConstants.put(appName, appConstants);
+      }
+
+      long version = getPluginConstantsVersion(appName);
+      cached = appConstants.get(channelName);
+
+      // An app deleted and initialized again under the same name is a different instance.
+      if (cached != null && cached.version == version && cached.firebaseApp == firebaseApp) {
+        return cached.task;
+      }
 
-          return pluginConstants;
+      cached =
+          new CachedPluginConstants(firebaseApp, version, callPluginConstants(plugin, firebaseApp));
+      appConstants.put(channelName, cached);
+    }
+
+    final CachedPluginConstants pending = cached;
+    pending.task.addOnCompleteListener(
+        FlutterFirebaseTasks.DIRECT_EXECUTOR,
+        task -> {
+          if (task.isSuccessful()) return;
+
+          // Failures are not cached, the plugin is asked again next time.
+          synchronized (cachedPluginConstants) {
+            Map<String, CachedPluginConstants> appConstants = cachedPluginConstants.get(appName);
+            if (appConstants != null && appConstants.get(channelName) == pending) {
+              appConstants.remove(channelName);
+            }
+          }
         });
+
+    return pending.task;
+  }
+
+  private static Task<Map<String, Object>> callPluginConstants(
+      FlutterFirebasePlugin plugin, FirebaseApp firebaseApp) {
+    try {
+      return plugin.getPluginConstantsForFirebaseApp(firebaseApp);
+    } catch (Exception e) {
+      return Tasks.forException(e);
+    }
+  }
+
+  private static synchronized Handler getTimeoutHandler() {
+    if (timeoutHandler == null) {
+      timeoutHandler = new Handler(Looper.getMainLooper());
+    }
+    return timeoutHandler;
   }
 
   /**
@@ -62,16 +425,18 @@ public class FlutterFirebasePluginRegistry {
    *
    * <p>This is used by plugins to know if they need to cleanup previous resources between Hot
    * Restarts as `initializeCore` can only be called once in Dart.
+   *
+   * @param messenger The BinaryMessenger of the restarted engine. Only its plugins are notified.
    */
-  static Task<Void> didReinitializeFirebaseCore() {
-    return Tasks.call(
-        cachedThreadPool,
-        () -> {
-          for (Map.Entry<String, FlutterFirebasePlugin> entry : registeredPlugins.entrySet()) {
-            FlutterFirebasePlugin plugin = entry.getValue();
-            Tasks.await(plugin.didReinitializeFirebaseCore());
-          }
-          return null;
-        });
+  static Task<Void> didReinitializeFirebaseCore(@Nullable BinaryMessenger messenger) {
+    // Plugins are notified one after the other, a failure skips the remaining ones.
+    Task<Void> task = Tasks.forResult(null);
+    for (FlutterFirebasePlugin plugin : getRegisteredPlugins(messenger).values()) {
+      task =
+          task.onSuccessTask(
+              FlutterFirebaseTasks.DIRECT_EXECUTOR,
+              ignored -> plugin.didReinitializeFirebaseCore());
+    }
+    return task;
   }
 }
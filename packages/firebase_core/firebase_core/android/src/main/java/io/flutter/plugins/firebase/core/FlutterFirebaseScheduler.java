@@ -0,0 +1,192 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+package io.flutter.plugins.firebase.core;
+
+import androidx.annotation.Keep;
+import androidx.annotation.NonNull;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A shared scheduler providing bounded, instrumented worker pools to FlutterFire plugins.
+ *
+ * <p>Unlike {@link FlutterFirebasePlugin#cachedThreadPool}, each pool has a maximum number of
+ * threads and a maximum queue length, so a burst of work from one plugin cannot spawn an unbounded
+ * number of threads. Pools are plain {@link ExecutorService}s, allowing plugins to move their work
+ * over one at a time.
+ */
+@Keep
+public final class FlutterFirebaseScheduler {
+  public static final int DEFAULT_MAX_THREADS =
+      Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+  public static final int DEFAULT_MAX_QUEUE_LENGTH = 1024;
+
+  private static final long KEEP_ALIVE_SECONDS = 30;
+  private static final Map<String, InstrumentedExecutor> executors = new HashMap<>();
+
+  private FlutterFirebaseScheduler() {}
+
+  /**
+   * Returns the pool with the given name, creating it with the default limits if needed.
+   *
+   * @param name The name of the pool, usually the name of the plugin using it.
+   * @return An ExecutorService shared by every caller using the same name.
+   */
+  public static ExecutorService getExecutor(@NonNull String name) {
+    return getExecutor(name, DEFAULT_MAX_THREADS, DEFAULT_MAX_QUEUE_LENGTH);
+  }
+
+  /**
+   * Returns the pool with the given name, creating it with the provided limits if needed. The
+   * limits of an existing pool are left unchanged.
+   *
+   * <p>Once maxThreads tasks are running, further tasks are queued. Once maxQueueLength tasks are
+   * queued, further tasks are rejected with a {@link RejectedExecutionException}.
+   *
+   * @param name The name of the pool, usually the name of the plugin using it.
+   * @param maxThreads The maximum number of threads of the pool.
+   * @param maxQueueLength The maximum number of tasks waiting for a thread.
+   * @return An ExecutorService shared by every caller using the same name.
+   */
+  public static ExecutorService getExecutor(
+      @NonNull String name, int maxThreads, int maxQueueLength) {
+    synchronized (executors) {
+      InstrumentedExecutor executor = executors.get(name);
+
+      if (executor == null) {
+        executor = new InstrumentedExecutor(name, maxThreads, maxQueueLength);
+        executors.put(name, executor);
+      }
+
+      return executor;
+    }
+  }
+
+  /**
+   * Returns the metrics of every pool, keyed by pool name. Durations are in microseconds.
+   *
+   * @return For each pool: activeThreads, poolSize, maxThreads, queueLength, maxQueueLength,
+   *     completedTasks, rejectedTasks, averageWaitTime, maxWaitTime, averageRunTime and maxRunTime.
+   */
+  public static Map<String, Map<String, Object>> getMetrics() {
+    Map<String, Map<String, Object>> metrics = new HashMap<>();
+
+    synchronized (executors) {
+      for (Map.Entry<String, InstrumentedExecutor> entry : executors.entrySet()) {
+        metrics.put(entry.getKey(), entry.getValue().getMetrics());
+      }
+    }
+
+    return metrics;
+  }
+
+  private static class InstrumentedExecutor extends ThreadPoolExecutor {
+    private final AtomicLong completedTasks = new AtomicLong();
+    private final AtomicLong rejectedTasks = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong totalRunNanos = new AtomicLong();
+    private final AtomicLong maxRunNanos = new AtomicLong();
+    private final int maxQueueLength;
+
+    InstrumentedExecutor(String name, int maxThreads, int maxQueueLength) {
+      // Core and maximum sizes are equal, as a ThreadPoolExecutor only grows past its core size
+      // once the queue is full. Idle threads still time out as core threads are allowed to.
+      super(
+          maxThreads,
+          maxThreads,
+          KEEP_ALIVE_SECONDS,
+          TimeUnit.SECONDS,
+          new LinkedBlockingQueue<>(maxQueueLength),
+          new NamedThreadFactory(name));
+      this.maxQueueLength = maxQueueLength;
+      allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    public void execute(@NonNull Runnable command) {
+      try {
+        super.execute(new TimedRunnable(command));
+      } catch (RejectedExecutionException e) {
+        rejectedTasks.incrementAndGet();
+        throw e;
+      }
+    }
+
+    private void recordTask(long waitNanos, long runNanos) {
+      completedTasks.incrementAndGet();
+      totalWaitNanos.addAndGet(waitNanos);
+      totalRunNanos.addAndGet(runNanos);
+      updateMax(maxWaitNanos, waitNanos);
+      updateMax(maxRunNanos, runNanos);
+    }
+
+    private static void updateMax(AtomicLong max, long value) {
+      long current = max.get();
+      while (value > current && !max.compareAndSet(current, value)) {
+        current = max.get();
+      }
+    }
+
+    Map<String, Object> getMetrics() {
+      long completed = completedTasks.get();
+      Map<String, Object> metrics = new HashMap<>();
+
+      metrics.put("activeThreads", getActiveCount());
+      metrics.put("poolSize", getPoolSize());
+      metrics.put("maxThreads", getMaximumPoolSize());
+      metrics.put("queueLength", getQueue().size());
+      metrics.put("maxQueueLength", maxQueueLength);
+      metrics.put("completedTasks", completed);
+      metrics.put("rejectedTasks", rejectedTasks.get());
+      metrics.put("averageWaitTime", completed > 0 ? totalWaitNanos.get() / completed / 1000 : 0);
+      metrics.put("maxWaitTime", maxWaitNanos.get() / 1000);
+      metrics.put("averageRunTime", completed > 0 ? totalRunNanos.get() / completed / 1000 : 0);
+      metrics.put("maxRunTime", maxRunNanos.get() / 1000);
+
+      return metrics;
+    }
+
+    private class TimedRunnable implements Runnable {
+      private final Runnable runnable;
+      private final long queuedAt = System.nanoTime();
+
+      TimedRunnable(Runnable runnable) {
+        this.runnable = runnable;
+      }
+
+      @Override
+      public void run() {
+        long startedAt = System.nanoTime();
+        try {
+          runnable.run();
+        } finally {
+          recordTask(startedAt - queuedAt, System.nanoTime() - startedAt);
+        }
+      }
+    }
+  }
+
+  private static class NamedThreadFactory implements ThreadFactory {
+    private final AtomicInteger threadCount = new AtomicInteger();
+    private final String name;
+
+    NamedThreadFactory(String name) {
+      this.name = name;
+    }
+
+    @Override
+    public Thread newThread(@NonNull Runnable runnable) {
+      return new Thread(runnable, "FlutterFire-" + name + "-" + threadCount.incrementAndGet());
+    }
+  }
+}
@@ -0,0 +1,82 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+package io.flutter.plugins.firebase.core;
+
+import android.os.Build;
+import android.os.Trace;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Records the phases of Firebase#initializeCore and Firebase#initializeApp. Every phase is timed
+// against a monotonic clock and, on Android Q and above, emitted as an async android.os.Trace
+// section so it shows up in systrace and Perfetto captures. Async sections are used as phases
+// start and end on different threads.
+final class FlutterFirebaseStartupProfiler {
+  private static final String TRACE_PREFIX = "FlutterFire#";
+  private static final AtomicInteger nextCookie = new AtomicInteger();
+
+  private final long startedAt = System.nanoTime();
+  private final Map<String, Map<String, Object>> phases = new LinkedHashMap<>();
+  private final Section total;
+
+  FlutterFirebaseStartupProfiler(String name) {
+    this.total = begin(name);
+  }
+
+  // Starts a phase. Phases may be nested and end on any thread.
+  Section begin(String phase) {
+    return new Section(phase);
+  }
+
+  // Ends the profile. The timings are complete once every phase has ended.
+  void end() {
+    total.end();
+  }
+
+  // Returns the start offset and duration in microseconds of every phase ended so far, keyed by
+  // phase name in the order they ended.
+  Map<String, Object> getTimings() {
+    synchronized (phases) {
+      return new LinkedHashMap<>(phases);
+    }
+  }
+
+  final class Section {
+    private final String phase;
+    private final int cookie = nextCookie.incrementAndGet();
+    private final long sectionStartedAt = System.nanoTime();
+    private boolean ended = false;
+
+    private Section(String phase) {
+      this.phase = phase;
+
+      if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+        Trace.beginAsyncSection(TRACE_PREFIX + phase, cookie);
+      }
+    }
+
+    void end() {
+      long endedAt = System.nanoTime();
+
+      synchronized (this) {
+        if (ended) return;
+        ended = true;
+      }
+
+      if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+        Trace.endAsyncSection(TRACE_PREFIX + phase, cookie);
+      }
+
+      Map<String, Object> timing = new HashMap<>();
+      timing.put("start", (sectionStartedAt - startedAt) / 1000);
+      timing.put("duration", (endedAt - sectionStartedAt) / 1000);
+
+      synchronized (phases) {
+        phases.put(phase, timing);
+      }
+    }
+  }
+}
@@ -0,0 +1,107 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+package io.flutter.plugins.firebase.core;
+
+import androidx.annotation.Keep;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import io.flutter.plugin.common.MethodChannel;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+
+/**
+ * Helpers composing GMS Tasks without blocking a thread while they are pending.
+ *
+ * <p>Wrapping an SDK call in {@code Tasks.call(executor, () -> Tasks.await(sdkTask))} holds a pool
+ * thread for as long as the SDK task runs, usually the length of a network request. The helpers
+ * below chain continuations instead, so a thread is only used while there is work to do.
+ */
+@Keep
+public final class FlutterFirebaseTasks {
+  /**
+   * Runs continuations on the thread completing the previous task. Only suitable for short,
+   * non-blocking continuations.
+   */
+  public static final Executor DIRECT_EXECUTOR = Runnable::run;
+
+  /** Maps the result of a successful task. */
+  public interface Mapper<T, R> {
+    R map(T value) throws Exception;
+  }
+
+  /** Provides the details sent to Dart along with the error of a failed task. */
+  public interface ExceptionDetailsProvider {
+    @Nullable
+    Object getDetails(@Nullable Exception exception);
+  }
+
+  private FlutterFirebaseTasks() {}
+
+  /**
+   * Runs the callable on the executor and returns a task completing with the task it returns,
+   * without waiting for that task on the executor.
+   *
+   * @param executor The executor preparing the SDK call, e.g. parsing its arguments.
+   * @param callable Returns the SDK task to complete with. Exceptions thrown fail the task.
+   * @return A task completing with the result or failure of the task returned by the callable.
+   */
+  public static <T> Task<T> callAsync(
+      @NonNull Executor executor, @NonNull Callable<Task<T>> callable) {
+    return Tasks.call(executor, callable).onSuccessTask(DIRECT_EXECUTOR, task -> task);
+  }
+
+  /**
+   * Maps the result of a task once it succeeds. Failures are passed on unchanged.
+   *
+   * @param task The task whose result is mapped.
+   * @param mapper A short, non-blocking mapping function. Exceptions thrown fail the task.
+   * @return A task completing with the mapped result.
+   */
+  public static <T, R> Task<R> map(@NonNull Task<T> task, @NonNull Mapper<T, R> mapper) {
+    return map(task, DIRECT_EXECUTOR, mapper);
+  }
+
+  /**
+   * Maps the result of a task on the executor once it succeeds. Failures are passed on unchanged.
+   *
+   * @param task The task whose result is mapped.
+   * @param executor The executor running mappers that are too costly for the completing thread,
+   *     e.g. parsing large results or taking a lock shared with disk writes.
+   * @param mapper The mapping function. Exceptions thrown fail the task.
+   * @return A task completing with the mapped result.
+   */
+  public static <T, R> Task<R> map(
+      @NonNull Task<T> task, @NonNull Executor executor, @NonNull Mapper<T, R> mapper) {
+    return task.onSuccessTask(executor, value -> Tasks.forResult(mapper.map(value)));
+  }
+
+  /**
+   * Sends the outcome of a task to a method call result once it completes, on the main thread.
+   *
+   * @param task The task to send the result or failure of.
+   * @param result The method call result to complete.
+   * @param errorCode The error code sent to Dart when the task fails.
+   * @param detailsProvider Provides the error details sent to Dart when the task fails.
+   */
+  public static void sendResult(
+      @NonNull Task<?> task,
+      @NonNull MethodChannel.Result result,
+      @NonNull String errorCode,
+      @NonNull ExceptionDetailsProvider detailsProvider) {
+    task.addOnCompleteListener(
+        completedTask -> {
+          if (completedTask.isSuccessful()) {
+            result.success(completedTask.getResult());
+          } else {
+            Exception exception = completedTask.getException();
+            result.error(
+                errorCode,
+                exception != null ? exception.getMessage() : null,
+                detailsProvider.getDetails(exception));
+          }
+        });
+  }
+}
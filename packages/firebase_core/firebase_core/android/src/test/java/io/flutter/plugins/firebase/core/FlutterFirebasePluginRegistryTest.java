@@ -0,0 +1,105 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+package io.flutter.plugins.firebase.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.FirebaseApp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Test;
+
+public class FlutterFirebasePluginRegistryTest {
+  private static final String CHANNEL_NAME = "plugins.flutter.io/firebase_registry_test";
+
+  private final CacheablePlugin plugin = new CacheablePlugin();
+
+  private static class CacheablePlugin implements FlutterFirebasePlugin {
+    int constantsRequests = 0;
+    final List<String> changedAppNames = new ArrayList<>();
+
+    @Override
+    public Task<Map<String, Object>> getPluginConstantsForFirebaseApp(FirebaseApp firebaseApp) {
+      constantsRequests++;
+      Map<String, Object> constants = new HashMap<>();
+      constants.put("request", constantsRequests);
+      return Tasks.forResult(constants);
+    }
+
+    @Override
+    public Task<Void> didReinitializeFirebaseCore() {
+      return Tasks.forResult(null);
+    }
+
+    @Override
+    public boolean isPluginConstantsCacheable() {
+      return true;
+    }
+
+    @Override
+    public void didChangePluginConstants(String appName, long version) {
+      changedAppNames.add(appName);
+    }
+  }
+
+  @After
+  public void tearDown() {
+    FlutterFirebasePluginRegistry.unregisterPlugin(CHANNEL_NAME, null);
+  }
+
+  private static FirebaseApp mockApp(String name) {
+    FirebaseApp app = mock(FirebaseApp.class);
+    when(app.getName()).thenReturn(name);
+    return app;
+  }
+
+  @Test
+  public void invalidatesAppsOnlyEverCachedWhenChangedForEveryApp() {
+    FlutterFirebasePluginRegistry.registerPlugin(CHANNEL_NAME, plugin);
+    // Like the default app initialized natively, this app's constants were never invalidated.
+    FirebaseApp app = mockApp("[DEFAULT]");
+
+    Task<Map<String, Object>> first =
+        FlutterFirebasePluginRegistry.getCachedPluginConstants(CHANNEL_NAME, plugin, app);
+    assertSame(
+        first, FlutterFirebasePluginRegistry.getCachedPluginConstants(CHANNEL_NAME, plugin, app));
+    assertEquals(1, plugin.constantsRequests);
+
+    FlutterFirebasePluginRegistry.pluginConstantsChanged(CHANNEL_NAME, null);
+
+    assertTrue(plugin.changedAppNames.contains("[DEFAULT]"));
+    Task<Map<String, Object>> second =
+        FlutterFirebasePluginRegistry.getCachedPluginConstants(CHANNEL_NAME, plugin, app);
+    assertNotSame(first, second);
+    assertEquals(2, plugin.constantsRequests);
+    assertEquals(2, second.getResult().get("request"));
+  }
+
+  @Test
+  public void invalidatesOnlyTheGivenApp() {
+    FlutterFirebasePluginRegistry.registerPlugin(CHANNEL_NAME, plugin);
+    FirebaseApp app = mockApp("secondary");
+
+    Task<Map<String, Object>> first =
+        FlutterFirebasePluginRegistry.getCachedPluginConstants(CHANNEL_NAME, plugin, app);
+
+    FlutterFirebasePluginRegistry.pluginConstantsChanged(CHANNEL_NAME, "other");
+
+    assertEquals(1, plugin.changedAppNames.size());
+    assertEquals("other", plugin.changedAppNames.get(0));
+    assertSame(
+        first, FlutterFirebasePluginRegistry.getCachedPluginConstants(CHANNEL_NAME, plugin, app));
+    assertEquals(1, plugin.constantsRequests);
+  }
+}
@@ -10,7 +10,11 @@ import 'package:meta/meta.dart';
 import 'package:quiver/core.dart';
 
 export 'package:firebase_core_platform_interface/firebase_core_platform_interface.dart'
-    show FirebaseOptions, defaultFirebaseAppName, FirebaseException;
+    show
+        FirebaseOptions,
+        FirebaseStartupTiming,
+        defaultFirebaseAppName,
+        FirebaseException;
 
 part 'src/firebase_app.dart';
 part 'src/firebase.dart';
@@ -53,6 +53,16 @@ class Firebase {
     return app == null ? null : FirebaseApp._(app);
   }
 
+  /// Returns the timings of the phases of the latest native initializations,
+  /// such as gathering the constants of each plugin, keyed by the
+  /// initialization (`initializeCore` or `initializeApp`) and then by phase.
+  ///
+  /// Only recorded on Android, other platforms return no timings.
+  static Future<Map<String, Map<String, FirebaseStartupTiming>>>
+      startupTimings() {
+    return _delegate.startupTimings();
+  }
+
   @override
   bool operator ==(dynamic other) {
     if (identical(this, other)) return true;
@@ -20,6 +20,8 @@ part 'src/firebase_exception.dart';
 
 part 'src/firebase_options.dart';
 
+part 'src/firebase_startup_timing.dart';
+
 part 'src/method_channel/method_channel_firebase_app.dart';
 
 part 'src/method_channel/method_channel_firebase.dart';
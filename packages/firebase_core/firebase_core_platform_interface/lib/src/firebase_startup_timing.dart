@@ -0,0 +1,39 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+part of firebase_core_platform_interface;
+
+/// The timing of a phase of the native Firebase initialization.
+class FirebaseStartupTiming {
+  /// Creates a [FirebaseStartupTiming] instance.
+  const FirebaseStartupTiming({this.start, this.duration});
+
+  /// Constructs a [FirebaseStartupTiming] from a raw Map, with the start and
+  /// duration in microseconds.
+  factory FirebaseStartupTiming.fromMap(Map<dynamic, dynamic> map) {
+    return FirebaseStartupTiming(
+      start: Duration(microseconds: map['start']),
+      duration: Duration(microseconds: map['duration']),
+    );
+  }
+
+  /// When the phase started, relative to the start of the initialization.
+  final Duration start;
+
+  /// How long the phase took.
+  final Duration duration;
+
+  @override
+  bool operator ==(dynamic other) =>
+      other is FirebaseStartupTiming &&
+      other.start == start &&
+      other.duration == duration;
+
+  @override
+  int get hashCode => hash2(start, duration);
+
+  @override
+  String toString() =>
+      '$FirebaseStartupTiming(start: $start, duration: $duration)';
+}
@@ -105,6 +105,24 @@ class MethodChannelFirebase extends FirebasePlatform {
     return appInstances[name];
   }
 
+  /// Returns the timings recorded natively, only on Android. Other platforms
+  /// return no timings.
+  @override
+  Future<Map<String, Map<String, FirebaseStartupTiming>>>
+      startupTimings() async {
+    if (defaultTargetPlatform != TargetPlatform.android) {
+      return <String, Map<String, FirebaseStartupTiming>>{};
+    }
+
+    Map<dynamic, dynamic> timings =
+        await channel.invokeMapMethod('Firebase#startupTimings');
+
+    return timings.map((initialization, phases) => MapEntry(
+        initialization as String,
+        (phases as Map<dynamic, dynamic>).map((phase, timing) => MapEntry(
+            phase as String, FirebaseStartupTiming.fromMap(timing)))));
+  }
+
   /// Returns a [FirebaseAppPlatform] by [name].
   ///
   /// Returns the default Firebase app if no [name] is provided and throws a
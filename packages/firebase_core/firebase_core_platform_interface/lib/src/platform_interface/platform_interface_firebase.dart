@@ -50,4 +50,11 @@ abstract class FirebasePlatform extends PlatformInterface {
   FirebaseAppPlatform app([String name = defaultFirebaseAppName]) {
     throw UnimplementedError('app() has not been implemented.');
   }
+
+  /// Returns the timings of the phases of the latest native initializations,
+  /// keyed by the initialization (`initializeCore` or `initializeApp`) and
+  /// then by phase.
+  Future<Map<String, Map<String, FirebaseStartupTiming>>> startupTimings() {
+    throw UnimplementedError('startupTimings() has not been implemented.');
+  }
 }
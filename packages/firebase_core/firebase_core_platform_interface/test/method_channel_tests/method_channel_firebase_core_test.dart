@@ -51,6 +51,16 @@ void main() {
                 'projectId': 'testing',
               },
             };
+          case 'Firebase#startupTimings':
+            return <dynamic, dynamic>{
+              'initializeCore': <dynamic, dynamic>{
+                'getApps': <dynamic, dynamic>{'start': 10, 'duration': 200},
+                'initializeCore': <dynamic, dynamic>{
+                  'start': 0,
+                  'duration': 1500,
+                },
+              },
+            };
           default:
             return null;
         }
@@ -59,6 +69,30 @@ void main() {
       methodCallLog.clear();
     });
 
+    group('.startupTimings()', () {
+      test('should return the native timings', () async {
+        Map<String, Map<String, FirebaseStartupTiming>> timings =
+            await channelPlatform.startupTimings();
+
+        expect(
+          methodCallLog,
+          <Matcher>[
+            isMethodCall('Firebase#startupTimings', arguments: null),
+          ],
+        );
+        expect(timings.keys, ['initializeCore']);
+        expect(
+          timings['initializeCore']['getApps'],
+          FirebaseStartupTiming(
+            start: Duration(microseconds: 10),
+            duration: Duration(microseconds: 200),
+          ),
+        );
+        expect(timings['initializeCore']['initializeCore'].duration,
+            Duration(microseconds: 1500));
+      });
+    });
+
     group('.initializeApp()', () {
       test('should throw if trying to initialize default app', () async {
         try {
@@ -46,6 +46,10 @@ class ImplementsFirebasePlatform implements FirebasePlatform {
 
   @override
   List<FirebaseAppPlatform> get apps => null;
+
+  @override
+  Future<Map<String, Map<String, FirebaseStartupTiming>>> startupTimings() =>
+      null;
 }
 
 class ExtendsFirebasePlatform extends FirebasePlatform {}
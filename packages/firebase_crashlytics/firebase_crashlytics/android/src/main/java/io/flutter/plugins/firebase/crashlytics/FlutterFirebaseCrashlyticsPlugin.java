@@ -31,6 +31,7 @@ import java.util.Objects;
 public class FlutterFirebaseCrashlyticsPlugin
     implements FlutterFirebasePlugin, FlutterPlugin, MethodCallHandler {
   public static final String TAG = "FLTFirebaseCrashlytics";
+  private static final String CHANNEL_NAME = "plugins.flutter.io/firebase_crashlytics";
   private MethodChannel channel;
 
   /** Plugin registration. */
@@ -40,10 +41,9 @@ public class FlutterFirebaseCrashlyticsPlugin
   }
 
   private void initInstance(BinaryMessenger messenger) {
-    String channelName = "plugins.flutter.io/firebase_crashlytics";
-    channel = new MethodChannel(messenger, channelName);
+    channel = new MethodChannel(messenger, CHANNEL_NAME);
     channel.setMethodCallHandler(this);
-    FlutterFirebasePluginRegistry.registerPlugin(channelName, this);
+    FlutterFirebasePluginRegistry.registerPlugin(CHANNEL_NAME, this, messenger);
   }
 
   @Override
@@ -53,6 +53,7 @@ public class FlutterFirebaseCrashlyticsPlugin
 
   @Override
   public void onDetachedFromEngine(@NonNull FlutterPluginBinding binding) {
+    FlutterFirebasePluginRegistry.unregisterPlugin(CHANNEL_NAME, binding.getBinaryMessenger());
     if (channel != null) {
       channel.setMethodCallHandler(null);
       channel = null;
@@ -180,6 +181,7 @@ public class FlutterFirebaseCrashlyticsPlugin
         () -> {
           Boolean enabled = (Boolean) Objects.requireNonNull(arguments.get(Constants.ENABLED));
           FirebaseCrashlytics.getInstance().setCrashlyticsCollectionEnabled(enabled);
+          FlutterFirebasePluginRegistry.pluginConstantsChanged(CHANNEL_NAME, null);
           return new HashMap<String, Object>() {
             {
               put(
@@ -329,6 +331,13 @@ public class FlutterFirebaseCrashlyticsPlugin
             });
   }
 
+  // The collection setting is persisted, it only changes through this plugin or the data
+  // collection setting of the app, which invalidates the constants too.
+  @Override
+  public boolean isPluginConstantsCacheable() {
+    return true;
+  }
+
   @Override
   public Task<Void> didReinitializeFirebaseCore() {
     return Tasks.call(() -> null);
@@ -0,0 +1,145 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.firebase.messaging;
+
+import android.content.Context;
+import android.content.Intent;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import com.google.firebase.messaging.RemoteMessage;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+// Hands background messages to the background isolate, with up to a configurable number of them
+// being handled by Dart at once. Messages sharing a collapse key are handled one at a time, in the
+// order they were received. Messages ready at the same time are sent to Dart in a single batch,
+// each of them freeing its slot and collapse key as soon as Dart finished handling it.
+//
+// Messages are added from the service's work thread, and dispatched from the main thread.
+class FlutterFirebaseMessagingBackgroundDispatcher {
+  private final FlutterFirebaseMessagingBackgroundExecutor executor;
+
+  // Guarded by this dispatcher.
+  private final LinkedList<Intent> pendingMessages = new LinkedList<>();
+  private final Set<String> activeCollapseKeys = new HashSet<>();
+  private int inFlightMessages = 0;
+
+  FlutterFirebaseMessagingBackgroundDispatcher(
+      FlutterFirebaseMessagingBackgroundExecutor executor) {
+    this.executor = executor;
+  }
+
+  // Adds a message to dispatch once the isolate is running and the window allows for it.
+  synchronized void enqueue(Intent intent) {
+    pendingMessages.add(intent);
+  }
+
+  synchronized int getPendingMessageCount() {
+    return pendingMessages.size();
+  }
+
+  // Whether no message is pending or being handled by Dart.
+  synchronized boolean isIdle() {
+    return pendingMessages.isEmpty() && inFlightMessages == 0;
+  }
+
+  // Blocks until fewer than the maximum number of in flight messages are pending or in flight,
+  // so the caller can take on the next message.
+  synchronized void awaitCapacity() throws InterruptedException {
+    while (pendingMessages.size() + inFlightMessages >= getMaxInFlightMessages()) {
+      wait();
+    }
+  }
+
+  // Blocks until every pending message has been handled by Dart.
+  synchronized void awaitIdle() throws InterruptedException {
+    while (!isIdle()) {
+      wait();
+    }
+  }
+
+  // Sends every message that can be dispatched to Dart, in a single batch. Must be called on the
+  // main thread, once the isolate is running.
+  void dispatch() {
+    if (executor.isNotRunning()) {
+      return;
+    }
+
+    final List<Intent> batch = new ArrayList<>();
+    final List<String> batchCollapseKeys = new ArrayList<>();
+
+    synchronized (this) {
+      int capacity = getMaxInFlightMessages() - inFlightMessages;
+      Iterator<Intent> iterator = pendingMessages.iterator();
+
+      while (capacity > 0 && iterator.hasNext()) {
+        Intent intent = iterator.next();
+        String collapseKey = getCollapseKey(intent);
+
+        // A message waits for the previous message with the same collapse key to be handled.
+        if (collapseKey != null && !activeCollapseKeys.add(collapseKey)) {
+          continue;
+        }
+
+        iterator.remove();
+        batch.add(intent);
+        batchCollapseKeys.add(collapseKey);
+        capacity--;
+      }
+
+      if (batch.isEmpty()) {
+        return;
+      }
+
+      inFlightMessages += batch.size();
+    }
+
+    executor.executeDartCallbacksInBackgroundIsolate(
+        batch, (index) -> onMessageHandled(batchCollapseKeys.get(index)));
+  }
+
+  private void onMessageHandled(@Nullable String collapseKey) {
+    synchronized (this) {
+      inFlightMessages--;
+      if (collapseKey != null) {
+        activeCollapseKeys.remove(collapseKey);
+      }
+      notifyAll();
+    }
+
+    // Messages waiting on the window or on a collapse key may be dispatched now.
+    dispatch();
+  }
+
+  @VisibleForTesting
+  int getMaxInFlightMessages() {
+    return Math.max(1, FlutterFirebaseMessagingBackgroundExecutor.getMaxInFlightMessages());
+  }
+
+  // Returns the key messages are ordered by, or null if the message can be handled in any order.
+  @VisibleForTesting
+  @Nullable
+  String getCollapseKey(Intent intent) {
+    RemoteMessage remoteMessage =
+        intent.getParcelableExtra(FlutterFirebaseMessagingUtils.EXTRA_REMOTE_MESSAGE);
+    if (remoteMessage == null) {
+      return null;
+    }
+
+    String collapseKey = remoteMessage.getCollapseKey();
+
+    // Messages sent without a collapse key default to the package name, they are not related.
+    Context context = ContextHolder.getApplicationContext();
+    if (collapseKey != null && context != null && collapseKey.equals(context.getPackageName())) {
+      return null;
+    }
+
+    return collapseKey;
+  }
+}
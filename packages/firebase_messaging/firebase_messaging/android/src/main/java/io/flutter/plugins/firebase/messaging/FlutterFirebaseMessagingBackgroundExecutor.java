@@ -8,7 +8,9 @@ import android.content.Context;
 import android.content.Intent;
 import android.content.SharedPreferences;
 import android.content.res.AssetManager;
+import android.os.SystemClock;
 import android.util.Log;
+import android.util.SparseArray;
 import androidx.annotation.NonNull;
 import com.google.firebase.messaging.RemoteMessage;
 import io.flutter.embedding.engine.FlutterEngine;
@@ -22,11 +24,16 @@ import io.flutter.plugin.common.MethodChannel;
 import io.flutter.plugin.common.MethodChannel.MethodCallHandler;
 import io.flutter.plugin.common.MethodChannel.Result;
 import io.flutter.view.FlutterCallbackInformation;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * An background execution abstraction which handles initializing a background isolate running a
@@ -36,6 +43,11 @@ public class FlutterFirebaseMessagingBackgroundExecutor implements MethodCallHan
   private static final String TAG = "FLTFireBGExecutor";
   private static final String CALLBACK_HANDLE_KEY = "callback_handle";
   private static final String USER_CALLBACK_HANDLE_KEY = "user_callback_handle";
+  private static final String PREWARM_ENABLED_KEY = "prewarm_enabled";
+  private static final String PREWARM_IDLE_TIMEOUT_KEY = "prewarm_idle_timeout";
+  private static final String MAX_IN_FLIGHT_MESSAGES_KEY = "max_in_flight_messages";
+  static final long DEFAULT_PREWARM_IDLE_TIMEOUT_MILLIS = 5 * 60 * 1000;
+  static final int DEFAULT_MAX_IN_FLIGHT_MESSAGES = 1;
 
   private static io.flutter.plugin.common.PluginRegistry.PluginRegistrantCallback
       pluginRegistrantCallback;
@@ -48,6 +60,26 @@ public class FlutterFirebaseMessagingBackgroundExecutor implements MethodCallHan
 
   private FlutterEngine backgroundFlutterEngine;
 
+  // Messages handed to the background isolate that Dart has not finished handling yet.
+  private final AtomicInteger inFlightMessages = new AtomicInteger();
+
+  // Whether the Dart side handles "MessagingBackground#onMessages". Only accessed on main thread.
+  private boolean isBatchingSupported = true;
+
+  // Batches Dart has not finished handling, keyed by their id. Only accessed on main thread.
+  private final SparseArray<PendingBatch> pendingBatches = new SparseArray<>();
+  private int nextBatchId = 0;
+
+  // Startup metrics of the current or last background isolate, in elapsed realtime milliseconds.
+  // Guarded by this executor.
+  private long isolateCreatedAt = -1;
+  private long lastStartupTime = -1;
+  private long timeToFirstHandledMessage = -1;
+  private boolean firstMessageHandled = false;
+  private int isolatesStarted = 0;
+  private int isolatesReleased = 0;
+  private long messagesHandled = 0;
+
   /**
    * Sets the {@code io.flutter.plugin.common.PluginRegistry.PluginRegistrantCallback} used to
    * register plugins with the newly spawned isolate.
@@ -80,11 +112,118 @@ public class FlutterFirebaseMessagingBackgroundExecutor implements MethodCallHan
     return !isCallbackDispatcherReady.get();
   }
 
+  /**
+   * Enables or disables pre-warming of the background isolate. When enabled, the isolate is started
+   * as soon as the messaging service is created or a new token is received, instead of when the
+   * first background message arrives, and released once it has been idle for {@code
+   * idleTimeoutMillis}.
+   */
+  public static void setPrewarmSettings(boolean enabled, long idleTimeoutMillis) {
+    Context context = ContextHolder.getApplicationContext();
+    SharedPreferences prefs =
+        context.getSharedPreferences(FlutterFirebaseMessagingUtils.SHARED_PREFERENCES_KEY, 0);
+    prefs
+        .edit()
+        .putBoolean(PREWARM_ENABLED_KEY, enabled)
+        .putLong(PREWARM_IDLE_TIMEOUT_KEY, idleTimeoutMillis)
+        .apply();
+  }
+
+  /** Returns whether pre-warming of the background isolate is enabled. Disabled by default. */
+  static boolean isPrewarmEnabled() {
+    SharedPreferences prefs =
+        ContextHolder.getApplicationContext()
+            .getSharedPreferences(FlutterFirebaseMessagingUtils.SHARED_PREFERENCES_KEY, 0);
+    return prefs.getBoolean(PREWARM_ENABLED_KEY, false);
+  }
+
+  /** Returns how long a pre-warmed background isolate is kept once idle. 0 keeps it forever. */
+  static long getPrewarmIdleTimeout() {
+    SharedPreferences prefs =
+        ContextHolder.getApplicationContext()
+            .getSharedPreferences(FlutterFirebaseMessagingUtils.SHARED_PREFERENCES_KEY, 0);
+    return prefs.getLong(PREWARM_IDLE_TIMEOUT_KEY, DEFAULT_PREWARM_IDLE_TIMEOUT_MILLIS);
+  }
+
+  /**
+   * Sets how many background messages may be handled by Dart at once. Messages sharing a collapse
+   * key are still handled one at a time, in the order they were received. Defaults to {@value
+   * #DEFAULT_MAX_IN_FLIGHT_MESSAGES}, handling every message one after the other.
+   */
+  public static void setMaxInFlightMessages(int maxInFlightMessages) {
+    Context context = ContextHolder.getApplicationContext();
+    SharedPreferences prefs =
+        context.getSharedPreferences(FlutterFirebaseMessagingUtils.SHARED_PREFERENCES_KEY, 0);
+    prefs.edit().putInt(MAX_IN_FLIGHT_MESSAGES_KEY, Math.max(1, maxInFlightMessages)).apply();
+  }
+
+  /** Returns how many background messages may be handled by Dart at once. */
+  static int getMaxInFlightMessages() {
+    SharedPreferences prefs =
+        ContextHolder.getApplicationContext()
+            .getSharedPreferences(FlutterFirebaseMessagingUtils.SHARED_PREFERENCES_KEY, 0);
+    return prefs.getInt(MAX_IN_FLIGHT_MESSAGES_KEY, DEFAULT_MAX_IN_FLIGHT_MESSAGES);
+  }
+
   private void onInitialized() {
+    synchronized (this) {
+      if (isolateCreatedAt >= 0) {
+        lastStartupTime = SystemClock.elapsedRealtime() - isolateCreatedAt;
+      }
+    }
+
     isCallbackDispatcherReady.set(true);
     FlutterFirebaseMessagingBackgroundService.onInitialized();
   }
 
+  /** Returns the number of messages handed to Dart that it has not finished handling yet. */
+  int getInFlightMessageCount() {
+    return inFlightMessages.get();
+  }
+
+  // Called once Dart finished handling a message, successfully or not.
+  private void onMessageHandled(long receivedAt) {
+    if (inFlightMessages.decrementAndGet() == 0) {
+      FlutterFirebaseMessagingBackgroundService.scheduleIdleRelease();
+    }
+
+    synchronized (this) {
+      messagesHandled++;
+
+      if (!firstMessageHandled) {
+        firstMessageHandled = true;
+        if (receivedAt > 0) {
+          timeToFirstHandledMessage = SystemClock.elapsedRealtime() - receivedAt;
+          Log.i(
+              TAG,
+              "First background message handled "
+                  + timeToFirstHandledMessage
+                  + "ms after receipt.");
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the metrics of the background isolate. Durations are in milliseconds, -1 when unknown.
+   *
+   * @return isolateRunning, isolatesStarted, isolatesReleased, messagesHandled, inFlightMessages,
+   *     lastStartupTime (from creating the engine until the isolate was ready) and
+   *     timeToFirstHandledMessage (from receiving the first message handled by the current or last
+   *     isolate until Dart finished handling it).
+   */
+  synchronized Map<String, Object> getMetrics() {
+    Map<String, Object> metrics = new HashMap<>();
+    metrics.put("isolateRunning", !isNotRunning());
+    metrics.put("isolatesStarted", isolatesStarted);
+    metrics.put("isolatesReleased", isolatesReleased);
+    metrics.put("messagesHandled", messagesHandled);
+    metrics.put("inFlightMessages", inFlightMessages.get());
+    metrics.put("lastStartupTime", lastStartupTime);
+    metrics.put("timeToFirstHandledMessage", timeToFirstHandledMessage);
+    return metrics;
+  }
+
   @Override
   public void onMethodCall(MethodCall call, @NonNull Result result) {
     String method = call.method;
@@ -96,6 +235,11 @@ public class FlutterFirebaseMessagingBackgroundExecutor implements MethodCallHan
         // the Dart methods corresponding to those callback handles.
         onInitialized();
         result.success(true);
+      } else if (method.equals("MessagingBackground#messageHandled")) {
+        onBatchMessageHandled(
+            (int) Objects.requireNonNull(call.argument("batchId")),
+            (int) Objects.requireNonNull(call.argument("index")));
+        result.success(null);
       } else {
         result.notImplemented();
       }
@@ -175,6 +319,12 @@ public class FlutterFirebaseMessagingBackgroundExecutor implements MethodCallHan
         Log.i(TAG, "Creating background FlutterEngine instance.");
         backgroundFlutterEngine = new FlutterEngine(context);
       }
+      synchronized (this) {
+        isolateCreatedAt = SystemClock.elapsedRealtime();
+        firstMessageHandled = false;
+        isolatesStarted++;
+      }
+
       // We need to create an instance of `FlutterEngine` before looking up the
       // callback. If we don't, the callback cache won't be initialized and the
       // lookup will fail.
@@ -194,6 +344,33 @@ public class FlutterFirebaseMessagingBackgroundExecutor implements MethodCallHan
     }
   }
 
+  /**
+   * Stops the background isolate and destroys its {@link FlutterEngine}, for example once a
+   * pre-warmed isolate has been idle for too long. It is started again when needed. Must be called
+   * on the main thread.
+   */
+  public void stopBackgroundIsolate() {
+    if (backgroundFlutterEngine == null) {
+      return;
+    }
+
+    Log.i(TAG, "Destroying background FlutterEngine instance.");
+    isCallbackDispatcherReady.set(false);
+    backgroundChannel.setMethodCallHandler(null);
+    backgroundChannel = null;
+    backgroundFlutterEngine.destroy();
+    backgroundFlutterEngine = null;
+
+    synchronized (this) {
+      isolatesReleased++;
+    }
+  }
+
+  /** Returns true once a background isolate was started, even if it is not ready yet. */
+  boolean isStarted() {
+    return backgroundFlutterEngine != null;
+  }
+
   boolean isDartBackgroundHandlerRegistered() {
     return getPluginCallbackHandle() != 0;
   }
@@ -205,55 +382,187 @@ public class FlutterFirebaseMessagingBackgroundExecutor implements MethodCallHan
    * corresponds to a callback registered with the Dart VM.
    */
   public void executeDartCallbackInBackgroundIsolate(Intent intent, final CountDownLatch latch) {
+    executeDartCallbacksInBackgroundIsolate(
+        Collections.singletonList(intent),
+        (index) -> {
+          // If another thread is waiting, then wake that thread when the callback returns a
+          // result.
+          if (latch != null) {
+            latch.countDown();
+          }
+        });
+  }
+
+  // Called on the main thread once Dart finished handling a message, successfully or not, with the
+  // index of the message in the list of intents it was handed with.
+  interface MessageHandledCallback {
+    void onMessageHandled(int index);
+  }
+
+  // The messages of a "MessagingBackground#onMessages" batch Dart has not finished handling yet.
+  // Each of them is completed once, when Dart reports it as handled or when the batch completes.
+  private class PendingBatch {
+    private final List<Integer> indexes;
+    private final List<Long> receivedAt;
+    private final boolean[] handled;
+    private final MessageHandledCallback callback;
+
+    PendingBatch(List<Integer> indexes, List<Long> receivedAt, MessageHandledCallback callback) {
+      this.indexes = indexes;
+      this.receivedAt = receivedAt;
+      this.handled = new boolean[indexes.size()];
+      this.callback = callback;
+    }
+
+    void complete(int position) {
+      if (position < 0 || position >= handled.length || handled[position]) {
+        return;
+      }
+
+      handled[position] = true;
+      onMessageHandled(receivedAt.get(position));
+      callback.onMessageHandled(indexes.get(position));
+    }
+
+    void completeAll() {
+      for (int i = 0; i < handled.length; i++) {
+        complete(i);
+      }
+    }
+  }
+
+  /**
+   * Executes the desired Dart callback in a background Dart isolate for several messages at once.
+   * More than one message is sent with a single "MessagingBackground#onMessages" call, Dart handles
+   * them concurrently and reports each of them with "MessagingBackground#messageHandled" as soon as
+   * it is handled.
+   *
+   * @param intents The intents of the messages to handle.
+   * @param callback Called once for every message, as soon as Dart finished handling it.
+   */
+  void executeDartCallbacksInBackgroundIsolate(
+      final List<Intent> intents, final MessageHandledCallback callback) {
     if (backgroundFlutterEngine == null) {
       Log.i(
           TAG,
           "A background message could not be handled in Dart as no onBackgroundMessage handler has been registered.");
+      for (int i = 0; i < intents.size(); i++) {
+        callback.onMessageHandled(i);
+      }
       return;
     }
 
-    Result result = null;
-    if (latch != null) {
-      result =
-          new Result() {
-            @Override
-            public void success(Object result) {
-              // If another thread is waiting, then wake that thread when the callback returns a result.
-              latch.countDown();
-            }
-
-            @Override
-            public void error(String errorCode, String errorMessage, Object errorDetails) {
-              latch.countDown();
-            }
-
-            @Override
-            public void notImplemented() {
-              latch.countDown();
-            }
-          };
+    final List<Intent> messageIntents = new ArrayList<>();
+    final List<Map<String, Object>> remoteMessageMaps = new ArrayList<>();
+    final List<Integer> indexes = new ArrayList<>();
+    final List<Long> receivedAt = new ArrayList<>();
+    for (int i = 0; i < intents.size(); i++) {
+      Intent intent = intents.get(i);
+      RemoteMessage remoteMessage =
+          intent.getParcelableExtra(FlutterFirebaseMessagingUtils.EXTRA_REMOTE_MESSAGE);
+      if (remoteMessage != null) {
+        messageIntents.add(intent);
+        remoteMessageMaps.add(FlutterFirebaseMessagingUtils.remoteMessageToMap(remoteMessage));
+        indexes.add(i);
+        receivedAt.add(intent.getLongExtra(FlutterFirebaseMessagingUtils.EXTRA_RECEIVED_AT, 0));
+      } else {
+        Log.e(TAG, "RemoteMessage instance not found in Intent.");
+        callback.onMessageHandled(i);
+      }
+    }
+
+    if (remoteMessageMaps.isEmpty()) {
+      return;
+    }
+
+    inFlightMessages.addAndGet(remoteMessageMaps.size());
+
+    // Handle the message events in Dart.
+    if (remoteMessageMaps.size() == 1 || !isBatchingSupported) {
+      for (int i = 0; i < remoteMessageMaps.size(); i++) {
+        final int index = indexes.get(i);
+        final long messageReceivedAt = receivedAt.get(i);
+        Map<String, Object> arguments = new HashMap<>();
+        arguments.put("message", remoteMessageMaps.get(i));
+        invokeBackgroundChannel(
+            "MessagingBackground#onMessage",
+            arguments,
+            (notImplemented) -> {
+              onMessageHandled(messageReceivedAt);
+              callback.onMessageHandled(index);
+            });
+      }
+      return;
     }
 
-    // Handle the message event in Dart.
-    RemoteMessage remoteMessage =
-        intent.getParcelableExtra(FlutterFirebaseMessagingUtils.EXTRA_REMOTE_MESSAGE);
-    if (remoteMessage != null) {
-      Map<String, Object> remoteMessageMap =
-          FlutterFirebaseMessagingUtils.remoteMessageToMap(remoteMessage);
-      backgroundChannel.invokeMethod(
-          "MessagingBackground#onMessage",
-          new HashMap<String, Object>() {
-            {
-              put("userCallbackHandle", getUserCallbackHandle());
-              put("message", remoteMessageMap);
-            }
-          },
-          result);
-    } else {
-      Log.e(TAG, "RemoteMessage instance not found in Intent.");
+    final int batchId = nextBatchId++;
+    final PendingBatch batch = new PendingBatch(indexes, receivedAt, callback);
+    pendingBatches.put(batchId, batch);
+
+    Map<String, Object> arguments = new HashMap<>();
+    arguments.put("messages", remoteMessageMaps);
+    arguments.put("batchId", batchId);
+    invokeBackgroundChannel(
+        "MessagingBackground#onMessages",
+        arguments,
+        (notImplemented) -> {
+          pendingBatches.remove(batchId);
+
+          // The Dart side predates batching, send the messages one at a time instead.
+          if (notImplemented) {
+            Log.i(TAG, "Background messages batching is not supported by Dart, disabling it.");
+            isBatchingSupported = false;
+            inFlightMessages.addAndGet(-remoteMessageMaps.size());
+            executeDartCallbacksInBackgroundIsolate(
+                messageIntents, (index) -> callback.onMessageHandled(indexes.get(index)));
+            return;
+          }
+
+          // Dart versions which don't report messages individually complete them all at once.
+          batch.completeAll();
+        });
+  }
+
+  // Completes a message of a batch Dart reported as handled before the rest of the batch.
+  private void onBatchMessageHandled(int batchId, int position) {
+    PendingBatch batch = pendingBatches.get(batchId);
+    if (batch != null) {
+      batch.complete(position);
     }
   }
 
+  // Called with whether Dart does not implement the invoked method. Older callback dispatchers
+  // throw
+  // an UnimplementedError for unknown methods, which is sent back as an error.
+  private interface BackgroundChannelCallback {
+    void onComplete(boolean notImplemented);
+  }
+
+  private void invokeBackgroundChannel(
+      String method, Map<String, Object> arguments, final BackgroundChannelCallback callback) {
+    arguments.put("userCallbackHandle", getUserCallbackHandle());
+    backgroundChannel.invokeMethod(
+        method,
+        arguments,
+        new Result() {
+          @Override
+          public void success(Object result) {
+            callback.onComplete(false);
+          }
+
+          @Override
+          public void error(String errorCode, String errorMessage, Object errorDetails) {
+            callback.onComplete(
+                errorMessage != null && errorMessage.startsWith("UnimplementedError"));
+          }
+
+          @Override
+          public void notImplemented() {
+            callback.onComplete(true);
+          }
+        });
+  }
+
   /**
    * Get the users registered Dart callback handle for background messaging. Returns 0 if not set.
    */
@@ -4,31 +4,47 @@
 
 package io.flutter.plugins.firebase.messaging;
 
+import static io.flutter.plugins.firebase.core.FlutterFirebasePlugin.cachedThreadPool;
+
 import android.content.Context;
 import android.content.Intent;
 import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.core.app.JobIntentService;
 import io.flutter.embedding.engine.FlutterShellArgs;
-import java.util.Collections;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.concurrent.CountDownLatch;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class FlutterFirebaseMessagingBackgroundService extends JobIntentService {
   private static final String TAG = "FLTFireMsgService";
 
-  private static final List<Intent> messagingQueue =
-      Collections.synchronizedList(new LinkedList<>());
-
   /** Background Dart execution context. */
   private static FlutterFirebaseMessagingBackgroundExecutor flutterBackgroundExecutor;
 
+  // Hands the messages to the background isolate, a few at a time.
+  private static FlutterFirebaseMessagingBackgroundDispatcher dispatcher;
+
+  // Work enqueued by and started by this process. While more work is enqueued than started,
+  // onHandleWork only waits for room in the in-flight window rather than for every message to be
+  // handled, so the job doesn't complete with messages still being handled by Dart.
+  private static final AtomicLong enqueuedWork = new AtomicLong();
+  private static final AtomicLong startedWork = new AtomicLong();
+
+  // Messages being handed over to the background isolate by onHandleWork. A pre-warmed isolate is
+  // only released once there are none, none are queued and Dart is not handling any.
+  private static final AtomicInteger pendingMessages = new AtomicInteger();
+  private static final Runnable releaseIdleIsolate =
+      FlutterFirebaseMessagingBackgroundService::releaseIdleIsolate;
+  private static Handler mainHandler;
+
   /**
    * Schedule the message to be handled by the {@link FlutterFirebaseMessagingBackgroundService}.
    */
   public static void enqueueMessageProcessing(Context context, Intent messageIntent) {
+    enqueuedWork.incrementAndGet();
     enqueueWork(
         context,
         FlutterFirebaseMessagingBackgroundService.class,
@@ -50,14 +66,153 @@ public class FlutterFirebaseMessagingBackgroundService extends JobIntentService
    */
   @SuppressWarnings("JavadocReference")
   public static void startBackgroundIsolate(long callbackHandle, FlutterShellArgs shellArgs) {
-    if (flutterBackgroundExecutor != null) {
+    // A pre-warmed isolate released while idle may be started again.
+    if (flutterBackgroundExecutor != null && flutterBackgroundExecutor.isStarted()) {
       Log.w(TAG, "Attempted to start a duplicate background isolate. Returning...");
       return;
     }
-    flutterBackgroundExecutor = new FlutterFirebaseMessagingBackgroundExecutor();
+    if (flutterBackgroundExecutor == null) {
+      flutterBackgroundExecutor = new FlutterFirebaseMessagingBackgroundExecutor();
+    }
     flutterBackgroundExecutor.startBackgroundIsolate(callbackHandle, shellArgs);
   }
 
+  /**
+   * Enables or disables pre-warming of the background isolate.
+   *
+   * <p>When enabled, the background isolate is started as soon as the messaging service is created
+   * or a new token is received, rather than when the first background message arrives, saving the
+   * isolate startup time on that message. A pre-warmed isolate is released once it has been idle
+   * for {@code idleTimeoutMillis}, 0 keeps it until the process ends.
+   *
+   * <p>The setting is persisted, so it also applies when the process is started for a message.
+   */
+  public static void setPrewarmSettings(boolean enabled, long idleTimeoutMillis) {
+    FlutterFirebaseMessagingBackgroundExecutor.setPrewarmSettings(enabled, idleTimeoutMillis);
+  }
+
+  /**
+   * Sets how many background messages may be handled by the background isolate at once, 1 by
+   * default. Messages sharing a collapse key are still handled one at a time, in the order they
+   * were received. Messages ready to be handled at the same time are delivered to Dart together.
+   *
+   * <p>The setting is persisted, so it also applies when the process is started for a message.
+   */
+  public static void setMaxInFlightMessages(int maxInFlightMessages) {
+    FlutterFirebaseMessagingBackgroundExecutor.setMaxInFlightMessages(maxInFlightMessages);
+  }
+
+  /**
+   * Starts the background isolate ahead of the first background message, if pre-warming is enabled
+   * and a background message handler was registered. Can be called from any thread.
+   *
+   * <p>The service calls this on the main thread as it is created, so the settings are read on the
+   * thread pool. This loads the shared preferences, so the later reads on the main thread don't
+   * access the disk.
+   */
+  /* package */
+  static void prewarmBackgroundIsolate() {
+    cachedThreadPool.execute(
+        () -> {
+          if (!FlutterFirebaseMessagingBackgroundExecutor.isPrewarmEnabled()) {
+            return;
+          }
+
+          getMainHandler()
+              .post(
+                  () -> {
+                    if (flutterBackgroundExecutor == null) {
+                      flutterBackgroundExecutor = new FlutterFirebaseMessagingBackgroundExecutor();
+                    }
+
+                    if (!flutterBackgroundExecutor.isDartBackgroundHandlerRegistered()) {
+                      return;
+                    }
+
+                    if (!flutterBackgroundExecutor.isStarted()) {
+                      Log.i(TAG, "Pre-warming the background isolate.");
+                      flutterBackgroundExecutor.startBackgroundIsolate();
+                    }
+                    scheduleIdleRelease();
+                  });
+        });
+  }
+
+  /**
+   * Returns the metrics of the background isolate along with the pre-warm settings. See {@link
+   * FlutterFirebaseMessagingBackgroundExecutor#getMetrics()}.
+   */
+  /* package */
+  static Map<String, Object> getMetrics() {
+    if (flutterBackgroundExecutor == null) {
+      flutterBackgroundExecutor = new FlutterFirebaseMessagingBackgroundExecutor();
+    }
+
+    Map<String, Object> metrics = flutterBackgroundExecutor.getMetrics();
+    metrics.put("prewarmEnabled", FlutterFirebaseMessagingBackgroundExecutor.isPrewarmEnabled());
+    metrics.put(
+        "prewarmIdleTimeout", FlutterFirebaseMessagingBackgroundExecutor.getPrewarmIdleTimeout());
+    metrics.put("queuedMessages", getDispatcher().getPendingMessageCount());
+    metrics.put(
+        "maxInFlightMessages", FlutterFirebaseMessagingBackgroundExecutor.getMaxInFlightMessages());
+    return metrics;
+  }
+
+  private static synchronized FlutterFirebaseMessagingBackgroundDispatcher getDispatcher() {
+    if (dispatcher == null) {
+      if (flutterBackgroundExecutor == null) {
+        flutterBackgroundExecutor = new FlutterFirebaseMessagingBackgroundExecutor();
+      }
+      dispatcher = new FlutterFirebaseMessagingBackgroundDispatcher(flutterBackgroundExecutor);
+    }
+    return dispatcher;
+  }
+
+  private static synchronized Handler getMainHandler() {
+    if (mainHandler == null) {
+      mainHandler = new Handler(Looper.getMainLooper());
+    }
+    return mainHandler;
+  }
+
+  // (Re)starts the idle timeout of a pre-warmed isolate. Without pre-warming the isolate is kept.
+  /* package */
+  static void scheduleIdleRelease() {
+    if (!FlutterFirebaseMessagingBackgroundExecutor.isPrewarmEnabled()) {
+      return;
+    }
+
+    long idleTimeout = FlutterFirebaseMessagingBackgroundExecutor.getPrewarmIdleTimeout();
+    if (idleTimeout <= 0) {
+      return;
+    }
+
+    Handler handler = getMainHandler();
+    handler.removeCallbacks(releaseIdleIsolate);
+    handler.postDelayed(releaseIdleIsolate, idleTimeout);
+  }
+
+  // Runs on the main thread. Holding the dispatcher lock keeps onHandleWork from queuing a message
+  // for the isolate being released, it starts a new isolate for the message instead.
+  private static void releaseIdleIsolate() {
+    if (flutterBackgroundExecutor == null) {
+      return;
+    }
+
+    FlutterFirebaseMessagingBackgroundDispatcher dispatcher = getDispatcher();
+    synchronized (dispatcher) {
+      if (pendingMessages.get() > 0
+          || !dispatcher.isIdle()
+          || flutterBackgroundExecutor.getInFlightMessageCount() > 0) {
+        // Scheduled again once the messages are handled.
+        return;
+      }
+
+      Log.i(TAG, "Releasing the idle background isolate.");
+      flutterBackgroundExecutor.stopBackgroundIsolate();
+    }
+  }
+
   /**
    * Called once the Dart isolate ({@code flutterBackgroundExecutor}) has finished initializing.
    *
@@ -68,14 +223,9 @@ public class FlutterFirebaseMessagingBackgroundService extends JobIntentService
   /* package */
   static void onInitialized() {
     Log.i(TAG, "FlutterFirebaseMessagingBackgroundService started!");
-    synchronized (messagingQueue) {
-      // Handle all the message events received before the Dart isolate was
-      // initialized, then clear the queue.
-      for (Intent intent : messagingQueue) {
-        flutterBackgroundExecutor.executeDartCallbackInBackgroundIsolate(intent, null);
-      }
-      messagingQueue.clear();
-    }
+    // Handle the message events received before the Dart isolate was initialized.
+    getDispatcher().dispatch();
+    scheduleIdleRelease();
   }
 
   /**
@@ -126,15 +276,17 @@ public class FlutterFirebaseMessagingBackgroundService extends JobIntentService
    * <p>Invoked by our {@link JobIntentService} superclass after a call to {@link
    * JobIntentService#enqueueWork(Context, Class, int, Intent);}.
    *
-   * <p>If there are no pre-existing callback execution requests, other than the incoming {@code
-   * intent}, then the desired Dart callback is invoked immediately.
+   * <p>The incoming {@code intent} is handed to the {@link #dispatcher}, which invokes the desired
+   * Dart callback once the isolate is running and fewer than the maximum number of in flight
+   * messages are being handled, after any previous message with the same collapse key.
    *
-   * <p>If there are any pre-existing callback requests that have yet to be executed, the incoming
-   * {@code intent} is added to the {@link #messagingQueue} to be invoked later, after all
-   * pre-existing callbacks have been executed.
+   * <p>Returns once there is room for another message if more work is enqueued, otherwise once
+   * every message has been handled.
    */
   @Override
   protected void onHandleWork(@NonNull final Intent intent) {
+    startedWork.incrementAndGet();
+
     if (!flutterBackgroundExecutor.isDartBackgroundHandlerRegistered()) {
       Log.w(
           TAG,
@@ -142,27 +294,39 @@ public class FlutterFirebaseMessagingBackgroundService extends JobIntentService
       return;
     }
 
-    // If we're in the middle of processing queued messages, add the incoming
-    // intent to the queue and return.
-    synchronized (messagingQueue) {
+    pendingMessages.incrementAndGet();
+    getMainHandler().removeCallbacks(releaseIdleIsolate);
+
+    try {
+      final FlutterFirebaseMessagingBackgroundDispatcher dispatcher = getDispatcher();
+      dispatcher.enqueue(intent);
+
       if (flutterBackgroundExecutor.isNotRunning()) {
         Log.i(TAG, "Service has not yet started, messages will be queued.");
-        messagingQueue.add(intent);
-        return;
       }
-    }
 
-    // There were no pre-existing callback requests. Execute the callback
-    // specified by the incoming intent.
-    final CountDownLatch latch = new CountDownLatch(1);
-    new Handler(getMainLooper())
-        .post(
-            () -> flutterBackgroundExecutor.executeDartCallbackInBackgroundIsolate(intent, latch));
+      getMainHandler()
+          .post(
+              () -> {
+                // A pre-warmed isolate may have been released while idle.
+                if (!flutterBackgroundExecutor.isStarted()) {
+                  flutterBackgroundExecutor.startBackgroundIsolate();
+                }
+                dispatcher.dispatch();
+              });
 
-    try {
-      latch.await();
-    } catch (InterruptedException ex) {
-      Log.i(TAG, "Exception waiting to execute Dart callback", ex);
+      try {
+        if (startedWork.get() < enqueuedWork.get()) {
+          dispatcher.awaitCapacity();
+        } else {
+          dispatcher.awaitIdle();
+        }
+      } catch (InterruptedException ex) {
+        Log.i(TAG, "Exception waiting to execute Dart callback", ex);
+      }
+    } finally {
+      pendingMessages.decrementAndGet();
+      scheduleIdleRelease();
     }
   }
 }
@@ -0,0 +1,98 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.firebase.messaging;
+
+import android.os.SystemClock;
+import androidx.annotation.Nullable;
+import com.google.firebase.messaging.RemoteMessage;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Keeps the most recently used notification messages in memory, so a notification opening the app
+// can be resolved without reading the disk. Messages are evicted once there are more than
+// maxSize of them, least recently used first, or once they are older than maxAgeMillis. Evicted
+// messages can still be read from FlutterFirebaseMessagingStore.
+//
+// Accessed from the receiver on the main thread and from the plugin's thread pool.
+class FlutterFirebaseMessagingCache {
+  private final int maxSize;
+  private final long maxAgeMillis;
+
+  // Guarded by this cache. Iterates from the least to the most recently used message.
+  private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private long hits = 0;
+  private long misses = 0;
+  private long sizeEvictions = 0;
+  private long ageEvictions = 0;
+
+  private static final class Entry {
+    final RemoteMessage remoteMessage;
+    final long storedAt;
+
+    Entry(RemoteMessage remoteMessage, long storedAt) {
+      this.remoteMessage = remoteMessage;
+      this.storedAt = storedAt;
+    }
+  }
+
+  FlutterFirebaseMessagingCache(int maxSize, long maxAgeMillis) {
+    this.maxSize = maxSize;
+    this.maxAgeMillis = maxAgeMillis;
+  }
+
+  synchronized void put(String messageId, RemoteMessage remoteMessage) {
+    long now = SystemClock.elapsedRealtime();
+    entries.put(messageId, new Entry(remoteMessage, now));
+    evict(now);
+  }
+
+  @Nullable
+  synchronized RemoteMessage get(String messageId) {
+    evict(SystemClock.elapsedRealtime());
+
+    Entry entry = entries.get(messageId);
+    if (entry == null) {
+      misses++;
+      return null;
+    }
+
+    hits++;
+    return entry.remoteMessage;
+  }
+
+  synchronized void remove(String messageId) {
+    entries.remove(messageId);
+  }
+
+  // Returns the number of cached messages, along with the hit, miss and eviction counters.
+  synchronized Map<String, Object> getMetrics() {
+    Map<String, Object> metrics = new HashMap<>();
+    metrics.put("size", entries.size());
+    metrics.put("maxSize", maxSize);
+    metrics.put("maxAge", maxAgeMillis);
+    metrics.put("hits", hits);
+    metrics.put("misses", misses);
+    metrics.put("sizeEvictions", sizeEvictions);
+    metrics.put("ageEvictions", ageEvictions);
+    return metrics;
+  }
+
+  // Visits every entry, as messages are ordered by use rather than age. There are few of them.
+  private void evict(long now) {
+    Iterator<Entry> iterator = entries.values().iterator();
+    while (iterator.hasNext()) {
+      Entry entry = iterator.next();
+      if (entries.size() > maxSize) {
+        sizeEvictions++;
+        iterator.remove();
+      } else if (now - entry.storedAt > maxAgeMillis) {
+        ageEvictions++;
+        iterator.remove();
+      }
+    }
+  }
+}
@@ -5,12 +5,15 @@
 package io.flutter.plugins.firebase.messaging;
 
 import static io.flutter.plugins.firebase.core.FlutterFirebasePluginRegistry.registerPlugin;
+import static io.flutter.plugins.firebase.core.FlutterFirebasePluginRegistry.unregisterPlugin;
 
 import android.app.Activity;
 import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
 import android.content.IntentFilter;
+import android.os.Handler;
+import android.os.Looper;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.localbroadcastmanager.content.LocalBroadcastManager;
@@ -45,7 +48,10 @@ public class FlutterFirebaseMessagingPlugin extends BroadcastReceiver
         FlutterPlugin,
         ActivityAware {
 
+  private static final String CHANNEL_NAME = "plugins.flutter.io/firebase_messaging";
+
   private final HashMap<String, Boolean> consumedInitialMessages = new HashMap<>();
+  private final Handler mainThreadHandler = new Handler(Looper.getMainLooper());
   private MethodChannel channel;
   private Activity mainActivity;
   private RemoteMessage initialMessage;
@@ -59,8 +65,7 @@ public class FlutterFirebaseMessagingPlugin extends BroadcastReceiver
   }
 
   private void initInstance(BinaryMessenger messenger) {
-    String channelName = "plugins.flutter.io/firebase_messaging";
-    channel = new MethodChannel(messenger, channelName);
+    channel = new MethodChannel(messenger, CHANNEL_NAME);
     channel.setMethodCallHandler(this);
 
     // Register broadcast receiver
@@ -71,7 +76,7 @@ public class FlutterFirebaseMessagingPlugin extends BroadcastReceiver
         LocalBroadcastManager.getInstance(ContextHolder.getApplicationContext());
     manager.registerReceiver(this, intentFilter);
 
-    registerPlugin(channelName, this);
+    registerPlugin(CHANNEL_NAME, this, messenger);
   }
 
   private void onAttachedToEngine(Context context, BinaryMessenger binaryMessenger) {
@@ -89,6 +94,7 @@ public class FlutterFirebaseMessagingPlugin extends BroadcastReceiver
 
   @Override
   public void onDetachedFromEngine(@NonNull FlutterPluginBinding binding) {
+    unregisterPlugin(CHANNEL_NAME, binding.getBinaryMessenger());
     LocalBroadcastManager.getInstance(ContextHolder.getApplicationContext())
         .unregisterReceiver(this);
   }
@@ -227,6 +233,42 @@ public class FlutterFirebaseMessagingPlugin extends BroadcastReceiver
         });
   }
 
+  private Task<Void> setBackgroundIsolatePrewarm(Map<String, Object> arguments) {
+    return Tasks.call(
+        cachedThreadPool,
+        () -> {
+          boolean enabled = (boolean) Objects.requireNonNull(arguments.get("enabled"));
+          Number idleTimeout = (Number) arguments.get("idleTimeout");
+          FlutterFirebaseMessagingBackgroundService.setPrewarmSettings(
+              enabled,
+              idleTimeout != null
+                  ? idleTimeout.longValue()
+                  : FlutterFirebaseMessagingBackgroundExecutor.DEFAULT_PREWARM_IDLE_TIMEOUT_MILLIS);
+          return null;
+        });
+  }
+
+  private Task<Void> setBackgroundMessageConcurrency(Map<String, Object> arguments) {
+    return Tasks.call(
+        cachedThreadPool,
+        () -> {
+          Number maxInFlight = (Number) Objects.requireNonNull(arguments.get("maxInFlight"));
+          FlutterFirebaseMessagingBackgroundService.setMaxInFlightMessages(maxInFlight.intValue());
+          return null;
+        });
+  }
+
+  private Task<Map<String, Object>> getBackgroundMetrics() {
+    return Tasks.call(
+        cachedThreadPool,
+        () -> {
+          Map<String, Object> metrics = FlutterFirebaseMessagingBackgroundService.getMetrics();
+          metrics.put(
+              "notificationCache", FlutterFirebaseMessagingStore.getInstance().getCacheMetrics());
+          return metrics;
+        });
+  }
+
   private Task<Map<String, Object>> getInitialMessage(Map<String, Object> arguments) {
     return Tasks.call(
         cachedThreadPool,
@@ -257,15 +299,10 @@ public class FlutterFirebaseMessagingPlugin extends BroadcastReceiver
             return null;
           }
 
+          // The store checks for a copy of the remote message in memory before the disk.
           RemoteMessage remoteMessage =
-              FlutterFirebaseMessagingReceiver.notifications.get(messageId);
-
-          // If we can't find a copy of the remote message in memory then check from our persisted store.
-          if (remoteMessage == null) {
-            remoteMessage =
-                FlutterFirebaseMessagingStore.getInstance().getFirebaseMessage(messageId);
-            FlutterFirebaseMessagingStore.getInstance().removeFirebaseMessage(messageId);
-          }
+              FlutterFirebaseMessagingStore.getInstance().getFirebaseMessage(messageId);
+          FlutterFirebaseMessagingStore.getInstance().removeFirebaseMessage(messageId);
 
           if (remoteMessage == null) {
             return null;
@@ -307,6 +344,15 @@ public class FlutterFirebaseMessagingPlugin extends BroadcastReceiver
             pluginCallbackHandle, shellArgs);
         methodCallTask = Tasks.forResult(null);
         break;
+      case "Messaging#setBackgroundIsolatePrewarm":
+        methodCallTask = setBackgroundIsolatePrewarm(call.arguments());
+        break;
+      case "Messaging#setBackgroundMessageConcurrency":
+        methodCallTask = setBackgroundMessageConcurrency(call.arguments());
+        break;
+      case "Messaging#getBackgroundMetrics":
+        methodCallTask = getBackgroundMetrics();
+        break;
       case "Messaging#getInitialMessage":
         methodCallTask = getInitialMessage(call.arguments());
         break;
@@ -372,27 +418,48 @@ public class FlutterFirebaseMessagingPlugin extends BroadcastReceiver
       return false;
     }
 
-    RemoteMessage remoteMessage = FlutterFirebaseMessagingReceiver.notifications.get(messageId);
+    // Check for a copy of the remote message in memory before the disk. Note we don't remove it
+    // here as the user may still call getInitialMessage.
+    FlutterFirebaseMessagingStore store = FlutterFirebaseMessagingStore.getInstance();
+    RemoteMessage remoteMessage = store.getCachedFirebaseMessage(messageId);
 
-    // If we can't find a copy of the remote message in memory then check from our persisted store.
     if (remoteMessage == null) {
-      remoteMessage = FlutterFirebaseMessagingStore.getInstance().getFirebaseMessage(messageId);
-      // Note we don't remove it here as the user may still call getInitialMessage.
+      if (!store.isLoaded()) {
+        // The store is still being read from disk, e.g. right after a cold start. The message is
+        // looked up in the background rather than blocking the main thread until it is read.
+        final String storedMessageId = messageId;
+        cachedThreadPool.execute(
+            () -> {
+              RemoteMessage storedMessage = store.getStoredFirebaseMessage(storedMessageId);
+              if (storedMessage != null) {
+                mainThreadHandler.post(() -> onMessageOpenedApp(intent, storedMessage));
+              }
+            });
+        return true;
+      }
+
+      remoteMessage = store.getStoredFirebaseMessage(messageId);
     }
 
     if (remoteMessage == null) {
       return false;
     }
 
+    onMessageOpenedApp(intent, remoteMessage);
+    return true;
+  }
+
+  private void onMessageOpenedApp(Intent intent, RemoteMessage remoteMessage) {
     // Store this message for later use by getInitialMessage.
     initialMessage = remoteMessage;
 
-    FlutterFirebaseMessagingReceiver.notifications.remove(messageId);
     channel.invokeMethod(
         "Messaging#onMessageOpenedApp",
         FlutterFirebaseMessagingUtils.remoteMessageToMap(remoteMessage));
-    mainActivity.setIntent(intent);
-    return true;
+    // The activity may have been detached while the message was looked up.
+    if (mainActivity != null) {
+      mainActivity.setIntent(intent);
+    }
   }
 
   @Override
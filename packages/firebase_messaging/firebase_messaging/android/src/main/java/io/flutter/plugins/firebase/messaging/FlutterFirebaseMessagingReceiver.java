@@ -7,14 +7,13 @@ package io.flutter.plugins.firebase.messaging;
 import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
+import android.os.SystemClock;
 import android.util.Log;
 import androidx.localbroadcastmanager.content.LocalBroadcastManager;
 import com.google.firebase.messaging.RemoteMessage;
-import java.util.HashMap;
 
 public class FlutterFirebaseMessagingReceiver extends BroadcastReceiver {
   private static final String TAG = "FLTFireMsgReceiver";
-  static HashMap<String, RemoteMessage> notifications = new HashMap<>();
 
   @Override
   public void onReceive(Context context, Intent intent) {
@@ -27,7 +26,6 @@ public class FlutterFirebaseMessagingReceiver extends BroadcastReceiver {
 
     // Store the RemoteMessage if the message contains a notification payload.
     if (remoteMessage.getNotification() != null) {
-      notifications.put(remoteMessage.getMessageId(), remoteMessage);
       FlutterFirebaseMessagingStore.getInstance().storeFirebaseMessage(remoteMessage);
     }
 
@@ -48,6 +46,8 @@ public class FlutterFirebaseMessagingReceiver extends BroadcastReceiver {
         new Intent(context, FlutterFirebaseMessagingBackgroundService.class);
     onBackgroundMessageIntent.putExtra(
         FlutterFirebaseMessagingUtils.EXTRA_REMOTE_MESSAGE, remoteMessage);
+    onBackgroundMessageIntent.putExtra(
+        FlutterFirebaseMessagingUtils.EXTRA_RECEIVED_AT, SystemClock.elapsedRealtime());
     FlutterFirebaseMessagingBackgroundService.enqueueMessageProcessing(
         context, onBackgroundMessageIntent);
   }
@@ -11,8 +11,17 @@ import com.google.firebase.messaging.FirebaseMessagingService;
 import com.google.firebase.messaging.RemoteMessage;
 
 public class FlutterFirebaseMessagingService extends FirebaseMessagingService {
+  @Override
+  public void onCreate() {
+    super.onCreate();
+    // The service is created as a message or token arrives, ahead of any background handling.
+    FlutterFirebaseMessagingBackgroundService.prewarmBackgroundIsolate();
+  }
+
   @Override
   public void onNewToken(@NonNull String token) {
+    FlutterFirebaseMessagingBackgroundService.prewarmBackgroundIsolate();
+
     Intent onMessageIntent = new Intent(FlutterFirebaseMessagingUtils.ACTION_TOKEN);
     onMessageIntent.putExtra(FlutterFirebaseMessagingUtils.EXTRA_TOKEN, token);
     LocalBroadcastManager.getInstance(getApplicationContext()).sendBroadcast(onMessageIntent);
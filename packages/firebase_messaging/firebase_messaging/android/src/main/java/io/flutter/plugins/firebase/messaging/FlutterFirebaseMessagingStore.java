@@ -6,26 +6,81 @@ package io.flutter.plugins.firebase.messaging;
 
 import android.content.Context;
 import android.content.SharedPreferences;
+import android.util.Log;
 import com.google.firebase.messaging.RemoteMessage;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+// Persists the last MAX_SIZE_NOTIFICATIONS messages so they can be restored when a notification
+// opens the app after it was killed. The most recently used ones are also kept in memory.
+//
+// Messages are appended to a log file rather than stored in SharedPreferences, which rewrites its
+// whole file on every change. The log is replayed into memory when first used and compacted once
+// it holds more superseded records than live ones. Messages are stored from the main thread, so
+// only the in-memory index is updated there; replaying, appending and compacting run in order on
+// a single background thread. Records are framed as follows, all integers being big endian:
+//
+//   int bodyLength | int crc32(body) | body
+//   body: byte op | int idLength | id (UTF-8) | payload (UTF-8 JSON, only for OP_PUT)
+//
+// A record that is truncated or fails its checksum, e.g. after the process was killed while
+// appending it, ends the replay and is removed from the log along with anything after it.
 public class FlutterFirebaseMessagingStore {
+  private static final String TAG = "FLTFireMsgStore";
   private static final String PREFERENCES_FILE = "io.flutter.plugins.firebase.messaging";
   private static final String KEY_NOTIFICATION_IDS = "notification_ids";
+  private static final String LOG_FILE = "io.flutter.plugins.firebase.messaging.log";
   private static final int MAX_SIZE_NOTIFICATIONS = 20;
+  private static final long MAX_AGE_CACHED_NOTIFICATIONS_MILLIS = 60 * 60 * 1000;
+  private static final int LOG_MAGIC = 0x464d5347; // FMSG
+  private static final int LOG_VERSION = 1;
+  private static final int LOG_HEADER_SIZE = 8;
+  private static final int RECORD_HEADER_SIZE = 8;
+  private static final byte OP_PUT = 1;
+  private static final byte OP_REMOVE = 2;
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
   private static FlutterFirebaseMessagingStore instance;
   private final String DELIMITER = ",";
   private SharedPreferences preferences;
 
-  public static FlutterFirebaseMessagingStore getInstance() {
+  private final FlutterFirebaseMessagingCache cache =
+      new FlutterFirebaseMessagingCache(
+          MAX_SIZE_NOTIFICATIONS, MAX_AGE_CACHED_NOTIFICATIONS_MILLIS);
+
+  // Runs every access to the log file, in the order the index was changed.
+  private final ExecutorService logExecutor = Executors.newSingleThreadExecutor();
+
+  // Messages as JSON, keyed by message id, oldest first. Guarded by this store, along with the
+  // loading state. Messages removed before the log was replayed are kept in removedBeforeLoad, so
+  // the replay doesn't restore them.
+  private final LinkedHashMap<String, String> messages = new LinkedHashMap<>();
+  private final Set<String> removedBeforeLoad = new HashSet<>();
+  private boolean loadStarted = false;
+  private boolean loaded = false;
+
+  // Only accessed on the logExecutor.
+  private FileChannel log;
+  private int logRecords = 0;
+
+  public static synchronized FlutterFirebaseMessagingStore getInstance() {
     if (instance == null) {
       instance = new FlutterFirebaseMessagingStore();
     }
@@ -49,31 +104,49 @@ public class FlutterFirebaseMessagingStore {
     return getPreferences().getString(key, defaultValue);
   }
 
+  // Called on the main thread, the message is written to the log in the background.
   public void storeFirebaseMessage(RemoteMessage remoteMessage) {
     String remoteMessageString =
         new JSONObject(FlutterFirebaseMessagingUtils.remoteMessageToMap(remoteMessage)).toString();
-    setPreferencesStringValue(remoteMessage.getMessageId(), remoteMessageString);
+    String remoteMessageId = remoteMessage.getMessageId();
+    cache.put(remoteMessageId, remoteMessage);
 
-    // Save new notification id.
-    // Note that this is using a comma delimited string to preserve ordering. We could use a String Set
-    // on SharedPreferences but this won't guarantee ordering when we want to remove the oldest added ids.
-    String notifications = getPreferencesStringValue(KEY_NOTIFICATION_IDS, "");
-    notifications += remoteMessage.getMessageId() + DELIMITER; // append to last
+    synchronized (this) {
+      startLoading();
+      // Re-inserted so a message stored again counts as the newest one.
+      messages.remove(remoteMessageId);
+      messages.put(remoteMessageId, remoteMessageString);
+      removedBeforeLoad.remove(remoteMessageId);
+      trimToMaxSize();
+    }
+    logExecutor.execute(() -> append(OP_PUT, remoteMessageId, remoteMessageString));
+  }
 
-    // Check and remove old notification messages.
-    List<String> allNotificationList =
-        new ArrayList<>(Arrays.asList(notifications.split(DELIMITER)));
-    if (allNotificationList.size() > MAX_SIZE_NOTIFICATIONS) {
-      String firstRemoteMessageId = allNotificationList.get(0);
-      getPreferences().edit().remove(firstRemoteMessageId).apply();
-      notifications = notifications.replace(firstRemoteMessageId + DELIMITER, "");
+  // Returns the message from memory if it is cached, otherwise from disk. May block until the log
+  // was replayed, see getStoredFirebaseMessage.
+  public RemoteMessage getFirebaseMessage(String remoteMessageId) {
+    RemoteMessage remoteMessage = cache.get(remoteMessageId);
+    if (remoteMessage != null) {
+      return remoteMessage;
     }
 
-    setPreferencesStringValue(KEY_NOTIFICATION_IDS, notifications);
+    return getStoredFirebaseMessage(remoteMessageId);
   }
 
-  public RemoteMessage getFirebaseMessage(String remoteMessageId) {
-    String remoteMessageString = getPreferencesStringValue(remoteMessageId, null);
+  // Returns the message if it is cached in memory, without touching the disk.
+  public RemoteMessage getCachedFirebaseMessage(String remoteMessageId) {
+    return cache.get(remoteMessageId);
+  }
+
+  // Returns the message from the store, blocking until the log was replayed. Should only be
+  // called on the main thread once isLoaded returns true.
+  public RemoteMessage getStoredFirebaseMessage(String remoteMessageId) {
+    String remoteMessageString;
+    synchronized (this) {
+      awaitLoaded();
+      remoteMessageString = messages.get(remoteMessageId);
+    }
+
     if (remoteMessageString != null) {
       try {
         Map<String, Object> argumentsMap = new HashMap<>(1);
@@ -81,7 +154,10 @@ public class FlutterFirebaseMessagingStore {
         // Add a fake 'to' - as it's required to construct a RemoteMessage instance.
         messageOutMap.put("to", remoteMessageId);
         argumentsMap.put("message", messageOutMap);
-        return FlutterFirebaseMessagingUtils.getRemoteMessageForArguments(argumentsMap);
+        RemoteMessage remoteMessage =
+            FlutterFirebaseMessagingUtils.getRemoteMessageForArguments(argumentsMap);
+        cache.put(remoteMessageId, remoteMessage);
+        return remoteMessage;
       } catch (JSONException e) {
         e.printStackTrace();
       }
@@ -89,12 +165,297 @@ public class FlutterFirebaseMessagingStore {
     return null;
   }
 
+  // Whether the log was replayed, so reading a stored message no longer blocks. Starts replaying
+  // it otherwise.
+  public synchronized boolean isLoaded() {
+    startLoading();
+    return loaded;
+  }
+
   public void removeFirebaseMessage(String remoteMessageId) {
-    getPreferences().edit().remove(remoteMessageId).apply();
-    String notifications = getPreferencesStringValue(KEY_NOTIFICATION_IDS, "");
+    cache.remove(remoteMessageId);
+
+    synchronized (this) {
+      startLoading();
+      boolean removed = messages.remove(remoteMessageId) != null;
+      if (!loaded) {
+        removedBeforeLoad.add(remoteMessageId);
+      } else if (!removed) {
+        return;
+      }
+    }
+    logExecutor.execute(() -> append(OP_REMOVE, remoteMessageId, null));
+  }
+
+  // Returns the metrics of the messages kept in memory, see FlutterFirebaseMessagingCache.
+  Map<String, Object> getCacheMetrics() {
+    return cache.getMetrics();
+  }
+
+  // Drops the oldest messages over the limit. Their records are dropped on the next compaction,
+  // replaying the log applies the same limit in the meantime.
+  private void trimToMaxSize() {
+    trimToMaxSize(messages);
+  }
+
+  private static void trimToMaxSize(LinkedHashMap<String, String> messages) {
+    Iterator<String> iterator = messages.keySet().iterator();
+    while (messages.size() > MAX_SIZE_NOTIFICATIONS && iterator.hasNext()) {
+      iterator.next();
+      iterator.remove();
+    }
+  }
+
+  private File getLogFile() {
+    return new File(ContextHolder.getApplicationContext().getFilesDir(), LOG_FILE);
+  }
+
+  // Queues the replay of the log ahead of any write. Must hold this store.
+  private void startLoading() {
+    if (loadStarted) {
+      return;
+    }
+    loadStarted = true;
+    logExecutor.execute(this::load);
+  }
+
+  // Blocks until the log was replayed into memory. Must hold this store.
+  private void awaitLoaded() {
+    startLoading();
+    boolean interrupted = false;
+    while (!loaded) {
+      try {
+        wait();
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  // Replays the log into memory, migrating the messages stored by previous versions in
+  // SharedPreferences the first time. Runs on the logExecutor.
+  private void load() {
+    File logFile = getLogFile();
+    boolean exists = logFile.exists();
+    LinkedHashMap<String, String> persisted = new LinkedHashMap<>();
+
+    try {
+      log = new RandomAccessFile(logFile, "rw").getChannel();
+      if (exists) {
+        replay(persisted);
+      } else {
+        migrateFromPreferences(persisted);
+      }
+    } catch (IOException e) {
+      Log.e(TAG, "Failed to load the messages store, messages are kept in memory only.", e);
+      closeLog();
+    } finally {
+      merge(persisted);
+    }
+  }
+
+  // Merges the replayed messages into the index. Messages stored in the meantime are more recent,
+  // their records are queued after the replay.
+  private synchronized void merge(LinkedHashMap<String, String> persisted) {
+    for (String remoteMessageId : removedBeforeLoad) {
+      persisted.remove(remoteMessageId);
+    }
+    for (String remoteMessageId : messages.keySet()) {
+      persisted.remove(remoteMessageId);
+    }
+    persisted.putAll(messages);
+    messages.clear();
+    messages.putAll(persisted);
+    removedBeforeLoad.clear();
+    trimToMaxSize();
+
+    loaded = true;
+    notifyAll();
+  }
+
+  private void replay(LinkedHashMap<String, String> messages) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate((int) log.size());
+    while (buffer.hasRemaining() && log.read(buffer, buffer.position()) >= 0) {}
+    buffer.flip();
+
+    if (buffer.remaining() < LOG_HEADER_SIZE
+        || buffer.getInt() != LOG_MAGIC
+        || buffer.getInt() != LOG_VERSION) {
+      Log.w(TAG, "Discarding an unreadable messages store.");
+      compact(messages);
+      return;
+    }
+
+    CRC32 crc = new CRC32();
+    int validLength = buffer.position();
+
+    while (buffer.remaining() >= RECORD_HEADER_SIZE) {
+      int bodyLength = buffer.getInt();
+      int checksum = buffer.getInt();
+      if (bodyLength < 5 || bodyLength > buffer.remaining()) {
+        break;
+      }
+
+      byte[] body = new byte[bodyLength];
+      buffer.get(body);
+      crc.reset();
+      crc.update(body, 0, bodyLength);
+      if ((int) crc.getValue() != checksum) {
+        break;
+      }
+
+      ByteBuffer record = ByteBuffer.wrap(body);
+      byte op = record.get();
+      int idLength = record.getInt();
+      if (idLength < 0 || idLength > record.remaining()) {
+        break;
+      }
+
+      String id = new String(body, record.position(), idLength, UTF_8);
+      int payloadOffset = record.position() + idLength;
+      messages.remove(id);
+      if (op == OP_PUT) {
+        messages.put(id, new String(body, payloadOffset, bodyLength - payloadOffset, UTF_8));
+        trimToMaxSize(messages);
+      }
+
+      logRecords++;
+      validLength = buffer.position();
+    }
+
+    if (validLength < log.size()) {
+      Log.w(TAG, "Discarding a partially written record from the messages store.");
+      log.truncate(validLength);
+    }
+    if (needsCompaction(messages.size())) {
+      compact(messages);
+    }
+  }
+
+  private void migrateFromPreferences(LinkedHashMap<String, String> messages) throws IOException {
+    SharedPreferences preferences = getPreferences();
+    String notifications = preferences.getString(KEY_NOTIFICATION_IDS, "");
+    SharedPreferences.Editor editor = preferences.edit().remove(KEY_NOTIFICATION_IDS);
+
+    for (String remoteMessageId : notifications.split(DELIMITER)) {
+      if (remoteMessageId.isEmpty()) continue;
+      String remoteMessageString = preferences.getString(remoteMessageId, null);
+      if (remoteMessageString != null) {
+        messages.put(remoteMessageId, remoteMessageString);
+      }
+      editor.remove(remoteMessageId);
+    }
+    trimToMaxSize(messages);
+
+    // The preferences are only cleared once the messages are safely in the log.
+    compact(messages);
     if (!notifications.isEmpty()) {
-      notifications = notifications.replace(remoteMessageId + DELIMITER, "");
-      setPreferencesStringValue(KEY_NOTIFICATION_IDS, notifications);
+      editor.apply();
+    }
+  }
+
+  // Runs on the logExecutor.
+  private void append(byte op, String id, String payload) {
+    if (log == null) {
+      return;
+    }
+
+    try {
+      ByteBuffer record = encodeRecord(op, id, payload);
+      long position = log.size();
+      while (record.hasRemaining()) {
+        position += log.write(record, position);
+      }
+      logRecords++;
+
+      // The index may be ahead of the log, the records queued after the compaction are written
+      // again on top of it, which replays to the same messages.
+      LinkedHashMap<String, String> live = null;
+      synchronized (this) {
+        if (needsCompaction(messages.size())) {
+          live = new LinkedHashMap<>(messages);
+        }
+      }
+      if (live != null) {
+        compact(live);
+      }
+    } catch (IOException e) {
+      Log.e(TAG, "Failed to write to the messages store, messages are kept in memory only.", e);
+      closeLog();
+    }
+  }
+
+  private boolean needsCompaction(int liveMessages) {
+    return logRecords > 2 * Math.max(liveMessages, MAX_SIZE_NOTIFICATIONS);
+  }
+
+  // Rewrites the log with only the live messages. The new log is written to a temporary file and
+  // renamed over the current one, so a crash during compaction leaves either log intact. Runs on
+  // the logExecutor.
+  private void compact(Map<String, String> messages) throws IOException {
+    File logFile = getLogFile();
+    File compactedFile = new File(logFile.getPath() + ".tmp");
+
+    RandomAccessFile compacted = new RandomAccessFile(compactedFile, "rw");
+    try {
+      FileChannel channel = compacted.getChannel();
+      channel.truncate(0);
+
+      ByteBuffer header = ByteBuffer.allocate(LOG_HEADER_SIZE);
+      header.putInt(LOG_MAGIC).putInt(LOG_VERSION).flip();
+      writeFully(channel, header);
+      for (Map.Entry<String, String> entry : messages.entrySet()) {
+        writeFully(channel, encodeRecord(OP_PUT, entry.getKey(), entry.getValue()));
+      }
+      channel.force(true);
+    } finally {
+      compacted.close();
+    }
+
+    closeLog();
+    if (!compactedFile.renameTo(logFile)) {
+      throw new IOException("Failed to replace the messages store with its compacted copy.");
+    }
+    log = new RandomAccessFile(logFile, "rw").getChannel();
+    logRecords = messages.size();
+  }
+
+  private void closeLog() {
+    if (log == null) {
+      return;
+    }
+
+    try {
+      log.close();
+    } catch (IOException e) {
+      // Nothing left to write.
+    }
+    log = null;
+  }
+
+  private static ByteBuffer encodeRecord(byte op, String id, String payload) {
+    byte[] idBytes = id.getBytes(UTF_8);
+    byte[] payloadBytes = payload != null ? payload.getBytes(UTF_8) : new byte[0];
+    int bodyLength = 1 + 4 + idBytes.length + payloadBytes.length;
+
+    ByteBuffer buffer = ByteBuffer.allocate(RECORD_HEADER_SIZE + bodyLength);
+    buffer.putInt(bodyLength);
+    buffer.putInt(0); // Checksum, set once the body is written.
+    buffer.put(op).putInt(idBytes.length).put(idBytes).put(payloadBytes);
+
+    CRC32 crc = new CRC32();
+    crc.update(buffer.array(), RECORD_HEADER_SIZE, bodyLength);
+    buffer.putInt(4, (int) crc.getValue());
+    buffer.flip();
+    return buffer;
+  }
+
+  private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
     }
   }
 
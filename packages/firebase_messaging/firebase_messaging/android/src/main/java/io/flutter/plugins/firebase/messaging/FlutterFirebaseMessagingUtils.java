@@ -20,6 +20,7 @@ class FlutterFirebaseMessagingUtils {
   static final String SHARED_PREFERENCES_KEY = "io.flutter.firebase.messaging.callback";
   static final String ACTION_REMOTE_MESSAGE = "io.flutter.plugins.firebase.messaging.NOTIFICATION";
   static final String EXTRA_REMOTE_MESSAGE = "notification";
+  static final String EXTRA_RECEIVED_AT = "receivedAt";
   static final String ACTION_TOKEN = "io.flutter.plugins.firebase.messaging.TOKEN";
   static final String EXTRA_TOKEN = "token";
   static final int JOB_ID = 2020;
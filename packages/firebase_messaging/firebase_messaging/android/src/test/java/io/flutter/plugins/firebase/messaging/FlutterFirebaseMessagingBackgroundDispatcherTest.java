@@ -0,0 +1,129 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.firebase.messaging;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Intent;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+public class FlutterFirebaseMessagingBackgroundDispatcherTest {
+  private final Map<Intent, String> collapseKeys = new IdentityHashMap<>();
+  private final List<Batch> batches = new ArrayList<>();
+  private int maxInFlightMessages = 2;
+
+  // A batch handed to the background isolate, completed by the tests message by message.
+  private static class Batch {
+    final List<Intent> intents;
+    final FlutterFirebaseMessagingBackgroundExecutor.MessageHandledCallback callback;
+
+    Batch(
+        List<Intent> intents,
+        FlutterFirebaseMessagingBackgroundExecutor.MessageHandledCallback callback) {
+      this.intents = intents;
+      this.callback = callback;
+    }
+
+    void handle(Intent intent) {
+      callback.onMessageHandled(intents.indexOf(intent));
+    }
+  }
+
+  private final FlutterFirebaseMessagingBackgroundExecutor executor =
+      new FlutterFirebaseMessagingBackgroundExecutor() {
+        @Override
+        public boolean isNotRunning() {
+          return false;
+        }
+
+        @Override
+        void executeDartCallbacksInBackgroundIsolate(
+            List<Intent> intents, MessageHandledCallback callback) {
+          batches.add(new Batch(intents, callback));
+        }
+      };
+
+  private final FlutterFirebaseMessagingBackgroundDispatcher dispatcher =
+      new FlutterFirebaseMessagingBackgroundDispatcher(executor) {
+        @Override
+        int getMaxInFlightMessages() {
+          return maxInFlightMessages;
+        }
+
+        @Override
+        String getCollapseKey(Intent intent) {
+          return collapseKeys.get(intent);
+        }
+      };
+
+  private Intent enqueue(String collapseKey) {
+    Intent intent = new Intent();
+    collapseKeys.put(intent, collapseKey);
+    dispatcher.enqueue(intent);
+    return intent;
+  }
+
+  @Test
+  public void freesSlotAsSoonAsMessageIsHandled() {
+    Intent first = enqueue(null);
+    Intent second = enqueue(null);
+    Intent third = enqueue(null);
+
+    dispatcher.dispatch();
+    assertEquals(1, batches.size());
+    assertEquals(Arrays.asList(first, second), batches.get(0).intents);
+
+    // The first message is still being handled, the third one takes the slot of the second.
+    batches.get(0).handle(second);
+
+    assertEquals(2, batches.size());
+    assertEquals(Arrays.asList(third), batches.get(1).intents);
+    assertEquals(0, dispatcher.getPendingMessageCount());
+    assertFalse(dispatcher.isIdle());
+  }
+
+  @Test
+  public void releasesCollapseKeyAsSoonAsMessageIsHandled() {
+    maxInFlightMessages = 3;
+    Intent first = enqueue("chat");
+    Intent second = enqueue("chat");
+    Intent unrelated = enqueue(null);
+
+    dispatcher.dispatch();
+    assertEquals(Arrays.asList(first, unrelated), batches.get(0).intents);
+
+    // The unrelated message doesn't release the collapse key of the first one.
+    batches.get(0).handle(unrelated);
+    assertEquals(1, batches.size());
+
+    batches.get(0).handle(first);
+    assertEquals(2, batches.size());
+    assertEquals(Arrays.asList(second), batches.get(1).intents);
+  }
+
+  @Test
+  public void becomesIdleOnceEveryMessageIsHandled() throws InterruptedException {
+    Intent first = enqueue(null);
+    Intent second = enqueue(null);
+
+    dispatcher.dispatch();
+    batches.get(0).handle(first);
+    assertFalse(dispatcher.isIdle());
+
+    batches.get(0).handle(second);
+    assertTrue(dispatcher.isIdle());
+
+    // Returns straight away, every slot is free.
+    dispatcher.awaitIdle();
+    dispatcher.awaitCapacity();
+  }
+}
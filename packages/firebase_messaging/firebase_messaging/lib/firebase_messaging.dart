@@ -19,6 +19,7 @@ export 'package:firebase_messaging_platform_interface/firebase_messaging_platfor
         AppleNotificationSetting,
         AppleNotificationSound,
         AuthorizationStatus,
+        BackgroundMetrics,
         NotificationSettings,
         // ignore: deprecated_member_use, deprecated_member_use_from_same_package
         IosNotificationSettings,
@@ -334,6 +334,43 @@ class FirebaseMessaging extends FirebasePluginPlatform {
     return _delegate.unsubscribeFromTopic(topic);
   }
 
+  /// Enables or disables pre-warming of the isolate running the handler set
+  /// with [onBackgroundMessage]. Android only.
+  ///
+  /// When enabled, the isolate is started as soon as the messaging service is
+  /// created or a new token is received, saving its startup time on the first
+  /// background message. A pre-warmed isolate is released once it has been
+  /// idle for [idleTimeout], 5 minutes by default. [Duration.zero] keeps it
+  /// until the process ends.
+  ///
+  /// The setting is persisted, so it also applies when the app is started for
+  /// a message.
+  Future<void> setBackgroundIsolatePrewarm(bool enabled,
+      {Duration idleTimeout}) {
+    assert(enabled != null);
+    assert(idleTimeout == null || !idleTimeout.isNegative);
+    return _delegate.setBackgroundIsolatePrewarm(enabled,
+        idleTimeout: idleTimeout);
+  }
+
+  /// Sets how many messages the handler set with [onBackgroundMessage] may
+  /// handle at once, 1 by default. Android only.
+  ///
+  /// Messages sharing a collapse key are still handled one at a time, in the
+  /// order they were received. The setting is persisted, so it also applies
+  /// when the app is started for a message.
+  Future<void> setBackgroundMessageConcurrency(int maxInFlight) {
+    assert(maxInFlight != null && maxInFlight > 0);
+    return _delegate.setBackgroundMessageConcurrency(maxInFlight);
+  }
+
+  /// Returns the metrics of the isolate handling background messages, such as
+  /// its startup time and the time it took to handle the first message.
+  /// Android only.
+  Future<BackgroundMetrics> getBackgroundMetrics() {
+    return _delegate.getBackgroundMetrics();
+  }
+
   /// Resets Instance ID and revokes all tokens.
   ///
   /// A new Instance ID is generated asynchronously if Firebase Cloud Messaging
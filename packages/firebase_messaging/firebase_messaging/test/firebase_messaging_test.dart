@@ -241,5 +241,48 @@ void main() {
         verifyNever(kMockMessagingPlatform.unsubscribeFromTopic(any));
       });
     });
+    group('setBackgroundIsolatePrewarm', () {
+      when(kMockMessagingPlatform.setBackgroundIsolatePrewarm(any,
+              idleTimeout: anyNamed('idleTimeout')))
+          .thenAnswer((_) => null);
+      test('verify delegate method is called with correct args', () async {
+        const idleTimeout = Duration(minutes: 1);
+
+        await messaging.setBackgroundIsolatePrewarm(true,
+            idleTimeout: idleTimeout);
+        verify(kMockMessagingPlatform.setBackgroundIsolatePrewarm(true,
+            idleTimeout: idleTimeout));
+      });
+
+      test('throws AssertionError for a negative idle timeout', () {
+        expect(
+            () => messaging.setBackgroundIsolatePrewarm(true,
+                idleTimeout: const Duration(seconds: -1)),
+            throwsAssertionError);
+      });
+    });
+    group('setBackgroundMessageConcurrency', () {
+      when(kMockMessagingPlatform.setBackgroundMessageConcurrency(any))
+          .thenAnswer((_) => null);
+      test('verify delegate method is called with correct args', () async {
+        await messaging.setBackgroundMessageConcurrency(4);
+        verify(kMockMessagingPlatform.setBackgroundMessageConcurrency(4));
+      });
+
+      test('throws AssertionError for less than one message', () {
+        expect(() => messaging.setBackgroundMessageConcurrency(0),
+            throwsAssertionError);
+      });
+    });
+    group('getBackgroundMetrics', () {
+      test('verify delegate method is called', () async {
+        const metrics = BackgroundMetrics(messagesHandled: 1);
+        when(kMockMessagingPlatform.getBackgroundMetrics())
+            .thenAnswer((_) => Future.value(metrics));
+
+        expect(await messaging.getBackgroundMetrics(), metrics);
+        verify(kMockMessagingPlatform.getBackgroundMetrics());
+      });
+    });
   });
 }
@@ -6,6 +6,7 @@ library firebase_messaging_platform_interface;
 
 export 'src/platform_interface/platform_interface_messaging.dart';
 
+export 'src/background_metrics.dart';
 export 'src/notification_settings.dart';
 export 'src/ios_notification_settings.dart';
 export 'src/types.dart';
@@ -0,0 +1,89 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+/// The metrics of the isolate handling background messages on Android.
+class BackgroundMetrics {
+  // ignore: public_member_api_docs
+  const BackgroundMetrics(
+      {this.isolateRunning,
+      this.isolatesStarted,
+      this.isolatesReleased,
+      this.messagesHandled,
+      this.inFlightMessages,
+      this.queuedMessages,
+      this.maxInFlightMessages,
+      this.lastStartupTime,
+      this.timeToFirstHandledMessage,
+      this.prewarmEnabled,
+      this.prewarmIdleTimeout,
+      this.notificationCache});
+
+  /// Constructs a [BackgroundMetrics] from a raw Map.
+  factory BackgroundMetrics.fromMap(Map<String, dynamic> map) {
+    return BackgroundMetrics(
+      isolateRunning: map['isolateRunning'] ?? false,
+      isolatesStarted: map['isolatesStarted'] ?? 0,
+      isolatesReleased: map['isolatesReleased'] ?? 0,
+      messagesHandled: map['messagesHandled'] ?? 0,
+      inFlightMessages: map['inFlightMessages'] ?? 0,
+      queuedMessages: map['queuedMessages'] ?? 0,
+      maxInFlightMessages: map['maxInFlightMessages'],
+      lastStartupTime: _toDuration(map['lastStartupTime']),
+      timeToFirstHandledMessage: _toDuration(map['timeToFirstHandledMessage']),
+      prewarmEnabled: map['prewarmEnabled'] ?? false,
+      prewarmIdleTimeout: _toDuration(map['prewarmIdleTimeout']),
+      notificationCache: map['notificationCache'] == null
+          ? <String, dynamic>{}
+          : Map<String, dynamic>.from(map['notificationCache']),
+    );
+  }
+
+  // Durations are sent in milliseconds, negative when unknown.
+  static Duration _toDuration(int milliseconds) {
+    if (milliseconds == null || milliseconds < 0) {
+      return null;
+    }
+    return Duration(milliseconds: milliseconds);
+  }
+
+  /// Whether the background isolate is currently running.
+  final bool isolateRunning;
+
+  /// The number of background isolates started by this process.
+  final int isolatesStarted;
+
+  /// The number of pre-warmed background isolates released while idle.
+  final int isolatesReleased;
+
+  /// The number of background messages handled by this process.
+  final int messagesHandled;
+
+  /// The number of messages the background isolate is currently handling.
+  final int inFlightMessages;
+
+  /// The number of messages waiting to be handed to the background isolate.
+  final int queuedMessages;
+
+  /// How many messages the background isolate may handle at once.
+  final int maxInFlightMessages;
+
+  /// The time it took the current or last background isolate to start, or
+  /// `null` if none was started yet.
+  final Duration lastStartupTime;
+
+  /// The time from receiving the first message handled by the current or last
+  /// background isolate until it was handled, or `null` if none was handled
+  /// yet.
+  final Duration timeToFirstHandledMessage;
+
+  /// Whether the background isolate is pre-warmed.
+  final bool prewarmEnabled;
+
+  /// How long a pre-warmed background isolate is kept while idle.
+  /// [Duration.zero] keeps it until the process ends.
+  final Duration prewarmIdleTimeout;
+
+  /// The metrics of the notification messages kept in memory.
+  final Map<String, dynamic> notificationCache;
+}
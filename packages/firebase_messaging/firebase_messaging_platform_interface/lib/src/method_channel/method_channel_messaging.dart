@@ -32,7 +32,8 @@ void _firebaseMessagingCallbackDispatcher() {
 
   // This is where we handle background events from the native portion of the plugin.
   _channel.setMethodCallHandler((MethodCall call) async {
-    if (call.method == "MessagingBackground#onMessage") {
+    if (call.method == "MessagingBackground#onMessage" ||
+        call.method == "MessagingBackground#onMessages") {
       final CallbackHandle handle =
           CallbackHandle.fromRawHandle(call.arguments["userCallbackHandle"]);
 
@@ -45,15 +46,37 @@ void _firebaseMessagingCallbackDispatcher() {
         exit(-1);
       }
 
-      try {
-        Map<String, dynamic> messageMap =
-            Map<String, dynamic>.from(call.arguments["message"]);
-        final RemoteMessage remoteMessage = RemoteMessage.fromMap(messageMap);
-        await closure(remoteMessage);
-      } catch (e) {
-        print(
-            "FlutterFire Messaging: An error occurred in your background messaging handler:");
-        print(e);
+      Future<void> handleMessage(dynamic message) async {
+        try {
+          Map<String, dynamic> messageMap = Map<String, dynamic>.from(message);
+          final RemoteMessage remoteMessage = RemoteMessage.fromMap(messageMap);
+          await closure(remoteMessage);
+        } catch (e) {
+          print(
+              "FlutterFire Messaging: An error occurred in your background messaging handler:");
+          print(e);
+        }
+      }
+
+      if (call.method == "MessagingBackground#onMessage") {
+        await handleMessage(call.arguments["message"]);
+      } else {
+        // A batch never holds two messages the native side needs handled in
+        // order, they are handled concurrently. Each message is reported as
+        // soon as it is handled, so native can hand over the next ones.
+        final List<dynamic> messages = call.arguments["messages"];
+        final int batchId = call.arguments["batchId"];
+        final List<Future<void>> handled = <Future<void>>[];
+
+        for (int i = 0; i < messages.length; i++) {
+          handled.add(handleMessage(messages[i]).then((_) {
+            return _channel.invokeMethod<void>(
+                "MessagingBackground#messageHandled",
+                <String, dynamic>{'batchId': batchId, 'index': i});
+          }));
+        }
+
+        await Future.wait(handled);
       }
     } else {
       throw UnimplementedError("${call.method} has not been implemented");
@@ -377,4 +400,53 @@ class MethodChannelFirebaseMessaging extends FirebaseMessagingPlatform {
       throw convertPlatformException(e);
     }
   }
+
+  @override
+  Future<void> setBackgroundIsolatePrewarm(bool enabled,
+      {Duration idleTimeout}) async {
+    if (defaultTargetPlatform != TargetPlatform.android) {
+      return;
+    }
+
+    try {
+      await channel.invokeMapMethod('Messaging#setBackgroundIsolatePrewarm', {
+        'enabled': enabled,
+        'idleTimeout': idleTimeout?.inMilliseconds,
+      });
+    } catch (e) {
+      throw convertPlatformException(e);
+    }
+  }
+
+  @override
+  Future<void> setBackgroundMessageConcurrency(int maxInFlight) async {
+    if (defaultTargetPlatform != TargetPlatform.android) {
+      return;
+    }
+
+    try {
+      await channel.invokeMapMethod(
+          'Messaging#setBackgroundMessageConcurrency', {
+        'maxInFlight': maxInFlight,
+      });
+    } catch (e) {
+      throw convertPlatformException(e);
+    }
+  }
+
+  @override
+  Future<BackgroundMetrics> getBackgroundMetrics() async {
+    if (defaultTargetPlatform != TargetPlatform.android) {
+      throw UnimplementedError(
+          'Background metrics are only supported on Android devices.');
+    }
+
+    try {
+      Map<String, dynamic> data = await channel
+          .invokeMapMethod<String, dynamic>('Messaging#getBackgroundMetrics');
+      return BackgroundMetrics.fromMap(data);
+    } catch (e) {
+      throw convertPlatformException(e);
+    }
+  }
 }
@@ -306,4 +306,35 @@ abstract class FirebaseMessagingPlatform extends PlatformInterface {
   Future<void> unsubscribeFromTopic(String topic) {
     throw UnimplementedError('unsubscribeFromTopic() is not implemented');
   }
+
+  /// Enables or disables pre-warming of the isolate handling background
+  /// messages.
+  ///
+  /// When enabled, the isolate is started as soon as the messaging service is
+  /// created or a new token is received, rather than when the first background
+  /// message arrives. A pre-warmed isolate is released once it has been idle
+  /// for [idleTimeout], [Duration.zero] keeps it until the process ends.
+  ///
+  /// The setting is persisted. Android only.
+  Future<void> setBackgroundIsolatePrewarm(bool enabled,
+      {Duration idleTimeout}) {
+    throw UnimplementedError(
+        'setBackgroundIsolatePrewarm() is not implemented');
+  }
+
+  /// Sets how many background messages may be handled at once. Messages
+  /// sharing a collapse key are still handled one at a time.
+  ///
+  /// The setting is persisted. Android only.
+  Future<void> setBackgroundMessageConcurrency(int maxInFlight) {
+    throw UnimplementedError(
+        'setBackgroundMessageConcurrency() is not implemented');
+  }
+
+  /// Returns the metrics of the isolate handling background messages.
+  ///
+  /// Android only.
+  Future<BackgroundMetrics> getBackgroundMetrics() {
+    throw UnimplementedError('getBackgroundMetrics() is not implemented');
+  }
 }
@@ -56,6 +56,21 @@ void main() {
             };
           case 'Messaging#deleteInstanceID':
             return true;
+          case 'Messaging#getBackgroundMetrics':
+            return {
+              'isolateRunning': true,
+              'isolatesStarted': 1,
+              'isolatesReleased': 0,
+              'messagesHandled': 3,
+              'inFlightMessages': 0,
+              'queuedMessages': 0,
+              'maxInFlightMessages': 1,
+              'lastStartupTime': 420,
+              'timeToFirstHandledMessage': 650,
+              'prewarmEnabled': true,
+              'prewarmIdleTimeout': 300000,
+              'notificationCache': {'size': 2},
+            };
           default:
             return <String, dynamic>{};
         }
@@ -255,6 +270,51 @@ void main() {
         ),
       ]);
     });
+
+    test('setBackgroundIsolatePrewarm', () async {
+      await messaging.setBackgroundIsolatePrewarm(true,
+          idleTimeout: const Duration(minutes: 1));
+
+      // check native method was called
+      expect(log, <Matcher>[
+        isMethodCall(
+          'Messaging#setBackgroundIsolatePrewarm',
+          arguments: <String, dynamic>{
+            'enabled': true,
+            'idleTimeout': 60000,
+          },
+        ),
+      ]);
+    });
+
+    test('setBackgroundMessageConcurrency', () async {
+      await messaging.setBackgroundMessageConcurrency(4);
+
+      // check native method was called
+      expect(log, <Matcher>[
+        isMethodCall(
+          'Messaging#setBackgroundMessageConcurrency',
+          arguments: <String, dynamic>{
+            'maxInFlight': 4,
+          },
+        ),
+      ]);
+    });
+
+    test('getBackgroundMetrics', () async {
+      final metrics = await messaging.getBackgroundMetrics();
+
+      expect(log, <Matcher>[
+        isMethodCall('Messaging#getBackgroundMetrics', arguments: null),
+      ]);
+      expect(metrics.isolateRunning, isTrue);
+      expect(metrics.messagesHandled, 3);
+      expect(metrics.lastStartupTime, const Duration(milliseconds: 420));
+      expect(metrics.timeToFirstHandledMessage,
+          const Duration(milliseconds: 650));
+      expect(metrics.prewarmIdleTimeout, const Duration(minutes: 5));
+      expect(metrics.notificationCache, {'size': 2});
+    });
   });
 }
 
@@ -199,6 +199,38 @@ void main() {
       }
       fail('Should have thrown an [UnimplementedError]');
     });
+
+    test('throws if setBackgroundIsolatePrewarm()', () async {
+      try {
+        await firebaseMessagingPlatform.setBackgroundIsolatePrewarm(true);
+      } on UnimplementedError catch (e) {
+        expect(e.message,
+            equals('setBackgroundIsolatePrewarm() is not implemented'));
+        return;
+      }
+      fail('Should have thrown an [UnimplementedError]');
+    });
+
+    test('throws if setBackgroundMessageConcurrency()', () async {
+      try {
+        await firebaseMessagingPlatform.setBackgroundMessageConcurrency(2);
+      } on UnimplementedError catch (e) {
+        expect(e.message,
+            equals('setBackgroundMessageConcurrency() is not implemented'));
+        return;
+      }
+      fail('Should have thrown an [UnimplementedError]');
+    });
+
+    test('throws if getBackgroundMetrics()', () async {
+      try {
+        await firebaseMessagingPlatform.getBackgroundMetrics();
+      } on UnimplementedError catch (e) {
+        expect(e.message, equals('getBackgroundMetrics() is not implemented'));
+        return;
+      }
+      fail('Should have thrown an [UnimplementedError]');
+    });
   });
 }
 
@@ -0,0 +1,336 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.firebase.storage;
+
+import static io.flutter.plugins.firebase.core.FlutterFirebasePlugin.cachedThreadPool;
+import static io.flutter.plugins.firebase.storage.FlutterFirebaseStoragePlugin.getExceptionDetails;
+import static io.flutter.plugins.firebase.storage.FlutterFirebaseStorageTask.mainHandler;
+
+import android.util.SparseArray;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.google.firebase.storage.StorageReference;
+import com.google.firebase.storage.StreamDownloadTask;
+import io.flutter.plugin.common.BinaryMessenger;
+import io.flutter.plugin.common.EventChannel;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+// Downloads an object as a stream of chunks of up to chunkSize bytes, sent as byte arrays on an
+// event channel of its own. The download starts once Dart listens to the channel, and stops when
+// Dart cancels its subscription. Dart cancels it once the stream is done or failed as well, which
+// unregisters the channel.
+//
+// Dart grants credits through requestChunks, each of them allowing a single chunk to be read. Once
+// the SDK has opened the object's stream, chunks are read on the plugin's thread pool while credits
+// are left. Reading stops without holding a thread once credits run out, and resumes when Dart
+// grants more, so no more than the requested chunks are ever held in memory on either side and the
+// SDK's download threads are never kept waiting on Dart.
+//
+// An optional range of bytes, from start inclusive to end exclusive, can be streamed rather than
+// the whole object. Bytes before start are still downloaded, they are skipped without being sent.
+class FlutterFirebaseStorageDownloadStream implements EventChannel.StreamHandler {
+  static final String CHANNEL_NAME_PREFIX = "plugins.flutter.io/firebase_storage/download_stream/";
+
+  // The streams of the engine that opened this stream, keyed by their id.
+  private final SparseArray<FlutterFirebaseStorageDownloadStream> downloadStreams;
+  private final int id;
+  private final StorageReference reference;
+  private final int chunkSize;
+  private final long start;
+  private final long end;
+  private final EventChannel eventChannel;
+
+  // Guarded by this stream.
+  private int credits = 0;
+  private boolean cancelled = false;
+  private boolean done = false;
+  private boolean readScheduled = false;
+  private StreamDownloadTask streamTask;
+  @Nullable private InputStream inputStream;
+
+  // Only accessed by the scheduled read.
+  private boolean startSkipped = false;
+  private long remaining;
+
+  // Only accessed on the main thread.
+  private EventChannel.EventSink eventSink;
+
+  // Creates a stream and its event channel. Must be called on the main thread.
+  FlutterFirebaseStorageDownloadStream(
+      @NonNull SparseArray<FlutterFirebaseStorageDownloadStream> downloadStreams,
+      @NonNull BinaryMessenger messenger,
+      int id,
+      @NonNull StorageReference reference,
+      int chunkSize,
+      long start,
+      long end) {
+    this.downloadStreams = downloadStreams;
+    this.id = id;
+    this.reference = reference;
+    this.chunkSize = chunkSize;
+    this.start = start;
+    this.end = end;
+    this.remaining = end < 0 ? Long.MAX_VALUE : end - start;
+
+    synchronized (downloadStreams) {
+      downloadStreams.put(id, this);
+    }
+
+    eventChannel = new EventChannel(messenger, CHANNEL_NAME_PREFIX + id);
+    eventChannel.setStreamHandler(this);
+  }
+
+  static FlutterFirebaseStorageDownloadStream getStreamForId(
+      SparseArray<FlutterFirebaseStorageDownloadStream> downloadStreams, int id) {
+    synchronized (downloadStreams) {
+      return downloadStreams.get(id);
+    }
+  }
+
+  // Cancels every stream of an engine. Must be called on the main thread.
+  static void cancelStreams(SparseArray<FlutterFirebaseStorageDownloadStream> downloadStreams) {
+    FlutterFirebaseStorageDownloadStream[] streams;
+    synchronized (downloadStreams) {
+      streams = new FlutterFirebaseStorageDownloadStream[downloadStreams.size()];
+      for (int i = 0; i < downloadStreams.size(); i++) {
+        streams[i] = downloadStreams.valueAt(i);
+      }
+    }
+
+    for (FlutterFirebaseStorageDownloadStream stream : streams) {
+      stream.cancel();
+      stream.close();
+    }
+  }
+
+  // Allows count more chunks to be read.
+  void requestChunks(int count) {
+    synchronized (this) {
+      credits += count;
+    }
+    scheduleRead();
+  }
+
+  @Override
+  public void onListen(Object arguments, EventChannel.EventSink events) {
+    eventSink = events;
+
+    synchronized (this) {
+      if (cancelled || streamTask != null) {
+        return;
+      }
+
+      streamTask = reference.getStream();
+    }
+
+    // The task succeeds once the object's stream is open, it is then read on the thread pool.
+    streamTask.addOnSuccessListener(cachedThreadPool, snapshot -> onOpened(snapshot.getStream()));
+    streamTask.addOnFailureListener(cachedThreadPool, this::fail);
+  }
+
+  @Override
+  public void onCancel(Object arguments) {
+    eventSink = null;
+    cancel();
+    close();
+  }
+
+  private void onOpened(InputStream stream) {
+    synchronized (this) {
+      if (!cancelled) {
+        inputStream = stream;
+        stream = null;
+      }
+    }
+
+    // The stream was cancelled before it was opened.
+    if (stream != null) {
+      closeQuietly(stream);
+      return;
+    }
+
+    scheduleRead();
+  }
+
+  // Schedules a read on the thread pool if chunks can be read and no read is scheduled yet.
+  private void scheduleRead() {
+    synchronized (this) {
+      if (readScheduled || inputStream == null || cancelled || done || credits == 0) {
+        return;
+      }
+      readScheduled = true;
+    }
+
+    cachedThreadPool.execute(this::read);
+  }
+
+  // Runs on the thread pool. Reads chunks while credits are left, then returns the thread.
+  private void read() {
+    InputStream stream;
+    synchronized (this) {
+      stream = inputStream;
+    }
+
+    try {
+      if (!startSkipped) {
+        skip(stream, start);
+        startSkipped = true;
+      }
+
+      while (remaining > 0) {
+        synchronized (this) {
+          if (cancelled) {
+            return;
+          }
+          if (credits == 0) {
+            readScheduled = false;
+            return;
+          }
+          credits--;
+        }
+
+        byte[] chunk = new byte[(int) Math.min(chunkSize, remaining)];
+        int length = readFully(stream, chunk);
+        if (length > 0) {
+          send(length == chunk.length ? chunk : Arrays.copyOf(chunk, length));
+          remaining -= length;
+        }
+
+        // The object ended before the chunk was filled.
+        if (length < chunk.length) {
+          break;
+        }
+      }
+
+      finish(null);
+    } catch (IOException e) {
+      finish(e);
+    }
+  }
+
+  // Closes the stream once it has been read or failed, and reports it to Dart.
+  private void finish(@Nullable Exception exception) {
+    synchronized (this) {
+      if (done) {
+        return;
+      }
+      done = true;
+    }
+
+    closeQuietly(inputStream);
+
+    if (exception != null) {
+      fail(exception);
+      return;
+    }
+
+    mainHandler.post(
+        () -> {
+          if (eventSink != null && !isCancelled()) {
+            eventSink.endOfStream();
+          }
+        });
+  }
+
+  private void fail(Exception exception) {
+    mainHandler.post(
+        () -> {
+          if (eventSink != null && !isCancelled()) {
+            eventSink.error(
+                "firebase_storage", exception.getMessage(), getExceptionDetails(exception));
+          }
+        });
+  }
+
+  private void send(byte[] chunk) {
+    mainHandler.post(
+        () -> {
+          if (eventSink != null) {
+            eventSink.success(chunk);
+          }
+        });
+  }
+
+  private synchronized boolean isCancelled() {
+    return cancelled;
+  }
+
+  private void cancel() {
+    StreamDownloadTask task;
+    InputStream stream;
+    synchronized (this) {
+      if (cancelled) {
+        return;
+      }
+
+      cancelled = true;
+      task = streamTask;
+      stream = done ? null : inputStream;
+    }
+
+    if (task != null && !task.isComplete()) {
+      task.cancel();
+    }
+
+    // Closing the stream aborts a read in progress. It may block on the network, so it isn't closed
+    // on the calling thread.
+    if (stream != null) {
+      cachedThreadPool.execute(() -> closeQuietly(stream));
+    }
+  }
+
+  // Unregisters the stream and its event channel, must be called on the main thread.
+  private void close() {
+    synchronized (downloadStreams) {
+      if (downloadStreams.get(id) != this) {
+        return;
+      }
+      downloadStreams.remove(id);
+    }
+
+    eventChannel.setStreamHandler(null);
+  }
+
+  private static void skip(InputStream stream, long count) throws IOException {
+    while (count > 0) {
+      long skipped = stream.skip(count);
+      if (skipped <= 0) {
+        // skip may return 0 before the end of the stream, read a byte to tell them apart.
+        if (stream.read() < 0) {
+          return;
+        }
+        skipped = 1;
+      }
+      count -= skipped;
+    }
+  }
+
+  private static void closeQuietly(@Nullable InputStream stream) {
+    if (stream == null) {
+      return;
+    }
+
+    try {
+      stream.close();
+    } catch (IOException e) {
+      // The stream is no longer used.
+    }
+  }
+
+  // Reads until the chunk is filled or the stream ends, returns the number of bytes read.
+  private static int readFully(InputStream stream, byte[] chunk) throws IOException {
+    int length = 0;
+    while (length < chunk.length) {
+      int read = stream.read(chunk, length, chunk.length - length);
+      if (read < 0) {
+        break;
+      }
+      length += read;
+    }
+    return length;
+  }
+}
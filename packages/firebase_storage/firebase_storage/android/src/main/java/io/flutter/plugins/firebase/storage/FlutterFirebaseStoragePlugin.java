@@ -4,8 +4,10 @@
 
 package io.flutter.plugins.firebase.storage;
 
+import android.content.Context;
 import android.net.Uri;
 import android.util.Base64;
+import android.util.SparseArray;
 import androidx.annotation.NonNull;
 import com.google.android.gms.tasks.Task;
 import com.google.android.gms.tasks.Tasks;
@@ -24,20 +26,61 @@ import io.flutter.plugin.common.MethodChannel.Result;
 import io.flutter.plugin.common.PluginRegistry;
 import io.flutter.plugins.firebase.core.FlutterFirebasePlugin;
 import io.flutter.plugins.firebase.core.FlutterFirebasePluginRegistry;
+import io.flutter.plugins.firebase.core.FlutterFirebaseTasks;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
 public class FlutterFirebaseStoragePlugin
     implements FlutterFirebasePlugin, MethodCallHandler, FlutterPlugin {
+  private static final String CHANNEL_NAME = "plugins.flutter.io/firebase_storage";
+
+  // Tasks started by this engine. Tasks of other engines are left running when it is detached.
+  private final SparseArray<FlutterFirebaseStorageTask> inProgressTasks = new SparseArray<>();
+  // Upload queues started or resumed by this engine, keyed by queue id. Only accessed on the
+  // upload queue executor.
+  private final Map<String, FlutterFirebaseStorageUploadQueue> uploadQueues = new HashMap<>();
+  // Download streams opened by this engine, keyed by stream id.
+  private final SparseArray<FlutterFirebaseStorageDownloadStream> downloadStreams =
+      new SparseArray<>();
+  private int nextDownloadStreamId = 0;
   private MethodChannel channel;
+  private Context context;
+  private BinaryMessenger messenger;
+  private FlutterFirebaseStorageUploadBuffers uploadBuffers;
 
   public static void registerWith(PluginRegistry.Registrar registrar) {
     FlutterFirebaseStoragePlugin instance = new FlutterFirebaseStoragePlugin();
-    instance.initInstance(registrar.messenger());
+    instance.initInstance(registrar.messenger(), registrar.context());
+  }
+
+  /**
+   * Sets the progress throttle of tasks started without one. A progress event is only sent to Dart
+   * once both {@code intervalMillis} have elapsed and {@code bytes} have been transferred since the
+   * previous one, the last progress of a task is always sent. Disabled by default.
+   *
+   * <p>A task can set its own throttle with a {@code ProgressThrottle} from Dart.
+   */
+  public static void setDefaultProgressThrottle(long intervalMillis, long bytes) {
+    FlutterFirebaseStorageTask.setDefaultProgressThrottle(intervalMillis, bytes);
+  }
+
+  /**
+   * Caches the download URL and metadata of up to {@code maxSize} objects for {@code maxAgeMillis},
+   * keyed by bucket and path, so repeated lookups of the same objects don't make a network round
+   * trip. The cache is persisted to the app's files directory if {@code persistent} is true.
+   * Disabled by default, a {@code maxSize} of 0 disables it.
+   *
+   * <p>Objects are dropped from the cache once deleted, updated or uploaded to through this plugin.
+   * Changes made elsewhere are only picked up once the cached values expire.
+   */
+  public static void setReferenceCacheSettings(int maxSize, long maxAgeMillis, boolean persistent) {
+    FlutterFirebaseStorageReferenceCache.getInstance()
+        .setSettings(maxSize, maxAgeMillis, persistent);
   }
 
   static Map<String, Object> parseMetadata(StorageMetadata storageMetadata) {
@@ -131,21 +174,32 @@ public class FlutterFirebaseStoragePlugin
 
   @Override
   public void onAttachedToEngine(@NonNull FlutterPluginBinding binding) {
-    initInstance(binding.getBinaryMessenger());
+    initInstance(binding.getBinaryMessenger(), binding.getApplicationContext());
   }
 
   @Override
   public void onDetachedFromEngine(@NonNull FlutterPluginBinding binding) {
-    FlutterFirebaseStorageTask.cancelInProgressTasks();
+    FlutterFirebasePluginRegistry.unregisterPlugin(CHANNEL_NAME, binding.getBinaryMessenger());
+    FlutterFirebaseStorageTask.cancelInProgressTasks(inProgressTasks);
+    stopUploadQueues();
+    FlutterFirebaseStorageDownloadStream.cancelStreams(downloadStreams);
+    messenger.setMessageHandler(FlutterFirebaseStorageUploadBuffers.CHANNEL_NAME, null);
+    uploadBuffers.discardAll();
     channel.setMethodCallHandler(null);
     channel = null;
   }
 
-  private void initInstance(BinaryMessenger messenger) {
-    String channelName = "plugins.flutter.io/firebase_storage";
-    channel = new MethodChannel(messenger, channelName);
+  private void initInstance(BinaryMessenger messenger, Context context) {
+    this.context = context.getApplicationContext();
+    this.messenger = messenger;
+    channel = new MethodChannel(messenger, CHANNEL_NAME);
     channel.setMethodCallHandler(this);
-    FlutterFirebasePluginRegistry.registerPlugin(channelName, this);
+    uploadBuffers =
+        new FlutterFirebaseStorageUploadBuffers(this.context.getCacheDir(), cachedThreadPool);
+    cachedThreadPool.execute(uploadBuffers::deleteOrphanedFiles);
+    FlutterFirebaseStorageReferenceCache.getInstance().setDirectory(this.context.getFilesDir());
+    messenger.setMessageHandler(FlutterFirebaseStorageUploadBuffers.CHANNEL_NAME, uploadBuffers);
+    FlutterFirebasePluginRegistry.registerPlugin(CHANNEL_NAME, this, messenger);
   }
 
   private FirebaseStorage getStorage(Map<String, Object> arguments) {
@@ -208,49 +262,165 @@ public class FlutterFirebaseStoragePlugin
   }
 
   private Task<Void> referenceDelete(Map<String, Object> arguments) {
-    return Tasks.call(
+    return FlutterFirebaseTasks.callAsync(
         cachedThreadPool,
         () -> {
           StorageReference reference = getReference(arguments);
-          return Tasks.await(reference.delete());
+          return FlutterFirebaseTasks.map(
+              reference.delete(),
+              deleted -> {
+                FlutterFirebaseStorageReferenceCache.getInstance().invalidate(reference);
+                return deleted;
+              });
         });
   }
 
   private Task<Map<String, Object>> referenceGetDownloadURL(Map<String, Object> arguments) {
-    return Tasks.call(
+    return FlutterFirebaseTasks.callAsync(
         cachedThreadPool,
         () -> {
           StorageReference reference = getReference(arguments);
-          Uri downloadURL = Tasks.await(reference.getDownloadUrl());
+          return FlutterFirebaseTasks.map(
+              getDownloadURL(reference),
+              downloadURL -> {
+                Map<String, Object> out = new HashMap<>();
+                out.put("downloadURL", downloadURL);
+                return out;
+              });
+        });
+  }
 
-          Map<String, Object> out = new HashMap<>();
-          out.put("downloadURL", downloadURL.toString());
-          return out;
+  // Resolves the download URLs of many paths at once. Every path gets a result, either its
+  // "downloadURL" or the "code" and "message" of its failure.
+  private Task<List<Map<String, Object>>> referenceGetDownloadURLs(Map<String, Object> arguments) {
+    return FlutterFirebaseTasks.callAsync(
+        cachedThreadPool,
+        () -> {
+          @SuppressWarnings("unchecked")
+          List<String> paths = (List<String>) Objects.requireNonNull(arguments.get("paths"));
+          FirebaseStorage storage = getStorage(arguments);
+
+          // The SDK runs the requests concurrently on its own executor.
+          List<Task<String>> tasks = new ArrayList<>(paths.size());
+          for (String path : paths) {
+            tasks.add(getDownloadURL(storage.getReference(path)));
+          }
+
+          return FlutterFirebaseTasks.map(
+              Tasks.whenAllComplete(tasks),
+              cachedThreadPool,
+              completedTasks -> {
+                List<Map<String, Object>> results = new ArrayList<>(tasks.size());
+                for (Task<String> task : tasks) {
+                  Map<String, Object> result = new HashMap<>();
+                  if (task.isSuccessful()) {
+                    result.put("downloadURL", task.getResult());
+                  } else {
+                    result.putAll(getExceptionDetails(task.getException()));
+                  }
+                  results.add(result);
+                }
+                return results;
+              });
+        });
+  }
+
+  // Returns the cached download URL of an object, or fetches and caches it.
+  private static Task<String> getDownloadURL(StorageReference reference) {
+    FlutterFirebaseStorageReferenceCache referenceCache =
+        FlutterFirebaseStorageReferenceCache.getInstance();
+    String cachedDownloadURL = referenceCache.getDownloadURL(reference);
+    if (cachedDownloadURL != null) {
+      return Tasks.forResult(cachedDownloadURL);
+    }
+
+    long generation = referenceCache.getGeneration();
+    return FlutterFirebaseTasks.map(
+        reference.getDownloadUrl(),
+        cachedThreadPool,
+        uri -> {
+          String downloadURL = uri.toString();
+          referenceCache.putDownloadURL(reference, downloadURL, generation);
+          return downloadURL;
         });
   }
 
   private Task<byte[]> referenceGetData(Map<String, Object> arguments) {
-    return Tasks.call(
+    return FlutterFirebaseTasks.callAsync(
         cachedThreadPool,
         () -> {
           Integer maxSize = (Integer) Objects.requireNonNull(arguments.get("maxSize"));
           StorageReference reference = getReference(arguments);
-          return Tasks.await(reference.getBytes(maxSize));
+          return reference.getBytes(maxSize);
         });
   }
 
-  private Task<Map<String, Object>> referenceGetMetadata(Map<String, Object> arguments) {
+  // Runs on the main thread, as the event channel of the stream is registered right away.
+  private Task<Integer> referenceOpenStream(Map<String, Object> arguments) {
+    return Tasks.call(
+        () -> {
+          StorageReference reference = getReference(arguments);
+          Integer chunkSize = (Integer) Objects.requireNonNull(arguments.get("chunkSize"));
+          long start = arguments.get("start") != null ? getLongValue(arguments.get("start")) : 0;
+          long end = arguments.get("end") != null ? getLongValue(arguments.get("end")) : -1;
+
+          if (chunkSize <= 0) {
+            throw new IllegalArgumentException("The chunk size must be greater than 0.");
+          }
+          if (start < 0 || (end >= 0 && end < start)) {
+            throw new IllegalArgumentException("Invalid range " + start + "-" + end + ".");
+          }
+
+          int streamId = nextDownloadStreamId++;
+          new FlutterFirebaseStorageDownloadStream(
+              downloadStreams, messenger, streamId, reference, chunkSize, start, end);
+          return streamId;
+        });
+  }
+
+  private Task<Void> referenceRequestStreamChunks(Map<String, Object> arguments) {
     return Tasks.call(
+        cachedThreadPool,
+        () -> {
+          Integer streamId = (Integer) Objects.requireNonNull(arguments.get("streamId"));
+          Integer count = (Integer) Objects.requireNonNull(arguments.get("count"));
+          FlutterFirebaseStorageDownloadStream stream =
+              FlutterFirebaseStorageDownloadStream.getStreamForId(downloadStreams, streamId);
+
+          // The stream may have ended or been cancelled while the request was in flight.
+          if (stream != null) {
+            stream.requestChunks(count);
+          }
+          return null;
+        });
+  }
+
+  private Task<Map<String, Object>> referenceGetMetadata(Map<String, Object> arguments) {
+    return FlutterFirebaseTasks.callAsync(
         cachedThreadPool,
         () -> {
           StorageReference reference = getReference(arguments);
-          StorageMetadata metadata = Tasks.await(reference.getMetadata());
-          return parseMetadata(metadata);
+          FlutterFirebaseStorageReferenceCache referenceCache =
+              FlutterFirebaseStorageReferenceCache.getInstance();
+          Map<String, Object> cachedMetadata = referenceCache.getMetadata(reference);
+          if (cachedMetadata != null) {
+            return Tasks.forResult(cachedMetadata);
+          }
+
+          long generation = referenceCache.getGeneration();
+          return FlutterFirebaseTasks.map(
+              reference.getMetadata(),
+              cachedThreadPool,
+              storageMetadata -> {
+                Map<String, Object> metadata = parseMetadata(storageMetadata);
+                referenceCache.putMetadata(reference, metadata, generation);
+                return metadata;
+              });
         });
   }
 
   private Task<Map<String, Object>> referenceList(Map<String, Object> arguments) {
-    return Tasks.call(
+    return FlutterFirebaseTasks.callAsync(
         cachedThreadPool,
         () -> {
           StorageReference reference = getReference(arguments);
@@ -270,23 +440,22 @@ public class FlutterFirebaseStoragePlugin
             task = reference.list(maxResults);
           }
 
-          ListResult listResult = Tasks.await(task);
-          return parseListResult(listResult);
+          return FlutterFirebaseTasks.map(task, cachedThreadPool, this::parseListResult);
         });
   }
 
   private Task<Map<String, Object>> referenceListAll(Map<String, Object> arguments) {
-    return Tasks.call(
+    return FlutterFirebaseTasks.callAsync(
         cachedThreadPool,
         () -> {
           StorageReference reference = getReference(arguments);
-          ListResult listResult = Tasks.await(reference.listAll());
-          return parseListResult(listResult);
+          return FlutterFirebaseTasks.map(
+              reference.listAll(), cachedThreadPool, this::parseListResult);
         });
   }
 
   private Task<Map<String, Object>> referenceUpdateMetadata(Map<String, Object> arguments) {
-    return Tasks.call(
+    return FlutterFirebaseTasks.callAsync(
         cachedThreadPool,
         () -> {
           StorageReference reference = getReference(arguments);
@@ -295,10 +464,20 @@ public class FlutterFirebaseStoragePlugin
           Map<String, Object> metadata =
               (Map<String, Object>) Objects.requireNonNull(arguments.get("metadata"));
 
-          StorageMetadata updatedMetadata =
-              Tasks.await(reference.updateMetadata(parseMetadata(metadata)));
-
-          return parseMetadata(updatedMetadata);
+          return FlutterFirebaseTasks.map(
+              reference.updateMetadata(parseMetadata(metadata)),
+              cachedThreadPool,
+              storageMetadata -> {
+                // The download tokens are part of the metadata, the cached download URL may be
+                // revoked as well.
+                FlutterFirebaseStorageReferenceCache referenceCache =
+                    FlutterFirebaseStorageReferenceCache.getInstance();
+                referenceCache.invalidate(reference);
+                Map<String, Object> updatedMetadata = parseMetadata(storageMetadata);
+                referenceCache.putMetadata(
+                    reference, updatedMetadata, referenceCache.getGeneration());
+                return updatedMetadata;
+              });
         });
   }
 
@@ -315,12 +494,55 @@ public class FlutterFirebaseStoragePlugin
           final int handle = (int) Objects.requireNonNull(arguments.get("handle"));
           FlutterFirebaseStorageTask task =
               FlutterFirebaseStorageTask.uploadBytes(
-                  handle, reference, bytes, parseMetadata(metadata));
+                  inProgressTasks, handle, reference, bytes, parseMetadata(metadata));
+          setProgressThrottle(task, arguments);
           task.startTaskWithMethodChannel(channel);
           return null;
         });
   }
 
+  private Task<Integer> taskCreateUploadBuffer() {
+    return Tasks.call(cachedThreadPool, () -> uploadBuffers.create());
+  }
+
+  private Task<Void> taskDiscardUploadBuffer(Map<String, Object> arguments) {
+    return Tasks.call(
+        cachedThreadPool,
+        () -> {
+          final int bufferId = (int) Objects.requireNonNull(arguments.get("bufferId"));
+          uploadBuffers.discard(bufferId);
+          return null;
+        });
+  }
+
+  private Task<Void> taskPutBuffer(Map<String, Object> arguments) {
+    return Tasks.call(
+        cachedThreadPool,
+        () -> {
+          final int bufferId = (int) Objects.requireNonNull(arguments.get("bufferId"));
+          File file = uploadBuffers.take(bufferId);
+
+          try {
+            StorageReference reference = getReference(arguments);
+
+            @SuppressWarnings("unchecked")
+            Map<String, Object> metadata = (Map<String, Object>) arguments.get("metadata");
+
+            final int handle = (int) Objects.requireNonNull(arguments.get("handle"));
+            FlutterFirebaseStorageTask task =
+                FlutterFirebaseStorageTask.uploadTemporaryFile(
+                    inProgressTasks, handle, reference, file, parseMetadata(metadata));
+
+            setProgressThrottle(task, arguments);
+            task.startTaskWithMethodChannel(channel);
+          } catch (Exception e) {
+            FlutterFirebaseStorageUploadBuffers.release(file);
+            throw e;
+          }
+          return null;
+        });
+  }
+
   private Task<Void> taskPutString(Map<String, Object> arguments) {
     return Tasks.call(
         cachedThreadPool,
@@ -335,8 +557,13 @@ public class FlutterFirebaseStoragePlugin
           final int handle = (int) Objects.requireNonNull(arguments.get("handle"));
           FlutterFirebaseStorageTask task =
               FlutterFirebaseStorageTask.uploadBytes(
-                  handle, reference, stringToByteData(data, format), parseMetadata(metadata));
+                  inProgressTasks,
+                  handle,
+                  reference,
+                  stringToByteData(data, format),
+                  parseMetadata(metadata));
 
+          setProgressThrottle(task, arguments);
           task.startTaskWithMethodChannel(channel);
           return null;
         });
@@ -355,8 +582,13 @@ public class FlutterFirebaseStoragePlugin
           final int handle = (int) Objects.requireNonNull(arguments.get("handle"));
           FlutterFirebaseStorageTask task =
               FlutterFirebaseStorageTask.uploadFile(
-                  handle, reference, Uri.fromFile(new File(filePath)), parseMetadata(metadata));
+                  inProgressTasks,
+                  handle,
+                  reference,
+                  Uri.fromFile(new File(filePath)),
+                  parseMetadata(metadata));
 
+          setProgressThrottle(task, arguments);
           task.startTaskWithMethodChannel(channel);
           return null;
         });
@@ -371,79 +603,229 @@ public class FlutterFirebaseStoragePlugin
 
           final int handle = (int) Objects.requireNonNull(arguments.get("handle"));
           FlutterFirebaseStorageTask task =
-              FlutterFirebaseStorageTask.downloadFile(handle, reference, new File(filePath));
+              FlutterFirebaseStorageTask.downloadFile(
+                  inProgressTasks, handle, reference, new File(filePath));
 
+          setProgressThrottle(task, arguments);
           task.startTaskWithMethodChannel(channel);
           return null;
         });
   }
 
-  private Task<Map<String, Object>> taskPause(Map<String, Object> arguments) {
+  private void setProgressThrottle(FlutterFirebaseStorageTask task, Map<String, Object> arguments) {
+    Number progressInterval = (Number) arguments.get("progressInterval");
+    Number progressBytes = (Number) arguments.get("progressBytes");
+    if (progressInterval != null || progressBytes != null) {
+      task.setProgressThrottle(
+          progressInterval != null ? progressInterval.longValue() : 0,
+          progressBytes != null ? progressBytes.longValue() : 0);
+    }
+  }
+
+  private Task<Map<String, Object>> uploadQueueStart(Map<String, Object> arguments) {
     return Tasks.call(
+        FlutterFirebaseStorageUploadQueue.getExecutor(),
+        () -> {
+          String appName = (String) Objects.requireNonNull(arguments.get("appName"));
+          String bucket = (String) arguments.get("bucket");
+          @SuppressWarnings("unchecked")
+          List<Map<String, Object>> uploads =
+              (List<Map<String, Object>>) Objects.requireNonNull(arguments.get("uploads"));
+          Number maxConcurrent = (Number) arguments.get("maxConcurrent");
+          Number progressInterval = (Number) arguments.get("progressInterval");
+
+          FlutterFirebaseStorageUploadQueue queue =
+              FlutterFirebaseStorageUploadQueue.start(
+                  channel,
+                  context.getFilesDir(),
+                  appName,
+                  bucket,
+                  uploads,
+                  maxConcurrent != null
+                      ? maxConcurrent.intValue()
+                      : FlutterFirebaseStorageUploadQueue.DEFAULT_MAX_CONCURRENT,
+                  progressInterval != null
+                      ? progressInterval.longValue()
+                      : FlutterFirebaseStorageUploadQueue.DEFAULT_PROGRESS_INTERVAL_MILLIS);
+          pruneUploadQueues();
+          uploadQueues.put(queue.getId(), queue);
+
+          Map<String, Object> out = new HashMap<>();
+          out.put("queueId", queue.getId());
+          return out;
+        });
+  }
+
+  private Task<Void> uploadQueueResume(Map<String, Object> arguments) {
+    return Tasks.call(
+        FlutterFirebaseStorageUploadQueue.getExecutor(),
+        () -> {
+          String queueId = (String) Objects.requireNonNull(arguments.get("queueId"));
+          Number maxConcurrent = (Number) arguments.get("maxConcurrent");
+          Number progressInterval = (Number) arguments.get("progressInterval");
+
+          FlutterFirebaseStorageUploadQueue queue =
+              FlutterFirebaseStorageUploadQueue.resume(
+                  channel,
+                  context.getFilesDir(),
+                  queueId,
+                  maxConcurrent != null ? maxConcurrent.intValue() : null,
+                  progressInterval != null ? progressInterval.longValue() : null);
+          pruneUploadQueues();
+          uploadQueues.put(queue.getId(), queue);
+          return null;
+        });
+  }
+
+  private Task<Void> uploadQueueCancel(Map<String, Object> arguments) {
+    return Tasks.call(
+        FlutterFirebaseStorageUploadQueue.getExecutor(),
+        () -> {
+          String queueId = (String) Objects.requireNonNull(arguments.get("queueId"));
+          FlutterFirebaseStorageUploadQueue queue = uploadQueues.remove(queueId);
+          if (queue != null) {
+            queue.cancel();
+          } else {
+            FlutterFirebaseStorageUploadQueue.deletePersistedQueue(context.getFilesDir(), queueId);
+          }
+          return null;
+        });
+  }
+
+  private Task<List<Map<String, Object>>> uploadQueueGetPersisted() {
+    return Tasks.call(
+        FlutterFirebaseStorageUploadQueue.getExecutor(),
+        () -> FlutterFirebaseStorageUploadQueue.getPersistedQueues(context.getFilesDir()));
+  }
+
+  // Forgets the queues that completed. Must be called on the upload queue executor.
+  private void pruneUploadQueues() {
+    Iterator<FlutterFirebaseStorageUploadQueue> iterator = uploadQueues.values().iterator();
+    while (iterator.hasNext()) {
+      if (!iterator.next().isRunning()) {
+        iterator.remove();
+      }
+    }
+  }
+
+  // Stops the upload queues of this engine, they stay persisted and can be resumed later.
+  private void stopUploadQueues() {
+    FlutterFirebaseStorageUploadQueue.getExecutor()
+        .execute(
+            () -> {
+              for (FlutterFirebaseStorageUploadQueue queue : uploadQueues.values()) {
+                queue.stop();
+              }
+              uploadQueues.clear();
+            });
+  }
+
+  private Task<Void> referenceCacheSetSettings(Map<String, Object> arguments) {
+    return Tasks.call(
+        cachedThreadPool,
+        () -> {
+          Integer maxSize = (Integer) Objects.requireNonNull(arguments.get("maxSize"));
+          Object maxAge = arguments.get("maxAge");
+          Boolean persistent = (Boolean) arguments.get("persistent");
+          setReferenceCacheSettings(
+              maxSize,
+              maxAge != null
+                  ? getLongValue(maxAge)
+                  : FlutterFirebaseStorageReferenceCache.DEFAULT_MAX_AGE_MILLIS,
+              persistent != null && persistent);
+          return null;
+        });
+  }
+
+  private Task<Void> referenceCacheClear() {
+    return Tasks.call(
+        cachedThreadPool,
+        () -> {
+          FlutterFirebaseStorageReferenceCache.getInstance().clear();
+          return null;
+        });
+  }
+
+  private Task<Map<String, Object>> referenceCacheGetMetrics() {
+    return Tasks.call(
+        cachedThreadPool, () -> FlutterFirebaseStorageReferenceCache.getInstance().getMetrics());
+  }
+
+  private Task<Map<String, Object>> taskPause(Map<String, Object> arguments) {
+    return FlutterFirebaseTasks.callAsync(
         cachedThreadPool,
         () -> {
           final int handle = (int) Objects.requireNonNull(arguments.get("handle"));
           FlutterFirebaseStorageTask task =
-              FlutterFirebaseStorageTask.getInProgressTaskForHandle(handle);
+              FlutterFirebaseStorageTask.getInProgressTaskForHandle(inProgressTasks, handle);
 
           if (task == null) {
             throw new Exception("Pause operation was called on a task which does not exist.");
           }
 
-          boolean paused = Tasks.await(task.pause());
-          Map<String, Object> statusMap = new HashMap<>();
-          statusMap.put("status", paused);
-          if (paused) {
-            statusMap.put(
-                "snapshot", FlutterFirebaseStorageTask.parseTaskSnapshot(task.getSnapshot()));
-          }
-          return statusMap;
+          return FlutterFirebaseTasks.map(
+              task.pause(),
+              paused -> {
+                Map<String, Object> statusMap = new HashMap<>();
+                statusMap.put("status", paused);
+                if (paused) {
+                  statusMap.put(
+                      "snapshot", FlutterFirebaseStorageTask.parseTaskSnapshot(task.getSnapshot()));
+                }
+                return statusMap;
+              });
         });
   }
 
   private Task<Map<String, Object>> taskResume(Map<String, Object> arguments) {
-    return Tasks.call(
+    return FlutterFirebaseTasks.callAsync(
         cachedThreadPool,
         () -> {
           final int handle = (int) Objects.requireNonNull(arguments.get("handle"));
           FlutterFirebaseStorageTask task =
-              FlutterFirebaseStorageTask.getInProgressTaskForHandle(handle);
+              FlutterFirebaseStorageTask.getInProgressTaskForHandle(inProgressTasks, handle);
 
           if (task == null) {
             throw new Exception("Resume operation was called on a task which does not exist.");
           }
 
-          boolean resumed = Tasks.await(task.resume());
-          Map<String, Object> statusMap = new HashMap<>();
-          statusMap.put("status", resumed);
-          if (resumed) {
-            statusMap.put(
-                "snapshot", FlutterFirebaseStorageTask.parseTaskSnapshot(task.getSnapshot()));
-          }
-          return statusMap;
+          return FlutterFirebaseTasks.map(
+              task.resume(),
+              resumed -> {
+                Map<String, Object> statusMap = new HashMap<>();
+                statusMap.put("status", resumed);
+                if (resumed) {
+                  statusMap.put(
+                      "snapshot", FlutterFirebaseStorageTask.parseTaskSnapshot(task.getSnapshot()));
+                }
+                return statusMap;
+              });
         });
   }
 
   private Task<Map<String, Object>> taskCancel(Map<String, Object> arguments) {
-    return Tasks.call(
+    return FlutterFirebaseTasks.callAsync(
         cachedThreadPool,
         () -> {
           final int handle = (int) Objects.requireNonNull(arguments.get("handle"));
           FlutterFirebaseStorageTask task =
-              FlutterFirebaseStorageTask.getInProgressTaskForHandle(handle);
+              FlutterFirebaseStorageTask.getInProgressTaskForHandle(inProgressTasks, handle);
 
           if (task == null) {
             throw new Exception("Cancel operation was called on a task which does not exist.");
           }
 
-          boolean canceled = Tasks.await(task.cancel());
-          Map<String, Object> statusMap = new HashMap<>();
-          statusMap.put("status", canceled);
-          if (canceled) {
-            statusMap.put(
-                "snapshot", FlutterFirebaseStorageTask.parseTaskSnapshot(task.getSnapshot()));
-          }
-          return statusMap;
+          return FlutterFirebaseTasks.map(
+              task.cancel(),
+              canceled -> {
+                Map<String, Object> statusMap = new HashMap<>();
+                statusMap.put("status", canceled);
+                if (canceled) {
+                  statusMap.put(
+                      "snapshot", FlutterFirebaseStorageTask.parseTaskSnapshot(task.getSnapshot()));
+                }
+                return statusMap;
+              });
         });
   }
 
@@ -458,12 +840,21 @@ public class FlutterFirebaseStoragePlugin
       case "Reference#getDownloadURL":
         methodCallTask = referenceGetDownloadURL(call.arguments());
         break;
+      case "Reference#getDownloadURLs":
+        methodCallTask = referenceGetDownloadURLs(call.arguments());
+        break;
       case "Reference#getMetadata":
         methodCallTask = referenceGetMetadata(call.arguments());
         break;
       case "Reference#getData":
         methodCallTask = referenceGetData(call.arguments());
         break;
+      case "Reference#openStream":
+        methodCallTask = referenceOpenStream(call.arguments());
+        break;
+      case "Reference#requestStreamChunks":
+        methodCallTask = referenceRequestStreamChunks(call.arguments());
+        break;
       case "Reference#list":
         methodCallTask = referenceList(call.arguments());
         break;
@@ -476,6 +867,15 @@ public class FlutterFirebaseStoragePlugin
       case "Task#startPutData":
         methodCallTask = taskPutData(call.arguments());
         break;
+      case "Task#createUploadBuffer":
+        methodCallTask = taskCreateUploadBuffer();
+        break;
+      case "Task#discardUploadBuffer":
+        methodCallTask = taskDiscardUploadBuffer(call.arguments());
+        break;
+      case "Task#startPutBuffer":
+        methodCallTask = taskPutBuffer(call.arguments());
+        break;
       case "Task#startPutString":
         methodCallTask = taskPutString(call.arguments());
         break;
@@ -494,28 +894,40 @@ public class FlutterFirebaseStoragePlugin
       case "Task#writeToFile":
         methodCallTask = taskWriteToFile(call.arguments());
         break;
+      case "ReferenceCache#setSettings":
+        methodCallTask = referenceCacheSetSettings(call.arguments());
+        break;
+      case "ReferenceCache#clear":
+        methodCallTask = referenceCacheClear();
+        break;
+      case "ReferenceCache#getMetrics":
+        methodCallTask = referenceCacheGetMetrics();
+        break;
+      case "UploadQueue#start":
+        methodCallTask = uploadQueueStart(call.arguments());
+        break;
+      case "UploadQueue#resume":
+        methodCallTask = uploadQueueResume(call.arguments());
+        break;
+      case "UploadQueue#cancel":
+        methodCallTask = uploadQueueCancel(call.arguments());
+        break;
+      case "UploadQueue#getPersisted":
+        methodCallTask = uploadQueueGetPersisted();
+        break;
       default:
         result.notImplemented();
         return;
     }
 
-    methodCallTask.addOnCompleteListener(
-        task -> {
-          if (task.isSuccessful()) {
-            result.success(task.getResult());
-          } else {
-            Exception exception = task.getException();
-            Map<String, String> exceptionDetails = getExceptionDetails(exception);
-
-            result.error(
-                "firebase_storage",
-                exception != null ? exception.getMessage() : null,
-                exceptionDetails);
-          }
-        });
+    FlutterFirebaseTasks.sendResult(
+        methodCallTask,
+        result,
+        "firebase_storage",
+        FlutterFirebaseStoragePlugin::getExceptionDetails);
   }
 
-  private StorageMetadata parseMetadata(Map<String, Object> metadata) {
+  static StorageMetadata parseMetadata(Map<String, Object> metadata) {
     if (metadata == null) {
       return null;
     }
@@ -580,7 +992,10 @@ public class FlutterFirebaseStoragePlugin
     return Tasks.call(
         cachedThreadPool,
         () -> {
-          FlutterFirebaseStorageTask.cancelInProgressTasks();
+          FlutterFirebaseStorageTask.cancelInProgressTasks(inProgressTasks);
+          stopUploadQueues();
+          FlutterFirebaseStorageTask.mainHandler.post(
+              () -> FlutterFirebaseStorageDownloadStream.cancelStreams(downloadStreams));
           return null;
         });
   }
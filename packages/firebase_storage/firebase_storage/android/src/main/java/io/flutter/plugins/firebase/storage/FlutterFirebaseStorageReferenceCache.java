@@ -0,0 +1,470 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.firebase.storage;
+
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.google.firebase.storage.StorageReference;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+// Keeps the download URLs and metadata of the most recently used objects in memory, keyed by their
+// bucket and path, so repeated lookups of the same objects don't each make a network round trip.
+// Values are evicted once there are more than maxSize objects, least recently used first, or once
+// they are older than maxAgeMillis. The cache is disabled until a maxSize is set.
+//
+// The cache can optionally be persisted to the files directory, so it survives process death.
+// Values are timestamped with the wall clock for this reason. The persisted cache is read on the
+// saveExecutor as the plugin is attached, and merged once persistence is enabled. Writes are
+// batched, the file is rewritten at most once per SAVE_DELAY_MILLIS, after it was read.
+//
+// Every invalidation increments a generation, recorded for the invalidated object. Fetches read the
+// generation before they start, and their value is only cached if the object wasn't invalidated in
+// the meantime, so a fetch racing with a delete or an update doesn't cache a stale value. Only the
+// most recent MAX_INVALIDATIONS are recorded, values fetched before older ones are never cached.
+//
+// The cache is shared by every engine of the process, and accessed from the plugin's thread pool.
+class FlutterFirebaseStorageReferenceCache {
+  private static final String TAG = "FLTFireStorageCache";
+  private static final String FILE_NAME = "io.flutter.plugins.firebase.storage.reference_cache";
+  private static final int VERSION = 1;
+  private static final long SAVE_DELAY_MILLIS = 1000;
+  private static final int MAX_INVALIDATIONS = 1000;
+  static final int DEFAULT_MAX_SIZE = 0;
+  static final long DEFAULT_MAX_AGE_MILLIS = 60 * 60 * 1000;
+
+  private static final FlutterFirebaseStorageReferenceCache instance =
+      new FlutterFirebaseStorageReferenceCache();
+  private static final ScheduledExecutorService saveExecutor =
+      Executors.newSingleThreadScheduledExecutor();
+
+  // Guarded by this cache. Iterates from the least to the most recently used object.
+  private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private int maxSize = DEFAULT_MAX_SIZE;
+  private long maxAgeMillis = DEFAULT_MAX_AGE_MILLIS;
+  private boolean persistent = false;
+  @Nullable private File directory;
+  // The persisted entries, once read and until merged into entries.
+  @Nullable private Map<String, Entry> persistedEntries;
+  private boolean loaded = false;
+  private boolean savePending = false;
+  private long hits = 0;
+  private long misses = 0;
+  private long sizeEvictions = 0;
+  private long ageEvictions = 0;
+  private long invalidations = 0;
+  private long generation = 0;
+  // The generation of the most recent invalidation of each object, oldest first.
+  private final LinkedHashMap<String, Long> invalidatedAt = new LinkedHashMap<>();
+  // The most recent generation that is no longer recorded in invalidatedAt.
+  private long forgottenGeneration = 0;
+
+  private static final class Entry {
+    @Nullable String downloadURL;
+    long downloadURLStoredAt;
+    @Nullable Map<String, Object> metadata;
+    long metadataStoredAt;
+  }
+
+  static FlutterFirebaseStorageReferenceCache getInstance() {
+    return instance;
+  }
+
+  // Sets the directory the cache is persisted to, once the application context is known, and reads
+  // the persisted cache.
+  synchronized void setDirectory(@NonNull File directory) {
+    if (this.directory != null) {
+      return;
+    }
+
+    this.directory = directory;
+    final File file = new File(directory, FILE_NAME);
+    saveExecutor.execute(() -> read(file));
+  }
+
+  // A maxSize of 0 disables the cache. Disabling persistence deletes the persisted cache.
+  synchronized void setSettings(int maxSize, long maxAgeMillis, boolean persistent) {
+    this.maxSize = Math.max(0, maxSize);
+    this.maxAgeMillis = maxAgeMillis;
+
+    if (this.persistent && !persistent && directory != null) {
+      final File file = new File(directory, FILE_NAME);
+      saveExecutor.execute(file::delete);
+    }
+    if (!persistent) {
+      persistedEntries = null;
+      loaded = true;
+    }
+    this.persistent = persistent;
+
+    load();
+    if (this.maxSize == 0) {
+      entries.clear();
+    } else {
+      trim();
+    }
+    scheduleSave();
+  }
+
+  @Nullable
+  synchronized String getDownloadURL(@NonNull StorageReference reference) {
+    if (maxSize == 0) {
+      return null;
+    }
+
+    Entry entry = get(reference);
+    if (entry == null
+        || entry.downloadURL == null
+        || isExpired(entry.downloadURLStoredAt, System.currentTimeMillis())) {
+      misses++;
+      return null;
+    }
+
+    hits++;
+    return entry.downloadURL;
+  }
+
+  @Nullable
+  synchronized Map<String, Object> getMetadata(@NonNull StorageReference reference) {
+    if (maxSize == 0) {
+      return null;
+    }
+
+    Entry entry = get(reference);
+    if (entry == null
+        || entry.metadata == null
+        || isExpired(entry.metadataStoredAt, System.currentTimeMillis())) {
+      misses++;
+      return null;
+    }
+
+    hits++;
+    return entry.metadata;
+  }
+
+  // Returns the generation to pass to putDownloadURL or putMetadata by a fetch starting now.
+  synchronized long getGeneration() {
+    return generation;
+  }
+
+  synchronized void putDownloadURL(
+      @NonNull StorageReference reference, String downloadURL, long fetchGeneration) {
+    if (isInvalidatedSince(reference, fetchGeneration)) {
+      return;
+    }
+
+    Entry entry = getOrCreate(reference);
+    if (entry != null) {
+      entry.downloadURL = downloadURL;
+      entry.downloadURLStoredAt = System.currentTimeMillis();
+      scheduleSave();
+    }
+  }
+
+  synchronized void putMetadata(
+      @NonNull StorageReference reference, Map<String, Object> metadata, long fetchGeneration) {
+    if (isInvalidatedSince(reference, fetchGeneration)) {
+      return;
+    }
+
+    Entry entry = getOrCreate(reference);
+    if (entry != null) {
+      entry.metadata = metadata;
+      entry.metadataStoredAt = System.currentTimeMillis();
+      scheduleSave();
+    }
+  }
+
+  // Drops the values of an object that was deleted, updated or replaced.
+  synchronized void invalidate(@NonNull StorageReference reference) {
+    String key = getKey(reference);
+    generation++;
+    invalidatedAt.remove(key);
+    invalidatedAt.put(key, generation);
+    if (invalidatedAt.size() > MAX_INVALIDATIONS) {
+      Iterator<Long> iterator = invalidatedAt.values().iterator();
+      forgottenGeneration = iterator.next();
+      iterator.remove();
+    }
+
+    if (maxSize == 0) {
+      return;
+    }
+
+    load();
+    if (entries.remove(key) != null) {
+      invalidations++;
+      scheduleSave();
+    }
+  }
+
+  synchronized void clear() {
+    // Invalidates every object.
+    generation++;
+    forgottenGeneration = generation;
+    invalidatedAt.clear();
+
+    load();
+    entries.clear();
+    scheduleSave();
+  }
+
+  // Returns the number of cached objects, along with the hit, miss, eviction and invalidation
+  // counters.
+  synchronized Map<String, Object> getMetrics() {
+    Map<String, Object> metrics = new HashMap<>();
+    metrics.put("size", entries.size());
+    metrics.put("maxSize", maxSize);
+    metrics.put("maxAge", maxAgeMillis);
+    metrics.put("persistent", persistent);
+    metrics.put("hits", hits);
+    metrics.put("misses", misses);
+    metrics.put("sizeEvictions", sizeEvictions);
+    metrics.put("ageEvictions", ageEvictions);
+    metrics.put("invalidations", invalidations);
+    return metrics;
+  }
+
+  private boolean isInvalidatedSince(StorageReference reference, long fetchGeneration) {
+    return isInvalidatedSince(getKey(reference), fetchGeneration);
+  }
+
+  private boolean isInvalidatedSince(String key, long fetchGeneration) {
+    if (fetchGeneration < forgottenGeneration) {
+      return true;
+    }
+
+    Long objectGeneration = invalidatedAt.get(key);
+    return objectGeneration != null && objectGeneration > fetchGeneration;
+  }
+
+  // Returns the entry of an object, dropping it if all of its values expired.
+  @Nullable
+  private Entry get(StorageReference reference) {
+    load();
+    String key = getKey(reference);
+    Entry entry = entries.get(key);
+    if (entry != null && isExpired(entry, System.currentTimeMillis())) {
+      ageEvictions++;
+      entries.remove(key);
+      return null;
+    }
+    return entry;
+  }
+
+  @Nullable
+  private Entry getOrCreate(StorageReference reference) {
+    if (maxSize == 0) {
+      return null;
+    }
+
+    load();
+    String key = getKey(reference);
+    Entry entry = entries.get(key);
+    if (entry == null) {
+      entry = new Entry();
+      entries.put(key, entry);
+      trim();
+    }
+    return entry;
+  }
+
+  private void trim() {
+    Iterator<Entry> iterator = entries.values().iterator();
+    while (entries.size() > maxSize && iterator.hasNext()) {
+      iterator.next();
+      iterator.remove();
+      sizeEvictions++;
+    }
+  }
+
+  private boolean isExpired(long storedAt, long now) {
+    return now - storedAt > maxAgeMillis;
+  }
+
+  private boolean isExpired(Entry entry, long now) {
+    return (entry.downloadURL == null || isExpired(entry.downloadURLStoredAt, now))
+        && (entry.metadata == null || isExpired(entry.metadataStoredAt, now));
+  }
+
+  // The bucket and path of the object, e.g. gs://bucket/path/to/object.
+  private static String getKey(StorageReference reference) {
+    return "gs://" + reference.getBucket() + reference.getPath();
+  }
+
+  // Runs on the saveExecutor as the plugin is attached, only the merge holds the lock.
+  private void read(File file) {
+    Map<String, Entry> persisted = new LinkedHashMap<>();
+
+    if (file.exists()) {
+      try {
+        JSONObject json = new JSONObject(readFile(file));
+        if (json.getInt("version") == VERSION) {
+          // Entries are persisted from the least to the most recently used.
+          JSONArray entriesJson = json.getJSONArray("entries");
+          for (int i = 0; i < entriesJson.length(); i++) {
+            JSONObject entryJson = entriesJson.getJSONObject(i);
+            Entry entry = new Entry();
+            if (entryJson.has("downloadURL")) {
+              entry.downloadURL = entryJson.getString("downloadURL");
+              entry.downloadURLStoredAt = entryJson.getLong("downloadURLStoredAt");
+            }
+            if (entryJson.has("metadata")) {
+              entry.metadata =
+                  FlutterFirebaseStorageUploadQueue.jsonToMap(entryJson.getJSONObject("metadata"));
+              entry.metadataStoredAt = entryJson.getLong("metadataStoredAt");
+            }
+            persisted.put(entryJson.getString("key"), entry);
+          }
+        }
+      } catch (IOException | JSONException e) {
+        Log.e(TAG, "Failed to read the persisted reference cache", e);
+        persisted.clear();
+      }
+    }
+
+    synchronized (this) {
+      if (!loaded) {
+        persistedEntries = persisted;
+        load();
+      }
+    }
+  }
+
+  // Merges the persisted cache once it was read and persistence is enabled. Values cached in the
+  // meantime are more recent and take precedence, and objects invalidated in the meantime are
+  // left out.
+  private void load() {
+    if (loaded || !persistent || persistedEntries == null) {
+      return;
+    }
+    loaded = true;
+
+    long now = System.currentTimeMillis();
+    Map<String, Entry> current = new LinkedHashMap<>(entries);
+    entries.clear();
+
+    for (Map.Entry<String, Entry> mapEntry : persistedEntries.entrySet()) {
+      if (!isExpired(mapEntry.getValue(), now) && !isInvalidatedSince(mapEntry.getKey(), 0)) {
+        entries.put(mapEntry.getKey(), mapEntry.getValue());
+      }
+    }
+    persistedEntries = null;
+
+    entries.putAll(current);
+    trim();
+  }
+
+  // Saves run on the saveExecutor after the persisted cache was read, so they don't overwrite it.
+  private void scheduleSave() {
+    if (savePending || !persistent || directory == null) {
+      return;
+    }
+
+    load();
+
+    savePending = true;
+    saveExecutor.schedule(this::save, SAVE_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+  }
+
+  // Runs on the saveExecutor. Only the serialization holds the lock.
+  private void save() {
+    File file;
+    String json;
+
+    synchronized (this) {
+      savePending = false;
+      if (!persistent || directory == null) {
+        return;
+      }
+
+      try {
+        file = new File(directory, FILE_NAME);
+        json = toJson(System.currentTimeMillis()).toString();
+      } catch (JSONException e) {
+        Log.e(TAG, "Failed to persist the reference cache", e);
+        return;
+      }
+    }
+
+    try {
+      write(file, json);
+    } catch (IOException e) {
+      Log.e(TAG, "Failed to persist the reference cache", e);
+    }
+  }
+
+  private JSONObject toJson(long now) throws JSONException {
+    JSONArray entriesJson = new JSONArray();
+    for (Map.Entry<String, Entry> mapEntry : entries.entrySet()) {
+      Entry entry = mapEntry.getValue();
+      if (isExpired(entry, now)) {
+        continue;
+      }
+
+      JSONObject entryJson = new JSONObject();
+      entryJson.put("key", mapEntry.getKey());
+      if (entry.downloadURL != null) {
+        entryJson.put("downloadURL", entry.downloadURL);
+        entryJson.put("downloadURLStoredAt", entry.downloadURLStoredAt);
+      }
+      if (entry.metadata != null) {
+        entryJson.put("metadata", new JSONObject(entry.metadata));
+        entryJson.put("metadataStoredAt", entry.metadataStoredAt);
+      }
+      entriesJson.put(entryJson);
+    }
+
+    JSONObject json = new JSONObject();
+    json.put("version", VERSION);
+    json.put("entries", entriesJson);
+    return json;
+  }
+
+  private static String readFile(File file) throws IOException {
+    byte[] bytes = new byte[(int) file.length()];
+    FileInputStream inputStream = new FileInputStream(file);
+    try {
+      int offset = 0;
+      while (offset < bytes.length) {
+        int read = inputStream.read(bytes, offset, bytes.length - offset);
+        if (read < 0) throw new IOException("Unexpected end of " + file);
+        offset += read;
+      }
+    } finally {
+      inputStream.close();
+    }
+    return new String(bytes, "UTF-8");
+  }
+
+  // Writes to a temporary file renamed over the previous one, so a process killed while saving
+  // leaves the previous cache intact.
+  private static void write(File file, String json) throws IOException {
+    File temporaryFile = new File(file.getPath() + ".tmp");
+    FileOutputStream outputStream = new FileOutputStream(temporaryFile);
+    try {
+      outputStream.write(json.getBytes("UTF-8"));
+    } finally {
+      outputStream.close();
+    }
+
+    if (!temporaryFile.renameTo(file)) {
+      throw new IOException("Failed to replace " + file);
+    }
+  }
+}
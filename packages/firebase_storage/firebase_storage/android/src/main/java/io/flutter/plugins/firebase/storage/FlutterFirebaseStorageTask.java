@@ -6,6 +6,7 @@ import static io.flutter.plugins.firebase.storage.FlutterFirebaseStoragePlugin.p
 import android.net.Uri;
 import android.os.Handler;
 import android.os.Looper;
+import android.os.SystemClock;
 import android.util.SparseArray;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -25,8 +26,15 @@ import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 
 class FlutterFirebaseStorageTask {
-  static final SparseArray<FlutterFirebaseStorageTask> inProgressTasks = new SparseArray<>();
   private static Executor taskExecutor = Executors.newSingleThreadExecutor();
+  // Every task posts its events to Dart through the same handler.
+  static final Handler mainHandler = new Handler(Looper.getMainLooper());
+  // The progress throttle of tasks started without one. See setProgressThrottle.
+  private static volatile long defaultProgressIntervalMillis = 0;
+  private static volatile long defaultProgressBytes = 0;
+  // The in progress tasks of the engine that started this task, keyed by their Dart handle.
+  // Handles are only unique per engine, so every plugin instance provides its own array.
+  private final SparseArray<FlutterFirebaseStorageTask> inProgressTasks;
   private final FlutterFirebaseStorageTaskType type;
   private final int handle;
   private final StorageReference reference;
@@ -38,8 +46,18 @@ class FlutterFirebaseStorageTask {
   private final Object cancelSyncObject = new Object();
   private StorageTask<?> storageTask;
   private Boolean destroyed = false;
+  // Whether the uploaded file is a temporary copy of the data, deleted once the task ends.
+  private boolean deleteFileOnDestroy = false;
+
+  // Progress throttling, only accessed on the taskExecutor once the task is started.
+  private long progressIntervalMillis = defaultProgressIntervalMillis;
+  private long progressBytes = defaultProgressBytes;
+  private long lastProgressSentAt = -1;
+  private long lastProgressSentBytes = 0;
+  private Object skippedProgressSnapshot;
 
   private FlutterFirebaseStorageTask(
+      SparseArray<FlutterFirebaseStorageTask> inProgressTasks,
       FlutterFirebaseStorageTaskType type,
       int handle,
       StorageReference reference,
@@ -52,17 +70,35 @@ class FlutterFirebaseStorageTask {
     this.bytes = bytes;
     this.fileUri = fileUri;
     this.metadata = metadata;
-    inProgressTasks.put(handle, this);
+    this.inProgressTasks = inProgressTasks;
+
+    synchronized (inProgressTasks) {
+      inProgressTasks.put(handle, this);
+    }
+  }
+
+  static void setDefaultProgressThrottle(long intervalMillis, long bytes) {
+    defaultProgressIntervalMillis = intervalMillis;
+    defaultProgressBytes = bytes;
+  }
+
+  // Only sends a progress event once both intervalMillis have elapsed and bytes have been
+  // transferred since the previous one. The last progress of the task is always sent. Must be
+  // called before the task is started.
+  void setProgressThrottle(long intervalMillis, long bytes) {
+    progressIntervalMillis = intervalMillis;
+    progressBytes = bytes;
   }
 
   @Nullable
-  static FlutterFirebaseStorageTask getInProgressTaskForHandle(int handle) {
+  static FlutterFirebaseStorageTask getInProgressTaskForHandle(
+      SparseArray<FlutterFirebaseStorageTask> inProgressTasks, int handle) {
     synchronized (inProgressTasks) {
       return inProgressTasks.get(handle);
     }
   }
 
-  static void cancelInProgressTasks() {
+  static void cancelInProgressTasks(SparseArray<FlutterFirebaseStorageTask> inProgressTasks) {
     synchronized (inProgressTasks) {
       for (int i = 0; i < inProgressTasks.size(); i++) {
         int key = inProgressTasks.keyAt(i);
@@ -77,24 +113,62 @@ class FlutterFirebaseStorageTask {
   }
 
   public static FlutterFirebaseStorageTask uploadBytes(
-      int handle, StorageReference reference, byte[] data, @Nullable StorageMetadata metadata) {
+      SparseArray<FlutterFirebaseStorageTask> inProgressTasks,
+      int handle,
+      StorageReference reference,
+      byte[] data,
+      @Nullable StorageMetadata metadata) {
     return new FlutterFirebaseStorageTask(
-        FlutterFirebaseStorageTaskType.BYTES, handle, reference, data, null, metadata);
+        inProgressTasks,
+        FlutterFirebaseStorageTaskType.BYTES,
+        handle,
+        reference,
+        data,
+        null,
+        metadata);
   }
 
   public static FlutterFirebaseStorageTask uploadFile(
+      SparseArray<FlutterFirebaseStorageTask> inProgressTasks,
       int handle,
       StorageReference reference,
       @NonNull Uri fileUri,
       @Nullable StorageMetadata metadata) {
     return new FlutterFirebaseStorageTask(
-        FlutterFirebaseStorageTaskType.FILE, handle, reference, null, fileUri, metadata);
+        inProgressTasks,
+        FlutterFirebaseStorageTaskType.FILE,
+        handle,
+        reference,
+        null,
+        fileUri,
+        metadata);
+  }
+
+  public static FlutterFirebaseStorageTask uploadTemporaryFile(
+      SparseArray<FlutterFirebaseStorageTask> inProgressTasks,
+      int handle,
+      StorageReference reference,
+      @NonNull File file,
+      @Nullable StorageMetadata metadata) {
+    FlutterFirebaseStorageTask task =
+        uploadFile(inProgressTasks, handle, reference, Uri.fromFile(file), metadata);
+    task.deleteFileOnDestroy = true;
+    return task;
   }
 
   public static FlutterFirebaseStorageTask downloadFile(
-      int handle, StorageReference reference, @NonNull File file) {
+      SparseArray<FlutterFirebaseStorageTask> inProgressTasks,
+      int handle,
+      StorageReference reference,
+      @NonNull File file) {
     return new FlutterFirebaseStorageTask(
-        FlutterFirebaseStorageTaskType.DOWNLOAD, handle, reference, null, Uri.fromFile(file), null);
+        inProgressTasks,
+        FlutterFirebaseStorageTaskType.DOWNLOAD,
+        handle,
+        reference,
+        null,
+        Uri.fromFile(file),
+        null);
   }
 
   public static Map<String, Object> parseUploadTaskSnapshot(UploadTask.TaskSnapshot snapshot) {
@@ -142,6 +216,10 @@ class FlutterFirebaseStorageTask {
       inProgressTasks.remove(handle);
     }
 
+    if (deleteFileOnDestroy && fileUri != null && fileUri.getPath() != null) {
+      FlutterFirebaseStorageUploadBuffers.release(new File(fileUri.getPath()));
+    }
+
     synchronized (cancelSyncObject) {
       cancelSyncObject.notifyAll();
     }
@@ -229,10 +307,11 @@ class FlutterFirebaseStorageTask {
         taskExecutor,
         taskSnapshot -> {
           if (destroyed) return;
-          new Handler(Looper.getMainLooper())
-              .post(
-                  () ->
-                      channel.invokeMethod("Task#onProgress", getTaskEventMap(taskSnapshot, null)));
+          if (shouldSendProgress(taskSnapshot)) {
+            sendProgress(channel, taskSnapshot);
+          } else {
+            skippedProgressSnapshot = taskSnapshot;
+          }
           synchronized (resumeSyncObject) {
             resumeSyncObject.notifyAll();
           }
@@ -242,9 +321,9 @@ class FlutterFirebaseStorageTask {
         taskExecutor,
         taskSnapshot -> {
           if (destroyed) return;
-          new Handler(Looper.getMainLooper())
-              .post(
-                  () -> channel.invokeMethod("Task#onPaused", getTaskEventMap(taskSnapshot, null)));
+          flushSkippedProgress(channel);
+          mainHandler.post(
+              () -> channel.invokeMethod("Task#onPaused", getTaskEventMap(taskSnapshot, null)));
           synchronized (pauseSyncObject) {
             pauseSyncObject.notifyAll();
           }
@@ -254,10 +333,13 @@ class FlutterFirebaseStorageTask {
         taskExecutor,
         taskSnapshot -> {
           if (destroyed) return;
-          new Handler(Looper.getMainLooper())
-              .post(
-                  () ->
-                      channel.invokeMethod("Task#onSuccess", getTaskEventMap(taskSnapshot, null)));
+          // The object was replaced, its cached download URL and metadata are stale.
+          if (type != FlutterFirebaseStorageTaskType.DOWNLOAD) {
+            FlutterFirebaseStorageReferenceCache.getInstance().invalidate(reference);
+          }
+          flushSkippedProgress(channel);
+          mainHandler.post(
+              () -> channel.invokeMethod("Task#onSuccess", getTaskEventMap(taskSnapshot, null)));
           destroy();
         });
 
@@ -265,27 +347,69 @@ class FlutterFirebaseStorageTask {
         taskExecutor,
         () -> {
           if (destroyed) return;
-          new Handler(Looper.getMainLooper())
-              .post(
-                  () -> {
-                    channel.invokeMethod("Task#onCanceled", getTaskEventMap(null, null));
-                    destroy();
-                  });
+          flushSkippedProgress(channel);
+          mainHandler.post(
+              () -> {
+                channel.invokeMethod("Task#onCanceled", getTaskEventMap(null, null));
+                destroy();
+              });
         });
 
     storageTask.addOnFailureListener(
         taskExecutor,
         exception -> {
           if (destroyed) return;
-          new Handler(Looper.getMainLooper())
-              .post(
-                  () -> {
-                    channel.invokeMethod("Task#onFailure", getTaskEventMap(null, exception));
-                    destroy();
-                  });
+          flushSkippedProgress(channel);
+          mainHandler.post(
+              () -> {
+                channel.invokeMethod("Task#onFailure", getTaskEventMap(null, exception));
+                destroy();
+              });
         });
   }
 
+  private boolean shouldSendProgress(Object snapshot) {
+    if (progressIntervalMillis <= 0 && progressBytes <= 0) {
+      return true;
+    }
+
+    long bytesTransferred;
+    long totalBytes;
+    if (snapshot instanceof FileDownloadTask.TaskSnapshot) {
+      bytesTransferred = ((FileDownloadTask.TaskSnapshot) snapshot).getBytesTransferred();
+      totalBytes = ((FileDownloadTask.TaskSnapshot) snapshot).getTotalByteCount();
+    } else {
+      bytesTransferred = ((UploadTask.TaskSnapshot) snapshot).getBytesTransferred();
+      totalBytes = ((UploadTask.TaskSnapshot) snapshot).getTotalByteCount();
+    }
+
+    // The first and the last progress are always sent. The total is -1 while unknown.
+    if (lastProgressSentAt < 0 || (totalBytes >= 0 && bytesTransferred >= totalBytes)) {
+      return true;
+    }
+
+    return SystemClock.elapsedRealtime() - lastProgressSentAt >= progressIntervalMillis
+        && bytesTransferred - lastProgressSentBytes >= progressBytes;
+  }
+
+  private void sendProgress(@NonNull MethodChannel channel, Object snapshot) {
+    skippedProgressSnapshot = null;
+    lastProgressSentAt = SystemClock.elapsedRealtime();
+    lastProgressSentBytes =
+        snapshot instanceof FileDownloadTask.TaskSnapshot
+            ? ((FileDownloadTask.TaskSnapshot) snapshot).getBytesTransferred()
+            : ((UploadTask.TaskSnapshot) snapshot).getBytesTransferred();
+    mainHandler.post(
+        () -> channel.invokeMethod("Task#onProgress", getTaskEventMap(snapshot, null)));
+  }
+
+  // Sends the latest progress held back by the throttle, before the task pauses or completes.
+  private void flushSkippedProgress(@NonNull MethodChannel channel) {
+    if (skippedProgressSnapshot != null) {
+      sendProgress(channel, skippedProgressSnapshot);
+    }
+  }
+
   private Map<String, Object> getTaskEventMap(
       @Nullable Object snapshot, @Nullable Exception exception) {
     Map<String, Object> arguments = new HashMap<>();
@@ -0,0 +1,214 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.firebase.storage;
+
+import static io.flutter.plugins.firebase.storage.FlutterFirebaseStorageTask.mainHandler;
+
+import android.util.SparseArray;
+import androidx.annotation.NonNull;
+import io.flutter.plugin.common.BinaryMessenger;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+// Temporary files Dart writes the data of large uploads to, chunk by chunk, so the data is never
+// held in memory as a single array on either side. Chunks are sent as binary messages on
+// CHANNEL_NAME, without going through a codec:
+//
+//   message: int bufferId (big endian) | chunk
+//   reply: byte 0 on success, byte 1 followed by a UTF-8 error message on failure
+//
+// The message buffer is only valid during the callback, so each chunk is copied on the platform
+// thread and written to the file on the executor. Dart waits for the reply to a chunk before
+// sending the next one, so the writes of a buffer stay sequential.
+class FlutterFirebaseStorageUploadBuffers implements BinaryMessenger.BinaryMessageHandler {
+  static final String CHANNEL_NAME = "plugins.flutter.io/firebase_storage/upload_buffer";
+  private static final String FILE_PREFIX = "firebase_storage_upload_";
+  private static final String FILE_SUFFIX = ".tmp";
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  // The files of the buffers of every engine in the process, which must not be deleted as
+  // orphans. Guarded by itself.
+  private static final Set<File> activeFiles = new HashSet<>();
+
+  private final File directory;
+  private final Executor executor;
+
+  // Guarded by itself.
+  private final SparseArray<Buffer> buffers = new SparseArray<>();
+  private int nextBufferId = 0;
+
+  private static final class Buffer {
+    final File file;
+    final FileOutputStream outputStream;
+
+    Buffer(File file) throws IOException {
+      this.file = file;
+      this.outputStream = new FileOutputStream(file);
+    }
+  }
+
+  FlutterFirebaseStorageUploadBuffers(@NonNull File directory, @NonNull Executor executor) {
+    this.directory = directory;
+    this.executor = executor;
+  }
+
+  // Deletes the buffer files left behind by a previous process, e.g. one killed while Dart was
+  // writing a buffer or before its upload started.
+  void deleteOrphanedFiles() {
+    synchronized (activeFiles) {
+      File[] files = directory.listFiles();
+      if (files == null) return;
+
+      for (File file : files) {
+        String name = file.getName();
+        if (name.startsWith(FILE_PREFIX)
+            && name.endsWith(FILE_SUFFIX)
+            && !activeFiles.contains(file)) {
+          //noinspection ResultOfMethodCallIgnored
+          file.delete();
+        }
+      }
+    }
+  }
+
+  // Creates an empty buffer and returns its id.
+  int create() throws IOException {
+    Buffer buffer;
+    synchronized (activeFiles) {
+      File file = File.createTempFile(FILE_PREFIX, FILE_SUFFIX, directory);
+      activeFiles.add(file);
+      try {
+        buffer = new Buffer(file);
+      } catch (IOException e) {
+        release(file);
+        throw e;
+      }
+    }
+
+    synchronized (buffers) {
+      int bufferId = nextBufferId++;
+      buffers.put(bufferId, buffer);
+      return bufferId;
+    }
+  }
+
+  // Closes the buffer and returns its file, to be released by the caller once uploaded.
+  @NonNull
+  File take(int bufferId) throws IOException {
+    Buffer buffer = remove(bufferId);
+    if (buffer == null) {
+      throw new IllegalArgumentException("Unknown upload buffer " + bufferId + ".");
+    }
+
+    synchronized (buffer) {
+      buffer.outputStream.close();
+    }
+    return buffer.file;
+  }
+
+  // Deletes a file returned by take, once it has been uploaded or the upload failed to start.
+  static void release(@NonNull File file) {
+    synchronized (activeFiles) {
+      activeFiles.remove(file);
+    }
+    //noinspection ResultOfMethodCallIgnored
+    file.delete();
+  }
+
+  // Closes and deletes the buffer, e.g. when Dart failed to write it.
+  void discard(int bufferId) {
+    Buffer buffer = remove(bufferId);
+    if (buffer != null) {
+      discard(buffer);
+    }
+  }
+
+  // Closes and deletes every buffer, e.g. when the engine is detached.
+  void discardAll() {
+    synchronized (buffers) {
+      for (int i = 0; i < buffers.size(); i++) {
+        discard(buffers.valueAt(i));
+      }
+      buffers.clear();
+    }
+  }
+
+  @Override
+  public void onMessage(ByteBuffer message, @NonNull BinaryMessenger.BinaryReply reply) {
+    final Buffer buffer;
+    final ByteBuffer chunk;
+
+    try {
+      int bufferId = message.getInt(message.position());
+      message.position(message.position() + 4);
+
+      synchronized (buffers) {
+        buffer = buffers.get(bufferId);
+      }
+      if (buffer == null) {
+        throw new IllegalArgumentException("Unknown upload buffer " + bufferId + ".");
+      }
+
+      chunk = ByteBuffer.allocate(message.remaining());
+      chunk.put(message);
+      chunk.flip();
+    } catch (Exception e) {
+      reply.reply(failure(e));
+      return;
+    }
+
+    executor.execute(
+        () -> {
+          ByteBuffer result;
+          try {
+            synchronized (buffer) {
+              FileChannel channel = buffer.outputStream.getChannel();
+              while (chunk.hasRemaining()) {
+                channel.write(chunk);
+              }
+            }
+
+            result = ByteBuffer.allocateDirect(1);
+            result.put((byte) 0);
+          } catch (Exception e) {
+            result = failure(e);
+          }
+
+          final ByteBuffer response = result;
+          mainHandler.post(() -> reply.reply(response));
+        });
+  }
+
+  private static ByteBuffer failure(Exception e) {
+    byte[] error = String.valueOf(e.getMessage()).getBytes(UTF_8);
+    ByteBuffer failure = ByteBuffer.allocateDirect(1 + error.length);
+    failure.put((byte) 1).put(error);
+    return failure;
+  }
+
+  private Buffer remove(int bufferId) {
+    synchronized (buffers) {
+      Buffer buffer = buffers.get(bufferId);
+      buffers.remove(bufferId);
+      return buffer;
+    }
+  }
+
+  private static void discard(Buffer buffer) {
+    try {
+      buffer.outputStream.close();
+    } catch (IOException e) {
+      // Deleted below regardless.
+    }
+    release(buffer.file);
+  }
+}
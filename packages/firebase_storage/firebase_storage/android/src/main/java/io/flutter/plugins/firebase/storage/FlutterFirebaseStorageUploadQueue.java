@@ -0,0 +1,676 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.firebase.storage;
+
+import static io.flutter.plugins.firebase.storage.FlutterFirebaseStoragePlugin.getExceptionDetails;
+import static io.flutter.plugins.firebase.storage.FlutterFirebaseStoragePlugin.parseMetadata;
+
+import android.net.Uri;
+import android.os.SystemClock;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.storage.FirebaseStorage;
+import com.google.firebase.storage.StorageMetadata;
+import com.google.firebase.storage.StorageReference;
+import com.google.firebase.storage.UploadTask;
+import io.flutter.plugin.common.MethodChannel;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+// Uploads a list of files, running at most maxConcurrent of them at once, highest priority first.
+// The progress of the whole queue is sent to Dart as a single throttled stream of
+// "UploadQueue#onProgress" events, followed by "UploadQueue#onComplete" once every file has been
+// uploaded or has failed.
+//
+// The queue is persisted to disk as it progresses, along with the upload session of every started
+// file. A queue interrupted by process death can be resumed from the files it had left, continuing
+// the interrupted uploads where the server left them.
+//
+// A queue stopped as its engine is detached pauses its started uploads. Cancelling them would
+// cancel their upload session as well, so the paused tasks are kept and resumed if the queue is
+// resumed by the same process.
+//
+// The state of every queue is confined to the queueExecutor, SDK listeners included.
+class FlutterFirebaseStorageUploadQueue {
+  private static final String TAG = "FLTFireStorageQueue";
+  private static final String QUEUES_DIRECTORY = "io.flutter.plugins.firebase.storage.queues";
+  static final int DEFAULT_MAX_CONCURRENT = 3;
+  static final long DEFAULT_PROGRESS_INTERVAL_MILLIS = 250;
+
+  private static final Executor queueExecutor = Executors.newSingleThreadExecutor();
+  // Queues running in this process, across engines. Only accessed on the queueExecutor.
+  private static final Set<String> runningQueueIds = new HashSet<>();
+  // Queues stopped in this process, with their started uploads paused. Only accessed on the
+  // queueExecutor.
+  private static final Map<String, FlutterFirebaseStorageUploadQueue> stoppedQueues =
+      new HashMap<>();
+
+  private final String id;
+  private final String appName;
+  @Nullable private final String bucket;
+  private final File file;
+  private int maxConcurrent;
+  private long progressIntervalMillis;
+
+  private final PriorityQueue<Item> pendingItems =
+      new PriorityQueue<>(
+          11,
+          (a, b) ->
+              a.priority != b.priority
+                  ? Integer.compare(b.priority, a.priority)
+                  : Long.compare(a.sequence, b.sequence));
+  private final List<Item> activeItems = new ArrayList<>();
+  private final List<Map<String, Object>> failures = new ArrayList<>();
+  private int completedFiles = 0;
+  private int totalFiles = 0;
+  private long completedBytes = 0;
+  private long totalBytes = 0;
+  private long lastProgressSentAt = -1;
+
+  // Cleared once the queue stops, events are no longer sent to Dart.
+  @Nullable private volatile MethodChannel channel;
+
+  private static final class Item {
+    final String path;
+    final String filePath;
+    @Nullable final Map<String, Object> metadata;
+    final int priority;
+    final long sequence;
+    final long size;
+    @Nullable String sessionUri;
+    boolean restartedWithoutSession = false;
+    @Nullable UploadTask task;
+    long bytesTransferred = 0;
+
+    Item(
+        String path,
+        String filePath,
+        @Nullable Map<String, Object> metadata,
+        int priority,
+        long sequence,
+        long size,
+        @Nullable String sessionUri) {
+      this.path = path;
+      this.filePath = filePath;
+      this.metadata = metadata;
+      this.priority = priority;
+      this.sequence = sequence;
+      this.size = size;
+      this.sessionUri = sessionUri;
+    }
+  }
+
+  private FlutterFirebaseStorageUploadQueue(
+      String id,
+      String appName,
+      @Nullable String bucket,
+      File file,
+      int maxConcurrent,
+      long progressIntervalMillis) {
+    this.id = id;
+    this.appName = appName;
+    this.bucket = bucket;
+    this.file = file;
+    this.maxConcurrent = Math.max(1, maxConcurrent);
+    this.progressIntervalMillis = progressIntervalMillis;
+  }
+
+  static Executor getExecutor() {
+    return queueExecutor;
+  }
+
+  private static File getQueuesDirectory(File filesDir) {
+    return new File(filesDir, QUEUES_DIRECTORY);
+  }
+
+  String getId() {
+    return id;
+  }
+
+  // Whether the queue has neither completed nor been stopped. Must be called on the executor.
+  boolean isRunning() {
+    return runningQueueIds.contains(id);
+  }
+
+  /**
+   * Creates a queue uploading the given files and starts it. Must be called on the executor.
+   *
+   * @param uploads The files to upload, as maps of "path" (of the reference), "filePath", optional
+   *     "metadata" and optional "priority", higher first.
+   */
+  static FlutterFirebaseStorageUploadQueue start(
+      @NonNull MethodChannel channel,
+      @NonNull File filesDir,
+      @NonNull String appName,
+      @Nullable String bucket,
+      @NonNull List<Map<String, Object>> uploads,
+      int maxConcurrent,
+      long progressIntervalMillis)
+      throws IOException, JSONException {
+    FlutterFirebaseStorageUploadQueue queue =
+        create(filesDir, appName, bucket, uploads, maxConcurrent, progressIntervalMillis);
+    final String id = queue.id;
+
+    // Dart only learns the id of the queue from the reply to UploadQueue#start, which is sent as
+    // the calling task completes. Running the queue afterwards keeps its events from preceding it.
+    runningQueueIds.add(id);
+    queueExecutor.execute(
+        () -> {
+          if (runningQueueIds.contains(id)) queue.run(channel);
+        });
+    return queue;
+  }
+
+  // Creates and persists a queue, without starting it.
+  @VisibleForTesting
+  static FlutterFirebaseStorageUploadQueue create(
+      @NonNull File filesDir,
+      @NonNull String appName,
+      @Nullable String bucket,
+      @NonNull List<Map<String, Object>> uploads,
+      int maxConcurrent,
+      long progressIntervalMillis)
+      throws IOException, JSONException {
+    String id = UUID.randomUUID().toString();
+    FlutterFirebaseStorageUploadQueue queue =
+        new FlutterFirebaseStorageUploadQueue(
+            id,
+            appName,
+            bucket,
+            new File(getQueuesDirectory(filesDir), id + ".json"),
+            maxConcurrent,
+            progressIntervalMillis);
+
+    long sequence = 0;
+    for (Map<String, Object> upload : uploads) {
+      String filePath = (String) upload.get("filePath");
+      Number priority = (Number) upload.get("priority");
+      @SuppressWarnings("unchecked")
+      Map<String, Object> metadata = (Map<String, Object>) upload.get("metadata");
+
+      queue.addItem(
+          new Item(
+              (String) upload.get("path"),
+              filePath,
+              metadata,
+              priority != null ? priority.intValue() : 0,
+              sequence++,
+              new File(filePath).length(),
+              null));
+    }
+
+    queue.persist();
+    return queue;
+  }
+
+  /**
+   * Resumes a persisted queue that is not running in this process. Must be called on the executor.
+   *
+   * @param maxConcurrent Replaces the persisted concurrency if not null.
+   * @param progressIntervalMillis Replaces the persisted progress interval if not null.
+   */
+  static FlutterFirebaseStorageUploadQueue resume(
+      @NonNull MethodChannel channel,
+      @NonNull File filesDir,
+      @NonNull String id,
+      @Nullable Integer maxConcurrent,
+      @Nullable Long progressIntervalMillis)
+      throws IOException, JSONException {
+    if (runningQueueIds.contains(id)) {
+      throw new IllegalStateException("The upload queue " + id + " is already running.");
+    }
+
+    // A queue stopped by this process still has its paused uploads.
+    FlutterFirebaseStorageUploadQueue queue = stoppedQueues.remove(id);
+    if (queue == null) {
+      queue = restore(filesDir, id);
+    }
+    if (maxConcurrent != null) {
+      queue.maxConcurrent = Math.max(1, maxConcurrent);
+    }
+    if (progressIntervalMillis != null) {
+      queue.progressIntervalMillis = progressIntervalMillis;
+    }
+
+    queue.run(channel);
+    return queue;
+  }
+
+  /**
+   * Returns the persisted queues that are not running in this process, e.g. interrupted by process
+   * death. Must be called on the executor.
+   */
+  static List<Map<String, Object>> getPersistedQueues(@NonNull File filesDir) {
+    List<Map<String, Object>> queues = new ArrayList<>();
+    File[] files = getQueuesDirectory(filesDir).listFiles();
+    if (files == null) {
+      return queues;
+    }
+
+    for (File file : files) {
+      if (!file.getName().endsWith(".json")) continue;
+      try {
+        FlutterFirebaseStorageUploadQueue queue = restore(file);
+        if (!runningQueueIds.contains(queue.id)) {
+          queues.add(queue.getState());
+        }
+      } catch (IOException | JSONException e) {
+        Log.w(TAG, "Discarding the unreadable upload queue " + file.getName(), e);
+        //noinspection ResultOfMethodCallIgnored
+        file.delete();
+      }
+    }
+    return queues;
+  }
+
+  /**
+   * Deletes a persisted queue that is not running in this process. Must be called on the executor.
+   */
+  static void deletePersistedQueue(@NonNull File filesDir, @NonNull String id) {
+    if (runningQueueIds.contains(id)) {
+      throw new IllegalStateException("The upload queue " + id + " is running.");
+    }
+
+    FlutterFirebaseStorageUploadQueue stoppedQueue = stoppedQueues.get(id);
+    if (stoppedQueue != null) {
+      stoppedQueue.cancel();
+      return;
+    }
+    //noinspection ResultOfMethodCallIgnored
+    new File(getQueuesDirectory(filesDir), id + ".json").delete();
+  }
+
+  // Cancels every upload and deletes the queue. Must be called on the executor.
+  void cancel() {
+    stop(true);
+    //noinspection ResultOfMethodCallIgnored
+    file.delete();
+  }
+
+  // Stops the queue, e.g. when its engine is detached, keeping it persisted so it can be resumed.
+  // The started uploads are paused to keep their session. Must be called on the executor.
+  void stop() {
+    stop(false);
+  }
+
+  private void stop(boolean cancelUploads) {
+    channel = null;
+    runningQueueIds.remove(id);
+
+    if (!cancelUploads) {
+      for (Item item : activeItems) {
+        if (item.task != null) item.task.pause();
+      }
+      stoppedQueues.put(id, this);
+      return;
+    }
+
+    stoppedQueues.remove(id);
+    for (Item item : activeItems) {
+      if (item.task == null) continue;
+      item.task.cancel();
+      item.task = null;
+    }
+  }
+
+  private void run(MethodChannel channel) {
+    this.channel = channel;
+    runningQueueIds.add(id);
+    // The uploads paused as the queue was stopped.
+    for (Item item : activeItems) {
+      if (item.task != null) item.task.resume();
+    }
+    startPendingItems();
+    if (activeItems.isEmpty()) {
+      complete();
+    }
+  }
+
+  private void addItem(Item item) {
+    pendingItems.add(item);
+    totalFiles++;
+    totalBytes += item.size;
+  }
+
+  private void startPendingItems() {
+    while (channel != null && activeItems.size() < maxConcurrent && !pendingItems.isEmpty()) {
+      Item item = pendingItems.poll();
+      try {
+        startItem(item);
+      } catch (RuntimeException e) {
+        // E.g. the Firebase app was deleted.
+        activeItems.remove(item);
+        addFailure(item, e);
+      }
+    }
+  }
+
+  private void startItem(final Item item) {
+    activeItems.add(item);
+    item.bytesTransferred = 0;
+
+    StorageReference reference = getStorage().getReference(item.path);
+    Uri fileUri = Uri.fromFile(new File(item.filePath));
+    StorageMetadata metadata = parseMetadata(item.metadata);
+
+    // Continues the upload session of a file interrupted by process death.
+    if (item.sessionUri != null) {
+      item.task = reference.putFile(fileUri, metadata, Uri.parse(item.sessionUri));
+    } else if (metadata != null) {
+      item.task = reference.putFile(fileUri, metadata);
+    } else {
+      item.task = reference.putFile(fileUri);
+    }
+
+    final UploadTask task = item.task;
+
+    task.addOnProgressListener(
+        queueExecutor,
+        taskSnapshot -> {
+          if (item.task != task) return;
+          item.bytesTransferred = taskSnapshot.getBytesTransferred();
+
+          Uri sessionUri = taskSnapshot.getUploadSessionUri();
+          if (sessionUri != null && !sessionUri.toString().equals(item.sessionUri)) {
+            item.sessionUri = sessionUri.toString();
+            persistOrLog();
+          }
+
+          sendProgress(false);
+        });
+
+    task.addOnSuccessListener(
+        queueExecutor,
+        taskSnapshot -> {
+          if (item.task != task) return;
+          FlutterFirebaseStorageReferenceCache.getInstance().invalidate(reference);
+          activeItems.remove(item);
+          completedFiles++;
+          completedBytes += item.size;
+          onItemDone();
+        });
+
+    task.addOnFailureListener(
+        queueExecutor,
+        exception -> {
+          if (item.task != task) return;
+          activeItems.remove(item);
+
+          // The session of a resumed upload may have expired, upload the file again from scratch.
+          if (item.sessionUri != null && !item.restartedWithoutSession) {
+            Log.w(TAG, "Failed to resume the upload of " + item.filePath + ", restarting it.");
+            item.sessionUri = null;
+            item.restartedWithoutSession = true;
+            pendingItems.add(item);
+          } else {
+            addFailure(item, exception);
+          }
+          onItemDone();
+        });
+  }
+
+  private void addFailure(Item item, Exception exception) {
+    Map<String, Object> error = new HashMap<>(getExceptionDetails(exception));
+    if (!error.containsKey("message")) {
+      error.put("message", exception.getMessage());
+    }
+
+    Map<String, Object> failure = new HashMap<>();
+    failure.put("path", item.path);
+    failure.put("filePath", item.filePath);
+    failure.put("error", error);
+    failures.add(failure);
+  }
+
+  private void onItemDone() {
+    persistOrLog();
+    startPendingItems();
+    if (activeItems.isEmpty() && pendingItems.isEmpty()) {
+      complete();
+    } else {
+      sendProgress(false);
+    }
+  }
+
+  private void complete() {
+    sendProgress(true);
+
+    final MethodChannel channel = this.channel;
+    final Map<String, Object> state = getState();
+    state.put("failures", new ArrayList<>(failures));
+
+    runningQueueIds.remove(id);
+    stoppedQueues.remove(id);
+    this.channel = null;
+    //noinspection ResultOfMethodCallIgnored
+    file.delete();
+
+    if (channel != null) {
+      FlutterFirebaseStorageTask.mainHandler.post(
+          () -> channel.invokeMethod("UploadQueue#onComplete", state));
+    }
+  }
+
+  private void sendProgress(boolean force) {
+    final MethodChannel channel = this.channel;
+    if (channel == null) {
+      return;
+    }
+
+    long now = SystemClock.elapsedRealtime();
+    if (!force && lastProgressSentAt >= 0 && now - lastProgressSentAt < progressIntervalMillis) {
+      return;
+    }
+    lastProgressSentAt = now;
+
+    final Map<String, Object> state = getState();
+    FlutterFirebaseStorageTask.mainHandler.post(
+        () -> channel.invokeMethod("UploadQueue#onProgress", state));
+  }
+
+  private Map<String, Object> getState() {
+    long bytesTransferred = completedBytes;
+    for (Item item : activeItems) {
+      bytesTransferred += item.bytesTransferred;
+    }
+
+    Map<String, Object> state = new HashMap<>();
+    state.put("queueId", id);
+    state.put("appName", appName);
+    state.put("bucket", bucket);
+    state.put("totalFiles", totalFiles);
+    state.put("completedFiles", completedFiles);
+    state.put("failedFiles", failures.size());
+    state.put("remainingFiles", pendingItems.size() + activeItems.size());
+    state.put("bytesTransferred", bytesTransferred);
+    state.put("totalBytes", totalBytes);
+    return state;
+  }
+
+  private FirebaseStorage getStorage() {
+    FirebaseApp app = FirebaseApp.getInstance(appName);
+    if (bucket == null) {
+      return FirebaseStorage.getInstance(app);
+    }
+    return FirebaseStorage.getInstance(app, "gs://" + bucket);
+  }
+
+  private void persistOrLog() {
+    try {
+      persist();
+    } catch (IOException | JSONException e) {
+      Log.e(TAG, "Failed to persist the upload queue " + id, e);
+    }
+  }
+
+  // Writes the queue to a temporary file renamed over the previous one, so a process killed while
+  // persisting leaves the previous state intact.
+  private void persist() throws IOException, JSONException {
+    JSONArray items = new JSONArray();
+    List<Item> remainingItems = new ArrayList<>(activeItems);
+    remainingItems.addAll(pendingItems);
+    for (Item item : remainingItems) {
+      JSONObject json = new JSONObject();
+      json.put("path", item.path);
+      json.put("filePath", item.filePath);
+      json.put("priority", item.priority);
+      json.put("sequence", item.sequence);
+      json.put("size", item.size);
+      if (item.metadata != null) {
+        json.put("metadata", new JSONObject(item.metadata));
+      }
+      if (item.sessionUri != null) {
+        json.put("sessionUri", item.sessionUri);
+      }
+      items.put(json);
+    }
+
+    JSONArray failuresJson = new JSONArray();
+    for (Map<String, Object> failure : failures) {
+      failuresJson.put(new JSONObject(failure));
+    }
+
+    JSONObject json = new JSONObject();
+    json.put("id", id);
+    json.put("appName", appName);
+    if (bucket != null) {
+      json.put("bucket", bucket);
+    }
+    json.put("maxConcurrent", maxConcurrent);
+    json.put("progressInterval", progressIntervalMillis);
+    json.put("totalFiles", totalFiles);
+    json.put("completedFiles", completedFiles);
+    json.put("completedBytes", completedBytes);
+    json.put("totalBytes", totalBytes);
+    json.put("failures", failuresJson);
+    json.put("items", items);
+
+    File directory = file.getParentFile();
+    if (directory != null && !directory.exists() && !directory.mkdirs()) {
+      throw new IOException("Failed to create " + directory);
+    }
+
+    File temporaryFile = new File(file.getPath() + ".tmp");
+    FileOutputStream outputStream = new FileOutputStream(temporaryFile);
+    try {
+      outputStream.write(json.toString().getBytes("UTF-8"));
+      outputStream.getFD().sync();
+    } finally {
+      outputStream.close();
+    }
+
+    if (!temporaryFile.renameTo(file)) {
+      throw new IOException("Failed to replace " + file);
+    }
+  }
+
+  @VisibleForTesting
+  static FlutterFirebaseStorageUploadQueue restore(@NonNull File filesDir, @NonNull String id)
+      throws IOException, JSONException {
+    return restore(new File(getQueuesDirectory(filesDir), id + ".json"));
+  }
+
+  private static FlutterFirebaseStorageUploadQueue restore(File file)
+      throws IOException, JSONException {
+    byte[] bytes = new byte[(int) file.length()];
+    FileInputStream inputStream = new FileInputStream(file);
+    try {
+      int offset = 0;
+      while (offset < bytes.length) {
+        int read = inputStream.read(bytes, offset, bytes.length - offset);
+        if (read < 0) throw new IOException("Unexpected end of " + file);
+        offset += read;
+      }
+    } finally {
+      inputStream.close();
+    }
+
+    JSONObject json = new JSONObject(new String(bytes, "UTF-8"));
+    FlutterFirebaseStorageUploadQueue queue =
+        new FlutterFirebaseStorageUploadQueue(
+            json.getString("id"),
+            json.getString("appName"),
+            json.has("bucket") ? json.getString("bucket") : null,
+            file,
+            json.getInt("maxConcurrent"),
+            json.getLong("progressInterval"));
+
+    queue.totalFiles = json.getInt("totalFiles");
+    queue.completedFiles = json.getInt("completedFiles");
+    queue.completedBytes = json.getLong("completedBytes");
+    queue.totalBytes = json.getLong("totalBytes");
+
+    JSONArray failures = json.getJSONArray("failures");
+    for (int i = 0; i < failures.length(); i++) {
+      queue.failures.add(jsonToMap(failures.getJSONObject(i)));
+    }
+
+    JSONArray items = json.getJSONArray("items");
+    for (int i = 0; i < items.length(); i++) {
+      JSONObject item = items.getJSONObject(i);
+      queue.pendingItems.add(
+          new Item(
+              item.getString("path"),
+              item.getString("filePath"),
+              item.has("metadata") ? jsonToMap(item.getJSONObject("metadata")) : null,
+              item.getInt("priority"),
+              item.getLong("sequence"),
+              item.getLong("size"),
+              item.has("sessionUri") ? item.getString("sessionUri") : null));
+    }
+
+    return queue;
+  }
+
+  // Returns the metadata of the files left to upload, highest priority first.
+  @VisibleForTesting
+  List<Map<String, Object>> getPendingMetadata() {
+    List<Item> items = new ArrayList<>(pendingItems);
+    Collections.sort(items, pendingItems.comparator());
+    List<Map<String, Object>> metadata = new ArrayList<>(items.size());
+    for (Item item : items) {
+      metadata.add(item.metadata);
+    }
+    return metadata;
+  }
+
+  // The null values of maps, such as the unset fields of metadata sent by Dart, are persisted as
+  // JSONObject.NULL and restored as null.
+  static Map<String, Object> jsonToMap(JSONObject json) throws JSONException {
+    Map<String, Object> map = new HashMap<>();
+    Iterator<String> keys = json.keys();
+    while (keys.hasNext()) {
+      String key = keys.next();
+      Object value = json.get(key);
+      if (value == JSONObject.NULL) {
+        value = null;
+      } else if (value instanceof JSONObject) {
+        value = jsonToMap((JSONObject) value);
+      }
+      map.put(key, value);
+    }
+    return Collections.unmodifiableMap(map);
+  }
+}
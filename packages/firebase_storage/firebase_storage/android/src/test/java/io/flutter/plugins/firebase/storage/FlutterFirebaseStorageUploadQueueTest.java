@@ -0,0 +1,62 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+package io.flutter.plugins.firebase.storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import com.google.firebase.storage.StorageMetadata;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FlutterFirebaseStorageUploadQueueTest {
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void restoredMetadataCanBeParsed() throws Exception {
+    File filesDir = temporaryFolder.newFolder();
+    File file = temporaryFolder.newFile("image.png");
+
+    // The unset fields of SettableMetadata are sent by Dart as null values.
+    Map<String, Object> metadata = new HashMap<>();
+    metadata.put("cacheControl", null);
+    metadata.put("contentDisposition", null);
+    metadata.put("contentEncoding", null);
+    metadata.put("contentLanguage", "en");
+    metadata.put("contentType", null);
+    metadata.put("customMetadata", Collections.singletonMap("owner", "test"));
+
+    Map<String, Object> upload = new HashMap<>();
+    upload.put("path", "images/image.png");
+    upload.put("filePath", file.getPath());
+    upload.put("metadata", metadata);
+    upload.put("priority", null);
+    List<Map<String, Object>> uploads = new ArrayList<>();
+    uploads.add(upload);
+
+    String id =
+        FlutterFirebaseStorageUploadQueue.create(filesDir, "[DEFAULT]", null, uploads, 1, 0)
+            .getId();
+    FlutterFirebaseStorageUploadQueue queue =
+        FlutterFirebaseStorageUploadQueue.restore(filesDir, id);
+
+    List<Map<String, Object>> restoredMetadata = queue.getPendingMetadata();
+    assertEquals(1, restoredMetadata.size());
+    assertNull(restoredMetadata.get(0).get("cacheControl"));
+
+    StorageMetadata storageMetadata =
+        FlutterFirebaseStoragePlugin.parseMetadata(restoredMetadata.get(0));
+    assertEquals("en", storageMetadata.getContentLanguage());
+    assertNull(storageMetadata.getCacheControl());
+    assertEquals("test", storageMetadata.getCustomMetadata("owner"));
+  }
+}
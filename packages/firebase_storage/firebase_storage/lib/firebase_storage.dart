@@ -21,8 +21,13 @@ export 'package:firebase_storage_platform_interface/firebase_storage_platform_in
         ListOptions,
         FullMetadata,
         SettableMetadata,
+        ProgressThrottle,
         PutStringFormat,
-        TaskState;
+        ReferenceCacheMetrics,
+        TaskState,
+        UploadQueueItem,
+        UploadQueueSnapshot,
+        UploadQueueFailure;
 
 export 'package:firebase_core_platform_interface/firebase_core_platform_interface.dart'
     show FirebaseException;
@@ -32,3 +37,4 @@ part 'src/reference.dart';
 part 'src/list_result.dart';
 part 'src/task.dart';
 part 'src/task_snapshot.dart';
+part 'src/upload_queue.dart';
@@ -145,6 +145,92 @@ class FirebaseStorage extends FirebasePluginPlatform {
         .ref(path);
   }
 
+  /// Resolves the download URLs of the objects at [paths] in a single call,
+  /// rather than one [Reference.getDownloadURL] call per object.
+  ///
+  /// The URLs are returned in the order of [paths]. The URL of a path where no
+  /// object exists is `null`. If any other path could not be resolved, a
+  /// [FirebaseException] with the code of its failure is thrown.
+  Future<List<String>> getDownloadURLs(List<String> paths) {
+    assert(paths != null);
+    return _delegate.getDownloadURLs(paths);
+  }
+
+  /// Caches the download URLs and metadata of up to [maxSize] objects, so
+  /// repeated [Reference.getDownloadURL], [Reference.getMetadata] and
+  /// [getDownloadURLs] calls for the same objects don't reach the server.
+  ///
+  /// The cache is shared by every instance and disabled by default. Cached
+  /// values are used for [maxAge], an hour by default, and the cache is
+  /// persisted across app restarts if [persistent] is true. Objects deleted,
+  /// updated or uploaded to by this app are dropped from the cache, other
+  /// changes are only picked up once the cached values expire. A [maxSize] of
+  /// 0 disables the cache.
+  ///
+  /// Only supported on Android.
+  Future<void> setReferenceCacheSettings(int maxSize,
+      {Duration maxAge, bool persistent = false}) {
+    assert(maxSize != null && maxSize >= 0);
+    assert(maxAge == null || !maxAge.isNegative);
+    return _delegate.setReferenceCacheSettings(maxSize,
+        maxAge: maxAge, persistent: persistent);
+  }
+
+  /// Drops every object from the cache set up with
+  /// [setReferenceCacheSettings].
+  Future<void> clearReferenceCache() {
+    return _delegate.clearReferenceCache();
+  }
+
+  /// Returns the settings and usage of the cache set up with
+  /// [setReferenceCacheSettings].
+  Future<ReferenceCacheMetrics> getReferenceCacheMetrics() {
+    return _delegate.getReferenceCacheMetrics();
+  }
+
+  /// Uploads a list of files as a single queue, running at most
+  /// [maxConcurrent] uploads at once (3 by default), highest priority first.
+  ///
+  /// The queue is persisted as it progresses. If it is interrupted, e.g. by
+  /// the app being killed, it can be resumed with [resumeUploadQueue],
+  /// continuing the interrupted uploads where they were left. Its progress is
+  /// sent at most once per [progressInterval], 250 milliseconds by default.
+  Future<UploadQueue> startUploadQueue(List<UploadQueueItem> uploads,
+      {int maxConcurrent, Duration progressInterval}) {
+    assert(uploads != null);
+    assert(maxConcurrent == null || maxConcurrent > 0);
+    return _delegate
+        .startUploadQueue(uploads,
+            maxConcurrent: maxConcurrent, progressInterval: progressInterval)
+        .then((delegate) => UploadQueue._(this, delegate));
+  }
+
+  /// Resumes an upload queue returned by [getPersistedUploadQueues].
+  ///
+  /// [maxConcurrent] and [progressInterval] replace the settings the queue was
+  /// started with if provided.
+  Future<UploadQueue> resumeUploadQueue(String queueId,
+      {int maxConcurrent, Duration progressInterval}) {
+    assert(queueId != null);
+    assert(maxConcurrent == null || maxConcurrent > 0);
+    return _delegate
+        .resumeUploadQueue(queueId,
+            maxConcurrent: maxConcurrent, progressInterval: progressInterval)
+        .then((delegate) => UploadQueue._(this, delegate));
+  }
+
+  /// Returns the upload queues which were interrupted, e.g. by the app being
+  /// killed, and can be resumed with [resumeUploadQueue].
+  Future<List<UploadQueueSnapshot>> getPersistedUploadQueues() {
+    return _delegate.getPersistedUploadQueues();
+  }
+
+  /// Deletes an interrupted upload queue rather than resuming it.
+  Future<void> deletePersistedUploadQueue(String queueId) {
+    assert(queueId != null);
+    return _delegate.deletePersistedUploadQueue(queueId);
+  }
+
   @Deprecated("Deprecated in favor of refFromURL")
   // ignore: public_member_api_docs
   Future<Reference> getReferenceFromUrl(String url) async {
@@ -142,14 +142,40 @@ class Reference {
     return _delegate.getData(maxSize);
   }
 
+  /// Downloads the object at this reference as a stream of chunks, so large
+  /// objects can be processed as they arrive rather than held in memory.
+  ///
+  /// Each chunk is up to [chunkSize] bytes, 256kb by default. Provide [start]
+  /// and [end] to only stream the bytes from [start] inclusive to [end]
+  /// exclusive.
+  ///
+  /// At most [maxBufferedChunks] chunks, 4 by default, are downloaded ahead of
+  /// the listener. The download is held back while the subscription is paused,
+  /// and canceled along with it.
+  Stream<Uint8List> getDataStream(
+      {int chunkSize, int start, int end, int maxBufferedChunks}) {
+    assert(chunkSize == null || chunkSize > 0);
+    assert(start == null || start >= 0);
+    assert(end == null || end >= (start ?? 0));
+    assert(maxBufferedChunks == null || maxBufferedChunks > 0);
+    return _delegate.getDataStream(
+        chunkSize: chunkSize,
+        start: start,
+        end: end,
+        maxBufferedChunks: maxBufferedChunks);
+  }
+
   /// Uploads data to this reference's location.
   ///
   /// Use this method to upload fixed sized data as a [Uint8List].
   ///
-  /// Optionally, you can also set metadata onto the uploaded object.
-  UploadTask putData(Uint8List data, [SettableMetadata metadata]) {
+  /// Optionally, you can also set metadata onto the uploaded object, and
+  /// throttle its progress events with a [ProgressThrottle].
+  UploadTask putData(Uint8List data,
+      [SettableMetadata metadata, ProgressThrottle progressThrottle]) {
     assert(data != null);
-    return UploadTask._(storage, _delegate.putData(data, metadata));
+    return UploadTask._(
+        storage, _delegate.putData(data, metadata, progressThrottle));
   }
 
   /// Upload a [Blob]. Note; this is only supported on web platforms.
@@ -162,11 +188,14 @@ class Reference {
 
   /// Upload a [File] from the filesystem. The file must exist.
   ///
-  /// Optionally, you can also set metadata onto the uploaded object.
-  UploadTask putFile(File file, [SettableMetadata metadata]) {
+  /// Optionally, you can also set metadata onto the uploaded object, and
+  /// throttle its progress events with a [ProgressThrottle].
+  UploadTask putFile(File file,
+      [SettableMetadata metadata, ProgressThrottle progressThrottle]) {
     assert(file != null);
     assert(file.absolute.existsSync());
-    return UploadTask._(storage, _delegate.putFile(file, metadata));
+    return UploadTask._(
+        storage, _delegate.putFile(file, metadata, progressThrottle));
   }
 
   /// Upload a [String] value as a storage object.
@@ -179,10 +208,14 @@ class Reference {
   ///     argument, the [mimeType] will be automatically set.
   ///   - [PutStringFormat.base64] will be encoded as a Base64 string.
   ///   - [PutStringFormat.base64Url] will be encoded as a Base64 string safe URL.
+  ///
+  /// Optionally, the task's progress events can be throttled with a
+  /// [ProgressThrottle].
   UploadTask putString(
     String data, {
     PutStringFormat format = PutStringFormat.raw,
     SettableMetadata metadata,
+    ProgressThrottle progressThrottle,
   }) {
     assert(data != null);
     assert(format != null);
@@ -219,7 +252,8 @@ class Reference {
         );
       }
     }
-    return UploadTask._(storage, _delegate.putString(data, format, metadata));
+    return UploadTask._(storage,
+        _delegate.putString(data, format, metadata, progressThrottle));
   }
 
   /// Updates the metadata on a storage object.
@@ -231,9 +265,13 @@ class Reference {
   /// Writes a remote storage object to the local filesystem.
   ///
   /// If a file already exists at the given location, it will be overwritten.
-  DownloadTask writeToFile(File file) {
+  ///
+  /// Optionally, the task's progress events can be throttled with a
+  /// [ProgressThrottle].
+  DownloadTask writeToFile(File file, [ProgressThrottle progressThrottle]) {
     assert(file != null);
-    return DownloadTask._(storage, _delegate.writeToFile(file));
+    return DownloadTask._(
+        storage, _delegate.writeToFile(file, progressThrottle));
   }
 
   @override
@@ -0,0 +1,38 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+part of firebase_storage;
+
+/// A queue of files uploading in the background, started with
+/// [FirebaseStorage.startUploadQueue].
+class UploadQueue {
+  UploadQueuePlatform _delegate;
+
+  /// The [FirebaseStorage] instance associated with this queue.
+  final FirebaseStorage storage;
+
+  UploadQueue._(this.storage, this._delegate) {
+    UploadQueuePlatform.verifyExtends(_delegate);
+  }
+
+  /// The id of the queue, which can be passed to
+  /// [FirebaseStorage.resumeUploadQueue] once it was interrupted, e.g. by the
+  /// app being killed.
+  String get queueId => _delegate.queueId;
+
+  /// Returns a [Stream] of the progress of the queue across all of its files.
+  ///
+  /// The stream is closed once every file has been uploaded or has failed. If
+  /// the queue is canceled, the stream will send an error event.
+  Stream<UploadQueueSnapshot> get snapshotEvents => _delegate.snapshotEvents;
+
+  /// Completes with the final snapshot of the queue, once every file has been
+  /// uploaded or has failed.
+  ///
+  /// The failed files are listed in [UploadQueueSnapshot.failures].
+  Future<UploadQueueSnapshot> get onComplete => _delegate.onComplete;
+
+  /// Cancels the queue and its ongoing uploads.
+  Future<void> cancel() => _delegate.cancel();
+}
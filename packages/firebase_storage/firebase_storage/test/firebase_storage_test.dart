@@ -152,6 +152,142 @@ void main() {
       });
     });
 
+    group('getDownloadURLs()', () {
+      test('verify delegate method is called', () async {
+        when(kMockStoragePlatform.getDownloadURLs(['foo', 'bar']))
+            .thenAnswer((_) => Future.value(['https://foo', null]));
+
+        final result = await storage.getDownloadURLs(['foo', 'bar']);
+
+        expect(result, ['https://foo', null]);
+        verify(kMockStoragePlatform.getDownloadURLs(['foo', 'bar']));
+      });
+
+      test('throws AssertionError if null', () {
+        expect(() => storage.getDownloadURLs(null), throwsAssertionError);
+      });
+    });
+
+    group('reference cache', () {
+      test('setReferenceCacheSettings() verify delegate method is called',
+          () async {
+        when(kMockStoragePlatform.setReferenceCacheSettings(10,
+                maxAge: Duration(minutes: 1), persistent: false))
+            .thenAnswer((_) => Future.value());
+
+        await storage.setReferenceCacheSettings(10,
+            maxAge: Duration(minutes: 1));
+        verify(kMockStoragePlatform.setReferenceCacheSettings(10,
+            maxAge: Duration(minutes: 1), persistent: false));
+      });
+
+      test('clearReferenceCache() verify delegate method is called',
+          () async {
+        when(kMockStoragePlatform.clearReferenceCache())
+            .thenAnswer((_) => Future.value());
+
+        await storage.clearReferenceCache();
+        verify(kMockStoragePlatform.clearReferenceCache());
+      });
+
+      test('getReferenceCacheMetrics() verify delegate method is called',
+          () async {
+        final ReferenceCacheMetrics metrics =
+            ReferenceCacheMetrics(<String, dynamic>{'size': 1});
+        when(kMockStoragePlatform.getReferenceCacheMetrics())
+            .thenAnswer((_) => Future.value(metrics));
+
+        expect(await storage.getReferenceCacheMetrics(), metrics);
+        verify(kMockStoragePlatform.getReferenceCacheMetrics());
+      });
+
+      test('throws AssertionError if invalid', () {
+        expect(() => storage.setReferenceCacheSettings(null),
+            throwsAssertionError);
+        expect(() => storage.setReferenceCacheSettings(-1),
+            throwsAssertionError);
+      });
+    });
+
+    group('upload queues', () {
+      final List<UploadQueueItem> uploads = <UploadQueueItem>[
+        UploadQueueItem(path: 'foo', filePath: '/tmp/foo'),
+      ];
+      MockUploadQueuePlatform mockUploadQueue;
+
+      setUp(() {
+        mockUploadQueue = MockUploadQueuePlatform();
+        when(mockUploadQueue.queueId).thenReturn('queue');
+      });
+
+      test('startUploadQueue() verify delegate method is called', () async {
+        when(kMockStoragePlatform.startUploadQueue(uploads,
+                maxConcurrent: 2, progressInterval: Duration(seconds: 1)))
+            .thenAnswer((_) => Future.value(mockUploadQueue));
+
+        final UploadQueue queue = await storage.startUploadQueue(uploads,
+            maxConcurrent: 2, progressInterval: Duration(seconds: 1));
+
+        expect(queue.queueId, 'queue');
+        expect(queue.storage, storage);
+        verify(kMockStoragePlatform.startUploadQueue(uploads,
+            maxConcurrent: 2, progressInterval: Duration(seconds: 1)));
+      });
+
+      test('resumeUploadQueue() verify delegate method is called', () async {
+        when(kMockStoragePlatform.resumeUploadQueue('queue',
+                maxConcurrent: null, progressInterval: null))
+            .thenAnswer((_) => Future.value(mockUploadQueue));
+
+        final UploadQueue queue = await storage.resumeUploadQueue('queue');
+
+        expect(queue.queueId, 'queue');
+        verify(kMockStoragePlatform.resumeUploadQueue('queue',
+            maxConcurrent: null, progressInterval: null));
+      });
+
+      test('UploadQueue delegates to the platform queue', () async {
+        when(kMockStoragePlatform.resumeUploadQueue('queue',
+                maxConcurrent: null, progressInterval: null))
+            .thenAnswer((_) => Future.value(mockUploadQueue));
+        when(mockUploadQueue.snapshotEvents)
+            .thenAnswer((_) => Stream<UploadQueueSnapshot>.empty());
+        when(mockUploadQueue.cancel()).thenAnswer((_) => Future.value());
+
+        final UploadQueue queue = await storage.resumeUploadQueue('queue');
+        await queue.snapshotEvents.toList();
+        await queue.cancel();
+
+        verify(mockUploadQueue.snapshotEvents);
+        verify(mockUploadQueue.cancel());
+      });
+
+      test('getPersistedUploadQueues() verify delegate method is called',
+          () async {
+        when(kMockStoragePlatform.getPersistedUploadQueues())
+            .thenAnswer((_) => Future.value(<UploadQueueSnapshot>[]));
+
+        expect(await storage.getPersistedUploadQueues(), isEmpty);
+        verify(kMockStoragePlatform.getPersistedUploadQueues());
+      });
+
+      test('deletePersistedUploadQueue() verify delegate method is called',
+          () async {
+        when(kMockStoragePlatform.deletePersistedUploadQueue('queue'))
+            .thenAnswer((_) => Future.value());
+
+        await storage.deletePersistedUploadQueue('queue');
+        verify(kMockStoragePlatform.deletePersistedUploadQueue('queue'));
+      });
+
+      test('throws AssertionError if null', () {
+        expect(() => storage.startUploadQueue(null), throwsAssertionError);
+        expect(() => storage.resumeUploadQueue(null), throwsAssertionError);
+        expect(() => storage.startUploadQueue(uploads, maxConcurrent: 0),
+            throwsAssertionError);
+      });
+    });
+
     group('setMaxDownloadRetryTime()', () {
       test('throws AssertionError if null', () async {
         expect(
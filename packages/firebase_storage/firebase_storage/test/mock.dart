@@ -117,6 +117,11 @@ class MockTaskSnapshotPlatform extends Mock
     with MockPlatformInterfaceMixin
     implements TaskSnapshotPlatform {}
 
+// UploadQueuePlatform Mock
+class MockUploadQueuePlatform extends Mock
+    with MockPlatformInterfaceMixin
+    implements UploadQueuePlatform {}
+
 // Creates a test file with a specified name to
 // a locally directory
 Future<File> createFile(name) async {
@@ -221,6 +221,30 @@ void main() async {
       });
     });
 
+    group('getDataStream()', () {
+      test('verify delegate method is called', () async {
+        Uint8List chunk = Uint8List.fromList(utf8.encode(testString));
+        when(mockReference.getDataStream(
+                chunkSize: 4, start: 2, end: 10, maxBufferedChunks: 2))
+            .thenAnswer((_) => Stream.fromIterable([chunk]));
+
+        final result = await testRef
+            .getDataStream(
+                chunkSize: 4, start: 2, end: 10, maxBufferedChunks: 2)
+            .toList();
+
+        expect(result, [chunk]);
+
+        verify(mockReference.getDataStream(
+            chunkSize: 4, start: 2, end: 10, maxBufferedChunks: 2));
+      });
+
+      test('throws AssertionError if the range is invalid', () {
+        expect(() => testRef.getDataStream(start: 10, end: 2),
+            throwsAssertionError);
+      });
+    });
+
     group('put()', () {
       test('verify delegate method is called', () {
         List<int> list = utf8.encode('hello world');
@@ -359,6 +383,16 @@ void main() async {
         verify(mockReference.writeToFile(testFile));
       });
 
+      test('passes the progress throttle to the delegate', () {
+        const throttle = ProgressThrottle(bytes: 1024);
+        when(mockReference.writeToFile(testFile, throttle))
+            .thenReturn(mockDownloadTaskPlatform);
+
+        testRef.writeToFile(testFile, throttle);
+
+        verify(mockReference.writeToFile(testFile, throttle));
+      });
+
       test('throws AssertionError if file is null', () {
         expect(() => testRef.writeToFile(null), throwsAssertionError);
       });
@@ -9,9 +9,14 @@ export 'src/platform_interface/platform_interface_reference.dart';
 export 'src/platform_interface/platform_interface_list_result.dart';
 export 'src/platform_interface/platform_interface_task.dart';
 export 'src/platform_interface/platform_interface_task_snapshot.dart';
+export 'src/platform_interface/platform_interface_upload_queue.dart';
 
 export 'src/list_options.dart';
 export 'src/full_metadata.dart';
 export 'src/settable_metadata.dart';
 export 'src/task_state.dart';
+export 'src/progress_throttle.dart';
 export 'src/put_string_format.dart';
+export 'src/reference_cache_metrics.dart';
+export 'src/upload_queue_item.dart';
+export 'src/upload_queue_snapshot.dart';
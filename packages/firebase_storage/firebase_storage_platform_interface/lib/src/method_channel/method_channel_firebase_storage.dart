@@ -10,6 +10,8 @@ import 'package:flutter/services.dart';
 
 import 'method_channel_reference.dart';
 import 'method_channel_task_snapshot.dart';
+import 'method_channel_upload_queue.dart';
+import 'utils/exception.dart';
 
 /// Method Channel delegate for [FirebaseStoragePlatform].
 class MethodChannelFirebaseStorage extends FirebaseStoragePlatform {
@@ -47,6 +49,10 @@ class MethodChannelFirebaseStorage extends FirebaseStoragePlatform {
   static final Map<int, StreamController<dynamic>> taskObservers =
       <int, StreamController<TaskSnapshotPlatform>>{};
 
+  /// The running upload queues, keyed by their id.
+  static final Map<String, MethodChannelUploadQueue> uploadQueueObservers =
+      <String, MethodChannelUploadQueue>{};
+
   /// Internal stub class initializer.
   ///
   /// When the user code calls an storage method, the real instance is
@@ -89,6 +95,12 @@ class MethodChannelFirebaseStorage extends FirebaseStoragePlatform {
                 code: errorMap['code'],
                 message: errorMap['message'],
               ));
+        case 'UploadQueue#onProgress':
+          return uploadQueueObservers[arguments['queueId']]
+              ?.onProgress(Map<String, dynamic>.from(arguments));
+        case 'UploadQueue#onComplete':
+          return uploadQueueObservers[arguments['queueId']]
+              ?.onCompleted(Map<String, dynamic>.from(arguments));
       }
     });
 
@@ -138,6 +150,138 @@ class MethodChannelFirebaseStorage extends FirebaseStoragePlatform {
     return MethodChannelReference(this, path);
   }
 
+  @override
+  Future<List<String>> getDownloadURLs(List<String> paths) async {
+    try {
+      List<dynamic> results = await channel.invokeMethod<List<dynamic>>(
+          'Reference#getDownloadURLs', <String, dynamic>{
+        'appName': app.name,
+        'maxOperationRetryTime': maxOperationRetryTime,
+        'maxUploadRetryTime': maxUploadRetryTime,
+        'maxDownloadRetryTime': maxDownloadRetryTime,
+        'bucket': bucket,
+        'paths': paths,
+      });
+
+      // Every path has either a download URL or the code of its failure.
+      return results.map((result) {
+        Map<String, dynamic> map = Map<String, dynamic>.from(result);
+        if (map['downloadURL'] != null || map['code'] == 'object-not-found') {
+          return map['downloadURL'] as String;
+        }
+
+        throw FirebaseException(
+            plugin: 'firebase_storage',
+            code: map['code'] ?? 'unknown',
+            message: map['message']);
+      }).toList();
+    } catch (e) {
+      throw convertPlatformException(e);
+    }
+  }
+
+  @override
+  Future<void> setReferenceCacheSettings(int maxSize,
+      {Duration maxAge, bool persistent}) async {
+    try {
+      await channel
+          .invokeMethod<void>('ReferenceCache#setSettings', <String, dynamic>{
+        'maxSize': maxSize,
+        'maxAge': maxAge?.inMilliseconds,
+        'persistent': persistent,
+      });
+    } catch (e) {
+      throw convertPlatformException(e);
+    }
+  }
+
+  @override
+  Future<void> clearReferenceCache() async {
+    try {
+      await channel.invokeMethod<void>('ReferenceCache#clear');
+    } catch (e) {
+      throw convertPlatformException(e);
+    }
+  }
+
+  @override
+  Future<ReferenceCacheMetrics> getReferenceCacheMetrics() async {
+    try {
+      Map<String, dynamic> metrics = await channel
+          .invokeMapMethod<String, dynamic>('ReferenceCache#getMetrics');
+      return ReferenceCacheMetrics(metrics);
+    } catch (e) {
+      throw convertPlatformException(e);
+    }
+  }
+
+  @override
+  Future<UploadQueuePlatform> startUploadQueue(List<UploadQueueItem> uploads,
+      {int maxConcurrent, Duration progressInterval}) async {
+    Map<String, dynamic> result;
+    try {
+      // The native queue starts once the reply was sent, so no event can
+      // precede the queue being registered.
+      result = await channel.invokeMapMethod<String, dynamic>(
+          'UploadQueue#start', <String, dynamic>{
+        'appName': app.name,
+        'bucket': bucket,
+        'uploads': uploads.map((upload) => upload.asMap()).toList(),
+        'maxConcurrent': maxConcurrent,
+        'progressInterval': progressInterval?.inMilliseconds,
+      });
+    } catch (e) {
+      throw convertPlatformException(e);
+    }
+
+    return MethodChannelUploadQueue(result['queueId']);
+  }
+
+  @override
+  Future<UploadQueuePlatform> resumeUploadQueue(String queueId,
+      {int maxConcurrent, Duration progressInterval}) async {
+    // Registered beforehand, the native queue sends events straight away.
+    MethodChannelUploadQueue queue = MethodChannelUploadQueue(queueId);
+
+    try {
+      await channel.invokeMethod<void>('UploadQueue#resume', <String, dynamic>{
+        'queueId': queueId,
+        'maxConcurrent': maxConcurrent,
+        'progressInterval': progressInterval?.inMilliseconds,
+      });
+    } catch (e) {
+      Exception exception = convertPlatformException(e);
+      queue.onError(exception);
+      throw exception;
+    }
+
+    return queue;
+  }
+
+  @override
+  Future<List<UploadQueueSnapshot>> getPersistedUploadQueues() async {
+    try {
+      List<dynamic> queues =
+          await channel.invokeListMethod<dynamic>('UploadQueue#getPersisted');
+
+      return queues
+          .map((queue) => UploadQueueSnapshot(Map<String, dynamic>.from(queue)))
+          .toList();
+    } catch (e) {
+      throw convertPlatformException(e);
+    }
+  }
+
+  @override
+  Future<void> deletePersistedUploadQueue(String queueId) async {
+    try {
+      await channel.invokeMethod<void>(
+          'UploadQueue#cancel', <String, dynamic>{'queueId': queueId});
+    } catch (e) {
+      throw convertPlatformException(e);
+    }
+  }
+
   @override
   void setMaxOperationRetryTime(int time) {
     maxOperationRetryTime = time;
@@ -7,6 +7,7 @@ import 'dart:io';
 import 'dart:typed_data';
 
 import 'package:firebase_storage_platform_interface/firebase_storage_platform_interface.dart';
+import 'package:flutter/services.dart';
 
 import '../../firebase_storage_platform_interface.dart';
 import 'method_channel_firebase_storage.dart';
@@ -21,6 +22,18 @@ class MethodChannelReference extends ReferencePlatform {
   MethodChannelReference(FirebaseStoragePlatform storage, String path)
       : super(storage, path);
 
+  /// The size of the chunks of [getDataStream] if none is provided.
+  static const int defaultStreamChunkSize = 256 * 1024;
+
+  /// The number of chunks [getDataStream] downloads ahead of its listener if
+  /// none is provided.
+  static const int defaultMaxBufferedChunks = 4;
+
+  /// The prefix of the channel the chunks of a download stream are sent on,
+  /// followed by the id of the stream.
+  static const String downloadStreamChannelPrefix =
+      'plugins.flutter.io/firebase_storage/download_stream/';
+
   @override
   Future<void> delete() async {
     try {
@@ -149,11 +162,102 @@ class MethodChannelReference extends ReferencePlatform {
   }
 
   @override
-  TaskPlatform putData(Uint8List data, [SettableMetadata metadata]) {
+  Stream<Uint8List> getDataStream(
+      {int chunkSize, int start, int end, int maxBufferedChunks}) {
+    chunkSize ??= defaultStreamChunkSize;
+    maxBufferedChunks ??= defaultMaxBufferedChunks;
+
+    StreamController<Uint8List> controller;
+    StreamSubscription<dynamic> subscription;
+    int streamId;
+    bool cancelled = false;
+
+    // The number of chunks requested from the platform and not received yet.
+    int requestedChunks = 0;
+
+    // Tops up the chunks the platform is allowed to download once half of them
+    // were received, unless the listener is paused.
+    void requestChunks() {
+      if (streamId == null ||
+          controller.isPaused ||
+          requestedChunks > maxBufferedChunks ~/ 2) {
+        return;
+      }
+
+      int count = maxBufferedChunks - requestedChunks;
+      requestedChunks += count;
+      MethodChannelFirebaseStorage.channel.invokeMethod<void>(
+          'Reference#requestStreamChunks', <String, dynamic>{
+        'streamId': streamId,
+        'count': count,
+      }).catchError((Object e) {
+        // The stream ended in the meantime, it is reported on its own channel.
+      });
+    }
+
+    controller = StreamController<Uint8List>(
+      onListen: () async {
+        try {
+          streamId = await MethodChannelFirebaseStorage.channel
+              .invokeMethod<int>('Reference#openStream', <String, dynamic>{
+            'appName': storage.app.name,
+            'maxOperationRetryTime': storage.maxOperationRetryTime,
+            'maxUploadRetryTime': storage.maxUploadRetryTime,
+            'maxDownloadRetryTime': storage.maxDownloadRetryTime,
+            'bucket': storage.bucket,
+            'path': fullPath,
+            'chunkSize': chunkSize,
+            'start': start,
+            'end': end,
+          });
+        } catch (e, stackTrace) {
+          controller.addError(convertPlatformException(e), stackTrace);
+          await controller.close();
+          return;
+        }
+
+        // The channel is listened to even if the listener is already gone, as
+        // the platform only releases the stream once it is cancelled.
+        subscription = EventChannel('$downloadStreamChannelPrefix$streamId')
+            .receiveBroadcastStream()
+            .listen(
+          (dynamic chunk) {
+            requestedChunks--;
+            controller.add(chunk as Uint8List);
+            requestChunks();
+          },
+          onError: (Object e, StackTrace stackTrace) {
+            controller.addError(convertPlatformException(e), stackTrace);
+            controller.close();
+          },
+          onDone: controller.close,
+          cancelOnError: true,
+        );
+
+        if (cancelled) {
+          await subscription.cancel();
+        } else {
+          requestChunks();
+        }
+      },
+      onResume: requestChunks,
+      onCancel: () async {
+        cancelled = true;
+        await subscription?.cancel();
+      },
+    );
+
+    return controller.stream;
+  }
+
+  @override
+  TaskPlatform putData(Uint8List data,
+      [SettableMetadata metadata, ProgressThrottle progressThrottle]) {
     int handle = MethodChannelFirebaseStorage.nextMethodChannelHandleId;
     MethodChannelFirebaseStorage.taskObservers[handle] =
         StreamController<TaskSnapshotPlatform>.broadcast();
-    return MethodChannelPutTask(handle, storage, fullPath, data, metadata);
+    return MethodChannelPutTask(
+        handle, storage, fullPath, data, metadata, progressThrottle);
   }
 
   @override
@@ -163,20 +267,22 @@ class MethodChannelReference extends ReferencePlatform {
   }
 
   @override
-  TaskPlatform putFile(File file, [SettableMetadata metadata]) {
+  TaskPlatform putFile(File file,
+      [SettableMetadata metadata, ProgressThrottle progressThrottle]) {
     int handle = MethodChannelFirebaseStorage.nextMethodChannelHandleId;
     MethodChannelFirebaseStorage.taskObservers[handle] =
         StreamController<TaskSnapshotPlatform>.broadcast();
-    return MethodChannelPutFileTask(handle, storage, fullPath, file, metadata);
+    return MethodChannelPutFileTask(
+        handle, storage, fullPath, file, metadata, progressThrottle);
   }
 
   TaskPlatform putString(String data, PutStringFormat format,
-      [SettableMetadata metadata]) {
+      [SettableMetadata metadata, ProgressThrottle progressThrottle]) {
     int handle = MethodChannelFirebaseStorage.nextMethodChannelHandleId;
     MethodChannelFirebaseStorage.taskObservers[handle] =
         StreamController<TaskSnapshotPlatform>.broadcast();
     return MethodChannelPutStringTask(
-        handle, storage, fullPath, data, format, metadata);
+        handle, storage, fullPath, data, format, metadata, progressThrottle);
   }
 
   Future<FullMetadata> updateMetadata(SettableMetadata metadata) async {
@@ -199,10 +305,11 @@ class MethodChannelReference extends ReferencePlatform {
     }
   }
 
-  TaskPlatform writeToFile(File file) {
+  TaskPlatform writeToFile(File file, [ProgressThrottle progressThrottle]) {
     int handle = MethodChannelFirebaseStorage.nextMethodChannelHandleId;
     MethodChannelFirebaseStorage.taskObservers[handle] =
         StreamController<TaskSnapshotPlatform>.broadcast();
-    return MethodChannelDownloadTask(handle, storage, fullPath, file);
+    return MethodChannelDownloadTask(
+        handle, storage, fullPath, file, progressThrottle);
   }
 }
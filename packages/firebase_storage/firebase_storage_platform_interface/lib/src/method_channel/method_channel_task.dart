@@ -3,11 +3,15 @@
 // BSD-style license that can be found in the LICENSE file.
 
 import 'dart:async';
+import 'dart:convert';
 import 'dart:io';
+import 'dart:math' as math;
 import 'dart:typed_data';
 
 import 'package:firebase_core/firebase_core.dart';
 import 'package:firebase_storage_platform_interface/firebase_storage_platform_interface.dart';
+import 'package:flutter/foundation.dart';
+import 'package:flutter/services.dart';
 
 import 'method_channel_firebase_storage.dart';
 import 'method_channel_task_snapshot.dart';
@@ -203,16 +207,18 @@ abstract class MethodChannelTask extends TaskPlatform {
 class MethodChannelPutFileTask extends MethodChannelTask {
   // ignore: public_member_api_docs
   MethodChannelPutFileTask(int handle, FirebaseStoragePlatform storage,
-      String path, File file, SettableMetadata metadata)
+      String path, File file, SettableMetadata metadata,
+      [ProgressThrottle progressThrottle])
       : super(handle, storage, path,
-            _getTask(handle, storage, path, file, metadata));
+            _getTask(handle, storage, path, file, metadata, progressThrottle));
 
   static Future<void> Function() _getTask(
       int handle,
       FirebaseStoragePlatform storage,
       String path,
       File file,
-      SettableMetadata metadata) {
+      SettableMetadata metadata,
+      ProgressThrottle progressThrottle) {
     return () => MethodChannelFirebaseStorage.channel
             .invokeMethod<void>('Task#startPutFile', <String, dynamic>{
           'appName': storage.app.name,
@@ -224,6 +230,8 @@ class MethodChannelPutFileTask extends MethodChannelTask {
           'path': path,
           'filePath': file.absolute.path,
           'metadata': metadata?.asMap(),
+          'progressInterval': progressThrottle?.interval?.inMilliseconds,
+          'progressBytes': progressThrottle?.bytes,
         });
   }
 }
@@ -237,9 +245,14 @@ class MethodChannelPutStringTask extends MethodChannelTask {
       String path,
       String data,
       PutStringFormat format,
-      SettableMetadata metadata)
-      : super(handle, storage, path,
-            _getTask(handle, storage, path, data, format, metadata));
+      SettableMetadata metadata,
+      [ProgressThrottle progressThrottle])
+      : super(
+            handle,
+            storage,
+            path,
+            _getTask(handle, storage, path, data, format, metadata,
+                progressThrottle));
 
   static Future<void> Function() _getTask(
       int handle,
@@ -247,20 +260,51 @@ class MethodChannelPutStringTask extends MethodChannelTask {
       String path,
       String data,
       PutStringFormat format,
-      SettableMetadata metadata) {
-    return () => MethodChannelFirebaseStorage.channel
-            .invokeMethod<void>('Task#startPutString', <String, dynamic>{
-          'appName': storage.app.name,
-          'bucket': storage.bucket,
-          'maxOperationRetryTime': storage.maxOperationRetryTime,
-          'maxUploadRetryTime': storage.maxUploadRetryTime,
-          'maxDownloadRetryTime': storage.maxDownloadRetryTime,
-          'handle': handle,
-          'path': path,
-          'data': data,
-          'format': format.index,
-          'metadata': metadata?.asMap(),
-        });
+      SettableMetadata metadata,
+      ProgressThrottle progressThrottle) {
+    return () {
+      // Large strings are decoded here and uploaded like [put] data, so they
+      // go through a native upload buffer rather than a single message.
+      if (defaultTargetPlatform == TargetPlatform.android &&
+          data.length > MethodChannelPutTask.bufferedUploadThreshold) {
+        final Uint8List bytes = _decode(data, format);
+        if (bytes != null) {
+          return MethodChannelPutTask._getTask(
+              handle, storage, path, bytes, metadata, progressThrottle)();
+        }
+      }
+
+      return MethodChannelFirebaseStorage.channel
+          .invokeMethod<void>('Task#startPutString', <String, dynamic>{
+        'appName': storage.app.name,
+        'bucket': storage.bucket,
+        'maxOperationRetryTime': storage.maxOperationRetryTime,
+        'maxUploadRetryTime': storage.maxUploadRetryTime,
+        'maxDownloadRetryTime': storage.maxDownloadRetryTime,
+        'handle': handle,
+        'path': path,
+        'data': data,
+        'format': format.index,
+        'metadata': metadata?.asMap(),
+        'progressInterval': progressThrottle?.interval?.inMilliseconds,
+        'progressBytes': progressThrottle?.bytes,
+      });
+    };
+  }
+
+  // Decodes Base64 data, or returns null if it is left for the platform to
+  // decode, which is more lenient (e.g. with line breaks).
+  static Uint8List _decode(String data, PutStringFormat format) {
+    if (format != PutStringFormat.base64 &&
+        format != PutStringFormat.base64Url) {
+      return null;
+    }
+
+    try {
+      return base64.decode(data);
+    } on FormatException {
+      return null;
+    }
   }
 }
 
@@ -268,28 +312,117 @@ class MethodChannelPutStringTask extends MethodChannelTask {
 class MethodChannelPutTask extends MethodChannelTask {
   // ignore: public_member_api_docs
   MethodChannelPutTask(int handle, FirebaseStoragePlatform storage, String path,
-      Uint8List data, SettableMetadata metadata)
+      Uint8List data, SettableMetadata metadata,
+      [ProgressThrottle progressThrottle])
       : super(handle, storage, path,
-            _getTask(handle, storage, path, data, metadata));
+            _getTask(handle, storage, path, data, metadata, progressThrottle));
+
+  /// Data larger than this is written to a native upload buffer in chunks on
+  /// Android, instead of being sent to the platform in a single message.
+  static const int bufferedUploadThreshold = 1024 * 1024;
+
+  /// The size of the chunks written to a native upload buffer.
+  static const int bufferedUploadChunkSize = 512 * 1024;
+
+  /// The channel chunks are written to native upload buffers on.
+  static const String uploadBufferChannel =
+      'plugins.flutter.io/firebase_storage/upload_buffer';
 
   static Future<void> Function() _getTask(
       int handle,
       FirebaseStoragePlatform storage,
       String path,
       Uint8List data,
-      SettableMetadata metadata) {
-    return () => MethodChannelFirebaseStorage.channel
-            .invokeMethod<void>('Task#startPutData', <String, dynamic>{
-          'appName': storage.app.name,
-          'bucket': storage.bucket,
-          'maxOperationRetryTime': storage.maxOperationRetryTime,
-          'maxUploadRetryTime': storage.maxUploadRetryTime,
-          'maxDownloadRetryTime': storage.maxDownloadRetryTime,
-          'handle': handle,
-          'path': path,
-          'data': data,
-          'metadata': metadata?.asMap(),
-        });
+      SettableMetadata metadata,
+      ProgressThrottle progressThrottle) {
+    return () async {
+      if (defaultTargetPlatform == TargetPlatform.android &&
+          data.lengthInBytes > bufferedUploadThreshold) {
+        int bufferId;
+        try {
+          bufferId = await MethodChannelFirebaseStorage.channel
+              .invokeMethod<int>('Task#createUploadBuffer');
+        } on MissingPluginException {
+          // Upload buffers are not supported by this version of the plugin.
+        }
+
+        if (bufferId != null) {
+          return _putBuffer(handle, storage, path, data, metadata,
+              progressThrottle, bufferId);
+        }
+      }
+
+      return MethodChannelFirebaseStorage.channel
+          .invokeMethod<void>('Task#startPutData', <String, dynamic>{
+        'appName': storage.app.name,
+        'bucket': storage.bucket,
+        'maxOperationRetryTime': storage.maxOperationRetryTime,
+        'maxUploadRetryTime': storage.maxUploadRetryTime,
+        'maxDownloadRetryTime': storage.maxDownloadRetryTime,
+        'handle': handle,
+        'path': path,
+        'data': data,
+        'metadata': metadata?.asMap(),
+        'progressInterval': progressThrottle?.interval?.inMilliseconds,
+        'progressBytes': progressThrottle?.bytes,
+      });
+    };
+  }
+
+  // Writes the data to the native upload buffer in chunks, then uploads it.
+  static Future<void> _putBuffer(
+      int handle,
+      FirebaseStoragePlatform storage,
+      String path,
+      Uint8List data,
+      SettableMetadata metadata,
+      ProgressThrottle progressThrottle,
+      int bufferId) async {
+    try {
+      for (int offset = 0;
+          offset < data.lengthInBytes;
+          offset += bufferedUploadChunkSize) {
+        final int end =
+            math.min(offset + bufferedUploadChunkSize, data.lengthInBytes);
+
+        // The buffer id followed by the chunk.
+        final Uint8List message = Uint8List(4 + end - offset);
+        ByteData.view(message.buffer).setUint32(0, bufferId);
+        message.setRange(4, message.length, data, offset);
+
+        final ByteData reply = await ServicesBinding
+            .instance.defaultBinaryMessenger
+            .send(uploadBufferChannel, ByteData.view(message.buffer));
+        if (reply == null || reply.getUint8(0) != 0) {
+          throw PlatformException(
+            code: 'unknown',
+            message: reply == null
+                ? 'Failed to write to the upload buffer.'
+                : utf8.decode(reply.buffer.asUint8List(
+                    reply.offsetInBytes + 1, reply.lengthInBytes - 1)),
+          );
+        }
+      }
+    } catch (_) {
+      await MethodChannelFirebaseStorage.channel.invokeMethod<void>(
+          'Task#discardUploadBuffer', <String, dynamic>{'bufferId': bufferId});
+      rethrow;
+    }
+
+    return MethodChannelFirebaseStorage.channel
+        .invokeMethod<void>('Task#startPutBuffer', <String, dynamic>{
+      'appName': storage.app.name,
+      'bucket': storage.bucket,
+      'maxOperationRetryTime': storage.maxOperationRetryTime,
+      'maxUploadRetryTime': storage.maxUploadRetryTime,
+      'maxDownloadRetryTime': storage.maxDownloadRetryTime,
+      'handle': handle,
+      'path': path,
+      'bufferId': bufferId,
+      'metadata': metadata?.asMap(),
+      'progressInterval': progressThrottle?.interval?.inMilliseconds,
+      'progressBytes': progressThrottle?.bytes,
+    });
   }
 }
 
@@ -297,11 +430,14 @@ class MethodChannelPutTask extends MethodChannelTask {
 class MethodChannelDownloadTask extends MethodChannelTask {
   // ignore: public_member_api_docs
   MethodChannelDownloadTask(
-      int handle, FirebaseStoragePlatform storage, String path, File file)
-      : super(handle, storage, path, _getTask(handle, storage, path, file));
+      int handle, FirebaseStoragePlatform storage, String path, File file,
+      [ProgressThrottle progressThrottle])
+      : super(handle, storage, path,
+            _getTask(handle, storage, path, file, progressThrottle));
 
-  static Future<void> Function() _getTask(
-      int handle, FirebaseStoragePlatform storage, String path, File file) {
+  static Future<void> Function() _getTask(int handle,
+      FirebaseStoragePlatform storage, String path, File file,
+      ProgressThrottle progressThrottle) {
     return () => MethodChannelFirebaseStorage.channel
             .invokeMethod<void>('Task#writeToFile', <String, dynamic>{
           'appName': storage.app.name,
@@ -312,6 +448,8 @@ class MethodChannelDownloadTask extends MethodChannelTask {
           'handle': handle,
           'path': path,
           'filePath': file.path,
+          'progressInterval': progressThrottle?.interval?.inMilliseconds,
+          'progressBytes': progressThrottle?.bytes,
         });
   }
 }
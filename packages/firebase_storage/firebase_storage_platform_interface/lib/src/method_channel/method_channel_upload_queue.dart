@@ -0,0 +1,85 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+import 'dart:async';
+
+import 'package:firebase_core/firebase_core.dart';
+import 'package:firebase_storage_platform_interface/firebase_storage_platform_interface.dart';
+
+import 'method_channel_firebase_storage.dart';
+import 'utils/exception.dart';
+
+/// Method Channel delegate for [UploadQueuePlatform].
+///
+/// The queue is registered with [MethodChannelFirebaseStorage] by its id, to
+/// receive the `UploadQueue#onProgress` and `UploadQueue#onComplete` events
+/// of the native queue.
+class MethodChannelUploadQueue extends UploadQueuePlatform {
+  /// Creates a [MethodChannelUploadQueue] and registers it for the events of
+  /// the native queue [queueId].
+  MethodChannelUploadQueue(String queueId) : super(queueId) {
+    MethodChannelFirebaseStorage.uploadQueueObservers[queueId] = this;
+  }
+
+  final StreamController<UploadQueueSnapshot> _controller =
+      StreamController<UploadQueueSnapshot>.broadcast();
+
+  final Completer<UploadQueueSnapshot> _completer =
+      Completer<UploadQueueSnapshot>();
+
+  @override
+  Stream<UploadQueueSnapshot> get snapshotEvents => _controller.stream;
+
+  @override
+  Future<UploadQueueSnapshot> get onComplete => _completer.future;
+
+  /// Handles a progress event of the native queue.
+  void onProgress(Map<String, dynamic> data) {
+    if (_completer.isCompleted) return;
+    _controller.add(UploadQueueSnapshot(data));
+  }
+
+  /// Handles the completion event of the native queue, which ends the queue.
+  void onCompleted(Map<String, dynamic> data) {
+    if (_completer.isCompleted) return;
+    UploadQueueSnapshot snapshot = UploadQueueSnapshot(data);
+    _controller.add(snapshot);
+    _completer.complete(snapshot);
+    _close();
+  }
+
+  /// Fails the queue, e.g. as it could not be started.
+  void onError(Object error, [StackTrace stackTrace]) {
+    if (_completer.isCompleted) return;
+    _controller.addError(error, stackTrace);
+    _completer.completeError(error, stackTrace);
+    // The error is sent on the stream as well, so the future can be ignored.
+    _completer.future.catchError((_) {});
+    _close();
+  }
+
+  @override
+  Future<void> cancel() async {
+    try {
+      await MethodChannelFirebaseStorage.channel.invokeMethod<void>(
+          'UploadQueue#cancel', <String, dynamic>{'queueId': queueId});
+    } catch (e) {
+      throw convertPlatformException(e);
+    }
+
+    onError(FirebaseException(
+      plugin: 'firebase_storage',
+      code: 'canceled',
+      message: 'User canceled the upload queue.',
+    ));
+  }
+
+  void _close() {
+    if (identical(
+        MethodChannelFirebaseStorage.uploadQueueObservers[queueId], this)) {
+      MethodChannelFirebaseStorage.uploadQueueObservers.remove(queueId);
+    }
+    _controller.close();
+  }
+}
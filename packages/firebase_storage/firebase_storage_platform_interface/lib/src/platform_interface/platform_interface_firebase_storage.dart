@@ -94,6 +94,65 @@ abstract class FirebaseStoragePlatform extends PlatformInterface {
     throw UnimplementedError('ref() is not implemented');
   }
 
+  /// Resolves the download URLs of the objects at [paths] in a single call.
+  ///
+  /// The URLs are returned in the order of [paths]. The URL of a path where no
+  /// object exists is `null`. If any other path could not be resolved, a
+  /// [FirebaseException] with the code of its failure is thrown.
+  Future<List<String>> getDownloadURLs(List<String> paths) {
+    throw UnimplementedError('getDownloadURLs() is not implemented');
+  }
+
+  /// Caches the download URLs and metadata of up to [maxSize] objects for
+  /// [maxAge], across every instance. The cache is persisted across app
+  /// restarts if [persistent] is true. A [maxSize] of 0 disables it.
+  Future<void> setReferenceCacheSettings(int maxSize,
+      {Duration maxAge, bool persistent}) {
+    throw UnimplementedError('setReferenceCacheSettings() is not implemented');
+  }
+
+  /// Drops every object from the download URL and metadata cache.
+  Future<void> clearReferenceCache() {
+    throw UnimplementedError('clearReferenceCache() is not implemented');
+  }
+
+  /// Returns the settings and usage of the download URL and metadata cache.
+  Future<ReferenceCacheMetrics> getReferenceCacheMetrics() {
+    throw UnimplementedError('getReferenceCacheMetrics() is not implemented');
+  }
+
+  /// Uploads a list of files as a single queue, running at most
+  /// [maxConcurrent] uploads at once, highest priority first.
+  ///
+  /// The queue is persisted as it progresses, so it can be resumed with
+  /// [resumeUploadQueue] after the app was killed. Its progress is sent at
+  /// most once per [progressInterval].
+  Future<UploadQueuePlatform> startUploadQueue(List<UploadQueueItem> uploads,
+      {int maxConcurrent, Duration progressInterval}) {
+    throw UnimplementedError('startUploadQueue() is not implemented');
+  }
+
+  /// Resumes a persisted upload queue which is not running, continuing the
+  /// interrupted uploads where they were left.
+  ///
+  /// [maxConcurrent] and [progressInterval] replace the settings the queue was
+  /// started with if provided.
+  Future<UploadQueuePlatform> resumeUploadQueue(String queueId,
+      {int maxConcurrent, Duration progressInterval}) {
+    throw UnimplementedError('resumeUploadQueue() is not implemented');
+  }
+
+  /// Returns the persisted upload queues which are not running, e.g. as they
+  /// were interrupted by the app being killed.
+  Future<List<UploadQueueSnapshot>> getPersistedUploadQueues() {
+    throw UnimplementedError('getPersistedUploadQueues() is not implemented');
+  }
+
+  /// Deletes a persisted upload queue which is not running.
+  Future<void> deletePersistedUploadQueue(String queueId) {
+    throw UnimplementedError('deletePersistedUploadQueue() is not implemented');
+  }
+
   /// The new maximum operation retry time in milliseconds.
   void setMaxOperationRetryTime(int time) {
     throw UnimplementedError('setMaxOperationRetryTime() is not implemented');
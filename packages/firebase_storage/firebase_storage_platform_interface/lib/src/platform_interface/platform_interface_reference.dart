@@ -125,12 +125,26 @@ abstract class ReferencePlatform extends PlatformInterface {
     throw UnimplementedError('getData() is not implemented');
   }
 
+  /// Downloads the object at the StorageReference as a stream of chunks of up
+  /// to [chunkSize] bytes.
+  ///
+  /// Only the bytes from [start] inclusive to [end] exclusive are streamed if
+  /// they are provided. No more than [maxBufferedChunks] chunks are downloaded
+  /// ahead of the listener, the download is held back while the subscription
+  /// is paused and stopped once it is cancelled.
+  Stream<Uint8List> getDataStream(
+      {int chunkSize, int start, int end, int maxBufferedChunks}) {
+    throw UnimplementedError('getDataStream() is not implemented');
+  }
+
   /// Uploads data to this reference's location.
   ///
   /// Use this method to upload fixed sized data as a [Uint8List].
   ///
-  /// Optionally, you can also set metadata onto the uploaded object.
-  TaskPlatform putData(Uint8List data, [SettableMetadata metadata]) {
+  /// Optionally, you can also set metadata onto the uploaded object, and
+  /// throttle its progress events.
+  TaskPlatform putData(Uint8List data,
+      [SettableMetadata metadata, ProgressThrottle progressThrottle]) {
     throw UnimplementedError('putData() is not implemented');
   }
 
@@ -143,8 +157,10 @@ abstract class ReferencePlatform extends PlatformInterface {
 
   /// Upload a [File] from the filesystem. The file must exist.
   ///
-  /// Optionally, you can also set metadata onto the uploaded object.
-  TaskPlatform putFile(File file, [SettableMetadata metadata]) {
+  /// Optionally, you can also set metadata onto the uploaded object, and
+  /// throttle its progress events.
+  TaskPlatform putFile(File file,
+      [SettableMetadata metadata, ProgressThrottle progressThrottle]) {
     throw UnimplementedError('putFile() is not implemented');
   }
 
@@ -159,7 +175,7 @@ abstract class ReferencePlatform extends PlatformInterface {
   ///   - [PutStringFormat.base64] will be encoded as a Base64 string.
   ///   - [PutStringFormat.base64Url] will be encoded as a Base64 string safe URL.
   TaskPlatform putString(String data, PutStringFormat format,
-      [SettableMetadata metadata]) {
+      [SettableMetadata metadata, ProgressThrottle progressThrottle]) {
     throw UnimplementedError('putString() is not implemented');
   }
 
@@ -171,7 +187,9 @@ abstract class ReferencePlatform extends PlatformInterface {
   /// Writes a remote storage object to the local filesystem.
   ///
   /// If a file already exists at the given location, it will be overwritten.
-  TaskPlatform writeToFile(File file) {
+  ///
+  /// Optionally, you can also throttle the task's progress events.
+  TaskPlatform writeToFile(File file, [ProgressThrottle progressThrottle]) {
     throw UnimplementedError('writeToFile() is not implemented');
   }
 }
@@ -0,0 +1,54 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+import 'dart:async';
+
+import 'package:plugin_platform_interface/plugin_platform_interface.dart';
+import 'package:firebase_storage_platform_interface/firebase_storage_platform_interface.dart';
+
+/// The interface an upload queue must implement.
+abstract class UploadQueuePlatform extends PlatformInterface {
+  // ignore: public_member_api_docs
+  UploadQueuePlatform(this.queueId) : super(token: _token);
+
+  static final Object _token = Object();
+
+  /// Throws an [AssertionError] if [instance] does not extend
+  /// [UploadQueuePlatform].
+  ///
+  /// This is used by the app-facing [UploadQueue] to ensure that
+  /// the object in which it's going to delegate calls has been
+  /// constructed properly.
+  static verifyExtends(UploadQueuePlatform instance) {
+    assert(instance != null);
+    PlatformInterface.verifyToken(instance, _token);
+  }
+
+  /// The id of the queue, which can be used to resume it after it was
+  /// interrupted, e.g. by the app being killed.
+  final String queueId;
+
+  /// Returns a [Stream] of [UploadQueueSnapshot] events, throttled to the
+  /// progress interval of the queue.
+  ///
+  /// The stream is closed once every file has been uploaded or has failed. If
+  /// the queue is canceled, the stream will send an error event.
+  Stream<UploadQueueSnapshot> get snapshotEvents {
+    throw UnimplementedError('snapshotEvents is not implemented');
+  }
+
+  /// Returns a [Future] of the final [UploadQueueSnapshot], once every file has
+  /// been uploaded or has failed.
+  ///
+  /// The failed files are listed in [UploadQueueSnapshot.failures].
+  Future<UploadQueueSnapshot> get onComplete {
+    throw UnimplementedError('onComplete is not implemented');
+  }
+
+  /// Cancels the queue and its ongoing uploads, and deletes its persisted
+  /// state.
+  Future<void> cancel() {
+    throw UnimplementedError('cancel() is not implemented');
+  }
+}
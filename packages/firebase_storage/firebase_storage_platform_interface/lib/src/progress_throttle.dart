@@ -0,0 +1,25 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+/// Limits how often a task reports its progress.
+///
+/// A progress event is only sent once both the [interval] has elapsed and
+/// [bytes] have been transferred since the previous one. The last progress of
+/// a task is always sent.
+///
+/// Only supported on Android, other platforms ignore the throttle.
+class ProgressThrottle {
+  /// Creates a new [ProgressThrottle] instance.
+  const ProgressThrottle({
+    this.interval,
+    this.bytes,
+  })  : assert(interval != null || bytes != null),
+        assert(bytes == null || bytes >= 0);
+
+  /// The minimum time between two progress events.
+  final Duration interval;
+
+  /// The minimum number of bytes transferred between two progress events.
+  final int bytes;
+}
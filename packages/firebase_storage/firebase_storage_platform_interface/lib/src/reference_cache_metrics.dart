@@ -0,0 +1,60 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+import 'package:meta/meta.dart' show protected;
+
+/// The settings and usage of the download URL and metadata cache.
+class ReferenceCacheMetrics {
+  // ignore: public_member_api_docs
+  @protected
+  ReferenceCacheMetrics(this._data);
+
+  final Map<String, dynamic> _data;
+
+  /// The number of objects cached.
+  int get size {
+    return _data['size'];
+  }
+
+  /// The maximum number of objects cached, 0 if the cache is disabled.
+  int get maxSize {
+    return _data['maxSize'];
+  }
+
+  /// How long cached values are used for.
+  Duration get maxAge {
+    return Duration(milliseconds: _data['maxAge']);
+  }
+
+  /// Whether the cache is persisted across app restarts.
+  bool get persistent {
+    return _data['persistent'];
+  }
+
+  /// The number of lookups answered by the cache.
+  int get hits {
+    return _data['hits'];
+  }
+
+  /// The number of lookups which had to be sent to the server.
+  int get misses {
+    return _data['misses'];
+  }
+
+  /// The number of objects dropped to keep the cache within [maxSize].
+  int get sizeEvictions {
+    return _data['sizeEvictions'];
+  }
+
+  /// The number of objects dropped as their values were older than [maxAge].
+  int get ageEvictions {
+    return _data['ageEvictions'];
+  }
+
+  /// The number of objects dropped as they were deleted, updated or uploaded
+  /// to.
+  int get invalidations {
+    return _data['invalidations'];
+  }
+}
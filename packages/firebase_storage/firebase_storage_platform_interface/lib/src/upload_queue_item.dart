@@ -0,0 +1,44 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+import 'package:meta/meta.dart';
+
+import 'settable_metadata.dart';
+
+/// A file to upload as part of an upload queue.
+class UploadQueueItem {
+  /// Creates a new [UploadQueueItem] instance.
+  const UploadQueueItem({
+    @required this.path,
+    @required this.filePath,
+    this.metadata,
+    this.priority = 0,
+  })  : assert(path != null),
+        assert(filePath != null),
+        assert(priority != null);
+
+  /// The path of the storage object reference the file is uploaded to.
+  final String path;
+
+  /// The path of the local file to upload.
+  final String filePath;
+
+  /// The metadata the storage object is created with.
+  final SettableMetadata metadata;
+
+  /// The priority of the file within its queue, higher first.
+  ///
+  /// Files of the same priority are uploaded in the order they were added.
+  final int priority;
+
+  /// Returns the item as a [Map].
+  Map<String, dynamic> asMap() {
+    return <String, dynamic>{
+      'path': path,
+      'filePath': filePath,
+      'metadata': metadata?.asMap(),
+      'priority': priority,
+    };
+  }
+}
@@ -0,0 +1,107 @@
+// Copyright 2020 The Chromium Authors. All rights reserved.
+// Use of this source code is governed by a BSD-style license that can be
+// found in the LICENSE file.
+
+import 'package:meta/meta.dart' show protected;
+
+/// The progress of an upload queue across all of its files.
+class UploadQueueSnapshot {
+  // ignore: public_member_api_docs
+  @protected
+  UploadQueueSnapshot(this._data);
+
+  final Map<String, dynamic> _data;
+
+  /// The id of the queue, which can be used to resume it.
+  String get queueId {
+    return _data['queueId'];
+  }
+
+  /// The name of the Firebase App the queue uploads to.
+  String get appName {
+    return _data['appName'];
+  }
+
+  /// The storage bucket the queue uploads to, if not the default one.
+  String get bucket {
+    return _data['bucket'];
+  }
+
+  /// The number of files in the queue.
+  int get totalFiles {
+    return _data['totalFiles'];
+  }
+
+  /// The number of files uploaded.
+  int get completedFiles {
+    return _data['completedFiles'];
+  }
+
+  /// The number of files which failed to upload.
+  int get failedFiles {
+    return _data['failedFiles'];
+  }
+
+  /// The number of files still pending or uploading.
+  int get remainingFiles {
+    return _data['remainingFiles'];
+  }
+
+  /// The number of bytes uploaded across all files.
+  int get bytesTransferred {
+    return _data['bytesTransferred'];
+  }
+
+  /// The total number of bytes of all files.
+  int get totalBytes {
+    return _data['totalBytes'];
+  }
+
+  /// The files which failed to upload.
+  ///
+  /// Only provided once the queue has completed, empty beforehand.
+  List<UploadQueueFailure> get failures {
+    List<dynamic> failures = _data['failures'];
+    if (failures == null) {
+      return <UploadQueueFailure>[];
+    }
+
+    return failures
+        .map((failure) =>
+            UploadQueueFailure(Map<String, dynamic>.from(failure)))
+        .toList();
+  }
+}
+
+/// A file of an upload queue which failed to upload.
+class UploadQueueFailure {
+  // ignore: public_member_api_docs
+  @protected
+  UploadQueueFailure(this._data);
+
+  final Map<String, dynamic> _data;
+
+  /// The path of the storage object reference the file was uploaded to.
+  String get path {
+    return _data['path'];
+  }
+
+  /// The path of the local file.
+  String get filePath {
+    return _data['filePath'];
+  }
+
+  /// The error code of the failure.
+  String get code {
+    return _error['code'] ?? 'unknown';
+  }
+
+  /// The error message of the failure.
+  String get message {
+    return _error['message'];
+  }
+
+  Map<dynamic, dynamic> get _error {
+    return _data['error'] ?? <dynamic, dynamic>{};
+  }
+}
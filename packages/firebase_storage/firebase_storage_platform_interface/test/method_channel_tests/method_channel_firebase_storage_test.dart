@@ -5,6 +5,7 @@
 import 'dart:async';
 
 import 'package:firebase_core/firebase_core.dart';
+import 'package:flutter/services.dart';
 import 'package:flutter_test/flutter_test.dart';
 
 import 'package:firebase_storage_platform_interface/firebase_storage_platform_interface.dart';
@@ -98,9 +99,400 @@ void main() {
         expect(result, isInstanceOf<ReferencePlatform>());
       });
     });
+
+    group('getDownloadURLs', () {
+      final List<MethodCall> log = <MethodCall>[];
+      bool mockPlatformExceptionThrown = false;
+      List<Map<String, dynamic>> mockResults;
+
+      setUp(() {
+        log.clear();
+        mockPlatformExceptionThrown = false;
+        mockResults = [
+          {'downloadURL': 'https://foo'},
+          {'code': 'object-not-found', 'message': 'Not found'},
+        ];
+        handleMethodCall((call) async {
+          log.add(call);
+          if (mockPlatformExceptionThrown) {
+            throw PlatformException(
+                code: 'UNKNOWN', message: 'Mock platform exception thrown');
+          }
+
+          return mockResults;
+        });
+      });
+
+      test('should invoke native method with correct args', () async {
+        final result = await storage.getDownloadURLs(['foo', 'bar']);
+
+        expect(result, ['https://foo', null]);
+        expect(log, <Matcher>[
+          isMethodCall(
+            'Reference#getDownloadURLs',
+            arguments: <String, dynamic>{
+              'appName': '[DEFAULT]',
+              'maxOperationRetryTime': storage.maxOperationRetryTime,
+              'maxUploadRetryTime': storage.maxUploadRetryTime,
+              'maxDownloadRetryTime': storage.maxDownloadRetryTime,
+              'bucket': null,
+              'paths': ['foo', 'bar'],
+            },
+          ),
+        ]);
+      });
+
+      test(
+          'catch a [PlatformException] error and throws a [FirebaseException] error',
+          () async {
+        mockPlatformExceptionThrown = true;
+        Function callMethod = () => storage.getDownloadURLs(['foo']);
+        await testExceptionHandling('PLATFORM', callMethod);
+      });
+
+      test('throws the failure of a path other than a missing object',
+          () async {
+        mockResults = [
+          {'downloadURL': 'https://foo'},
+          {'code': 'unauthorized', 'message': 'Not authorized'},
+        ];
+
+        await expectLater(
+            storage.getDownloadURLs(['foo', 'bar']),
+            throwsA(isA<FirebaseException>()
+                .having((e) => e.code, 'code', 'unauthorized')
+                .having((e) => e.message, 'message', 'Not authorized')));
+      });
+    });
+
+    group('reference cache', () {
+      final List<MethodCall> log = <MethodCall>[];
+      bool mockPlatformExceptionThrown = false;
+
+      setUp(() {
+        log.clear();
+        mockPlatformExceptionThrown = false;
+        handleMethodCall((call) async {
+          log.add(call);
+          if (mockPlatformExceptionThrown) {
+            throw PlatformException(
+                code: 'UNKNOWN', message: 'Mock platform exception thrown');
+          }
+
+          if (call.method == 'ReferenceCache#getMetrics') {
+            return <String, dynamic>{
+              'size': 2,
+              'maxSize': 10,
+              'maxAge': 60000,
+              'persistent': true,
+              'hits': 3,
+              'misses': 2,
+              'sizeEvictions': 0,
+              'ageEvictions': 1,
+              'invalidations': 4,
+            };
+          }
+          return null;
+        });
+      });
+
+      test('setReferenceCacheSettings() invokes native method', () async {
+        await storage.setReferenceCacheSettings(10,
+            maxAge: Duration(minutes: 1), persistent: true);
+        await storage.setReferenceCacheSettings(0);
+
+        expect(log, <Matcher>[
+          isMethodCall(
+            'ReferenceCache#setSettings',
+            arguments: <String, dynamic>{
+              'maxSize': 10,
+              'maxAge': 60000,
+              'persistent': true,
+            },
+          ),
+          isMethodCall(
+            'ReferenceCache#setSettings',
+            arguments: <String, dynamic>{
+              'maxSize': 0,
+              'maxAge': null,
+              'persistent': null,
+            },
+          ),
+        ]);
+      });
+
+      test('clearReferenceCache() invokes native method', () async {
+        await storage.clearReferenceCache();
+
+        expect(log, <Matcher>[
+          isMethodCall('ReferenceCache#clear', arguments: null),
+        ]);
+      });
+
+      test('getReferenceCacheMetrics() returns the metrics', () async {
+        final ReferenceCacheMetrics metrics =
+            await storage.getReferenceCacheMetrics();
+
+        expect(metrics.size, 2);
+        expect(metrics.maxSize, 10);
+        expect(metrics.maxAge, Duration(minutes: 1));
+        expect(metrics.persistent, isTrue);
+        expect(metrics.hits, 3);
+        expect(metrics.misses, 2);
+        expect(metrics.sizeEvictions, 0);
+        expect(metrics.ageEvictions, 1);
+        expect(metrics.invalidations, 4);
+        expect(log, <Matcher>[
+          isMethodCall('ReferenceCache#getMetrics', arguments: null),
+        ]);
+      });
+
+      test(
+          'catch a [PlatformException] error and throws a [FirebaseException] error',
+          () async {
+        mockPlatformExceptionThrown = true;
+        await testExceptionHandling(
+            'PLATFORM', () => storage.setReferenceCacheSettings(10));
+        await testExceptionHandling(
+            'PLATFORM', () => storage.clearReferenceCache());
+        await testExceptionHandling(
+            'PLATFORM', () => storage.getReferenceCacheMetrics());
+      });
+    });
+
+    group('upload queues', () {
+      final List<MethodCall> log = <MethodCall>[];
+      bool mockPlatformExceptionThrown = false;
+
+      Map<String, dynamic> state(String queueId, int completedFiles,
+          {List<dynamic> failures}) {
+        int failedFiles = failures?.length ?? 0;
+        return <String, dynamic>{
+          'queueId': queueId,
+          'appName': '[DEFAULT]',
+          'bucket': null,
+          'totalFiles': 2,
+          'completedFiles': completedFiles,
+          'failedFiles': failedFiles,
+          'remainingFiles': 2 - completedFiles - failedFiles,
+          'bytesTransferred': completedFiles * 10,
+          'totalBytes': 20,
+          'failures': failures,
+        };
+      }
+
+      setUp(() {
+        log.clear();
+        mockPlatformExceptionThrown = false;
+        handleMethodCall((call) async {
+          log.add(call);
+          if (mockPlatformExceptionThrown) {
+            throw PlatformException(
+                code: 'UNKNOWN', message: 'Mock platform exception thrown');
+          }
+
+          switch (call.method) {
+            case 'UploadQueue#start':
+              return <String, dynamic>{'queueId': 'queue-1'};
+            case 'UploadQueue#getPersisted':
+              return <dynamic>[state('queue-2', 1)];
+            default:
+              return null;
+          }
+        });
+      });
+
+      test('startUploadQueue() invokes native method with correct args',
+          () async {
+        final UploadQueuePlatform queue = await storage.startUploadQueue(
+          <UploadQueueItem>[
+            UploadQueueItem(path: 'foo/1', filePath: '/tmp/1'),
+            UploadQueueItem(
+              path: 'foo/2',
+              filePath: '/tmp/2',
+              metadata: SettableMetadata(contentType: 'image/png'),
+              priority: 1,
+            ),
+          ],
+          maxConcurrent: 2,
+          progressInterval: Duration(seconds: 1),
+        );
+
+        expect(queue.queueId, 'queue-1');
+        expect(log, <Matcher>[
+          isMethodCall(
+            'UploadQueue#start',
+            arguments: <String, dynamic>{
+              'appName': '[DEFAULT]',
+              'bucket': null,
+              'uploads': <Map<String, dynamic>>[
+                <String, dynamic>{
+                  'path': 'foo/1',
+                  'filePath': '/tmp/1',
+                  'metadata': null,
+                  'priority': 0,
+                },
+                <String, dynamic>{
+                  'path': 'foo/2',
+                  'filePath': '/tmp/2',
+                  'metadata': SettableMetadata(contentType: 'image/png')
+                      .asMap(),
+                  'priority': 1,
+                },
+              ],
+              'maxConcurrent': 2,
+              'progressInterval': 1000,
+            },
+          ),
+        ]);
+      });
+
+      test('sends progress and completion events of the queue', () async {
+        final UploadQueuePlatform queue = await storage.startUploadQueue(
+            <UploadQueueItem>[
+              UploadQueueItem(path: 'foo/1', filePath: '/tmp/1'),
+              UploadQueueItem(path: 'foo/2', filePath: '/tmp/2'),
+            ]);
+        final Future<List<UploadQueueSnapshot>> snapshots =
+            queue.snapshotEvents.toList();
+
+        await _sendUploadQueueEvent(
+            'UploadQueue#onProgress', state('queue-1', 1));
+        await _sendUploadQueueEvent(
+            'UploadQueue#onComplete',
+            state('queue-1', 1, failures: <dynamic>[
+              <String, dynamic>{
+                'path': 'foo/2',
+                'filePath': '/tmp/2',
+                'error': <String, dynamic>{
+                  'code': 'unauthorized',
+                  'message': 'Not allowed',
+                },
+              },
+            ]));
+
+        final UploadQueueSnapshot completed = await queue.onComplete;
+        expect(completed.completedFiles, 1);
+        expect(completed.failedFiles, 1);
+        expect(completed.failures.single.path, 'foo/2');
+        expect(completed.failures.single.code, 'unauthorized');
+        expect(completed.failures.single.message, 'Not allowed');
+
+        final List<UploadQueueSnapshot> events = await snapshots;
+        expect(events.length, 2);
+        expect(events[0].bytesTransferred, 10);
+        expect(events[0].remainingFiles, 1);
+        expect(events[0].failures, isEmpty);
+        expect(MethodChannelFirebaseStorage.uploadQueueObservers,
+            isNot(contains('queue-1')));
+      });
+
+      test('resumeUploadQueue() receives events sent straight away', () async {
+        // The resumed queue completes before the reply to UploadQueue#resume.
+        handleMethodCall((call) async {
+          log.add(call);
+          await _sendUploadQueueEvent(
+              'UploadQueue#onComplete', state('queue-2', 2));
+          return null;
+        });
+
+        final UploadQueuePlatform queue =
+            await storage.resumeUploadQueue('queue-2', maxConcurrent: 1);
+
+        expect((await queue.onComplete).completedFiles, 2);
+        expect(log, <Matcher>[
+          isMethodCall(
+            'UploadQueue#resume',
+            arguments: <String, dynamic>{
+              'queueId': 'queue-2',
+              'maxConcurrent': 1,
+              'progressInterval': null,
+            },
+          ),
+        ]);
+      });
+
+      test('cancel() invokes native method and fails the queue', () async {
+        final UploadQueuePlatform queue = await storage.startUploadQueue(
+            <UploadQueueItem>[
+              UploadQueueItem(path: 'foo/1', filePath: '/tmp/1'),
+            ]);
+        final Future<List<UploadQueueSnapshot>> snapshots =
+            queue.snapshotEvents.toList();
+        log.clear();
+
+        await queue.cancel();
+
+        expect(log, <Matcher>[
+          isMethodCall(
+            'UploadQueue#cancel',
+            arguments: <String, dynamic>{'queueId': 'queue-1'},
+          ),
+        ]);
+        await expectLater(queue.onComplete,
+            throwsA(isA<FirebaseException>().having((e) => e.code, 'code',
+                'canceled')));
+        await expectLater(snapshots, throwsA(isA<FirebaseException>()));
+      });
+
+      test('getPersistedUploadQueues() returns the persisted queues',
+          () async {
+        final List<UploadQueueSnapshot> queues =
+            await storage.getPersistedUploadQueues();
+
+        expect(queues.length, 1);
+        expect(queues.single.queueId, 'queue-2');
+        expect(queues.single.appName, '[DEFAULT]');
+        expect(queues.single.totalFiles, 2);
+        expect(queues.single.totalBytes, 20);
+        expect(log, <Matcher>[
+          isMethodCall('UploadQueue#getPersisted', arguments: null),
+        ]);
+      });
+
+      test('deletePersistedUploadQueue() invokes native method', () async {
+        await storage.deletePersistedUploadQueue('queue-2');
+
+        expect(log, <Matcher>[
+          isMethodCall(
+            'UploadQueue#cancel',
+            arguments: <String, dynamic>{'queueId': 'queue-2'},
+          ),
+        ]);
+      });
+
+      test(
+          'catch a [PlatformException] error and throws a [FirebaseException] error',
+          () async {
+        mockPlatformExceptionThrown = true;
+        await testExceptionHandling(
+            'PLATFORM',
+            () => storage.startUploadQueue(<UploadQueueItem>[
+                  UploadQueueItem(path: 'foo/1', filePath: '/tmp/1'),
+                ]));
+        await testExceptionHandling(
+            'PLATFORM', () => storage.resumeUploadQueue('queue-2'));
+        await testExceptionHandling(
+            'PLATFORM', () => storage.getPersistedUploadQueues());
+        expect(MethodChannelFirebaseStorage.uploadQueueObservers,
+            isNot(contains('queue-2')));
+      });
+    });
   });
 }
 
+Future<void> _sendUploadQueueEvent(
+    String method, Map<String, dynamic> arguments) {
+  final Completer<void> completer = Completer<void>();
+  ServicesBinding.instance.defaultBinaryMessenger.handlePlatformMessage(
+    MethodChannelFirebaseStorage.channel.name,
+    MethodChannelFirebaseStorage.channel.codec
+        .encodeMethodCall(MethodCall(method, arguments)),
+    (ByteData reply) => completer.complete(),
+  );
+  return completer.future;
+}
+
 class TestMethodChannelFirebaseStorage extends MethodChannelFirebaseStorage {
   TestMethodChannelFirebaseStorage(FirebaseApp app) : super(app: app);
 }
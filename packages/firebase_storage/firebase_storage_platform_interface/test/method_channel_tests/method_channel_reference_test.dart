@@ -2,15 +2,18 @@
 // for details. All rights reserved. Use of this source code is governed by a
 // BSD-style license that can be found in the LICENSE file.
 
+import 'dart:async';
 import 'dart:convert';
 import 'dart:typed_data';
 import 'dart:io';
 
 import 'package:firebase_storage_platform_interface/firebase_storage_platform_interface.dart';
 import 'package:firebase_core/firebase_core.dart';
+import 'package:flutter/foundation.dart';
 import 'package:flutter_test/flutter_test.dart';
 import 'package:firebase_storage_platform_interface/src/method_channel/method_channel_firebase_storage.dart';
 import 'package:firebase_storage_platform_interface/src/method_channel/method_channel_reference.dart';
+import 'package:firebase_storage_platform_interface/src/method_channel/method_channel_task.dart';
 import '../mock.dart';
 import 'package:flutter/services.dart';
 
@@ -23,6 +26,7 @@ void main() {
 
   // mock props
   bool mockPlatformExceptionThrown = false;
+  int mockUploadBufferId;
   File kFile;
   final kMetadata = SettableMetadata(
       contentLanguage: 'en',
@@ -60,6 +64,10 @@ void main() {
             return {};
           case 'Task#startPutFile':
             return {};
+          case 'Task#createUploadBuffer':
+            return mockUploadBufferId;
+          case 'Reference#openStream':
+            return 3;
           default:
             return null;
         }
@@ -71,6 +79,7 @@ void main() {
 
     setUp(() async {
       mockPlatformExceptionThrown = false;
+      mockUploadBufferId = null;
       log.clear();
     });
 
@@ -258,11 +267,231 @@ void main() {
                 'contentLanguage': 'en',
                 'contentType': null,
                 'customMetadata': {'activity': 'test'}
-              }
+              },
+              'progressInterval': null,
+              'progressBytes': null,
+            },
+          ),
+        ]);
+      });
+    });
+
+    group('getDataStream', () {
+      const StandardMethodCodec codec = StandardMethodCodec();
+      const String channelName =
+          '${MethodChannelReference.downloadStreamChannelPrefix}3';
+      final Uint8List chunk = Uint8List.fromList(utf8.encode('hello world'));
+      final List<String> streamCalls = <String>[];
+
+      void sendStreamEvent(ByteData event) {
+        ServicesBinding.instance.defaultBinaryMessenger
+            .handlePlatformMessage(channelName, event, (ByteData reply) {});
+      }
+
+      setUp(() {
+        streamCalls.clear();
+        ServicesBinding.instance.defaultBinaryMessenger.setMockMessageHandler(
+            channelName, (ByteData message) async {
+          streamCalls.add(codec.decodeMethodCall(message).method);
+          return codec.encodeSuccessEnvelope(null);
+        });
+      });
+
+      tearDown(() {
+        ServicesBinding.instance.defaultBinaryMessenger
+            .setMockMessageHandler(channelName, null);
+      });
+
+      test('should open a stream and request chunks as they are received',
+          () async {
+        final List<Uint8List> chunks = <Uint8List>[];
+        final Completer<void> done = Completer<void>();
+        ref
+            .getDataStream(
+                chunkSize: 4, start: 2, end: 10, maxBufferedChunks: 2)
+            .listen(chunks.add, onDone: done.complete);
+        await pumpEventQueue();
+
+        sendStreamEvent(codec.encodeSuccessEnvelope(chunk));
+        sendStreamEvent(null);
+        await done.future;
+        await pumpEventQueue();
+
+        expect(chunks, <Uint8List>[chunk]);
+        expect(streamCalls, <String>['listen', 'cancel']);
+        expect(log, <Matcher>[
+          isMethodCall(
+            'Reference#openStream',
+            arguments: <String, dynamic>{
+              'appName': '[DEFAULT]',
+              'maxOperationRetryTime': storage.maxOperationRetryTime,
+              'maxUploadRetryTime': storage.maxUploadRetryTime,
+              'maxDownloadRetryTime': storage.maxDownloadRetryTime,
+              'bucket': null,
+              'path': '/',
+              'chunkSize': 4,
+              'start': 2,
+              'end': 10,
+            },
+          ),
+          isMethodCall(
+            'Reference#requestStreamChunks',
+            arguments: <String, dynamic>{'streamId': 3, 'count': 2},
+          ),
+          isMethodCall(
+            'Reference#requestStreamChunks',
+            arguments: <String, dynamic>{'streamId': 3, 'count': 1},
+          ),
+        ]);
+      });
+
+      test('should not request chunks while paused', () async {
+        int requests() => log
+            .where((call) => call.method == 'Reference#requestStreamChunks')
+            .length;
+        final StreamSubscription<Uint8List> subscription =
+            ref.getDataStream(maxBufferedChunks: 1).listen((_) {});
+        await pumpEventQueue();
+        subscription.pause();
+
+        sendStreamEvent(codec.encodeSuccessEnvelope(chunk));
+        await pumpEventQueue();
+        expect(requests(), 1);
+
+        subscription.resume();
+        await pumpEventQueue();
+        expect(requests(), 2);
+
+        await subscription.cancel();
+      });
+
+      test('should cancel the platform stream along with the subscription',
+          () async {
+        final StreamSubscription<Uint8List> subscription =
+            ref.getDataStream().listen((_) {});
+        await pumpEventQueue();
+        await subscription.cancel();
+
+        expect(streamCalls, <String>['listen', 'cancel']);
+      });
+
+      test('should convert platform errors to a [FirebaseException]', () async {
+        final Future<List<Uint8List>> result = ref.getDataStream().toList();
+        await pumpEventQueue();
+
+        sendStreamEvent(codec.encodeErrorEnvelope(
+            code: 'firebase_storage',
+            message: 'Mock platform exception thrown',
+            details: <String, String>{
+              'code': 'object-not-found',
+              'message': 'No object exists at the desired reference.',
+            }));
+
+        await expectLater(
+            result,
+            throwsA(isA<FirebaseException>()
+                .having((e) => e.code, 'code', 'object-not-found')));
+      });
+
+      test(
+          'catch a [PlatformException] error and throws a [FirebaseException] error',
+          () async {
+        mockPlatformExceptionThrown = true;
+        Function callMethod = () => ref.getDataStream().toList();
+        await testExceptionHandling('PLATFORM', callMethod);
+      });
+    });
+
+    group('put (buffered)', () {
+      final Uint8List data = Uint8List(
+          MethodChannelPutTask.bufferedUploadThreshold +
+              MethodChannelPutTask.bufferedUploadChunkSize ~/ 2);
+      final List<ByteData> chunks = <ByteData>[];
+
+      setUp(() {
+        chunks.clear();
+        mockUploadBufferId = 7;
+        debugDefaultTargetPlatformOverride = TargetPlatform.android;
+        ServicesBinding.instance.defaultBinaryMessenger.setMockMessageHandler(
+            MethodChannelPutTask.uploadBufferChannel, (ByteData message) async {
+          chunks.add(message);
+          return ByteData(1);
+        });
+      });
+
+      tearDown(() {
+        debugDefaultTargetPlatformOverride = null;
+        ServicesBinding.instance.defaultBinaryMessenger.setMockMessageHandler(
+            MethodChannelPutTask.uploadBufferChannel, null);
+      });
+
+      test('should write large data to an upload buffer in chunks', () async {
+        int handle = nextMockHandleId;
+        await ref.putData(data, kMetadata);
+        await pumpEventQueue();
+
+        expect(chunks.length, 3);
+        expect(chunks.map((chunk) => chunk.getUint32(0)), everyElement(7));
+        expect(chunks.fold<int>(0, (sum, chunk) => sum + chunk.lengthInBytes),
+            data.lengthInBytes + 4 * chunks.length);
+
+        expect(log, <Matcher>[
+          isMethodCall('Task#createUploadBuffer', arguments: null),
+          isMethodCall(
+            'Task#startPutBuffer',
+            arguments: <String, dynamic>{
+              'appName': '[DEFAULT]',
+              'maxOperationRetryTime': storage.maxOperationRetryTime,
+              'maxUploadRetryTime': storage.maxUploadRetryTime,
+              'maxDownloadRetryTime': storage.maxDownloadRetryTime,
+              'bucket': null,
+              'path': '/',
+              'handle': handle,
+              'bufferId': 7,
+              'metadata': kMetadata.asMap(),
+              'progressInterval': null,
+              'progressBytes': null,
             },
           ),
         ]);
       });
+
+      test('should fall back to sending the data when buffers are unsupported',
+          () async {
+        mockUploadBufferId = null;
+        int handle = nextMockHandleId;
+        await ref.putData(data, kMetadata);
+        await pumpEventQueue();
+
+        expect(chunks, isEmpty);
+        expect(log.map((call) => call.method),
+            <String>['Task#createUploadBuffer', 'Task#startPutData']);
+        expect(log.last.arguments['handle'], handle);
+      });
+
+      test('should write a large Base64 string to an upload buffer', () async {
+        await ref.putString(
+            base64.encode(data), PutStringFormat.base64, kMetadata);
+        await pumpEventQueue();
+
+        expect(chunks.fold<int>(0, (sum, chunk) => sum + chunk.lengthInBytes),
+            data.lengthInBytes + 4 * chunks.length);
+        expect(log.map((call) => call.method),
+            <String>['Task#createUploadBuffer', 'Task#startPutBuffer']);
+      });
+
+      test('should leave Base64 it cannot decode to the platform', () async {
+        final String encoded = base64.encode(data);
+        final String lines = encoded.substring(0, 76) +
+            '\n' +
+            encoded.substring(76, encoded.length);
+        await ref.putString(lines, PutStringFormat.base64, kMetadata);
+        await pumpEventQueue();
+
+        expect(chunks, isEmpty);
+        expect(log.map((call) => call.method), <String>['Task#startPutString']);
+        expect(log.last.arguments['data'], lines);
+      });
     });
 
     group('putBlob', () {
@@ -299,11 +528,24 @@ void main() {
                 'contentLanguage': 'en',
                 'contentType': null,
                 'customMetadata': {'activity': 'test'}
-              }
+              },
+              'progressInterval': null,
+              'progressBytes': null,
             },
           ),
         ]);
       });
+
+      test('should send the progress throttle', () async {
+        await ref.putFile(
+            kFile,
+            kMetadata,
+            ProgressThrottle(
+                interval: Duration(milliseconds: 500), bytes: 1024));
+
+        expect(log.single.arguments['progressInterval'], 500);
+        expect(log.single.arguments['progressBytes'], 1024);
+      });
     });
 
     group('putString', () {
@@ -333,7 +575,9 @@ void main() {
                 'contentLanguage': 'en',
                 'contentType': null,
                 'customMetadata': {'activity': 'test'}
-              }
+              },
+              'progressInterval': null,
+              'progressBytes': null,
             },
           ),
         ]);
@@ -373,10 +617,20 @@ void main() {
               'path': '/',
               'handle': handle,
               'filePath': kFile.path,
+              'progressInterval': null,
+              'progressBytes': null,
             },
           ),
         ]);
       });
+
+      test('should send the progress throttle', () async {
+        await ref.writeToFile(
+            kFile, ProgressThrottle(interval: Duration(seconds: 1)));
+
+        expect(log.single.arguments['progressInterval'], 1000);
+        expect(log.single.arguments['progressBytes'], isNull);
+      });
     });
   });
 }
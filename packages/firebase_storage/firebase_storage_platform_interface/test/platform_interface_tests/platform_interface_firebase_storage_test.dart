@@ -157,6 +157,69 @@ void main() {
       }
       fail('Should have thrown an [UnimplementedError]');
     });
+
+    test('throws if setReferenceCacheSettings()', () {
+      try {
+        firebaseStoragePlatform.setReferenceCacheSettings(10);
+      } on UnimplementedError catch (e) {
+        expect(e.message,
+            equals('setReferenceCacheSettings() is not implemented'));
+        return;
+      }
+      fail('Should have thrown an [UnimplementedError]');
+    });
+
+    test('throws if clearReferenceCache()', () {
+      try {
+        firebaseStoragePlatform.clearReferenceCache();
+      } on UnimplementedError catch (e) {
+        expect(e.message, equals('clearReferenceCache() is not implemented'));
+        return;
+      }
+      fail('Should have thrown an [UnimplementedError]');
+    });
+
+    test('throws if getReferenceCacheMetrics()', () {
+      try {
+        firebaseStoragePlatform.getReferenceCacheMetrics();
+      } on UnimplementedError catch (e) {
+        expect(e.message,
+            equals('getReferenceCacheMetrics() is not implemented'));
+        return;
+      }
+      fail('Should have thrown an [UnimplementedError]');
+    });
+
+    test('throws if startUploadQueue()', () {
+      try {
+        firebaseStoragePlatform.startUploadQueue(<UploadQueueItem>[]);
+      } on UnimplementedError catch (e) {
+        expect(e.message, equals('startUploadQueue() is not implemented'));
+        return;
+      }
+      fail('Should have thrown an [UnimplementedError]');
+    });
+
+    test('throws if resumeUploadQueue()', () {
+      try {
+        firebaseStoragePlatform.resumeUploadQueue('foo');
+      } on UnimplementedError catch (e) {
+        expect(e.message, equals('resumeUploadQueue() is not implemented'));
+        return;
+      }
+      fail('Should have thrown an [UnimplementedError]');
+    });
+
+    test('throws if getPersistedUploadQueues()', () {
+      try {
+        firebaseStoragePlatform.getPersistedUploadQueues();
+      } on UnimplementedError catch (e) {
+        expect(e.message,
+            equals('getPersistedUploadQueues() is not implemented'));
+        return;
+      }
+      fail('Should have thrown an [UnimplementedError]');
+    });
   });
 }
 